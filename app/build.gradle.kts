@@ -11,6 +11,7 @@ dependencies {
     implementation(project(":modules:infrastructure:persistence"))
     implementation(project(":modules:infrastructure:messaging"))
     implementation(project(":modules:infrastructure:connectors"))
+    implementation(project(":modules:infrastructure:cache"))
     implementation(project(":modules:infrastructure:observability"))
     implementation(project(":modules:workers"))
     implementation(project(":modules:eval"))
@@ -0,0 +1,20 @@
+-- Tenant-wide service topology: immutable versioned snapshots shared by all incident graphs
+
+CREATE TABLE service_topology_snapshots (
+    id                  UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id           VARCHAR(255) NOT NULL,
+    snapshot_version    BIGINT NOT NULL,
+    node_count          INT NOT NULL,
+    edge_count          INT NOT NULL,
+    nodes               JSONB NOT NULL DEFAULT '[]',
+    edges               JSONB NOT NULL DEFAULT '[]',
+    created_at          TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at          TIMESTAMP NOT NULL DEFAULT now(),
+    created_by          VARCHAR(255) NOT NULL DEFAULT 'system',
+    version             BIGINT NOT NULL DEFAULT 0,
+    UNIQUE (tenant_id, snapshot_version)
+);
+
+-- Incident edges may now point at topology nodes, which live outside correlation_nodes
+ALTER TABLE correlation_edges DROP CONSTRAINT IF EXISTS correlation_edges_source_node_id_fkey;
+ALTER TABLE correlation_edges DROP CONSTRAINT IF EXISTS correlation_edges_target_node_id_fkey;
@@ -0,0 +1,8 @@
+-- Keyset pagination and id-ordered export cursors over an incident's graph.
+-- (incident_id, id) also serves plain incident_id lookups, so it replaces those indexes.
+
+CREATE INDEX idx_correlation_nodes_incident_keyset ON correlation_nodes(incident_id, id);
+DROP INDEX IF EXISTS idx_correlation_nodes_incident_id;
+
+CREATE INDEX idx_correlation_edges_incident_keyset ON correlation_edges(incident_id, id);
+DROP INDEX IF EXISTS idx_correlation_edges_incident_id;
@@ -0,0 +1,5 @@
+-- Tool calls shed by a saturated bulkhead are logged with status REJECTED
+
+ALTER TABLE tool_execution_log DROP CONSTRAINT chk_tool_exec_status;
+ALTER TABLE tool_execution_log ADD CONSTRAINT chk_tool_exec_status
+    CHECK (status IN ('SUCCESS', 'FAILURE', 'TIMEOUT', 'RATE_LIMITED', 'REJECTED'));
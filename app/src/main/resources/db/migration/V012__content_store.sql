@@ -0,0 +1,43 @@
+-- Chunked, compressed content store for large tool outputs, deduplicated per tenant by hash
+
+CREATE TABLE content_blobs (
+    id                  UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id           VARCHAR(255) NOT NULL,
+    content_hash        VARCHAR(64) NOT NULL,
+    codec               VARCHAR(32) NOT NULL,
+    total_chars         BIGINT NOT NULL,
+    total_bytes         BIGINT NOT NULL,
+    stored_bytes        BIGINT NOT NULL,
+    chunk_count         INT NOT NULL,
+    created_at          TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at          TIMESTAMP NOT NULL DEFAULT now(),
+    created_by          VARCHAR(255) NOT NULL DEFAULT 'system',
+    version             BIGINT NOT NULL DEFAULT 0,
+    UNIQUE (tenant_id, content_hash)
+);
+
+CREATE TABLE content_chunks (
+    id                  UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id           VARCHAR(255) NOT NULL,
+    blob_id             UUID NOT NULL REFERENCES content_blobs(id) ON DELETE CASCADE,
+    chunk_index         INT NOT NULL,
+    char_offset         BIGINT NOT NULL,
+    char_length         INT NOT NULL,
+    raw_length          INT NOT NULL,
+    data                BYTEA NOT NULL,
+    created_at          TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at          TIMESTAMP NOT NULL DEFAULT now(),
+    created_by          VARCHAR(255) NOT NULL DEFAULT 'system',
+    version             BIGINT NOT NULL DEFAULT 0,
+    UNIQUE (blob_id, chunk_index)
+);
+
+-- Chunks are already compressed; keep Postgres from trying again
+ALTER TABLE content_chunks ALTER COLUMN data SET STORAGE EXTERNAL;
+
+-- Evidence and execution logs keep a short preview plus a reference to the stored body
+ALTER TABLE evidence ADD COLUMN content_ref VARCHAR(64);
+ALTER TABLE evidence ADD COLUMN content_length BIGINT;
+
+ALTER TABLE tool_execution_log ADD COLUMN response_ref VARCHAR(64);
+ALTER TABLE tool_execution_log ADD COLUMN response_length BIGINT;
@@ -0,0 +1,108 @@
+-- Tool execution history: daily range partitions on executed_at, plus per-minute and per-hour
+-- rollups so reliability dashboards never scan raw rows
+
+-- ── Partitioned tool_execution_log ──
+-- The partition key must be part of the primary key, so it becomes (id, executed_at).
+
+DROP INDEX idx_tool_exec_log_tenant;
+DROP INDEX idx_tool_exec_log_tool;
+DROP INDEX idx_tool_exec_log_incident;
+DROP INDEX idx_tool_exec_log_created_at;
+
+ALTER TABLE tool_execution_log RENAME TO tool_execution_log_old;
+ALTER INDEX tool_execution_log_pkey RENAME TO tool_execution_log_old_pkey;
+ALTER TABLE tool_execution_log_old DROP CONSTRAINT chk_tool_exec_status;
+
+CREATE TABLE tool_execution_log (
+    id               UUID          NOT NULL,
+    tenant_id        VARCHAR(100)  NOT NULL,
+    tool_name        VARCHAR(100)  NOT NULL,
+    incident_id      UUID          REFERENCES incidents(id),
+    status           VARCHAR(30)   NOT NULL,
+    request_payload  JSONB         DEFAULT '{}',
+    response_content TEXT,
+    response_ref     VARCHAR(64),
+    response_length  BIGINT,
+    error_message    TEXT,
+    duration_ms      BIGINT        NOT NULL DEFAULT 0,
+    retry_count      INTEGER       NOT NULL DEFAULT 0,
+    requested_by     VARCHAR(255)  NOT NULL DEFAULT 'system',
+    executed_at      TIMESTAMPTZ   NOT NULL DEFAULT NOW(),
+    created_by       VARCHAR(255)  NOT NULL DEFAULT 'system',
+    created_at       TIMESTAMPTZ   NOT NULL DEFAULT NOW(),
+    updated_at       TIMESTAMPTZ   NOT NULL DEFAULT NOW(),
+    version          BIGINT        NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (id, executed_at),
+    CONSTRAINT chk_tool_exec_status CHECK (status IN ('SUCCESS', 'FAILURE', 'TIMEOUT', 'RATE_LIMITED', 'REJECTED'))
+) PARTITION BY RANGE (executed_at);
+
+-- Catches rows outside the daily partitions (clock skew, backfills); should stay near empty
+CREATE TABLE tool_execution_log_default PARTITION OF tool_execution_log DEFAULT;
+
+-- Daily partitions (UTC) for the last 30 days of existing history through a week ahead.
+-- ToolRollupWorker keeps creating them ahead of time and drops expired ones.
+DO $$
+DECLARE
+    day DATE := GREATEST(
+        COALESCE((SELECT MIN(executed_at AT TIME ZONE 'UTC')::date FROM tool_execution_log_old), CURRENT_DATE),
+        CURRENT_DATE - 30);
+BEGIN
+    WHILE day <= CURRENT_DATE + 7 LOOP
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF tool_execution_log FOR VALUES FROM (%L) TO (%L)',
+            'tool_execution_log_p' || to_char(day, 'YYYYMMDD'),
+            day::timestamp AT TIME ZONE 'UTC',
+            (day + 1)::timestamp AT TIME ZONE 'UTC');
+        day := day + 1;
+    END LOOP;
+END $$;
+
+INSERT INTO tool_execution_log (id, tenant_id, tool_name, incident_id, status, request_payload,
+    response_content, response_ref, response_length, error_message, duration_ms, retry_count,
+    requested_by, executed_at, created_by, created_at, updated_at, version)
+SELECT id, tenant_id, tool_name, incident_id, status, request_payload,
+    response_content, response_ref, response_length, error_message, duration_ms, retry_count,
+    requested_by, executed_at, created_by, created_at, updated_at, version
+FROM tool_execution_log_old;
+
+DROP TABLE tool_execution_log_old;
+
+CREATE INDEX idx_tool_exec_log_tenant      ON tool_execution_log (tenant_id);
+CREATE INDEX idx_tool_exec_log_tool        ON tool_execution_log (tool_name, created_at DESC);
+CREATE INDEX idx_tool_exec_log_incident    ON tool_execution_log (incident_id, created_at DESC);
+CREATE INDEX idx_tool_exec_log_created_at  ON tool_execution_log (created_at DESC);
+CREATE INDEX idx_tool_exec_log_executed_at ON tool_execution_log (executed_at);
+
+-- ── Rollups ──
+-- One row per tenant, tool and minute (or hour). Status counts are additive; latency_sketch is a
+-- serialized LatencySketch whose buckets merge exactly across rows.
+
+CREATE TABLE tool_execution_rollups (
+    tenant_id           VARCHAR(100) NOT NULL,
+    tool_name           VARCHAR(100) NOT NULL,
+    granularity         VARCHAR(10)  NOT NULL,
+    bucket_start        TIMESTAMPTZ  NOT NULL,
+    success_count       BIGINT       NOT NULL DEFAULT 0,
+    failure_count       BIGINT       NOT NULL DEFAULT 0,
+    timeout_count       BIGINT       NOT NULL DEFAULT 0,
+    rate_limited_count  BIGINT       NOT NULL DEFAULT 0,
+    rejected_count      BIGINT       NOT NULL DEFAULT 0,
+    retry_sum           BIGINT       NOT NULL DEFAULT 0,
+    duration_sum_ms     BIGINT       NOT NULL DEFAULT 0,
+    duration_max_ms     BIGINT       NOT NULL DEFAULT 0,
+    latency_sketch      BYTEA        NOT NULL,
+    updated_at          TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+
+    PRIMARY KEY (tenant_id, tool_name, granularity, bucket_start),
+    CONSTRAINT chk_tool_rollup_granularity CHECK (granularity IN ('MINUTE', 'HOUR'))
+);
+
+CREATE INDEX idx_tool_rollups_bucket ON tool_execution_rollups (granularity, bucket_start);
+
+-- How far the rollup worker has aggregated; one row per rollup job
+CREATE TABLE rollup_watermarks (
+    name            VARCHAR(100) PRIMARY KEY,
+    watermark       TIMESTAMPTZ  NOT NULL,
+    updated_at      TIMESTAMPTZ  NOT NULL DEFAULT NOW()
+);
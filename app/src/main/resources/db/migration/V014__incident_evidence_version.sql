@@ -0,0 +1,3 @@
+-- Bumped on every evidence insert; triage reuses its in-memory evidence summary while it matches
+
+ALTER TABLE incidents ADD COLUMN evidence_version BIGINT NOT NULL DEFAULT 0;
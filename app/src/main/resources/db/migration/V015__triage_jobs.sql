@@ -0,0 +1,24 @@
+-- Asynchronous triage jobs: a row per request, so job status can be polled from any replica
+
+CREATE TABLE triage_jobs (
+    id                  UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    tenant_id           VARCHAR(255) NOT NULL,
+    incident_id         UUID NOT NULL REFERENCES incidents(id),
+    severity            VARCHAR(10) NOT NULL,
+    status              VARCHAR(20) NOT NULL,
+    result              JSONB,
+    error               TEXT,
+    enqueued_at         TIMESTAMPTZ NOT NULL,
+    started_at          TIMESTAMPTZ,
+    finished_at         TIMESTAMPTZ,
+    created_at          TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at          TIMESTAMPTZ NOT NULL DEFAULT now(),
+    created_by          VARCHAR(255) NOT NULL DEFAULT 'system',
+    version             BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT chk_triage_job_status CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED')),
+    CONSTRAINT chk_triage_job_severity CHECK (severity IN ('SEV1', 'SEV2', 'SEV3', 'SEV4'))
+);
+
+CREATE INDEX idx_triage_jobs_incident ON triage_jobs (incident_id, enqueued_at DESC);
+-- The abandoned-job sweep only looks at unfinished jobs
+CREATE INDEX idx_triage_jobs_unfinished ON triage_jobs (enqueued_at) WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,4 @@
+-- SimHash fingerprint of each evidence item's title and content, taken at insert; triage collapses
+-- items whose fingerprints nearly match. Older rows stay null and are fingerprinted when read.
+
+ALTER TABLE evidence ADD COLUMN content_simhash BIGINT;
@@ -0,0 +1,14 @@
+-- One TIME_CORRELATION edge per incident and ordered node pair; repeated emissions update it.
+
+DELETE FROM correlation_edges e
+USING correlation_edges newer
+WHERE e.edge_type = 'TIME_CORRELATION'
+  AND newer.edge_type = 'TIME_CORRELATION'
+  AND e.incident_id = newer.incident_id
+  AND e.source_node_id = newer.source_node_id
+  AND e.target_node_id = newer.target_node_id
+  AND (e.updated_at, e.id) < (newer.updated_at, newer.id);
+
+CREATE UNIQUE INDEX uq_correlation_edges_time_correlation
+    ON correlation_edges (incident_id, source_node_id, target_node_id)
+    WHERE edge_type = 'TIME_CORRELATION';
@@ -0,0 +1,5 @@
+-- Responses reused from an earlier execution are logged with status CACHED
+
+ALTER TABLE tool_execution_log DROP CONSTRAINT chk_tool_exec_status;
+ALTER TABLE tool_execution_log ADD CONSTRAINT chk_tool_exec_status
+    CHECK (status IN ('SUCCESS', 'FAILURE', 'TIMEOUT', 'RATE_LIMITED', 'REJECTED', 'CACHED'));
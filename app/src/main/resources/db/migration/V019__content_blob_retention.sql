@@ -0,0 +1,11 @@
+-- Content blob garbage collection: blobs remember when they were last referenced, and the tool
+-- history retention sweep deletes those nothing has pointed to within the raw retention window
+
+-- Existing blobs start a full retention window from now
+ALTER TABLE content_blobs ADD COLUMN last_referenced_at TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE INDEX idx_content_blobs_last_referenced ON content_blobs (last_referenced_at);
+
+-- The sweep checks every candidate against the rows that can still reference it
+CREATE INDEX idx_evidence_content_ref ON evidence (content_ref) WHERE content_ref IS NOT NULL;
+CREATE INDEX idx_tool_exec_log_response_ref ON tool_execution_log (response_ref) WHERE response_ref IS NOT NULL;
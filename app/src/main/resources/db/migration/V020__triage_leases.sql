@@ -0,0 +1,8 @@
+-- Triage runs of the same incident and evidence serialize on a lease row instead of a
+-- transaction-scoped advisory lock, so no connection is held while the model generates
+
+CREATE TABLE triage_leases (
+    lock_key    BIGINT PRIMARY KEY,
+    holder      UUID NOT NULL,
+    expires_at  TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Abandoned triage jobs are found by a heartbeat from the replica holding them, not by age,
+-- so jobs still waiting in a live replica's queue are not failed
+
+ALTER TABLE triage_jobs ADD COLUMN heartbeat_at TIMESTAMPTZ;
+UPDATE triage_jobs SET heartbeat_at = COALESCE(started_at, enqueued_at);
+ALTER TABLE triage_jobs ALTER COLUMN heartbeat_at SET NOT NULL;
+
+DROP INDEX idx_triage_jobs_unfinished;
+CREATE INDEX idx_triage_jobs_unfinished ON triage_jobs (heartbeat_at) WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,47 @@
+-- One log template node per incident, source and template; replicas add their line counts to it.
+-- Templates can be long, so the key holds their hash.
+
+CREATE TEMPORARY TABLE log_template_duplicates ON COMMIT DROP AS
+SELECT id, keep_id, max_count
+FROM (
+    SELECT id,
+           first_value(id) OVER keys AS keep_id,
+           MAX(CAST(metadata->>'count' AS bigint)) OVER (
+               PARTITION BY incident_id, source, md5(metadata->>'template')) AS max_count
+    FROM correlation_nodes
+    WHERE node_type = 'LOG_CLUSTER' AND metadata->>'template' IS NOT NULL
+    WINDOW keys AS (PARTITION BY incident_id, source, md5(metadata->>'template') ORDER BY created_at, id)
+) ranked
+WHERE id <> keep_id;
+
+-- Replicas wrote their own absolute counts, so duplicates overlap: keep the largest on the oldest node
+UPDATE correlation_nodes n
+SET metadata = jsonb_set(n.metadata, '{count}', to_jsonb(d.max_count))
+FROM (SELECT DISTINCT keep_id, max_count FROM log_template_duplicates) d
+WHERE n.id = d.keep_id;
+
+-- Edges of a duplicate move to the kept node, unless they would become a self-loop or a second
+-- TIME_CORRELATION edge for a pair; those are deleted with the duplicate
+UPDATE correlation_edges e
+SET source_node_id = COALESCE(s.keep_id, e.source_node_id),
+    target_node_id = COALESCE(t.keep_id, e.target_node_id),
+    updated_at = now(), version = e.version + 1
+FROM correlation_edges self
+LEFT JOIN log_template_duplicates s ON s.id = self.source_node_id
+LEFT JOIN log_template_duplicates t ON t.id = self.target_node_id
+WHERE self.id = e.id
+  AND (s.id IS NOT NULL OR t.id IS NOT NULL)
+  AND COALESCE(s.keep_id, e.source_node_id) <> COALESCE(t.keep_id, e.target_node_id)
+  AND e.edge_type <> 'TIME_CORRELATION';
+
+DELETE FROM correlation_edges e
+USING log_template_duplicates d
+WHERE e.source_node_id = d.id OR e.target_node_id = d.id;
+
+DELETE FROM correlation_nodes n
+USING log_template_duplicates d
+WHERE n.id = d.id;
+
+CREATE UNIQUE INDEX uq_correlation_nodes_log_template
+    ON correlation_nodes (incident_id, source, md5(metadata->>'template'))
+    WHERE node_type = 'LOG_CLUSTER';
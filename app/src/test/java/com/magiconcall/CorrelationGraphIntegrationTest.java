@@ -2,6 +2,7 @@ package com.magiconcall;
 
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +11,9 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 
@@ -219,8 +223,48 @@ class CorrelationGraphIntegrationTest {
             .body("$", hasSize(0));
     }
 
+    @Test
+    @DisplayName("publishing a topology without a service deletes incident edges to it")
+    void publishTopology_deletesEdgesToDroppedServices() {
+        var topology = publishTopology("graph-topology-api", "graph-topology-db");
+        String apiNodeId = topology.getString("nodes.find { it.label == 'graph-topology-api' }.id");
+        String dbNodeId = topology.getString("nodes.find { it.label == 'graph-topology-db' }.id");
+        String incidentId = createIncident("graph-topology-001");
+        String deployNodeId = addNode(incidentId, "DEPLOY", "Deploy v3.1");
+        addEdge(incidentId, deployNodeId, apiNodeId, "CAUSAL_HINT", 0.8);
+        addEdge(incidentId, deployNodeId, dbNodeId, "CAUSAL_HINT", 0.6);
+
+        publishTopology("graph-topology-api");
+
+        given()
+            .header("X-Api-Key", API_KEY)
+            .header("X-Customer-Id", TENANT)
+        .when()
+            .get("/api/v1/incidents/{id}/graph", incidentId)
+        .then()
+            .statusCode(200)
+            .body("edges", hasSize(1))
+            .body("edges[0].targetNodeId", equalTo(apiNodeId));
+    }
+
     // ── Helpers ─────────────────────────────────────────
 
+    private JsonPath publishTopology(String... services) {
+        var body = Arrays.stream(services)
+            .map("{\"name\": \"%s\"}"::formatted)
+            .collect(Collectors.joining(", ", "{\"services\": [", "]}"));
+        return given()
+            .contentType(ContentType.JSON)
+            .header("X-Api-Key", API_KEY)
+            .header("X-Customer-Id", TENANT)
+            .body(body)
+        .when()
+            .put("/api/v1/topology")
+        .then()
+            .statusCode(200)
+            .extract().jsonPath();
+    }
+
     private String createIncident(String externalId) {
         return given()
             .contentType(ContentType.JSON)
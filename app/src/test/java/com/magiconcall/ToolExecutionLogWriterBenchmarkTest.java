@@ -0,0 +1,108 @@
+package com.magiconcall;
+
+import com.magiconcall.domain.tool.ToolExecutionLog;
+import com.magiconcall.domain.tool.ToolExecutionLogRepository;
+import com.magiconcall.domain.tool.ToolExecutionStatus;
+import com.magiconcall.infrastructure.persistence.tool.JpaToolExecutionLogRepository;
+import com.magiconcall.infrastructure.persistence.tool.WriteBehindToolExecutionLogRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Per-row JPA saves versus the write-behind batch writer, with 16 concurrent writers of tool
+ * execution logs against a real Postgres. Excluded from the default test task; run with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Import(TestcontainersConfig.class)
+@ActiveProfiles("test")
+class ToolExecutionLogWriterBenchmarkTest {
+
+    private static final int WRITERS = 16;
+    private static final int ROWS_PER_WRITER = 1_000;
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private JpaToolExecutionLogRepository jpaRepository;
+
+    @Test
+    @DisplayName("write-behind batching outpaces per-row saves")
+    void writeBehindOutpacesPerRowSaves() throws Exception {
+        // Warm up both paths (JIT, connection pool, statement cache)
+        run(jpaRepository, "warmup-jpa", 100);
+        var warmupWriter = writer();
+        run(warmupWriter, "warmup-batch", 100);
+        warmupWriter.stop();
+
+        long perRowNanos = run(jpaRepository, "bench-jpa", ROWS_PER_WRITER);
+
+        var writer = writer();
+        long start = System.nanoTime();
+        run(writer, "bench-batch", ROWS_PER_WRITER);
+        writer.stop();   // drains the queue: every row is in the table when this returns
+        long batchedNanos = System.nanoTime() - start;
+
+        int rows = WRITERS * ROWS_PER_WRITER;
+        System.out.printf("Tool log writes: %,d rows, per-row %,.0f rows/s, write-behind %,.0f rows/s%n",
+            rows, rows / (perRowNanos / 1e9), rows / (batchedNanos / 1e9));
+
+        assertThat(count("bench-jpa")).isEqualTo(rows);
+        assertThat(count("bench-batch")).isEqualTo(rows);
+        assertThat(batchedNanos).isLessThan(perRowNanos);
+    }
+
+    private WriteBehindToolExecutionLogRepository writer() {
+        var writer = new WriteBehindToolExecutionLogRepository(jdbcTemplate, jpaRepository,
+            Duration.ofMillis(20), 500, 50_000);
+        writer.start();
+        return writer;
+    }
+
+    /** Saves {@code rowsPerWriter} rows from each of {@link #WRITERS} threads; returns elapsed nanos. */
+    private static long run(ToolExecutionLogRepository repository, String requestedBy, int rowsPerWriter)
+            throws Exception {
+        long start = System.nanoTime();
+        try (var pool = Executors.newFixedThreadPool(WRITERS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(pool.submit((Callable<Void>) () -> {
+                    for (int i = 0; i < rowsPerWriter; i++) {
+                        repository.save(row(requestedBy));
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) future.get();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static ToolExecutionLog row(String requestedBy) {
+        var row = new ToolExecutionLog("logs", null, ToolExecutionStatus.SUCCESS,
+            "{\"service\":\"api-gateway\"}", "GET /health 200 in 3ms", null,
+            12, 0, requestedBy, Instant.now());
+        row.setTenantId("tenant-bench");
+        return row;
+    }
+
+    private int count(String requestedBy) {
+        return jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM tool_execution_log WHERE requested_by = ?", Integer.class, requestedBy);
+    }
+}
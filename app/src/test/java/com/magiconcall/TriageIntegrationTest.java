@@ -2,6 +2,7 @@ package com.magiconcall;
 
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,7 +11,11 @@ import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -40,53 +45,113 @@ class TriageIntegrationTest {
         addEvidence(incidentId, "METRIC", "CPU usage spike",
             "CPU at 95% for the last 10 minutes");
 
-        // Trigger triage
-        given()
+        // Trigger triage: accepted as a job
+        String jobId = given()
             .contentType(ContentType.JSON)
             .header("X-Api-Key", API_KEY)
             .header("X-Customer-Id", TENANT)
         .when()
             .post("/api/v1/incidents/{id}/triage", incidentId)
         .then()
-            .statusCode(200)
+            .statusCode(202)
+            .header("Location", containsString("/api/v1/incidents/" + incidentId + "/triage/jobs/"))
             .body("incidentId", equalTo(incidentId))
-            .body("hypotheses.size()", greaterThan(0))
-            .body("hypotheses[0].source", equalTo("AI"))
-            .body("hypotheses[0].evidenceFor", notNullValue())
-            .body("hypotheses[0].nextBestTest", notNullValue())
-            .body("evidenceHash", notNullValue())
-            .body("cached", equalTo(false));
+            .body("severity", equalTo("SEV2"))
+            .body("status", equalTo("QUEUED"))
+            .extract().jsonPath().getString("jobId");
+
+        awaitTriageJob(incidentId, jobId)
+            .body("status", equalTo("SUCCEEDED"))
+            .body("result.incidentId", equalTo(incidentId))
+            .body("result.hypotheses.size()", greaterThan(0))
+            .body("result.hypotheses[0].source", equalTo("AI"))
+            .body("result.hypotheses[0].evidenceFor", notNullValue())
+            .body("result.hypotheses[0].nextBestTest", notNullValue())
+            .body("result.evidenceHash", notNullValue())
+            .body("result.cached", equalTo(false));
     }
 
     @Test
-    @DisplayName("POST /api/v1/incidents/{id}/triage — second call returns cached result")
+    @DisplayName("POST /api/v1/incidents/{id}/triage — second job returns cached result")
     void triageCacheHit() {
         String incidentId = createTestIncident("triage-cache-001");
 
         addEvidence(incidentId, "LOG", "Error log", "Some error content");
 
         // First triage
-        given()
-            .contentType(ContentType.JSON)
+        awaitTriageJob(incidentId, submitTriage(incidentId))
+            .body("status", equalTo("SUCCEEDED"))
+            .body("result.cached", equalTo(false));
+
+        // Second triage with same evidence → cache hit
+        awaitTriageJob(incidentId, submitTriage(incidentId))
+            .body("status", equalTo("SUCCEEDED"))
+            .body("result.cached", equalTo(true))
+            .body("result.tokensUsed", equalTo(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/incidents/{id}/triage/jobs/{jobId}/stream — streams status changes until done")
+    void triageJobStreamsStatus() {
+        String incidentId = createTestIncident("triage-job-stream-001");
+
+        addEvidence(incidentId, "LOG", "Connection timeout stacktrace",
+            "java.sql.SQLTransientConnectionException");
+        String jobId = submitTriage(incidentId);
+
+        String body = given()
             .header("X-Api-Key", API_KEY)
             .header("X-Customer-Id", TENANT)
+            .accept("text/event-stream")
         .when()
-            .post("/api/v1/incidents/{id}/triage", incidentId)
+            .get("/api/v1/incidents/{id}/triage/jobs/{jobId}/stream", incidentId, jobId)
         .then()
             .statusCode(200)
-            .body("cached", equalTo(false));
+            .contentType(startsWith("text/event-stream"))
+            .extract().asString();
+
+        assertThat(body).contains("event:status").contains("\"status\":\"SUCCEEDED\"")
+            .doesNotContain("event:error");
+        assertThat(body.lastIndexOf("\"status\":\"SUCCEEDED\"")).isGreaterThan(body.lastIndexOf("event:status"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/incidents/{id}/triage/jobs/{jobId} — 404 for unknown job")
+    void triageJobNotFound() {
+        String incidentId = createTestIncident("triage-job-404");
 
-        // Second triage with same evidence → cache hit
         given()
-            .contentType(ContentType.JSON)
             .header("X-Api-Key", API_KEY)
             .header("X-Customer-Id", TENANT)
         .when()
-            .post("/api/v1/incidents/{id}/triage", incidentId)
+            .get("/api/v1/incidents/{id}/triage/jobs/{jobId}", incidentId, "00000000-0000-0000-0000-000000000000")
+        .then()
+            .statusCode(404)
+            .body("error", equalTo("TRIAGE_JOB_NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/incidents/{id}/triage/stream — streams each hypothesis, then the result")
+    void triageStreamsHypotheses() {
+        String incidentId = createTestIncident("triage-stream-001");
+
+        addEvidence(incidentId, "LOG", "Connection timeout stacktrace",
+            "java.sql.SQLTransientConnectionException");
+
+        String body = given()
+            .header("X-Api-Key", API_KEY)
+            .header("X-Customer-Id", TENANT)
+            .accept("text/event-stream")
+        .when()
+            .post("/api/v1/incidents/{id}/triage/stream", incidentId)
         .then()
             .statusCode(200)
-            .body("cached", equalTo(true))
-            .body("tokensUsed", equalTo(0));
+            .contentType(startsWith("text/event-stream"))
+            .extract().asString();
+
+        assertThat(body.split("event:hypothesis", -1)).hasSize(4);
+        assertThat(body.indexOf("event:complete")).isGreaterThan(body.lastIndexOf("event:hypothesis"));
+        assertThat(body).contains("\"cached\":false").contains("event:status").doesNotContain("event:error");
     }
 
     @Test
@@ -175,6 +240,36 @@ class TriageIntegrationTest {
             .extract().jsonPath().getString("id");
     }
 
+    private String submitTriage(String incidentId) {
+        return given()
+            .contentType(ContentType.JSON)
+            .header("X-Api-Key", API_KEY)
+            .header("X-Customer-Id", TENANT)
+        .when()
+            .post("/api/v1/incidents/{id}/triage", incidentId)
+        .then()
+            .statusCode(202)
+            .extract().jsonPath().getString("jobId");
+    }
+
+    /** Polls the job until it has succeeded or failed, and returns the final response. */
+    private ValidatableResponse awaitTriageJob(String incidentId, String jobId) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            var response = given()
+                .header("X-Api-Key", API_KEY)
+                .header("X-Customer-Id", TENANT)
+            .when()
+                .get("/api/v1/incidents/{id}/triage/jobs/{jobId}", incidentId, jobId)
+            .then()
+                .statusCode(200);
+            String status = response.extract().jsonPath().getString("status");
+            if (status.equals("SUCCEEDED") || status.equals("FAILED")) return response;
+            assertThat(System.nanoTime()).as("triage job %s still %s", jobId, status).isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
     private void addEvidence(String incidentId, String type, String title, String content) {
         given()
             .contentType(ContentType.JSON)
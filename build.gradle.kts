@@ -26,7 +26,6 @@ subprojects {
     }
 
     tasks.withType<Test> {
-        useJUnitPlatform()
         jvmArgs(
             "--add-opens", "java.base/java.lang=ALL-UNNAMED",
             "--add-opens", "java.base/java.lang.reflect=ALL-UNNAMED",
@@ -34,6 +33,28 @@ subprojects {
         )
     }
 
+    tasks.named<Test>("test") {
+        useJUnitPlatform {
+            excludeTags("benchmark")
+        }
+    }
+
+    // Throughput benchmarks (@Tag("benchmark")) run only on demand: ./gradlew benchmark
+    val testSourceSet = the<SourceSetContainer>()["test"]
+    tasks.register<Test>("benchmark") {
+        description = "Runs tests tagged 'benchmark'."
+        group = "verification"
+        testClassesDirs = testSourceSet.output.classesDirs
+        classpath = testSourceSet.runtimeClasspath
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
+        testLogging {
+            showStandardStreams = true
+        }
+        outputs.upToDateWhen { false }
+    }
+
     dependencies {
         "testImplementation"("org.junit.jupiter:junit-jupiter:5.10.3")
         "testImplementation"("org.assertj:assertj-core:3.26.3")
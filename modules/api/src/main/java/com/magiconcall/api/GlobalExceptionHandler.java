@@ -2,10 +2,13 @@ package com.magiconcall.api;
 
 import com.magiconcall.application.action.ActionService;
 import com.magiconcall.application.alert.AlertService;
+import com.magiconcall.application.content.ContentStore;
 import com.magiconcall.application.graph.CorrelationGraphService;
 import com.magiconcall.application.incident.IncidentService;
 import com.magiconcall.application.tool.ToolRegistry;
+import com.magiconcall.application.triage.LlmRateLimitExceededException;
 import com.magiconcall.application.triage.TokenBudgetExceededException;
+import com.magiconcall.application.triage.TriageJobService;
 import com.magiconcall.domain.incident.Action;
 import com.magiconcall.domain.incident.IncidentStatus;
 import org.slf4j.Logger;
@@ -72,12 +75,38 @@ public class GlobalExceptionHandler {
             .body(errorBody("INVALID_ACTION_TRANSITION", ex.getMessage()));
     }
 
+    @ExceptionHandler(ContentStore.ContentNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleContentNotFound(ContentStore.ContentNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(errorBody("CONTENT_NOT_FOUND", ex.getMessage()));
+    }
+
     @ExceptionHandler(TokenBudgetExceededException.class)
     public ResponseEntity<Map<String, Object>> handleTokenBudgetExceeded(TokenBudgetExceededException ex) {
         return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
             .body(errorBody("TOKEN_BUDGET_EXCEEDED", ex.getMessage()));
     }
 
+    @ExceptionHandler(LlmRateLimitExceededException.class)
+    public ResponseEntity<Map<String, Object>> handleLlmRateLimitExceeded(LlmRateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header("Retry-After", String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+            .body(errorBody("LLM_RATE_LIMITED", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TriageJobService.JobNotFoundException.class)
+    public ResponseEntity<Map<String, Object>> handleTriageJobNotFound(TriageJobService.JobNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+            .body(errorBody("TRIAGE_JOB_NOT_FOUND", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TriageJobService.QueueFullException.class)
+    public ResponseEntity<Map<String, Object>> handleTriageQueueFull(TriageJobService.QueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header("Retry-After", "30")
+            .body(errorBody("TRIAGE_QUEUE_FULL", ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex) {
         var errors = ex.getBindingResult().getFieldErrors().stream()
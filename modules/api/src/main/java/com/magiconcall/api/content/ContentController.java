@@ -0,0 +1,25 @@
+package com.magiconcall.api.content;
+
+import com.magiconcall.application.content.ContentStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/** Ranged reads of large tool outputs referenced by evidence and tool execution logs. */
+@RestController
+@RequestMapping("/api/v1/content")
+public class ContentController {
+
+    private final ContentStore contentStore;
+
+    public ContentController(ContentStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
+    @GetMapping("/{contentRef}")
+    public ResponseEntity<ContentPageResponse> read(
+            @PathVariable String contentRef,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "65536") int length) {
+        return ResponseEntity.ok(ContentPageResponse.from(contentStore.read(contentRef, offset, length)));
+    }
+}
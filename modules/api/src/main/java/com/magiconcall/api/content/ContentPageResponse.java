@@ -0,0 +1,19 @@
+package com.magiconcall.api.content;
+
+import com.magiconcall.application.content.ContentPage;
+
+public record ContentPageResponse(
+    String contentRef,
+    long offset,
+    int length,
+    long totalLength,
+    Long nextOffset,
+    String content
+) {
+    public static ContentPageResponse from(ContentPage page) {
+        return new ContentPageResponse(
+            page.contentRef(), page.offset(), page.content().length(),
+            page.totalLength(), page.nextOffset(), page.content()
+        );
+    }
+}
@@ -2,12 +2,19 @@ package com.magiconcall.api.graph;
 
 import com.magiconcall.application.graph.AddEdgeCommand;
 import com.magiconcall.application.graph.AddNodeCommand;
+import com.magiconcall.application.graph.CorrelationGraphExporter;
 import com.magiconcall.application.graph.CorrelationGraphService;
+import com.magiconcall.application.graph.GraphExportFormat;
+import com.magiconcall.domain.tenant.TenantContext;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -15,9 +22,12 @@ import java.util.UUID;
 public class CorrelationGraphController {
 
     private final CorrelationGraphService graphService;
+    private final CorrelationGraphExporter graphExporter;
 
-    public CorrelationGraphController(CorrelationGraphService graphService) {
+    public CorrelationGraphController(CorrelationGraphService graphService,
+                                      CorrelationGraphExporter graphExporter) {
         this.graphService = graphService;
+        this.graphExporter = graphExporter;
     }
 
     @GetMapping
@@ -26,6 +36,53 @@ public class CorrelationGraphController {
         return ResponseEntity.ok(CorrelationGraphResponse.from(result));
     }
 
+    @GetMapping("/nodes")
+    public ResponseEntity<GraphPageResponse<GraphNodeResponse>> listNodes(
+            @PathVariable UUID incidentId,
+            @RequestParam(name = "type", required = false) List<String> types,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "200") int limit) {
+        var page = graphService.findNodes(incidentId, types, after, limit);
+        return ResponseEntity.ok(GraphPageResponse.from(page, GraphNodeResponse::from));
+    }
+
+    @GetMapping("/edges")
+    public ResponseEntity<GraphPageResponse<GraphEdgeResponse>> listEdges(
+            @PathVariable UUID incidentId,
+            @RequestParam(name = "type", required = false) List<String> types,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "200") int limit) {
+        var page = graphService.findEdges(incidentId, types, after, limit);
+        return ResponseEntity.ok(GraphPageResponse.from(page, GraphEdgeResponse::from));
+    }
+
+    /**
+     * Streams the whole graph as NDJSON or GraphML straight from database cursors; the response
+     * is written on an async thread, so the tenant is carried over explicitly.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportGraph(
+            @PathVariable UUID incidentId,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        var exportFormat = GraphExportFormat.valueOf(format.toUpperCase());
+        graphExporter.requireIncident(incidentId);
+        String tenantId = TenantContext.requireTenantId();
+
+        StreamingResponseBody body = out -> {
+            TenantContext.setTenantId(tenantId);
+            try {
+                graphExporter.export(incidentId, exportFormat, out);
+            } finally {
+                TenantContext.clear();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"incident-%s.%s\"".formatted(incidentId, exportFormat.fileExtension()))
+            .body(body);
+    }
+
     @PostMapping("/nodes")
     public ResponseEntity<GraphNodeResponse> addNode(
             @PathVariable UUID incidentId,
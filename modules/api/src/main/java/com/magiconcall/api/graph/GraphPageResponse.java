@@ -0,0 +1,16 @@
+package com.magiconcall.api.graph;
+
+import com.magiconcall.application.graph.GraphPage;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+public record GraphPageResponse<T>(
+    List<T> items,
+    UUID nextCursor
+) {
+    public static <R, T> GraphPageResponse<T> from(GraphPage<R> page, Function<R, T> mapper) {
+        return new GraphPageResponse<>(page.items().stream().map(mapper).toList(), page.nextCursor());
+    }
+}
@@ -0,0 +1,31 @@
+package com.magiconcall.api.graph;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+public record PublishTopologyRequest(
+    @NotEmpty List<@Valid ServiceRequest> services,
+    List<@Valid DependencyRequest> dependencies
+) {
+    public record ServiceRequest(
+        @NotBlank String name,
+        String nodeType,
+        String description
+    ) {}
+
+    /** {@code weight} defaults to 1.0 (a hard dependency) when omitted. */
+    public record DependencyRequest(
+        @NotBlank String upstream,
+        @NotBlank String downstream,
+        @Positive @DecimalMax("1.0") Double weight
+    ) {
+        public double weightOrDefault() {
+            return weight != null ? weight : 1.0;
+        }
+    }
+}
@@ -1,31 +1,83 @@
 package com.magiconcall.api.graph;
 
 import com.magiconcall.application.graph.CorrelationGraphService;
+import com.magiconcall.application.graph.RootCausePath;
+import com.magiconcall.application.graph.RootCauseRankingPublisher;
+import com.magiconcall.application.graph.RootCauseRankingUpdate;
+import com.magiconcall.application.graph.RootCauseScorer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/v1/incidents/{incidentId}")
 public class RootCauseController {
 
+    private static final long STREAM_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+    // Rankings a stream may fall behind by before it is completed
+    private static final int STREAM_PENDING_RANKINGS = 16;
+
     private final CorrelationGraphService graphService;
+    private final RootCauseRankingPublisher rankingPublisher;
 
-    public RootCauseController(CorrelationGraphService graphService) {
+    public RootCauseController(CorrelationGraphService graphService,
+                               RootCauseRankingPublisher rankingPublisher) {
         this.graphService = graphService;
+        this.rankingPublisher = rankingPublisher;
     }
 
+    /**
+     * {@code scorer=paths} (default) ranks enumerated causal paths; {@code scorer=pagerank} ranks
+     * root-cause nodes by personalized PageRank from the symptoms, as single-node paths.
+     */
     @GetMapping("/root-cause-paths")
     public ResponseEntity<List<RootCausePathResponse>> findRootCausePaths(
             @PathVariable UUID incidentId,
-            @RequestParam(defaultValue = "3") int maxPaths) {
-        var paths = graphService.findRootCausePaths(incidentId, maxPaths)
+            @RequestParam(defaultValue = "3") int maxPaths,
+            @RequestParam(defaultValue = "paths") String scorer) {
+        var paths = graphService.findRootCausePaths(incidentId, maxPaths,
+                RootCauseScorer.valueOf(scorer.toUpperCase()))
             .stream().map(RootCausePathResponse::from).toList();
         return ResponseEntity.ok(paths);
     }
 
+    /**
+     * Streams the current top paths as a {@code ranking} event, then a new event every time a
+     * committed node or edge changes the ranking. A client that falls
+     * {@value #STREAM_PENDING_RANKINGS} rankings behind is completed and can reconnect.
+     */
+    @GetMapping(value = "/root-cause-paths/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRootCausePaths(
+            @PathVariable UUID incidentId,
+            @RequestParam(defaultValue = "3") int maxPaths) {
+        var initial = graphService.findRootCausePaths(incidentId, maxPaths);
+
+        var emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        var stream = new RankingStream(emitter, maxPaths);
+        stream.pending.add(initial);
+        var subscription = rankingPublisher.subscribe(incidentId, stream);
+        var sender = Thread.ofVirtual().name("root-cause-stream-" + incidentId).start(() -> {
+            try {
+                stream.run();
+            } finally {
+                subscription.close();
+            }
+        });
+        emitter.onCompletion(sender::interrupt);
+        emitter.onTimeout(sender::interrupt);
+        emitter.onError(e -> sender.interrupt());
+        return emitter;
+    }
+
     @GetMapping("/blast-radius/{nodeId}")
     public ResponseEntity<BlastRadiusResponse> computeBlastRadius(
             @PathVariable UUID incidentId,
@@ -33,4 +85,56 @@ public class RootCauseController {
         var result = graphService.computeBlastRadius(incidentId, nodeId);
         return ResponseEntity.ok(BlastRadiusResponse.from(result));
     }
+
+    /**
+     * One client's rankings. The publisher calls {@link #accept} on the thread that committed the
+     * change, so it only enqueues; {@link #run} sends from the stream's own thread. When the
+     * queue is full the client is too slow: further rankings are dropped and the sender completes
+     * the stream once its current send returns.
+     */
+    private static final class RankingStream implements Consumer<RootCauseRankingUpdate> {
+
+        private final SseEmitter emitter;
+        private final int maxPaths;
+        private final BlockingQueue<List<RootCausePath>> pending = new ArrayBlockingQueue<>(STREAM_PENDING_RANKINGS);
+        private volatile boolean overflowed;
+
+        RankingStream(SseEmitter emitter, int maxPaths) {
+            this.emitter = emitter;
+            this.maxPaths = maxPaths;
+        }
+
+        @Override
+        public void accept(RootCauseRankingUpdate update) {
+            if (!overflowed && !pending.offer(update.topPaths())) {
+                overflowed = true;
+            }
+        }
+
+        void run() {
+            try {
+                while (!overflowed) {
+                    var paths = pending.take();
+                    if (!send(emitter, paths.stream().limit(maxPaths).map(RootCausePathResponse::from).toList())) {
+                        return;
+                    }
+                }
+                emitter.complete();
+            } catch (InterruptedException e) {
+                // The emitter completed, timed out or failed
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Returns false once the client has gone. */
+    private static boolean send(SseEmitter emitter, List<RootCausePathResponse> paths) {
+        try {
+            emitter.send(SseEmitter.event().name("ranking").data(paths));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.magiconcall.api.graph;
+
+import com.magiconcall.application.graph.PublishTopologyCommand;
+import com.magiconcall.application.graph.ServiceTopologyService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/topology")
+public class TopologyController {
+
+    private final ServiceTopologyService topologyService;
+
+    public TopologyController(ServiceTopologyService topologyService) {
+        this.topologyService = topologyService;
+    }
+
+    @GetMapping
+    public ResponseEntity<TopologyResponse> getTopology() {
+        return ResponseEntity.ok(TopologyResponse.from(topologyService.getCurrent()));
+    }
+
+    @PutMapping
+    public ResponseEntity<TopologyResponse> publishTopology(@Valid @RequestBody PublishTopologyRequest request) {
+        var command = new PublishTopologyCommand(
+            request.services().stream()
+                .map(s -> new PublishTopologyCommand.Service(s.name(), s.nodeType(), s.description()))
+                .toList(),
+            request.dependencies() == null ? List.of() : request.dependencies().stream()
+                .map(d -> new PublishTopologyCommand.Dependency(d.upstream(), d.downstream(), d.weightOrDefault()))
+                .toList()
+        );
+        return ResponseEntity.ok(TopologyResponse.from(topologyService.publish(command)));
+    }
+}
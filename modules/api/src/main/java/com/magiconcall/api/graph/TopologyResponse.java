@@ -0,0 +1,21 @@
+package com.magiconcall.api.graph;
+
+import com.magiconcall.application.graph.TopologyResult;
+
+import java.time.Instant;
+import java.util.List;
+
+public record TopologyResponse(
+    long version,
+    Instant publishedAt,
+    List<GraphNodeResponse> nodes,
+    List<GraphEdgeResponse> edges
+) {
+    public static TopologyResponse from(TopologyResult result) {
+        return new TopologyResponse(
+            result.version(), result.publishedAt(),
+            result.nodes().stream().map(GraphNodeResponse::from).toList(),
+            result.edges().stream().map(GraphEdgeResponse::from).toList()
+        );
+    }
+}
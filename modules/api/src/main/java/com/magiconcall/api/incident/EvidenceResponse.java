@@ -13,12 +13,14 @@ public record EvidenceResponse(
     String title,
     String content,
     String sourceUrl,
+    String contentRef,
+    Long contentLength,
     Instant createdAt
 ) {
     public static EvidenceResponse from(EvidenceResult r) {
         return new EvidenceResponse(
             r.id(), r.incidentId(), r.hypothesisId(), r.evidenceType(),
-            r.title(), r.content(), r.sourceUrl(), r.createdAt()
+            r.title(), r.content(), r.sourceUrl(), r.contentRef(), r.contentLength(), r.createdAt()
         );
     }
 }
@@ -0,0 +1,13 @@
+package com.magiconcall.api.incident;
+
+import com.magiconcall.application.triage.StreamedHypothesis;
+
+/** A {@code hypothesis} event of a triage stream; provisional until the {@code complete} event. */
+public record HypothesisEventResponse(
+    boolean provisional,
+    HypothesisResponse hypothesis
+) {
+    public static HypothesisEventResponse from(StreamedHypothesis h) {
+        return new HypothesisEventResponse(h.provisional(), HypothesisResponse.from(h.hypothesis()));
+    }
+}
@@ -1,27 +1,35 @@
 package com.magiconcall.api.incident;
 
 import com.magiconcall.application.incident.*;
-import com.magiconcall.application.triage.TriageService;
+import com.magiconcall.application.triage.TriageJobService;
 import com.magiconcall.domain.incident.IncidentStatus;
+import com.magiconcall.domain.tenant.TenantContext;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/incidents")
 public class IncidentController {
 
+    private static final long TRIAGE_STREAM_TIMEOUT_MS = Duration.ofMinutes(5).toMillis();
+
     private final IncidentService incidentService;
-    private final TriageService triageService;
+    private final TriageJobService triageJobService;
 
     public IncidentController(IncidentService incidentService,
-                              TriageService triageService) {
+                              TriageJobService triageJobService) {
         this.incidentService = incidentService;
-        this.triageService = triageService;
+        this.triageJobService = triageJobService;
     }
 
     @PostMapping
@@ -68,10 +76,90 @@ public class IncidentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(HypothesisResponse.from(result));
     }
 
+    /**
+     * Queues a triage run and returns 202 with the job; its state is at the {@code Location}
+     * header, and the result is included there once the job has succeeded.
+     */
     @PostMapping("/{id}/triage")
-    public ResponseEntity<TriageResponse> triage(@PathVariable UUID id) {
-        var result = triageService.triage(id);
-        return ResponseEntity.ok(TriageResponse.from(result));
+    public ResponseEntity<TriageJobResponse> triage(@PathVariable UUID id) {
+        var job = triageJobService.submit(id);
+        return ResponseEntity.accepted()
+            .header("Location", "/api/v1/incidents/%s/triage/jobs/%s".formatted(id, job.jobId()))
+            .body(TriageJobResponse.from(job));
+    }
+
+    @GetMapping("/{id}/triage/jobs/{jobId}")
+    public ResponseEntity<TriageJobResponse> getTriageJob(@PathVariable UUID id, @PathVariable UUID jobId) {
+        return triageJobService.find(jobId)
+            .filter(job -> job.incidentId().equals(id))
+            .map(TriageJobResponse::from)
+            .map(ResponseEntity::ok)
+            .orElseThrow(() -> new TriageJobService.JobNotFoundException(jobId));
+    }
+
+    /**
+     * A triage job's state as a server-sent event stream: a {@code status} event now and on each
+     * status change, until the job has succeeded or failed.
+     */
+    @GetMapping(value = "/{id}/triage/jobs/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter triageJobStream(@PathVariable UUID id, @PathVariable UUID jobId) {
+        if (triageJobService.find(jobId).filter(job -> job.incidentId().equals(id)).isEmpty()) {
+            throw new TriageJobService.JobNotFoundException(jobId);
+        }
+        var emitter = new SseEmitter(TRIAGE_STREAM_TIMEOUT_MS);
+        var tenantId = TenantContext.getTenantId();
+        Thread.ofVirtual().name("triage-job-stream-" + jobId).start(() -> {
+            TenantContext.setTenantId(tenantId);
+            try {
+                triageJobService.watch(jobId,
+                    job -> send(emitter, "status", TriageJobResponse.from(job)),
+                    Duration.ofMillis(TRIAGE_STREAM_TIMEOUT_MS));
+                emitter.complete();
+            } catch (RuntimeException e) {
+                send(emitter, "error", Map.of("error", String.valueOf(e.getMessage())));
+                emitter.complete();
+            } finally {
+                TenantContext.clear();
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Triage as a server-sent event stream. The run is queued as a triage job like any other;
+     * the stream sends a {@code status} event on each status change of the job, a
+     * {@code hypothesis} event per hypothesis as soon as the model has produced it, then
+     * {@code complete} with the committed result, or {@code error} if the job failed. Hypotheses
+     * of a run still in progress are sent as provisional: clients show them as pending and
+     * replace them with {@code complete}, or drop them on {@code error}.
+     */
+    @PostMapping(value = "/{id}/triage/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter triageStream(@PathVariable UUID id) {
+        // Unknown incidents and a full queue fail as plain responses before the stream is opened
+        var job = triageJobService.submit(id, true);
+        var emitter = new SseEmitter(TRIAGE_STREAM_TIMEOUT_MS);
+        var tenantId = TenantContext.getTenantId();
+        Thread.ofVirtual().name("triage-stream-" + job.jobId()).start(() -> {
+            TenantContext.setTenantId(tenantId);
+            try {
+                var last = triageJobService.watch(job.jobId(),
+                    state -> send(emitter, "status", TriageJobResponse.from(state)),
+                    hypothesis -> send(emitter, "hypothesis", HypothesisEventResponse.from(hypothesis)),
+                    Duration.ofMillis(TRIAGE_STREAM_TIMEOUT_MS));
+                if (last.result() != null) {
+                    send(emitter, "complete", TriageResponse.from(last.result()));
+                } else if (last.error() != null) {
+                    send(emitter, "error", Map.of("error", last.error()));
+                }
+                emitter.complete();
+            } catch (RuntimeException e) {
+                send(emitter, "error", Map.of("error", String.valueOf(e.getMessage())));
+                emitter.complete();
+            } finally {
+                TenantContext.clear();
+            }
+        });
+        return emitter;
     }
 
     @PostMapping("/{id}/evidence")
@@ -94,4 +182,16 @@ public class IncidentController {
         var result = incidentService.transition(id, newStatus);
         return ResponseEntity.ok(IncidentResponse.from(result));
     }
+
+    /** Returns false once the client has gone. */
+    private static boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client gone: the run still completes, and its result is cached for the next request
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
 }
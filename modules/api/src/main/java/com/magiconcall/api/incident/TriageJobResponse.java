@@ -0,0 +1,26 @@
+package com.magiconcall.api.incident;
+
+import com.magiconcall.application.triage.TriageJobResult;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record TriageJobResponse(
+    UUID jobId,
+    UUID incidentId,
+    String severity,
+    String status,
+    TriageResponse result,
+    String error,
+    Instant enqueuedAt,
+    Instant startedAt,
+    Instant finishedAt
+) {
+    public static TriageJobResponse from(TriageJobResult r) {
+        return new TriageJobResponse(
+            r.jobId(), r.incidentId(), r.severity(), r.status(),
+            r.result() != null ? TriageResponse.from(r.result()) : null,
+            r.error(), r.enqueuedAt(), r.startedAt(), r.finishedAt()
+        );
+    }
+}
@@ -1,12 +1,18 @@
 package com.magiconcall.api.tool;
 
 import com.magiconcall.application.tool.ExecuteToolCommand;
+import com.magiconcall.application.tool.ExecuteToolsCommand;
 import com.magiconcall.application.tool.ToolExecutionService;
+import com.magiconcall.application.tool.ToolRateLimiter;
 import com.magiconcall.application.tool.ToolRegistry;
+import com.magiconcall.application.tool.ToolReliabilityService;
+import com.magiconcall.domain.tool.ToolExecutionRollup;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -16,11 +22,17 @@ public class ToolController {
 
     private final ToolExecutionService toolExecutionService;
     private final ToolRegistry toolRegistry;
+    private final ToolRateLimiter rateLimiter;
+    private final ToolReliabilityService reliabilityService;
 
     public ToolController(ToolExecutionService toolExecutionService,
-                          ToolRegistry toolRegistry) {
+                          ToolRegistry toolRegistry,
+                          ToolRateLimiter rateLimiter,
+                          ToolReliabilityService reliabilityService) {
         this.toolExecutionService = toolExecutionService;
         this.toolRegistry = toolRegistry;
+        this.rateLimiter = rateLimiter;
+        this.reliabilityService = reliabilityService;
     }
 
     @PostMapping("/{toolName}/run")
@@ -36,8 +48,55 @@ public class ToolController {
         return ResponseEntity.ok(ToolRunResponse.from(result));
     }
 
+    /** Runs the tools concurrently; returns whatever finished within the deadline. */
+    @PostMapping("/fan-out")
+    public ResponseEntity<ToolFanOutResponse> fanOut(@Valid @RequestBody ToolFanOutRequest request) {
+        var calls = request.tools().stream()
+            .map(t -> new ExecuteToolsCommand.ToolCall(t.toolName(),
+                t.parameters() != null ? t.parameters() : Map.of()))
+            .toList();
+        var command = new ExecuteToolsCommand(
+            request.incidentId(), calls,
+            request.deadlineMs() != null ? Duration.ofMillis(request.deadlineMs()) : null,
+            request.requestedBy()
+        );
+        var result = toolExecutionService.executeTools(command);
+        return ResponseEntity.ok(ToolFanOutResponse.from(result));
+    }
+
     @GetMapping
     public ResponseEntity<List<String>> listTools() {
         return ResponseEntity.ok(toolRegistry.availableTools());
     }
+
+    /**
+     * Per-minute or per-hour success rate, latency percentiles and retries of one tool.
+     * Defaults to the last 60 buckets.
+     */
+    @GetMapping("/{toolName}/reliability")
+    public ResponseEntity<ToolReliabilityResponse> getReliability(
+            @PathVariable String toolName,
+            @RequestParam(defaultValue = "minute") String granularity,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        var g = parseGranularity(granularity);
+        var end = to != null ? to : Instant.now();
+        var start = from != null ? from : end.minus(g.width().multipliedBy(60));
+        var report = reliabilityService.report(toolName, g, start, end);
+        return ResponseEntity.ok(ToolReliabilityResponse.from(report));
+    }
+
+    /** Limits come from {@code magiconcall.tool.rate-limit.*}, so every replica applies the same ones. */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<ToolRateLimitsResponse> getRateLimits() {
+        return ResponseEntity.ok(ToolRateLimitsResponse.from(rateLimiter.limits()));
+    }
+
+    private static ToolExecutionRollup.Granularity parseGranularity(String granularity) {
+        try {
+            return ToolExecutionRollup.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown granularity '" + granularity + "', expected minute or hour");
+        }
+    }
 }
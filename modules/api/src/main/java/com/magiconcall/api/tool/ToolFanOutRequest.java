@@ -0,0 +1,20 @@
+package com.magiconcall.api.tool;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public record ToolFanOutRequest(
+    @NotNull UUID incidentId,
+    @NotEmpty @Size(max = 16) List<@Valid ToolCall> tools,
+    @Positive Long deadlineMs,
+    @NotBlank String requestedBy
+) {
+    public record ToolCall(
+        @NotBlank String toolName,
+        Map<String, String> parameters
+    ) {}
+}
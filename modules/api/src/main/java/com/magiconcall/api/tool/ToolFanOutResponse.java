@@ -0,0 +1,21 @@
+package com.magiconcall.api.tool;
+
+import com.magiconcall.application.tool.ToolFanOutResult;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ToolFanOutResponse(
+    UUID incidentId,
+    List<ToolRunResponse> results,
+    boolean partial,
+    long durationMs
+) {
+    public static ToolFanOutResponse from(ToolFanOutResult r) {
+        return new ToolFanOutResponse(
+            r.incidentId(),
+            r.results().stream().map(ToolRunResponse::from).toList(),
+            r.partial(), r.durationMs()
+        );
+    }
+}
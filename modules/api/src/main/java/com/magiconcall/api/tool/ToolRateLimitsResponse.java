@@ -0,0 +1,14 @@
+package com.magiconcall.api.tool;
+
+import com.magiconcall.application.tool.ToolRateLimits;
+
+import java.util.Map;
+
+public record ToolRateLimitsResponse(
+    ToolRateLimits.Limit defaultLimit,
+    Map<String, ToolRateLimits.Limit> overrides
+) {
+    public static ToolRateLimitsResponse from(ToolRateLimits limits) {
+        return new ToolRateLimitsResponse(limits.defaultLimit(), limits.overrides());
+    }
+}
@@ -0,0 +1,45 @@
+package com.magiconcall.api.tool;
+
+import com.magiconcall.application.tool.ToolReliabilityReport;
+
+import java.time.Instant;
+import java.util.List;
+
+public record ToolReliabilityResponse(
+    String toolName,
+    String granularity,
+    Instant from,
+    Instant to,
+    List<Point> points,
+    Point total
+) {
+    public record Point(
+        Instant bucketStart,
+        long executions,
+        long succeeded,
+        long failed,
+        long timedOut,
+        long rateLimited,
+        long rejected,
+        double successRate,
+        Double p50Ms,
+        Double p90Ms,
+        Double p99Ms,
+        long maxMs,
+        double avgRetries
+    ) {
+        static Point from(ToolReliabilityReport.Point p) {
+            return new Point(p.bucketStart(), p.executions(), p.succeeded(), p.failed(), p.timedOut(),
+                p.rateLimited(), p.rejected(), p.successRate(), p.p50Ms(), p.p90Ms(), p.p99Ms(),
+                p.maxMs(), p.avgRetries());
+        }
+    }
+
+    public static ToolReliabilityResponse from(ToolReliabilityReport r) {
+        return new ToolReliabilityResponse(
+            r.toolName(), r.granularity().name(), r.from(), r.to(),
+            r.points().stream().map(Point::from).toList(),
+            Point.from(r.total())
+        );
+    }
+}
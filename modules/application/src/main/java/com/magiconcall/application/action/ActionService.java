@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,7 @@ public class ActionService {
     private final ToolExecutor toolExecutionService;
     private final ActionMetrics actionMetrics;
     private final ObjectMapper objectMapper;
+    private final TransactionOperations transactionOperations;
 
     public ActionService(ActionRepository actionRepository,
                          IncidentRepository incidentRepository,
@@ -41,7 +43,8 @@ public class ActionService {
                          ActionPolicyEvaluator policyEvaluator,
                          ToolExecutor toolExecutionService,
                          ActionMetrics actionMetrics,
-                         ObjectMapper objectMapper) {
+                         ObjectMapper objectMapper,
+                         TransactionOperations transactionOperations) {
         this.actionRepository = actionRepository;
         this.incidentRepository = incidentRepository;
         this.incidentEventRepository = incidentEventRepository;
@@ -50,6 +53,7 @@ public class ActionService {
         this.toolExecutionService = toolExecutionService;
         this.actionMetrics = actionMetrics;
         this.objectMapper = objectMapper;
+        this.transactionOperations = transactionOperations;
     }
 
     @Transactional
@@ -211,38 +215,69 @@ public class ActionService {
         return ActionResult.from(action);
     }
 
-    @Transactional
+    /**
+     * Runs in three phases so no database connection is held while the tool runs: a short
+     * transaction moves the action to EXECUTING, the tool call runs outside any transaction
+     * (ToolExecutionService persists its own log), and a second short transaction records the
+     * outcome.
+     */
     public ActionResult execute(UUID incidentId, UUID actionId) {
         String tenantId = TenantContext.requireTenantId();
-        var action = findActionOrThrow(incidentId, actionId);
 
         try (var ignored = MDC.putCloseable("incidentId", incidentId.toString())) {
-            // Check if this is a retry from FAILED
-            boolean isRetry = action.getStatus() == Action.ActionStatus.FAILED;
-            if (isRetry && !action.canRetry()) {
-                throw new Action.InvalidActionTransitionException(
-                    action.getStatus(), Action.ActionStatus.EXECUTING);
-            }
+            // Phase 1: mark EXECUTING
+            Action started = transactionOperations.execute(status -> {
+                var action = findActionOrThrow(incidentId, actionId);
+
+                // Check if this is a retry from FAILED
+                boolean isRetry = action.getStatus() == Action.ActionStatus.FAILED;
+                if (isRetry && !action.canRetry()) {
+                    throw new Action.InvalidActionTransitionException(
+                        action.getStatus(), Action.ActionStatus.EXECUTING);
+                }
 
-            if (isRetry) {
-                actionMetrics.recordRetry(action.getToolName());
-            }
+                if (isRetry) {
+                    actionMetrics.recordRetry(action.getToolName());
+                }
 
-            action.startExecution();
-            action = actionRepository.save(action);
+                action.startExecution();
+                return actionRepository.save(action);
+            });
 
-            // Delegate to ToolExecutionService
+            // Phase 2: delegate to ToolExecutionService with no transaction open
             var toolCommand = new ExecuteToolCommand(
-                action.getToolName(), incidentId,
-                deserializeMap(action.getToolParameters()),
-                action.getProposedBy()
+                started.getToolName(), incidentId,
+                deserializeMap(started.getToolParameters()),
+                started.getProposedBy()
             );
 
+            ToolExecutionResult toolResult = null;
+            Exception toolFailure = null;
             try {
-                ToolExecutionResult toolResult = toolExecutionService.executeTool(toolCommand);
+                toolResult = toolExecutionService.executeTool(toolCommand);
+            } catch (Exception e) {
+                toolFailure = e;
+            }
 
-                if ("SUCCESS".equals(toolResult.status())) {
-                    action.completeExecution(toolResult.executionId());
+            // Phase 3: record the outcome
+            var result = toolResult;
+            var failure = toolFailure;
+            return transactionOperations.execute(status -> {
+                var action = started;
+                if (failure != null) {
+                    String error = failure.getMessage() != null ? failure.getMessage() : "Unexpected execution error";
+                    action.failExecution(error, null);
+                    action = actionRepository.save(action);
+                    actionMetrics.recordExecution(action.getToolName(), "FAILED");
+
+                    var timelineEvent = IncidentEvent.actionFailed(
+                        incidentId, action.getTitle(), error);
+                    timelineEvent.setTenantId(tenantId);
+                    incidentEventRepository.save(timelineEvent);
+
+                    log.error("Action execution exception: id={}, tool={}", actionId, action.getToolName(), failure);
+                } else if ("SUCCESS".equals(result.status())) {
+                    action.completeExecution(result.executionId());
                     action = actionRepository.save(action);
                     actionMetrics.recordExecution(action.getToolName(), "COMPLETED");
 
@@ -258,8 +293,8 @@ public class ActionService {
 
                     log.info("Action executed successfully: id={}, tool={}", actionId, action.getToolName());
                 } else {
-                    String error = toolResult.errorMessage() != null ? toolResult.errorMessage() : "Tool execution failed";
-                    action.failExecution(error, toolResult.executionId());
+                    String error = result.errorMessage() != null ? result.errorMessage() : "Tool execution failed";
+                    action.failExecution(error, result.executionId());
                     action = actionRepository.save(action);
                     actionMetrics.recordExecution(action.getToolName(), "FAILED");
 
@@ -275,22 +310,9 @@ public class ActionService {
 
                     log.warn("Action execution failed: id={}, tool={}, error={}", actionId, action.getToolName(), error);
                 }
-            } catch (Exception e) {
-                String error = e.getMessage() != null ? e.getMessage() : "Unexpected execution error";
-                action.failExecution(error, null);
-                action = actionRepository.save(action);
-                actionMetrics.recordExecution(action.getToolName(), "FAILED");
-
-                var timelineEvent = IncidentEvent.actionFailed(
-                    incidentId, action.getTitle(), error);
-                timelineEvent.setTenantId(tenantId);
-                incidentEventRepository.save(timelineEvent);
-
-                log.error("Action execution exception: id={}, tool={}", actionId, action.getToolName(), e);
-            }
+                return ActionResult.from(action);
+            });
         }
-
-        return ActionResult.from(action);
     }
 
     @Transactional(readOnly = true)
@@ -2,6 +2,7 @@ package com.magiconcall.application.alert;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.graph.TemporalCorrelationService;
 import com.magiconcall.domain.alert.Alert;
 import com.magiconcall.domain.alert.AlertRepository;
 import com.magiconcall.domain.alert.AlertSeverity;
@@ -31,15 +32,18 @@ public class AlertService {
     private final EventPublisher eventPublisher;
     private final AlertPolicyEvaluator policyEvaluator;
     private final ObjectMapper objectMapper;
+    private final TemporalCorrelationService temporalCorrelationService;
 
     public AlertService(AlertRepository alertRepository,
                         EventPublisher eventPublisher,
                         AlertPolicyEvaluator policyEvaluator,
-                        ObjectMapper objectMapper) {
+                        ObjectMapper objectMapper,
+                        TemporalCorrelationService temporalCorrelationService) {
         this.alertRepository = alertRepository;
         this.eventPublisher = eventPublisher;
         this.policyEvaluator = policyEvaluator;
         this.objectMapper = objectMapper;
+        this.temporalCorrelationService = temporalCorrelationService;
     }
 
     @Transactional
@@ -80,6 +84,7 @@ public class AlertService {
             alert.getId(), alert.getExternalId(), alert.getSeverity(), alert.getTenantId());
 
         publishAlertCreatedEvent(alert);
+        temporalCorrelationService.onAlert(alert);
 
         return AlertResult.from(alert);
     }
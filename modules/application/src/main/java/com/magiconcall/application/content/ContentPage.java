@@ -0,0 +1,10 @@
+package com.magiconcall.application.content;
+
+/** A character range of stored content; {@code nextOffset} is null once the end is reached. */
+public record ContentPage(
+    String contentRef,
+    long offset,
+    String content,
+    long totalLength,
+    Long nextOffset
+) {}
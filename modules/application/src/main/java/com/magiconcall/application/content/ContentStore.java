@@ -0,0 +1,181 @@
+package com.magiconcall.application.content;
+
+import com.magiconcall.domain.content.ContentBlob;
+import com.magiconcall.domain.content.ContentBlobRepository;
+import com.magiconcall.domain.content.ContentChunk;
+import com.magiconcall.domain.content.ContentChunkRepository;
+import com.magiconcall.domain.tenant.TenantContext;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Content-addressed store for large text such as tool outputs.
+ * <p>
+ * Content up to {@code preview-chars} is returned as-is and never stored. Anything longer is
+ * keyed by the SHA-256 of its UTF-8 bytes, split into chunks of {@code chunk-chars} characters
+ * and LZ4-compressed chunk by chunk, so identical outputs are stored once per tenant and a
+ * ranged read decompresses only the chunks it touches. Callers keep the returned preview and
+ * reference on their own rows.
+ * <p>
+ * Every store marks the blob as referenced, whether it was written or deduplicated. The tool
+ * history retention sweep deletes blobs not referenced within the raw retention window once no
+ * evidence or execution log row points to them; marking first means a blob about to be
+ * referenced again is never swept from under its new row.
+ */
+@Service
+public class ContentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentStore.class);
+
+    static final String CODEC = "LZ4";
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final ContentBlobRepository blobRepository;
+    private final ContentChunkRepository chunkRepository;
+    private final TransactionOperations transactionOperations;
+    private final int previewChars;
+    private final int chunkChars;
+    private final int maxReadChars;
+
+    public ContentStore(ContentBlobRepository blobRepository,
+                        ContentChunkRepository chunkRepository,
+                        TransactionOperations transactionOperations,
+                        @Value("${magiconcall.content.preview-chars:2000}") int previewChars,
+                        @Value("${magiconcall.content.chunk-chars:65536}") int chunkChars,
+                        @Value("${magiconcall.content.max-read-chars:1048576}") int maxReadChars) {
+        this.blobRepository = blobRepository;
+        this.chunkRepository = chunkRepository;
+        this.transactionOperations = transactionOperations;
+        this.previewChars = previewChars;
+        this.chunkChars = chunkChars;
+        this.maxReadChars = maxReadChars;
+    }
+
+    /**
+     * Stores {@code content} if it is longer than a preview. Runs its own transaction, so call it
+     * before opening the transaction that writes the referencing rows: a concurrent writer of the
+     * same content then only costs a failed insert here, not the caller's transaction.
+     */
+    public StoredContent store(String content) {
+        if (content == null) return null;
+        if (content.length() <= previewChars) {
+            return new StoredContent(content, null, content.length());
+        }
+        String tenantId = TenantContext.requireTenantId();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(bytes);
+        var stored = new StoredContent(preview(content), hash, content.length());
+
+        if (Boolean.TRUE.equals(transactionOperations.execute(
+                tx -> blobRepository.markReferenced(tenantId, hash, Instant.now())))) {
+            log.debug("Content already stored: hash={}, chars={}", hash, content.length());
+            return stored;
+        }
+        try {
+            transactionOperations.executeWithoutResult(tx -> write(tenantId, hash, content, bytes.length));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race to another writer of the same content; its blob is identical
+            log.debug("Content stored concurrently: hash={}", hash);
+        }
+        return stored;
+    }
+
+    private void write(String tenantId, String hash, String content, long totalBytes) {
+        List<byte[]> compressed = new ArrayList<>();
+        List<int[]> spans = new ArrayList<>();      // {charOffset, charLength, rawLength}
+        long storedBytes = 0;
+        for (int start = 0; start < content.length(); ) {
+            int end = Math.min(content.length(), start + chunkChars);
+            // Never split a surrogate pair across chunks: each chunk must encode on its own
+            if (end < content.length() && Character.isHighSurrogate(content.charAt(end - 1))) end--;
+            byte[] raw = content.substring(start, end).getBytes(StandardCharsets.UTF_8);
+            byte[] data = COMPRESSOR.compress(raw);
+            compressed.add(data);
+            spans.add(new int[] {start, end - start, raw.length});
+            storedBytes += data.length;
+            start = end;
+        }
+
+        var blob = new ContentBlob(hash, CODEC, content.length(), totalBytes, storedBytes, compressed.size());
+        blob.setTenantId(tenantId);
+        blob = blobRepository.save(blob);
+
+        List<ContentChunk> chunks = new ArrayList<>(compressed.size());
+        for (int i = 0; i < compressed.size(); i++) {
+            int[] span = spans.get(i);
+            var chunk = new ContentChunk(blob.getId(), i, span[0], span[1], span[2], compressed.get(i));
+            chunk.setTenantId(tenantId);
+            chunks.add(chunk);
+        }
+        chunkRepository.saveAll(chunks);
+
+        log.info("Content stored: hash={}, chars={}, bytes={}, storedBytes={}, chunks={}",
+            hash, content.length(), totalBytes, storedBytes, chunks.size());
+    }
+
+    /**
+     * Reads up to {@code length} characters (capped at {@code max-read-chars}) starting at
+     * {@code offset}, loading only the overlapping chunks.
+     */
+    public ContentPage read(String contentRef, long offset, int length) {
+        if (offset < 0 || length <= 0) {
+            throw new IllegalStateException("offset must be >= 0 and length > 0");
+        }
+        String tenantId = TenantContext.requireTenantId();
+        var blob = blobRepository.findByContentHash(tenantId, contentRef)
+            .orElseThrow(() -> new ContentNotFoundException("Content not found: " + contentRef));
+
+        long total = blob.getTotalChars();
+        long from = Math.min(offset, total);
+        long to = Math.min(total, from + Math.min(length, maxReadChars));
+
+        var sb = new StringBuilder((int) (to - from));
+        if (from < to) {
+            for (var chunk : chunkRepository.findOverlapping(blob.getId(), from, to)) {
+                String text = new String(DECOMPRESSOR.decompress(chunk.getData(), chunk.getRawLength()),
+                    StandardCharsets.UTF_8);
+                int begin = (int) Math.max(0, from - chunk.getCharOffset());
+                int end = (int) Math.min(chunk.getCharLength(), to - chunk.getCharOffset());
+                sb.append(text, begin, end);
+            }
+        }
+        return new ContentPage(contentRef, from, sb.toString(), total, to < total ? to : null);
+    }
+
+    private String preview(String content) {
+        int end = previewChars;
+        if (end > 0 && Character.isHighSurrogate(content.charAt(end - 1))) end--;
+        return content.substring(0, end);
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    public static class ContentNotFoundException extends RuntimeException {
+        public ContentNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.magiconcall.application.content;
+
+/**
+ * What a row keeps of a piece of content: the text itself when it is short, otherwise a
+ * preview plus the hash it is stored under in the {@link ContentStore}.
+ */
+public record StoredContent(String preview, String contentRef, long length) {
+
+    public boolean referenced() {
+        return contentRef != null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.incident.IncidentService;
+import com.magiconcall.domain.graph.CorrelationEdgeRepository;
+import com.magiconcall.domain.graph.CorrelationNodeRepository;
+import com.magiconcall.domain.incident.IncidentRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Streams an incident graph from database cursors straight into a {@link GraphVisitor}, so
+ * export and rendering cost O(1) heap in the graph size (plus the set of topology nodes already
+ * emitted). Unlike {@link CorrelationGraphService#getGraph} this is read-only and does not
+ * auto-seed alert nodes.
+ */
+@Service
+public class CorrelationGraphExporter {
+
+    private final IncidentRepository incidentRepository;
+    private final CorrelationNodeRepository nodeRepository;
+    private final CorrelationEdgeRepository edgeRepository;
+    private final ServiceTopologyService topologyService;
+    private final ObjectMapper objectMapper;
+
+    public CorrelationGraphExporter(IncidentRepository incidentRepository,
+                                    CorrelationNodeRepository nodeRepository,
+                                    CorrelationEdgeRepository edgeRepository,
+                                    ServiceTopologyService topologyService,
+                                    ObjectMapper objectMapper) {
+        this.incidentRepository = incidentRepository;
+        this.nodeRepository = nodeRepository;
+        this.edgeRepository = edgeRepository;
+        this.topologyService = topologyService;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Lets callers fail with a 404 before they commit a streaming response. */
+    @Transactional(readOnly = true)
+    public void requireIncident(UUID incidentId) {
+        incidentRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
+    }
+
+    @Transactional(readOnly = true)
+    public void walk(UUID incidentId, GraphVisitor visitor) {
+        var incident = incidentRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
+        var topology = topologyService.current(incident.getTenantId());
+
+        visitor.start(incidentId);
+        try (var nodes = nodeRepository.streamByIncidentId(incidentId)) {
+            nodes.forEach(n -> visitor.node(GraphNodeResult.from(n)));
+        }
+
+        visitor.startEdges();
+        Set<UUID> emittedTopologyNodes = new HashSet<>();
+        try (var edges = edgeRepository.streamByIncidentId(incidentId)) {
+            edges.forEach(e -> {
+                for (UUID endpoint : new UUID[] {e.getSourceNodeId(), e.getTargetNodeId()}) {
+                    int idx = topology.indexOf(endpoint);
+                    if (idx >= 0 && emittedTopologyNodes.add(endpoint)) {
+                        visitor.node(topology.toNodeResult(idx));
+                    }
+                }
+                visitor.edge(GraphEdgeResult.from(e));
+            });
+        }
+        visitor.end();
+    }
+
+    @Transactional(readOnly = true)
+    public void export(UUID incidentId, GraphExportFormat format, OutputStream out) {
+        GraphVisitor writer = switch (format) {
+            case NDJSON -> new NdjsonGraphWriter(out, objectMapper);
+            case GRAPHML -> new GraphMlGraphWriter(out);
+        };
+        walk(incidentId, writer);
+    }
+}
@@ -2,6 +2,8 @@ package com.magiconcall.application.graph;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.magiconcall.application.incident.IncidentService;
 import com.magiconcall.domain.alert.Alert;
 import com.magiconcall.domain.alert.AlertRepository;
@@ -13,9 +15,14 @@ import com.magiconcall.domain.tenant.TenantContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 
 @Service
@@ -23,15 +30,23 @@ public class CorrelationGraphService {
 
     private static final Logger log = LoggerFactory.getLogger(CorrelationGraphService.class);
 
-    private static final Set<CorrelationNodeType> SYMPTOM_TYPES = Set.of(
+    static final Set<CorrelationNodeType> SYMPTOM_TYPES = Set.of(
         CorrelationNodeType.ALERT, CorrelationNodeType.METRIC_ANOMALY, CorrelationNodeType.LOG_CLUSTER
     );
-    private static final Set<CorrelationNodeType> ROOT_CAUSE_TYPES = Set.of(
+    static final Set<CorrelationNodeType> ROOT_CAUSE_TYPES = Set.of(
         CorrelationNodeType.DEPLOY, CorrelationNodeType.SERVICE
     );
     private static final Set<CorrelationEdgeType> TRAVERSABLE_EDGE_TYPES = Set.of(
         CorrelationEdgeType.CAUSAL_HINT, CorrelationEdgeType.DEPENDS_ON
     );
+    // Bounds the all-simple-paths DFS now that paths can run through the shared topology
+    static final int MAX_PATH_HOPS = 8;
+    // Number of top paths pushed to live subscribers on every ranking change
+    private static final int PUSHED_PATHS = 10;
+    private static final int MAX_CACHED_RANKINGS = 1_000;
+    static final int MAX_PAGE_SIZE = 1_000;
+    // Smallest uuid in PostgreSQL ordering; the keyset cursor for the first page
+    private static final UUID FIRST_CURSOR = new UUID(0L, 0L);
 
     private final IncidentRepository incidentRepository;
     private final AlertRepository alertRepository;
@@ -39,19 +54,43 @@ public class CorrelationGraphService {
     private final CorrelationEdgeRepository edgeRepository;
     private final IncidentEventRepository incidentEventRepository;
     private final ObjectMapper objectMapper;
+    private final ServiceTopologyService topologyService;
+    private final RootCauseRankingPublisher rankingPublisher;
+    private final long rankingResyncNanos;
+    private final Cache<UUID, RankingSlot> rankings;
+
+    /**
+     * An incident's cached ranking and the number of committed graph changes applied to the slot.
+     * A rebuild only caches its result if no change arrived while it read the graph, since its
+     * read may predate that change.
+     */
+    private static final class RankingSlot {
+        IncrementalRootCauseRanking ranking;
+        long changes;
+    }
 
     public CorrelationGraphService(IncidentRepository incidentRepository,
                                    AlertRepository alertRepository,
                                    CorrelationNodeRepository nodeRepository,
                                    CorrelationEdgeRepository edgeRepository,
                                    IncidentEventRepository incidentEventRepository,
-                                   ObjectMapper objectMapper) {
+                                   ObjectMapper objectMapper,
+                                   ServiceTopologyService topologyService,
+                                   RootCauseRankingPublisher rankingPublisher,
+                                   @Value("${magiconcall.graph.ranking-resync-interval:5m}") Duration rankingResyncInterval) {
         this.incidentRepository = incidentRepository;
         this.alertRepository = alertRepository;
         this.nodeRepository = nodeRepository;
         this.edgeRepository = edgeRepository;
         this.incidentEventRepository = incidentEventRepository;
         this.objectMapper = objectMapper;
+        this.topologyService = topologyService;
+        this.rankingPublisher = rankingPublisher;
+        this.rankingResyncNanos = rankingResyncInterval.toNanos();
+        this.rankings = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_RANKINGS)
+            .expireAfterAccess(rankingResyncInterval)
+            .build();
     }
 
     @Transactional
@@ -66,15 +105,64 @@ public class CorrelationGraphService {
                 log.info("Auto-seeded {} alert nodes for incident {}", seeded, incidentId);
             }
 
-            var nodes = nodeRepository.findByIncidentId(incidentId)
-                .stream().map(GraphNodeResult::from).toList();
-            var edges = edgeRepository.findByIncidentId(incidentId)
-                .stream().map(GraphEdgeResult::from).toList();
+            var nodeEntities = nodeRepository.findByIncidentId(incidentId);
+            var edgeEntities = edgeRepository.findByIncidentId(incidentId);
+
+            var nodes = new ArrayList<GraphNodeResult>(nodeEntities.size());
+            Set<UUID> incidentNodeIds = new HashSet<>();
+            for (var n : nodeEntities) {
+                nodes.add(GraphNodeResult.from(n));
+                incidentNodeIds.add(n.getId());
+            }
+
+            // Include the topology nodes this incident's edges attach to
+            if (referencesTopology(incidentNodeIds, edgeEntities)) {
+                var topology = topologyService.current(incident.getTenantId());
+                Set<UUID> added = new HashSet<>();
+                for (var e : edgeEntities) {
+                    for (UUID id : List.of(e.getSourceNodeId(), e.getTargetNodeId())) {
+                        int idx = topology.indexOf(id);
+                        if (idx >= 0 && !incidentNodeIds.contains(id) && added.add(id)) {
+                            nodes.add(topology.toNodeResult(idx));
+                        }
+                    }
+                }
+            }
 
+            var edges = edgeEntities.stream().map(GraphEdgeResult::from).toList();
             return new CorrelationGraphResult(nodes, edges);
         }
     }
 
+    /**
+     * Keyset page over the incident's own nodes (topology nodes are not included), optionally
+     * restricted to {@code nodeTypes}. Pass the previous page's {@code nextCursor} as {@code after}.
+     */
+    @Transactional(readOnly = true)
+    public GraphPage<GraphNodeResult> findNodes(UUID incidentId, Collection<String> nodeTypes, UUID after, int limit) {
+        incidentRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
+
+        var types = parseTypes(nodeTypes, CorrelationNodeType.class);
+        int pageSize = clampPageSize(limit);
+        var items = nodeRepository.findPage(incidentId, types, after != null ? after : FIRST_CURSOR, pageSize)
+            .stream().map(GraphNodeResult::from).toList();
+        return new GraphPage<>(items, items.size() == pageSize ? items.getLast().id() : null);
+    }
+
+    /** Keyset page over the incident's edges, optionally restricted to {@code edgeTypes}. */
+    @Transactional(readOnly = true)
+    public GraphPage<GraphEdgeResult> findEdges(UUID incidentId, Collection<String> edgeTypes, UUID after, int limit) {
+        incidentRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
+
+        var types = parseTypes(edgeTypes, CorrelationEdgeType.class);
+        int pageSize = clampPageSize(limit);
+        var items = edgeRepository.findPage(incidentId, types, after != null ? after : FIRST_CURSOR, pageSize)
+            .stream().map(GraphEdgeResult::from).toList();
+        return new GraphPage<>(items, items.size() == pageSize ? items.getLast().id() : null);
+    }
+
     @Transactional
     public GraphNodeResult addNode(UUID incidentId, AddNodeCommand command) {
         var incident = incidentRepository.findById(incidentId)
@@ -93,6 +181,9 @@ public class CorrelationGraphService {
 
             log.info("Graph node added: id={}, type={}, label={}", node.getId(), nodeType, command.label());
 
+            var savedNode = node;
+            afterCommit(() -> applyNode(incidentId, savedNode));
+
             var timelineEvent = IncidentEvent.graphNodeAdded(incidentId, command.label(), nodeType.name());
             timelineEvent.setTenantId(tenantId);
             incidentEventRepository.save(timelineEvent);
@@ -109,13 +200,9 @@ public class CorrelationGraphService {
         String tenantId = incident.getTenantId();
         var edgeType = CorrelationEdgeType.valueOf(command.edgeType().toUpperCase());
 
-        // Validate both nodes belong to this incident
-        var sourceNode = nodeRepository.findById(command.sourceNodeId())
-            .filter(n -> n.getIncidentId().equals(incidentId))
-            .orElseThrow(() -> new NodeNotFoundException(command.sourceNodeId()));
-        var targetNode = nodeRepository.findById(command.targetNodeId())
-            .filter(n -> n.getIncidentId().equals(incidentId))
-            .orElseThrow(() -> new NodeNotFoundException(command.targetNodeId()));
+        // Validate both nodes belong to this incident or the tenant's shared topology
+        String sourceLabel = resolveEndpointLabel(incidentId, tenantId, command.sourceNodeId());
+        String targetLabel = resolveEndpointLabel(incidentId, tenantId, command.targetNodeId());
 
         try (var ignored = MDC.putCloseable("incidentId", incidentId.toString())) {
             var edge = new CorrelationEdge(
@@ -125,153 +212,247 @@ public class CorrelationGraphService {
             edge.setTenantId(tenantId);
             edge = edgeRepository.save(edge);
 
-            log.info("Graph edge added: {} → {} ({})", sourceNode.getLabel(), targetNode.getLabel(), edgeType);
+            log.info("Graph edge added: {} → {} ({})", sourceLabel, targetLabel, edgeType);
+
+            var savedEdge = edge;
+            afterCommit(() -> applyEdge(incidentId, tenantId, savedEdge));
 
             return GraphEdgeResult.from(edge);
         }
     }
 
+    /**
+     * Top root-cause paths, served from the incident's incremental ranking. The ranking is built
+     * from the database once and then kept current by {@link #addNode} / {@link #addEdge}; it is
+     * rebuilt when the tenant topology changes or after {@code ranking-resync-interval} to pick
+     * up writes made by other instances.
+     */
     @Transactional(readOnly = true)
     public List<RootCausePath> findRootCausePaths(UUID incidentId, int maxPaths) {
-        incidentRepository.findById(incidentId)
+        var incident = incidentRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
+
+        return rankingFor(incidentId, incident.getTenantId()).top(maxPaths);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RootCausePath> findRootCausePaths(UUID incidentId, int maxPaths, RootCauseScorer scorer) {
+        return switch (scorer) {
+            case PATHS -> findRootCausePaths(incidentId, maxPaths);
+            case PAGERANK -> rankByPageRank(incidentId, maxPaths);
+        };
+    }
+
+    /**
+     * Ranks root-cause nodes by personalized PageRank over the reversed traversable edges,
+     * restarting at the incident's symptom nodes, so a DEPLOY feeding many symptoms outranks one
+     * explaining a single alert. Each result is a single-node path scored by its stationary
+     * probability.
+     */
+    private List<RootCausePath> rankByPageRank(UUID incidentId, int maxResults) {
+        var incident = incidentRepository.findById(incidentId)
             .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
 
         var nodes = nodeRepository.findByIncidentId(incidentId);
         var edges = edgeRepository.findByIncidentId(incidentId);
+        var topology = topologyService.current(incident.getTenantId());
+        Map<UUID, CorrelationNode> nodeMap = new HashMap<>();
+        for (var n : nodes) nodeMap.put(n.getId(), n);
+        var view = new IncidentGraphView(nodeMap, edges, topology, TRAVERSABLE_EDGE_TYPES);
+
+        var ids = view.nodeIds();
+        Map<UUID, Integer> index = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) index.put(ids.get(i), i);
+
+        int maxEdges = edges.size() + topology.edgeCount();
+        int[] from = new int[maxEdges];
+        int[] to = new int[maxEdges];
+        double[] weights = new double[maxEdges];
+        int[] edgeCount = {0};
+        double[] personalization = new double[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            int source = i;
+            view.forEachOutgoing(ids.get(i), (targetId, weight) -> {
+                Integer target = index.get(targetId);
+                if (target == null) return;
+                from[edgeCount[0]] = source;
+                to[edgeCount[0]] = target;
+                weights[edgeCount[0]++] = weight;
+            });
+            if (SYMPTOM_TYPES.contains(view.nodeType(ids.get(i)))) personalization[i] = 1.0;
+        }
+
+        var pageRank = PersonalizedPageRank.fromEdges(ids.size(),
+            Arrays.copyOf(from, edgeCount[0]), Arrays.copyOf(to, edgeCount[0]),
+            Arrays.copyOf(weights, edgeCount[0]));
+        var result = pageRank.compute(personalization);
+        log.debug("PageRank for incident {}: {} nodes, {} edges, {} iterations (converged={})",
+            incidentId, pageRank.nodeCount(), pageRank.edgeCount(), result.iterations(), result.converged());
+
+        double[] scores = result.scores();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (scores[i] > 0 && ROOT_CAUSE_TYPES.contains(view.nodeType(ids.get(i)))) candidates.add(i);
+        }
+        candidates.sort((a, b) -> Double.compare(scores[b], scores[a]));
+
+        return candidates.stream().limit(maxResults).map(i -> {
+            var label = view.label(ids.get(i));
+            return new RootCausePath(List.of(ids.get(i)), List.of(label), scores[i],
+                "%s (personalized PageRank: %.3f)".formatted(label, scores[i]));
+        }).toList();
+    }
 
-        if (nodes.isEmpty() || edges.isEmpty()) {
-            return List.of();
+    private IncrementalRootCauseRanking rankingFor(UUID incidentId, String tenantId) {
+        var topology = topologyService.current(tenantId);
+        var slot = rankings.get(incidentId, id -> new RankingSlot());
+        long seenChanges;
+        synchronized (slot) {
+            var cached = slot.ranking;
+            if (cached != null && cached.topologyVersion() == topology.version()
+                    && System.nanoTime() - cached.builtAtNanos() < rankingResyncNanos) {
+                return cached;
+            }
+            seenChanges = slot.changes;
         }
 
-        // Build node map and incoming-edge adjacency map
+        var nodes = nodeRepository.findByIncidentId(incidentId);
+        var edges = edgeRepository.findByIncidentId(incidentId);
         Map<UUID, CorrelationNode> nodeMap = new HashMap<>();
         for (var n : nodes) nodeMap.put(n.getId(), n);
 
-        // incoming edges: targetNodeId → list of edges pointing to it
-        Map<UUID, List<CorrelationEdge>> incomingEdges = new HashMap<>();
-        for (var e : edges) {
-            if (TRAVERSABLE_EDGE_TYPES.contains(e.getEdgeType())) {
-                incomingEdges.computeIfAbsent(e.getTargetNodeId(), k -> new ArrayList<>()).add(e);
+        var ranking = IncrementalRootCauseRanking.build(incidentId, nodes,
+            new IncidentGraphView(nodeMap, edges, topology, TRAVERSABLE_EDGE_TYPES));
+        synchronized (slot) {
+            // Otherwise serve it once but let the next read rebuild
+            if (slot.changes == seenChanges) {
+                slot.ranking = ranking;
             }
         }
+        return ranking;
+    }
 
-        // Identify symptom nodes
-        List<CorrelationNode> symptoms = nodes.stream()
-            .filter(n -> SYMPTOM_TYPES.contains(n.getNodeType()))
-            .toList();
-
-        // DFS backward from each symptom
-        List<RootCausePath> allPaths = new ArrayList<>();
-        for (var symptom : symptoms) {
-            List<List<UUID>> foundPaths = new ArrayList<>();
-            List<List<Double>> foundWeights = new ArrayList<>();
-            dfsBackward(symptom.getId(), new ArrayList<>(List.of(symptom.getId())),
-                new ArrayList<>(), new HashSet<>(), incomingEdges, nodeMap,
-                foundPaths, foundWeights);
-
-            for (int i = 0; i < foundPaths.size(); i++) {
-                var pathIds = foundPaths.get(i);
-                var weights = foundWeights.get(i);
-                var labels = pathIds.stream().map(id -> nodeMap.get(id).getLabel()).toList();
-
-                double weightProduct = weights.stream().reduce(1.0, (a, b) -> a * b);
-                double score = weightProduct / (1.0 + weights.size() * 0.1);
-
-                var startNode = nodeMap.get(pathIds.getFirst());
-                var endNode = nodeMap.get(pathIds.getLast());
-                String explanation = "%s → ... → %s (score: %.3f)".formatted(
-                    endNode.getLabel(), startNode.getLabel(), score);
-
-                // Reverse so path goes root cause → symptom
-                var reversedIds = new ArrayList<>(pathIds);
-                Collections.reverse(reversedIds);
-                var reversedLabels = new ArrayList<>(labels);
-                Collections.reverse(reversedLabels);
-
-                allPaths.add(new RootCausePath(reversedIds, reversedLabels, score, explanation));
+    /**
+     * Drops the incident's cached ranking after its nodes or edges were written other than
+     * through this service, e.g. by bulk upserts; call once those writes have committed. The
+     * ranking is rebuilt on the next read, or now if someone is subscribed to it.
+     */
+    public void invalidateRanking(UUID incidentId, String tenantId) {
+        var slot = rankings.getIfPresent(incidentId);
+        if (slot != null) {
+            synchronized (slot) {
+                slot.changes++;
+                slot.ranking = null;
             }
         }
-
-        // Sort descending by score, return top N
-        allPaths.sort(Comparator.comparingDouble(RootCausePath::score).reversed());
-        return allPaths.stream().limit(maxPaths).toList();
+        if (rankingPublisher.hasSubscribers(incidentId)) {
+            publishRanking(rankingFor(incidentId, tenantId));
+        }
     }
 
-    private void dfsBackward(UUID currentId, List<UUID> path, List<Double> weights,
-                             Set<UUID> visited, Map<UUID, List<CorrelationEdge>> incomingEdges,
-                             Map<UUID, CorrelationNode> nodeMap,
-                             List<List<UUID>> foundPaths, List<List<Double>> foundWeights) {
-        visited.add(currentId);
-
-        var incoming = incomingEdges.getOrDefault(currentId, List.of());
-        for (var edge : incoming) {
-            UUID sourceId = edge.getSourceNodeId();
-            if (visited.contains(sourceId)) continue;
-
-            var sourceNode = nodeMap.get(sourceId);
-            if (sourceNode == null) continue;
-
-            path.add(sourceId);
-            weights.add(edge.getWeight());
+    private void applyNode(UUID incidentId, CorrelationNode node) {
+        var slot = rankings.getIfPresent(incidentId);
+        if (slot == null) return;
+        synchronized (slot) {
+            slot.changes++;
+            if (slot.ranking != null) {
+                slot.ranking.addNode(node);
+            }
+        }
+    }
 
-            // If we reached a root cause type and path has more than 1 hop, record it
-            if (ROOT_CAUSE_TYPES.contains(sourceNode.getNodeType()) && path.size() > 1) {
-                foundPaths.add(new ArrayList<>(path));
-                foundWeights.add(new ArrayList<>(weights));
+    private void applyEdge(UUID incidentId, String tenantId, CorrelationEdge edge) {
+        var slot = rankings.getIfPresent(incidentId);
+        IncrementalRootCauseRanking changed = null;
+        boolean applied = false;
+        if (slot != null) {
+            synchronized (slot) {
+                slot.changes++;
+                var ranking = slot.ranking;
+                if (ranking != null && ranking.contains(edge.getSourceNodeId()) && ranking.contains(edge.getTargetNodeId())) {
+                    applied = true;
+                    if (!ranking.addEdge(edge).isEmpty()) changed = ranking;
+                } else {
+                    // No usable ranking (never built, or it predates an endpoint)
+                    slot.ranking = null;
+                }
             }
+        }
+        if (changed != null) {
+            publishRanking(changed);
+        } else if (!applied && rankingPublisher.hasSubscribers(incidentId)) {
+            // Rebuild only if someone is listening
+            publishRanking(rankingFor(incidentId, tenantId));
+        }
+    }
 
-            // Continue DFS
-            dfsBackward(sourceId, path, weights, visited, incomingEdges, nodeMap, foundPaths, foundWeights);
+    private void publishRanking(IncrementalRootCauseRanking ranking) {
+        rankingPublisher.publish(new RootCauseRankingUpdate(
+            ranking.incidentId(), ranking.top(PUSHED_PATHS), Instant.now()));
+    }
 
-            path.removeLast();
-            weights.removeLast();
+    /** Runs the action once the surrounding transaction commits, or immediately if there is none. */
+    private void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                log.warn("Root-cause ranking update failed: {}", e.getMessage(), e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
         }
-
-        visited.remove(currentId);
     }
 
     @Transactional(readOnly = true)
     public BlastRadiusResult computeBlastRadius(UUID incidentId, UUID rootNodeId) {
-        incidentRepository.findById(incidentId)
+        var incident = incidentRepository.findById(incidentId)
             .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
 
+        var topology = topologyService.current(incident.getTenantId());
+
         var rootNode = nodeRepository.findById(rootNodeId)
             .filter(n -> n.getIncidentId().equals(incidentId))
+            .map(GraphNodeResult::from)
+            .or(() -> topologyNode(topology, rootNodeId))
             .orElseThrow(() -> new NodeNotFoundException(rootNodeId));
 
         var edges = edgeRepository.findByIncidentId(incidentId);
+        var graph = new IncidentGraphView(Map.of(), edges, topology, TRAVERSABLE_EDGE_TYPES);
 
-        // Build outgoing-edge adjacency map
-        Map<UUID, List<CorrelationEdge>> outgoingEdges = new HashMap<>();
-        for (var e : edges) {
-            if (TRAVERSABLE_EDGE_TYPES.contains(e.getEdgeType())) {
-                outgoingEdges.computeIfAbsent(e.getSourceNodeId(), k -> new ArrayList<>()).add(e);
-            }
-        }
-
-        // BFS forward
+        // BFS forward over incident edges and the shared topology
         Set<UUID> visited = new HashSet<>();
-        Queue<UUID> queue = new LinkedList<>();
+        Queue<UUID> queue = new ArrayDeque<>();
         queue.add(rootNodeId);
         visited.add(rootNodeId);
 
         List<GraphNodeResult> affected = new ArrayList<>();
         while (!queue.isEmpty()) {
             UUID current = queue.poll();
-            var outgoing = outgoingEdges.getOrDefault(current, List.of());
-            for (var edge : outgoing) {
-                UUID targetId = edge.getTargetNodeId();
-                if (!visited.contains(targetId)) {
-                    visited.add(targetId);
+            graph.forEachOutgoing(current, (targetId, weight) -> {
+                if (visited.add(targetId)) {
                     queue.add(targetId);
-                    nodeRepository.findById(targetId)
-                        .map(GraphNodeResult::from)
+                    topologyNode(topology, targetId)
+                        .or(() -> nodeRepository.findById(targetId).map(GraphNodeResult::from))
                         .ifPresent(affected::add);
                 }
-            }
+            });
         }
 
-        return new BlastRadiusResult(GraphNodeResult.from(rootNode), affected, affected.size());
+        return new BlastRadiusResult(rootNode, affected, affected.size());
+    }
+
+    private static Optional<GraphNodeResult> topologyNode(TopologyGraph topology, UUID nodeId) {
+        int idx = topology.indexOf(nodeId);
+        return idx < 0 ? Optional.empty() : Optional.of(topology.toNodeResult(idx));
     }
 
     private int seedAlertNodes(UUID incidentId, String tenantId) {
@@ -288,7 +469,8 @@ public class CorrelationGraphService {
                 alert.getDescription(), alert.getId(), alert.getSource(), "{}"
             );
             node.setTenantId(tenantId);
-            nodeRepository.save(node);
+            var savedNode = nodeRepository.save(node);
+            afterCommit(() -> applyNode(incidentId, savedNode));
             seeded++;
         }
 
@@ -301,6 +483,44 @@ public class CorrelationGraphService {
         return seeded;
     }
 
+    private static <E extends Enum<E>> Set<E> parseTypes(Collection<String> names, Class<E> type) {
+        if (names == null || names.isEmpty()) {
+            return EnumSet.allOf(type);
+        }
+        var types = EnumSet.noneOf(type);
+        for (var name : names) {
+            types.add(Enum.valueOf(type, name.toUpperCase()));
+        }
+        return types;
+    }
+
+    private static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private String resolveEndpointLabel(UUID incidentId, String tenantId, UUID nodeId) {
+        var node = nodeRepository.findById(nodeId)
+            .filter(n -> n.getIncidentId().equals(incidentId));
+        if (node.isPresent()) {
+            return node.get().getLabel();
+        }
+        var topology = topologyService.current(tenantId);
+        int idx = topology.indexOf(nodeId);
+        if (idx < 0) {
+            throw new NodeNotFoundException(nodeId);
+        }
+        return topology.label(idx);
+    }
+
+    private static boolean referencesTopology(Set<UUID> incidentNodeIds, List<CorrelationEdge> edges) {
+        for (var e : edges) {
+            if (!incidentNodeIds.contains(e.getSourceNodeId()) || !incidentNodeIds.contains(e.getTargetNodeId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String serializeMap(Map<String, String> map) {
         if (map == null || map.isEmpty()) return "{}";
         try {
@@ -0,0 +1,200 @@
+package com.magiconcall.application.graph;
+
+import java.util.*;
+
+/**
+ * Streaming log template miner after Drain (He et al., ICWS 2017).
+ * <p>
+ * Lines are split on whitespace and tokens containing a digit (timestamps, ids, counts, sizes)
+ * are masked as {@link #WILDCARD} up front. A fixed-depth parse tree then routes each line by its
+ * token count and its first {@code depth - 2} tokens to a leaf holding a handful of templates:
+ * <pre>
+ *   root ─ token count ─ token 1 ─ … ─ token (depth-2) ─ [templates]
+ * </pre>
+ * A node keeps at most {@code maxChildren} distinct tokens; further tokens share a wildcard
+ * child, so the tree stays bounded however many distinct values a log prints. The line joins
+ * the leaf template with the highest share of equal tokens if that share reaches
+ * {@code similarityThreshold}, turning the positions that differ into wildcards; otherwise it
+ * starts a template of its own. Routing and matching touch a fixed number of nodes and a leaf of
+ * bounded size, so each line costs O(tokens) regardless of how many lines came before.
+ * <p>
+ * Once {@code maxTemplates} templates exist, unmatched lines join the closest template of their
+ * leaf, or are dropped when the leaf is empty. Not thread-safe; callers serialize access.
+ */
+public class DrainLogTemplateMiner {
+
+    public static final String WILDCARD = "<*>";
+
+    /** A template and the number of lines it has matched so far. */
+    public record Template(int id, String template, long count) {}
+
+    private final int routingDepth;
+    private final double similarityThreshold;
+    private final int maxChildren;
+    private final int maxTemplates;
+    private final Map<Integer, Node> byLength = new HashMap<>();
+    private final List<Cluster> clusters = new ArrayList<>();
+
+    public DrainLogTemplateMiner(int depth, double similarityThreshold, int maxChildren, int maxTemplates) {
+        if (depth < 3 || maxChildren < 2 || maxTemplates <= 0
+            || similarityThreshold < 0 || similarityThreshold > 1) {
+            throw new IllegalArgumentException(
+                "depth must be ≥ 3, max children ≥ 2, max templates positive and threshold in [0, 1]");
+        }
+        this.routingDepth = depth - 2;
+        this.similarityThreshold = similarityThreshold;
+        this.maxChildren = maxChildren;
+        this.maxTemplates = maxTemplates;
+    }
+
+    /**
+     * Counts {@code line} against its template, creating or generalizing one as needed.
+     *
+     * @return the template id, or -1 for a blank line or one dropped because the miner is full
+     */
+    public int add(String line) {
+        var tokens = tokenize(line);
+        if (tokens.length == 0) return -1;
+
+        var leaf = findLeaf(tokens);
+        var match = leaf != null ? bestMatch(leaf, tokens, clusters.size() >= maxTemplates) : null;
+        if (match != null) {
+            match.merge(tokens);
+            return match.id;
+        }
+        if (clusters.size() >= maxTemplates) return -1;
+        return insert(tokens, 1).id;
+    }
+
+    /**
+     * Re-creates a previously mined template, e.g. after a restart, without re-reading its lines.
+     * Restoring the same template twice returns the existing id and keeps the larger count.
+     */
+    public int restore(String template, long count) {
+        var tokens = tokenize(template);
+        if (tokens.length == 0) return -1;
+        var leaf = findLeaf(tokens);
+        if (leaf != null) {
+            for (var cluster : leaf.clusters) {
+                if (Arrays.equals(cluster.tokens, tokens)) {
+                    cluster.count = Math.max(cluster.count, count);
+                    return cluster.id;
+                }
+            }
+        }
+        if (clusters.size() >= maxTemplates) return -1;
+        return insert(tokens, count).id;
+    }
+
+    public Template template(int id) {
+        var cluster = clusters.get(id);
+        return new Template(id, String.join(" ", cluster.tokens), cluster.count);
+    }
+
+    public int size() {
+        return clusters.size();
+    }
+
+    /** Follows existing nodes only: the exact token where present, else the wildcard child. */
+    private Node findLeaf(String[] tokens) {
+        var node = byLength.get(tokens.length);
+        int depth = Math.min(routingDepth, tokens.length);
+        for (int i = 0; node != null && i < depth; i++) {
+            var child = node.children.get(tokens[i]);
+            node = child != null ? child : node.children.get(WILDCARD);
+        }
+        return node;
+    }
+
+    private Cluster bestMatch(Node leaf, String[] tokens, boolean full) {
+        Cluster best = null;
+        double bestSimilarity = -1;
+        int bestWildcards = -1;
+        for (var cluster : leaf.clusters) {
+            int equal = 0;
+            int wildcards = 0;
+            for (int i = 0; i < tokens.length; i++) {
+                var token = cluster.tokens[i];
+                if (token == WILDCARD) {
+                    wildcards++;
+                } else if (token.equals(tokens[i])) {
+                    equal++;
+                }
+            }
+            double similarity = equal / (double) tokens.length;
+            if (similarity > bestSimilarity || (similarity == bestSimilarity && wildcards > bestWildcards)) {
+                best = cluster;
+                bestSimilarity = similarity;
+                bestWildcards = wildcards;
+            }
+        }
+        return best != null && (full || bestSimilarity >= similarityThreshold) ? best : null;
+    }
+
+    private Cluster insert(String[] tokens, long count) {
+        var node = byLength.computeIfAbsent(tokens.length, n -> new Node());
+        int depth = Math.min(routingDepth, tokens.length);
+        for (int i = 0; i < depth; i++) {
+            var token = tokens[i];
+            var child = node.children.get(token);
+            if (child == null) {
+                // Keep the last slot for the wildcard child that absorbs the overflow
+                boolean room = token != WILDCARD && node.children.size() < maxChildren - 1;
+                child = node.children.computeIfAbsent(room ? token : WILDCARD, t -> new Node());
+            }
+            node = child;
+        }
+        var cluster = new Cluster(clusters.size(), tokens, count);
+        clusters.add(cluster);
+        node.clusters.add(cluster);
+        return cluster;
+    }
+
+    /** Whitespace split; tokens with a digit become the interned {@link #WILDCARD}. */
+    static String[] tokenize(String line) {
+        if (line == null) return new String[0];
+        var tokens = new ArrayList<String>();
+        int length = line.length();
+        int start = -1;
+        boolean digit = false;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? line.charAt(i) : ' ';
+            if (Character.isWhitespace(c)) {
+                if (start >= 0) {
+                    tokens.add(digit || line.startsWith(WILDCARD, start) && i - start == WILDCARD.length()
+                        ? WILDCARD : line.substring(start, i));
+                    start = -1;
+                    digit = false;
+                }
+            } else {
+                if (start < 0) start = i;
+                digit |= c >= '0' && c <= '9';
+            }
+        }
+        return tokens.toArray(String[]::new);
+    }
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final List<Cluster> clusters = new ArrayList<>(1);
+    }
+
+    private static final class Cluster {
+        final int id;
+        final String[] tokens;
+        long count;
+
+        Cluster(int id, String[] tokens, long count) {
+            this.id = id;
+            this.tokens = tokens;
+            this.count = count;
+        }
+
+        void merge(String[] line) {
+            for (int i = 0; i < tokens.length; i++) {
+                if (tokens[i] != WILDCARD && !tokens[i].equals(line[i])) tokens[i] = WILDCARD;
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.magiconcall.application.graph;
+
+public enum GraphExportFormat {
+    /** One JSON object per line: {@code {"type":"node","data":{…}}} or {@code {"type":"edge","data":{…}}}. */
+    NDJSON("application/x-ndjson", "ndjson"),
+    GRAPHML("application/graphml+xml", "graphml");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    GraphExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String contentType() { return contentType; }
+
+    public String fileExtension() { return fileExtension; }
+}
@@ -0,0 +1,124 @@
+package com.magiconcall.application.graph;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Streams the graph as GraphML through StAX. GraphML allows nodes and edges in any order, so
+ * topology nodes delivered between edges need no buffering.
+ */
+final class GraphMlGraphWriter implements GraphVisitor {
+
+    private static final String NS = "http://graphml.graphdrawing.org/xmlns";
+
+    // key id, owner, attribute name, attribute type
+    private static final String[][] KEYS = {
+        {"nodeType", "node", "nodeType", "string"},
+        {"label", "node", "label", "string"},
+        {"description", "node", "description", "string"},
+        {"source", "node", "source", "string"},
+        {"referenceId", "node", "referenceId", "string"},
+        {"createdAt", "all", "createdAt", "string"},
+        {"edgeType", "edge", "edgeType", "string"},
+        {"weight", "edge", "weight", "double"},
+        {"reason", "edge", "reason", "string"},
+    };
+
+    private final XMLStreamWriter xml;
+
+    GraphMlGraphWriter(OutputStream out) {
+        try {
+            this.xml = XMLOutputFactory.newFactory().createXMLStreamWriter(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024));
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Cannot create GraphML writer", e);
+        }
+    }
+
+    @Override
+    public void start(UUID incidentId) {
+        try {
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("graphml");
+            xml.writeDefaultNamespace(NS);
+            for (var key : KEYS) {
+                xml.writeEmptyElement("key");
+                xml.writeAttribute("id", key[0]);
+                xml.writeAttribute("for", key[1]);
+                xml.writeAttribute("attr.name", key[2]);
+                xml.writeAttribute("attr.type", key[3]);
+            }
+            xml.writeStartElement("graph");
+            xml.writeAttribute("id", incidentId.toString());
+            xml.writeAttribute("edgedefault", "directed");
+        } catch (XMLStreamException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public void node(GraphNodeResult node) {
+        try {
+            xml.writeStartElement("node");
+            xml.writeAttribute("id", node.id().toString());
+            data("nodeType", node.nodeType());
+            data("label", node.label());
+            data("description", node.description());
+            data("source", node.source());
+            data("referenceId", node.referenceId());
+            data("createdAt", node.createdAt());
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public void edge(GraphEdgeResult edge) {
+        try {
+            xml.writeStartElement("edge");
+            xml.writeAttribute("id", edge.id().toString());
+            xml.writeAttribute("source", edge.sourceNodeId().toString());
+            xml.writeAttribute("target", edge.targetNodeId().toString());
+            data("edgeType", edge.edgeType());
+            data("weight", edge.weight());
+            data("reason", edge.reason());
+            data("createdAt", edge.createdAt());
+            xml.writeEndElement();
+        } catch (XMLStreamException e) {
+            throw failure(e);
+        }
+    }
+
+    @Override
+    public void end() {
+        try {
+            xml.writeEndElement(); // graph
+            xml.writeEndElement(); // graphml
+            xml.writeEndDocument();
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw failure(e);
+        }
+    }
+
+    private void data(String key, Object value) throws XMLStreamException {
+        if (value == null) return;
+        xml.writeStartElement("data");
+        xml.writeAttribute("key", key);
+        xml.writeCharacters(value.toString());
+        xml.writeEndElement();
+    }
+
+    private static UncheckedIOException failure(XMLStreamException e) {
+        return new UncheckedIOException(new IOException("GraphML export failed", e));
+    }
+}
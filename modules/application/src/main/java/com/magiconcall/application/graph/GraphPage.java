@@ -0,0 +1,10 @@
+package com.magiconcall.application.graph;
+
+import java.util.List;
+import java.util.UUID;
+
+/** One keyset page; pass {@code nextCursor} as {@code after} to continue, null when exhausted. */
+public record GraphPage<T>(
+    List<T> items,
+    UUID nextCursor
+) {}
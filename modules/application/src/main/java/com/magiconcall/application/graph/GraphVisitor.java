@@ -0,0 +1,22 @@
+package com.magiconcall.application.graph;
+
+import java.util.UUID;
+
+/**
+ * Receives an incident graph one element at a time from {@link CorrelationGraphExporter#walk}.
+ * The incident's own nodes come first, then its edges; a topology node is delivered through
+ * {@link #node} just before the first edge that references it.
+ */
+public interface GraphVisitor {
+
+    default void start(UUID incidentId) {}
+
+    void node(GraphNodeResult node);
+
+    /** Called once after the incident's own nodes, before the first edge. */
+    default void startEdges() {}
+
+    void edge(GraphEdgeResult edge);
+
+    default void end() {}
+}
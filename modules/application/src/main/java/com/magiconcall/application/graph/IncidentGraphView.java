@@ -0,0 +1,111 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.CorrelationEdge;
+import com.magiconcall.domain.graph.CorrelationEdgeType;
+import com.magiconcall.domain.graph.CorrelationNode;
+import com.magiconcall.domain.graph.CorrelationNodeType;
+
+import java.util.*;
+
+/**
+ * Union of an incident's own nodes/edges and the tenant's shared {@link TopologyGraph}.
+ * <p>
+ * The topology is never copied: lookups consult the incident layer first and fall through to
+ * the topology's CSR arrays, so traversals walk both layers as one graph without materializing
+ * it. Incident edges may point at topology node ids (e.g. DEPLOY → payments-api), which is how
+ * incident-specific nodes are attached to the shared structure.
+ * <p>
+ * Only the incident layer can grow ({@link #addNode}, {@link #addEdge}); callers that share a
+ * view across threads must synchronize. Edges are keyed by id, so an edge that a rebuild already
+ * read from the database and that is then applied again after its commit is counted once.
+ */
+final class IncidentGraphView {
+
+    @FunctionalInterface
+    interface NeighbourVisitor {
+        void visit(UUID neighbourId, double weight);
+    }
+
+    private final Map<UUID, CorrelationNode> incidentNodes;
+    private final Map<UUID, List<CorrelationEdge>> incoming = new HashMap<>();
+    private final Map<UUID, List<CorrelationEdge>> outgoing = new HashMap<>();
+    private final Set<UUID> edgeIds = new HashSet<>();
+    private final TopologyGraph topology;
+    private final Set<CorrelationEdgeType> traversableEdgeTypes;
+
+    IncidentGraphView(Map<UUID, CorrelationNode> incidentNodes, Collection<CorrelationEdge> incidentEdges,
+                      TopologyGraph topology, Set<CorrelationEdgeType> traversableEdgeTypes) {
+        this.incidentNodes = new HashMap<>(incidentNodes);
+        this.topology = topology;
+        this.traversableEdgeTypes = traversableEdgeTypes;
+        for (var e : incidentEdges) addEdge(e);
+    }
+
+    TopologyGraph topology() {
+        return topology;
+    }
+
+    void addNode(CorrelationNode node) {
+        incidentNodes.put(node.getId(), node);
+    }
+
+    /**
+     * Adds the edge to the traversal indexes; returns false if its type is not traversable or
+     * the view already holds it.
+     */
+    boolean addEdge(CorrelationEdge e) {
+        if (!traversableEdgeTypes.contains(e.getEdgeType())) return false;
+        if (e.getId() != null && !edgeIds.add(e.getId())) return false;
+        incoming.computeIfAbsent(e.getTargetNodeId(), k -> new ArrayList<>()).add(e);
+        outgoing.computeIfAbsent(e.getSourceNodeId(), k -> new ArrayList<>()).add(e);
+        return true;
+    }
+
+    /** Incident node ids followed by every topology node id. */
+    List<UUID> nodeIds() {
+        var ids = new ArrayList<UUID>(incidentNodes.size() + topology.nodeCount());
+        ids.addAll(incidentNodes.keySet());
+        for (int i = 0; i < topology.nodeCount(); i++) {
+            ids.add(topology.id(i));
+        }
+        return ids;
+    }
+
+    boolean contains(UUID nodeId) {
+        return incidentNodes.containsKey(nodeId) || topology.contains(nodeId);
+    }
+
+    CorrelationNodeType nodeType(UUID nodeId) {
+        var node = incidentNodes.get(nodeId);
+        if (node != null) return node.getNodeType();
+        int idx = topology.indexOf(nodeId);
+        return idx < 0 ? null : topology.nodeType(idx);
+    }
+
+    String label(UUID nodeId) {
+        var node = incidentNodes.get(nodeId);
+        if (node != null) return node.getLabel();
+        int idx = topology.indexOf(nodeId);
+        return idx < 0 ? null : topology.label(idx);
+    }
+
+    void forEachIncoming(UUID nodeId, NeighbourVisitor visitor) {
+        for (var e : incoming.getOrDefault(nodeId, List.of())) {
+            visitor.visit(e.getSourceNodeId(), e.getWeight());
+        }
+        int idx = topology.indexOf(nodeId);
+        if (idx >= 0) {
+            topology.forEachIncoming(idx, (n, w) -> visitor.visit(topology.id(n), w));
+        }
+    }
+
+    void forEachOutgoing(UUID nodeId, NeighbourVisitor visitor) {
+        for (var e : outgoing.getOrDefault(nodeId, List.of())) {
+            visitor.visit(e.getTargetNodeId(), e.getWeight());
+        }
+        int idx = topology.indexOf(nodeId);
+        if (idx >= 0) {
+            topology.forEachOutgoing(idx, (n, w) -> visitor.visit(topology.id(n), w));
+        }
+    }
+}
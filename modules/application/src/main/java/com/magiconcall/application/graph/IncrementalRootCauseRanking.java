@@ -0,0 +1,196 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.CorrelationEdge;
+import com.magiconcall.domain.graph.CorrelationNode;
+import com.magiconcall.domain.graph.CorrelationNodeType;
+
+import java.util.*;
+
+/**
+ * Per-incident root-cause ranking that is maintained incrementally.
+ * <p>
+ * {@link #build} enumerates every symptom ← … ← root-cause path once (the same backward DFS
+ * {@code findRootCausePaths} always used). After that, adding an edge u → v only enumerates
+ * the paths that contain it: every backward prefix from u to a root-cause node joined with every
+ * forward suffix from v to a symptom, keeping the combinations that are simple and within the
+ * hop limit. Adding an isolated node cannot create a path, so it only registers the node.
+ * All methods synchronize on the instance.
+ */
+final class IncrementalRootCauseRanking {
+
+    private final UUID incidentId;
+    private final IncidentGraphView graph;
+    private final long builtAtNanos;
+    // Sorted by score descending; ties keep insertion order
+    private final List<RootCausePath> paths = new ArrayList<>();
+
+    private IncrementalRootCauseRanking(UUID incidentId, IncidentGraphView graph) {
+        this.incidentId = incidentId;
+        this.graph = graph;
+        this.builtAtNanos = System.nanoTime();
+    }
+
+    static IncrementalRootCauseRanking build(UUID incidentId, List<CorrelationNode> nodes, IncidentGraphView graph) {
+        var ranking = new IncrementalRootCauseRanking(incidentId, graph);
+        List<RootCausePath> all = new ArrayList<>();
+        for (var node : nodes) {
+            if (!CorrelationGraphService.SYMPTOM_TYPES.contains(node.getNodeType())) continue;
+            var path = new ArrayList<UUID>(List.of(node.getId()));
+            ranking.dfsBackward(node.getId(), path, new ArrayList<>(), new HashSet<>(),
+                (ids, weights) -> all.add(ranking.toPath(ids.reversed(), weights)));
+        }
+        all.sort(Comparator.comparingDouble(RootCausePath::score).reversed());
+        ranking.paths.addAll(all);
+        return ranking;
+    }
+
+    UUID incidentId() { return incidentId; }
+
+    long topologyVersion() { return graph.topology().version(); }
+
+    long builtAtNanos() { return builtAtNanos; }
+
+    synchronized List<RootCausePath> top(int n) {
+        return List.copyOf(paths.subList(0, Math.min(n, paths.size())));
+    }
+
+    synchronized boolean contains(UUID nodeId) {
+        return graph.contains(nodeId);
+    }
+
+    synchronized void addNode(CorrelationNode node) {
+        graph.addNode(node);
+    }
+
+    /** Registers the edge and merges the paths it creates; returns those new paths. */
+    synchronized List<RootCausePath> addEdge(CorrelationEdge edge) {
+        if (!graph.addEdge(edge)) return List.of();
+
+        UUID u = edge.getSourceNodeId();
+        UUID v = edge.getTargetNodeId();
+
+        // Prefixes: u ← … ← root, as [u, …, root] with the weights walked
+        List<List<UUID>> prefixIds = new ArrayList<>();
+        List<List<Double>> prefixWeights = new ArrayList<>();
+        if (CorrelationGraphService.ROOT_CAUSE_TYPES.contains(graph.nodeType(u))) {
+            prefixIds.add(List.of(u));
+            prefixWeights.add(List.of());
+        }
+        dfsBackward(u, new ArrayList<>(List.of(u)), new ArrayList<>(), new HashSet<>(Set.of(v)),
+            (ids, weights) -> { prefixIds.add(ids); prefixWeights.add(weights); });
+
+        // Suffixes: v → … → symptom, as [v, …, symptom]
+        List<List<UUID>> suffixIds = new ArrayList<>();
+        List<List<Double>> suffixWeights = new ArrayList<>();
+        if (CorrelationGraphService.SYMPTOM_TYPES.contains(graph.nodeType(v))) {
+            suffixIds.add(List.of(v));
+            suffixWeights.add(List.of());
+        }
+        dfsForward(v, new ArrayList<>(List.of(v)), new ArrayList<>(), new HashSet<>(Set.of(u)),
+            suffixIds, suffixWeights);
+
+        List<RootCausePath> added = new ArrayList<>();
+        for (int p = 0; p < prefixIds.size(); p++) {
+            var prefix = prefixIds.get(p);
+            Set<UUID> prefixSet = new HashSet<>(prefix);
+            for (int s = 0; s < suffixIds.size(); s++) {
+                var suffix = suffixIds.get(s);
+                int hops = prefixWeights.get(p).size() + 1 + suffixWeights.get(s).size();
+                if (hops > CorrelationGraphService.MAX_PATH_HOPS) continue;
+                if (suffix.stream().anyMatch(prefixSet::contains)) continue;
+
+                // Forward orientation root → … → u → v → … → symptom
+                var ids = new ArrayList<UUID>(prefix.reversed());
+                ids.addAll(suffix);
+                var weights = new ArrayList<Double>(prefixWeights.get(p).reversed());
+                weights.add(edge.getWeight());
+                weights.addAll(suffixWeights.get(s));
+                added.add(toPath(ids, weights));
+            }
+        }
+
+        for (var path : added) insertSorted(path);
+        return added;
+    }
+
+    private interface PathSink {
+        void accept(List<UUID> ids, List<Double> weights);
+    }
+
+    /**
+     * Backward DFS from {@code currentId}; reports a copy of the path each time it reaches a
+     * root-cause node. {@code path} runs from the start node backwards.
+     */
+    private void dfsBackward(UUID currentId, List<UUID> path, List<Double> weights,
+                             Set<UUID> visited, PathSink sink) {
+        if (weights.size() >= CorrelationGraphService.MAX_PATH_HOPS) return;
+        visited.add(currentId);
+
+        graph.forEachIncoming(currentId, (sourceId, weight) -> {
+            if (visited.contains(sourceId)) return;
+
+            var sourceType = graph.nodeType(sourceId);
+            if (sourceType == null) return;
+
+            path.add(sourceId);
+            weights.add(weight);
+
+            if (CorrelationGraphService.ROOT_CAUSE_TYPES.contains(sourceType)) {
+                sink.accept(new ArrayList<>(path), new ArrayList<>(weights));
+            }
+            dfsBackward(sourceId, path, weights, visited, sink);
+
+            path.removeLast();
+            weights.removeLast();
+        });
+
+        visited.remove(currentId);
+    }
+
+    private void dfsForward(UUID currentId, List<UUID> path, List<Double> weights, Set<UUID> visited,
+                            List<List<UUID>> foundIds, List<List<Double>> foundWeights) {
+        if (weights.size() >= CorrelationGraphService.MAX_PATH_HOPS) return;
+        visited.add(currentId);
+
+        graph.forEachOutgoing(currentId, (targetId, weight) -> {
+            if (visited.contains(targetId)) return;
+
+            CorrelationNodeType targetType = graph.nodeType(targetId);
+            if (targetType == null) return;
+
+            path.add(targetId);
+            weights.add(weight);
+
+            if (CorrelationGraphService.SYMPTOM_TYPES.contains(targetType)) {
+                foundIds.add(new ArrayList<>(path));
+                foundWeights.add(new ArrayList<>(weights));
+            }
+            dfsForward(targetId, path, weights, visited, foundIds, foundWeights);
+
+            path.removeLast();
+            weights.removeLast();
+        });
+
+        visited.remove(currentId);
+    }
+
+    /** {@code ids} run root cause → symptom; weights are in any order (only their product is used). */
+    private RootCausePath toPath(List<UUID> ids, List<Double> weights) {
+        var labels = ids.stream().map(graph::label).toList();
+        double weightProduct = weights.stream().reduce(1.0, (a, b) -> a * b);
+        double score = weightProduct / (1.0 + weights.size() * 0.1);
+        String explanation = "%s → ... → %s (score: %.3f)".formatted(
+            labels.getFirst(), labels.getLast(), score);
+        return new RootCausePath(List.copyOf(ids), labels, score, explanation);
+    }
+
+    private void insertSorted(RootCausePath path) {
+        int lo = 0, hi = paths.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (paths.get(mid).score() >= path.score()) lo = mid + 1;
+            else hi = mid;
+        }
+        paths.add(lo, path);
+    }
+}
@@ -0,0 +1,219 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.magiconcall.domain.graph.CorrelationNodeRepository;
+import com.magiconcall.domain.graph.CorrelationNodeType;
+import com.magiconcall.domain.graph.LogTemplateLines;
+import com.magiconcall.domain.incident.Evidence;
+import com.magiconcall.domain.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mines log templates from the output of the {@code logs} tool and keeps one LOG_CLUSTER node per
+ * template in the incident graph, labelled with the template and carrying its line count in the
+ * metadata ({@code {"template": ..., "count": ...}}).
+ * <p>
+ * Mining runs on a virtual thread of its own once the tool's evidence has committed, so a large
+ * output is never mined while the tool call's transaction holds its locks, nor on the caller's
+ * time. Each incident has its own {@link DrainLogTemplateMiner}, held in a bounded cache and
+ * locked on its own, so outputs of different incidents are mined in parallel. A miner that is not cached (first output, eviction,
+ * restart) is rebuilt from the incident's existing template nodes.
+ * <p>
+ * Nodes are keyed by incident, source and template, and each output adds its line counts to them
+ * in one short transaction and a single upsert, rather than writing the miner's totals, so
+ * replicas mining the same incident add up instead of overwriting each other or creating
+ * duplicate nodes. When new lines generalize a template, its node is renamed to follow it. If the
+ * write fails, the incident's miner is dropped and rebuilt from what was committed. Node
+ * changes invalidate the incident's cached root-cause ranking.
+ */
+@Service
+public class LogTemplateService {
+
+    private static final Logger log = LoggerFactory.getLogger(LogTemplateService.class);
+
+    static final String SOURCE = "log-template-miner";
+    private static final String LOGS_TOOL = "logs";
+    private static final String HEADER_PREFIX = "[logs]";
+    private static final int MAX_LABEL_LENGTH = 255;
+
+    private final CorrelationNodeRepository nodeRepository;
+    private final CorrelationGraphService graphService;
+    private final TransactionOperations transactionOperations;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int depth;
+    private final double similarityThreshold;
+    private final int maxChildren;
+    private final int maxTemplates;
+    private final Cache<UUID, IncidentTemplates> incidents;
+
+    public LogTemplateService(CorrelationNodeRepository nodeRepository,
+                              CorrelationGraphService graphService,
+                              TransactionOperations transactionOperations,
+                              ObjectMapper objectMapper,
+                              @Value("${magiconcall.correlation.log-templates.enabled:true}") boolean enabled,
+                              @Value("${magiconcall.correlation.log-templates.depth:4}") int depth,
+                              @Value("${magiconcall.correlation.log-templates.similarity-threshold:0.5}") double similarityThreshold,
+                              @Value("${magiconcall.correlation.log-templates.max-children:100}") int maxChildren,
+                              @Value("${magiconcall.correlation.log-templates.max-templates:500}") int maxTemplates,
+                              @Value("${magiconcall.correlation.log-templates.max-incidents:1000}") long maxIncidents,
+                              @Value("${magiconcall.correlation.log-templates.idle-ttl:1h}") Duration idleTtl) {
+        this.nodeRepository = nodeRepository;
+        this.graphService = graphService;
+        this.transactionOperations = transactionOperations;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.depth = depth;
+        this.similarityThreshold = similarityThreshold;
+        this.maxChildren = maxChildren;
+        this.maxTemplates = maxTemplates;
+        this.incidents = Caffeine.newBuilder()
+            .maximumSize(maxIncidents)
+            .expireAfterAccess(idleTtl)
+            .build();
+    }
+
+    /**
+     * Mines {@code content} in the background once the surrounding transaction commits, or on the
+     * calling thread if there is none.
+     */
+    public void onToolOutput(String toolName, Evidence evidence, String content) {
+        if (!enabled || !LOGS_TOOL.equals(toolName) || content == null || content.isBlank()) return;
+        if (evidence.getIncidentId() == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // Its own thread, because afterCommit still has the finished transaction's
+                    // connection bound to this one and writes there would never be committed
+                    Thread.ofVirtual().name("log-template-miner").start(() -> {
+                        TenantContext.setTenantId(evidence.getTenantId());
+                        try {
+                            mine(evidence, content);
+                        } catch (RuntimeException e) {
+                            log.warn("Log template mining failed for incident {}: {}",
+                                evidence.getIncidentId(), e.getMessage(), e);
+                        } finally {
+                            TenantContext.clear();
+                        }
+                    });
+                }
+            });
+        } else {
+            mine(evidence, content);
+        }
+    }
+
+    private void mine(Evidence evidence, String content) {
+        var incidentId = evidence.getIncidentId();
+        var templates = templatesFor(incidentId);
+        boolean nodesChanged;
+        templates.lock.lock();
+        try {
+            var touched = new LinkedHashMap<Integer, Long>();
+            content.lines().forEach(line -> {
+                // The tool's own "[logs] Results for ..." header is not a log line
+                if (line.startsWith(HEADER_PREFIX)) return;
+                int id = templates.miner.add(line);
+                if (id >= 0) touched.merge(id, 1L, Long::sum);
+            });
+            if (touched.isEmpty()) return;
+
+            try {
+                nodesChanged = Boolean.TRUE.equals(transactionOperations.execute(tx -> save(templates, touched, evidence)));
+            } catch (RuntimeException e) {
+                // The miner is ahead of what was committed; start over from the stored nodes
+                incidents.invalidate(incidentId);
+                log.warn("Could not save log templates of incident {}: {}", incidentId, e.getMessage());
+                return;
+            }
+            log.debug("Log templates updated: incident={}, templates={}, total={}",
+                incidentId, touched.size(), templates.miner.size());
+        } finally {
+            templates.lock.unlock();
+        }
+        if (nodesChanged) {
+            graphService.invalidateRanking(incidentId, evidence.getTenantId());
+        }
+    }
+
+    /** The incident's miner, restored outside the cache so no cache lock is held across the read. */
+    private IncidentTemplates templatesFor(UUID incidentId) {
+        var templates = incidents.getIfPresent(incidentId);
+        if (templates != null) return templates;
+        var restored = restore(incidentId);
+        var raced = incidents.asMap().putIfAbsent(incidentId, restored);
+        return raced != null ? raced : restored;
+    }
+
+    /** Renames generalized templates and adds the lines; true if nodes were created, renamed or merged. */
+    private boolean save(IncidentTemplates templates, Map<Integer, Long> touched, Evidence evidence) {
+        var incidentId = evidence.getIncidentId();
+        boolean renamed = false;
+        var lines = new LinkedHashMap<String, LogTemplateLines>();
+        for (var entry : touched.entrySet()) {
+            var template = templates.miner.template(entry.getKey()).template();
+            var label = truncate(template);
+            var previous = templates.saved.put(entry.getKey(), template);
+            if (previous != null && !previous.equals(template)) {
+                nodeRepository.renameLogTemplate(incidentId, SOURCE, previous, template, label);
+                renamed = true;
+            }
+            // Generalized templates can coincide; the upsert takes each template once
+            lines.merge(template, new LogTemplateLines(template, label, entry.getValue()),
+                (a, b) -> new LogTemplateLines(template, label, a.lines() + b.lines()));
+        }
+        int created = nodeRepository.addLogTemplateLines(evidence.getTenantId(), incidentId, evidence.getId(),
+            SOURCE, List.copyOf(lines.values()));
+        return renamed || created > 0;
+    }
+
+    private IncidentTemplates restore(UUID incidentId) {
+        var templates = new IncidentTemplates(
+            new DrainLogTemplateMiner(depth, similarityThreshold, maxChildren, maxTemplates));
+        for (var node : nodeRepository.findByIncidentIdAndNodeType(incidentId, CorrelationNodeType.LOG_CLUSTER)) {
+            if (!SOURCE.equals(node.getSource())) continue;
+            try {
+                var metadata = objectMapper.readTree(node.getMetadata());
+                var template = metadata.path("template").asText();
+                int id = templates.miner.restore(template, metadata.path("count").asLong());
+                if (id >= 0) templates.saved.put(id, template);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                log.warn("Skipping log template node {} with unreadable metadata: {}", node.getId(), e.getMessage());
+            }
+        }
+        return templates;
+    }
+
+    private static String truncate(String label) {
+        return label.length() <= MAX_LABEL_LENGTH ? label : label.substring(0, MAX_LABEL_LENGTH - 1) + "…";
+    }
+
+    /**
+     * The incident's miner and, per template id, the template text its node was last saved under.
+     * A lock rather than a monitor, so mining threads waiting on a busy incident do not pin their
+     * carrier threads.
+     */
+    private record IncidentTemplates(DrainLogTemplateMiner miner, Map<Integer, String> saved, ReentrantLock lock) {
+        IncidentTemplates(DrainLogTemplateMiner miner) {
+            this(miner, new HashMap<>(), new ReentrantLock());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/** Writes each graph element as one JSON line; nothing is held beyond the current element. */
+final class NdjsonGraphWriter implements GraphVisitor {
+
+    private record Line(String type, Object data) {}
+
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+
+    NdjsonGraphWriter(OutputStream out, ObjectMapper objectMapper) {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void node(GraphNodeResult node) {
+        write(new Line("node", node));
+    }
+
+    @Override
+    public void edge(GraphEdgeResult edge) {
+        write(new Line("edge", edge));
+    }
+
+    @Override
+    public void end() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Line line) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
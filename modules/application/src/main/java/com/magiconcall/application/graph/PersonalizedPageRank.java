@@ -0,0 +1,177 @@
+package com.magiconcall.application.graph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Personalized PageRank over a weighted directed graph in index space, walking edges
+ * <em>backwards</em> (target → source): a random walker restarts at the personalization
+ * nodes (the symptoms) and drifts towards whatever feeds them, so a node that sits upstream of
+ * many symptoms collects more mass than one that explains a single symptom.
+ * <p>
+ * The reversed graph is stored as CSR in pull form — for every node the original outgoing
+ * edges with their transition probability pre-divided by the target's total incoming weight —
+ * so one iteration is a single pass over primitive arrays:
+ * <pre>
+ *   next[x] = d · Σ coef(x→y) · rank[y]  +  (d · dangling + (1 − d)) · p[x]
+ * </pre>
+ * where {@code dangling} is the mass on nodes without incoming edges (nothing further upstream),
+ * which restarts at the personalization vector. Node ranges are split across the common
+ * fork/join pool once the graph exceeds {@link #PARALLEL_THRESHOLD} nodes; iteration stops when
+ * the L1 change drops below {@code tolerance}.
+ */
+final class PersonalizedPageRank {
+
+    record Result(double[] scores, int iterations, boolean converged) {}
+
+    static final double DEFAULT_DAMPING = 0.85;
+    static final double DEFAULT_TOLERANCE = 1e-6;
+    static final int DEFAULT_MAX_ITERATIONS = 100;
+    // Node count below which one thread is faster than forking
+    static final int PARALLEL_THRESHOLD = 4_096;
+
+    private final int nodeCount;
+    private final int[] offsets;        // CSR row starts, length nodeCount + 1
+    private final int[] downstream;     // for row x: the targets y of its original edges x → y
+    private final double[] coefficients;
+    private final boolean[] dangling;
+
+    private PersonalizedPageRank(int nodeCount, int[] offsets, int[] downstream,
+                                 double[] coefficients, boolean[] dangling) {
+        this.nodeCount = nodeCount;
+        this.offsets = offsets;
+        this.downstream = downstream;
+        this.coefficients = coefficients;
+        this.dangling = dangling;
+    }
+
+    /** Builds the reversed-walk operator from original-direction edges {@code from[i] → to[i]}. */
+    static PersonalizedPageRank fromEdges(int nodeCount, int[] from, int[] to, double[] weights) {
+        int edgeCount = from.length;
+        double[] incomingWeight = new double[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            if (weights[i] <= 0) continue;
+            incomingWeight[to[i]] += weights[i];
+            offsets[from[i] + 1]++;
+        }
+        for (int x = 0; x < nodeCount; x++) {
+            offsets[x + 1] += offsets[x];
+        }
+
+        int[] cursor = Arrays.copyOf(offsets, nodeCount);
+        int[] downstream = new int[offsets[nodeCount]];
+        double[] coefficients = new double[offsets[nodeCount]];
+        for (int i = 0; i < edgeCount; i++) {
+            if (weights[i] <= 0) continue;
+            int slot = cursor[from[i]]++;
+            downstream[slot] = to[i];
+            coefficients[slot] = weights[i] / incomingWeight[to[i]];
+        }
+
+        boolean[] dangling = new boolean[nodeCount];
+        for (int y = 0; y < nodeCount; y++) {
+            dangling[y] = incomingWeight[y] == 0;
+        }
+        return new PersonalizedPageRank(nodeCount, offsets, downstream, coefficients, dangling);
+    }
+
+    int nodeCount() { return nodeCount; }
+
+    int edgeCount() { return downstream.length; }
+
+    Result compute(double[] personalization) {
+        return compute(personalization, DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /** {@code personalization} must be non-negative; it is normalized to sum to one. */
+    Result compute(double[] personalization, double damping, double tolerance, int maxIterations) {
+        if (personalization.length != nodeCount) {
+            throw new IllegalArgumentException("personalization has " + personalization.length
+                + " entries for " + nodeCount + " nodes");
+        }
+        double total = 0;
+        for (double v : personalization) total += v;
+        if (total <= 0) {
+            return new Result(new double[nodeCount], 0, true);
+        }
+        double[] p = new double[nodeCount];
+        for (int x = 0; x < nodeCount; x++) p[x] = personalization[x] / total;
+
+        double[] rank = p.clone();
+        double[] next = new double[nodeCount];
+        double danglingMass = danglingMass(rank);
+
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            double restart = damping * danglingMass + (1 - damping);
+            var step = new Step(rank, next, p, damping, restart, 0, nodeCount);
+            double[] sums = nodeCount < PARALLEL_THRESHOLD ? step.compute() : ForkJoinPool.commonPool().invoke(step);
+
+            double[] swap = rank;
+            rank = next;
+            next = swap;
+            danglingMass = sums[1];
+            if (sums[0] < tolerance) {
+                return new Result(rank, iteration, true);
+            }
+        }
+        return new Result(rank, maxIterations, false);
+    }
+
+    private double danglingMass(double[] rank) {
+        double mass = 0;
+        for (int y = 0; y < nodeCount; y++) {
+            if (dangling[y]) mass += rank[y];
+        }
+        return mass;
+    }
+
+    /** One iteration over [from, to); returns {L1 delta, dangling mass of the new ranks}. */
+    private final class Step extends RecursiveTask<double[]> {
+
+        private final double[] rank;
+        private final double[] next;
+        private final double[] p;
+        private final double damping;
+        private final double restart;
+        private final int from;
+        private final int to;
+
+        Step(double[] rank, double[] next, double[] p, double damping, double restart, int from, int to) {
+            this.rank = rank;
+            this.next = next;
+            this.p = p;
+            this.damping = damping;
+            this.restart = restart;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                var left = new Step(rank, next, p, damping, restart, from, mid);
+                left.fork();
+                double[] right = new Step(rank, next, p, damping, restart, mid, to).compute();
+                double[] l = left.join();
+                return new double[] {l[0] + right[0], l[1] + right[1]};
+            }
+
+            double delta = 0;
+            double danglingNext = 0;
+            for (int x = from; x < to; x++) {
+                double pulled = 0;
+                for (int e = offsets[x], end = offsets[x + 1]; e < end; e++) {
+                    pulled += coefficients[e] * rank[downstream[e]];
+                }
+                double value = damping * pulled + restart * p[x];
+                next[x] = value;
+                delta += Math.abs(value - rank[x]);
+                if (dangling[x]) danglingNext += value;
+            }
+            return new double[] {delta, danglingNext};
+        }
+    }
+}
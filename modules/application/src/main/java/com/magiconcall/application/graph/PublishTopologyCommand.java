@@ -0,0 +1,16 @@
+package com.magiconcall.application.graph;
+
+import java.util.List;
+
+/**
+ * A complete replacement of the tenant's service topology. Each dependency means
+ * {@code downstream} depends on {@code upstream}, so faults propagate upstream → downstream.
+ */
+public record PublishTopologyCommand(
+    List<Service> services,
+    List<Dependency> dependencies
+) {
+    public record Service(String name, String nodeType, String description) {}
+
+    public record Dependency(String upstream, String downstream, double weight) {}
+}
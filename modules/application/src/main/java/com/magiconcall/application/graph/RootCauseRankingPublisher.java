@@ -0,0 +1,53 @@
+package com.magiconcall.application.graph;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of root-cause ranking changes to live subscribers (e.g. SSE streams).
+ * Listeners are invoked on the thread that committed the change and must not block.
+ */
+@Component
+public class RootCauseRankingPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RootCauseRankingPublisher.class);
+
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final ConcurrentHashMap<UUID, List<Consumer<RootCauseRankingUpdate>>> listeners = new ConcurrentHashMap<>();
+
+    public Subscription subscribe(UUID incidentId, Consumer<RootCauseRankingUpdate> listener) {
+        listeners.computeIfAbsent(incidentId, k -> new CopyOnWriteArrayList<>()).add(listener);
+        return () -> listeners.computeIfPresent(incidentId, (k, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    public boolean hasSubscribers(UUID incidentId) {
+        return listeners.containsKey(incidentId);
+    }
+
+    public void publish(RootCauseRankingUpdate update) {
+        var subscribers = listeners.get(update.incidentId());
+        if (subscribers == null) return;
+        for (var listener : subscribers) {
+            try {
+                listener.accept(update);
+            } catch (RuntimeException e) {
+                log.warn("Root-cause ranking listener failed for incident {}: {}",
+                    update.incidentId(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.magiconcall.application.graph;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record RootCauseRankingUpdate(
+    UUID incidentId,
+    List<RootCausePath> topPaths,
+    Instant updatedAt
+) {}
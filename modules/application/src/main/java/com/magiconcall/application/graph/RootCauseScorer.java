@@ -0,0 +1,9 @@
+package com.magiconcall.application.graph;
+
+/** How {@link CorrelationGraphService#findRootCausePaths(java.util.UUID, int, RootCauseScorer)} ranks candidates. */
+public enum RootCauseScorer {
+    /** Enumerates symptom ← … ← root-cause paths and ranks them by weight product and length. */
+    PATHS,
+    /** Ranks root-cause nodes by personalized PageRank seeded from the incident's symptoms. */
+    PAGERANK
+}
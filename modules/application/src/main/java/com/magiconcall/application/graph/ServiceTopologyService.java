@@ -0,0 +1,192 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.domain.graph.CorrelationEdgeRepository;
+import com.magiconcall.domain.graph.CorrelationNodeType;
+import com.magiconcall.domain.graph.ServiceTopologySnapshot;
+import com.magiconcall.domain.graph.ServiceTopologySnapshotRepository;
+import com.magiconcall.domain.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the tenant-wide service topology that every incident graph overlays.
+ * <p>
+ * Each publish appends an immutable {@link ServiceTopologySnapshot}; the latest one is held
+ * per tenant as a compact {@link TopologyGraph}. Readers get the cached instance and only
+ * re-check the latest snapshot version once {@code refresh-interval} has elapsed, so other
+ * instances pick up a new publish without hitting the database on every traversal.
+ * <p>
+ * Incident edges may point at topology nodes, so they carry no foreign keys to their endpoints.
+ * Each publish deletes the tenant's edges whose endpoints are gone, both edges to services the new
+ * snapshot dropped and any left behind by deleted incident nodes.
+ */
+@Service
+public class ServiceTopologyService {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceTopologyService.class);
+
+    static final String TOPOLOGY_SOURCE = "topology";
+
+    private static final Set<CorrelationNodeType> TOPOLOGY_NODE_TYPES = Set.of(
+        CorrelationNodeType.SERVICE, CorrelationNodeType.DEPENDENCY
+    );
+
+    private record CachedTopology(TopologyGraph graph, long checkedAtNanos) {}
+
+    private final ServiceTopologySnapshotRepository snapshotRepository;
+    private final CorrelationEdgeRepository edgeRepository;
+    private final ObjectMapper objectMapper;
+    private final long refreshIntervalNanos;
+    private final ConcurrentHashMap<String, CachedTopology> cache = new ConcurrentHashMap<>();
+
+    public ServiceTopologyService(ServiceTopologySnapshotRepository snapshotRepository,
+                                  CorrelationEdgeRepository edgeRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${magiconcall.topology.refresh-interval:30s}") Duration refreshInterval) {
+        this.snapshotRepository = snapshotRepository;
+        this.edgeRepository = edgeRepository;
+        this.objectMapper = objectMapper;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Stable id for a topology node: derived from tenant + name so the same service keeps
+     * its id across snapshot versions and incident edges pointing at it stay valid.
+     */
+    public static UUID topologyNodeId(String tenantId, String name) {
+        return UUID.nameUUIDFromBytes((tenantId + ":topology:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Transactional
+    public TopologyResult publish(PublishTopologyCommand command) {
+        String tenantId = TenantContext.requireTenantId();
+
+        var nodes = new ArrayList<TopologyGraph.Node>(command.services().size());
+        var idsByName = new HashMap<String, UUID>();
+        for (var service : command.services()) {
+            var nodeType = service.nodeType() == null
+                ? CorrelationNodeType.SERVICE
+                : CorrelationNodeType.valueOf(service.nodeType().toUpperCase());
+            if (!TOPOLOGY_NODE_TYPES.contains(nodeType)) {
+                throw new IllegalStateException("Topology nodes must be SERVICE or DEPENDENCY, got " + nodeType);
+            }
+            UUID id = topologyNodeId(tenantId, service.name());
+            if (idsByName.putIfAbsent(service.name(), id) != null) {
+                throw new IllegalStateException("Duplicate service in topology: " + service.name());
+            }
+            nodes.add(new TopologyGraph.Node(id, nodeType, service.name(), service.description()));
+        }
+
+        var dependencies = command.dependencies() == null ? List.<PublishTopologyCommand.Dependency>of() : command.dependencies();
+        var edges = new ArrayList<TopologyGraph.Edge>(dependencies.size());
+        for (var dep : dependencies) {
+            UUID upstream = requireService(idsByName, dep.upstream());
+            UUID downstream = requireService(idsByName, dep.downstream());
+            if (upstream.equals(downstream)) {
+                throw new IllegalStateException("Service cannot depend on itself: " + dep.upstream());
+            }
+            if (dep.weight() < 0.0 || dep.weight() > 1.0) {
+                throw new IllegalStateException("Dependency weight must be between 0 and 1: " + dep.weight());
+            }
+            edges.add(new TopologyGraph.Edge(upstream, downstream, dep.weight()));
+        }
+
+        long nextVersion = snapshotRepository.findLatestVersionByTenantId(tenantId).orElse(0L) + 1;
+        var snapshot = new ServiceTopologySnapshot(nextVersion, nodes.size(), edges.size(),
+            serialize(nodes), serialize(edges));
+        snapshot.setTenantId(tenantId);
+        snapshot = snapshotRepository.save(snapshot);
+        int dangling = edgeRepository.deleteDangling(tenantId, idsByName.values());
+
+        var graph = TopologyGraph.of(tenantId, nextVersion, snapshot.getCreatedAt(), nodes, edges);
+        cacheAfterCommit(tenantId, graph);
+
+        log.info("Published service topology v{} for tenant {}: {} nodes, {} edges, {} dangling incident edges deleted",
+            nextVersion, tenantId, nodes.size(), edges.size(), dangling);
+        return TopologyResult.from(graph);
+    }
+
+    @Transactional(readOnly = true)
+    public TopologyResult getCurrent() {
+        return TopologyResult.from(current(TenantContext.requireTenantId()));
+    }
+
+    /** Latest topology for the tenant; an empty graph if none has been published. */
+    public TopologyGraph current(String tenantId) {
+        var cached = cache.get(tenantId);
+        long now = System.nanoTime();
+        if (cached != null && now - cached.checkedAtNanos() < refreshIntervalNanos) {
+            return cached.graph();
+        }
+
+        long latestVersion = snapshotRepository.findLatestVersionByTenantId(tenantId).orElse(0L);
+        TopologyGraph graph;
+        if (cached != null && cached.graph().version() == latestVersion) {
+            graph = cached.graph();
+        } else if (latestVersion == 0L) {
+            graph = TopologyGraph.empty(tenantId);
+        } else {
+            graph = snapshotRepository.findLatestByTenantId(tenantId)
+                .map(this::toGraph)
+                .orElseGet(() -> TopologyGraph.empty(tenantId));
+            log.info("Loaded service topology v{} for tenant {}: {} nodes, {} edges",
+                graph.version(), tenantId, graph.nodeCount(), graph.edgeCount());
+        }
+        cache.put(tenantId, new CachedTopology(graph, now));
+        return graph;
+    }
+
+    /** A rolled-back publish must not be served from the cache, so it is only cached on commit. */
+    private void cacheAfterCommit(String tenantId, TopologyGraph graph) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(tenantId, new CachedTopology(graph, System.nanoTime()));
+                }
+            });
+        } else {
+            cache.put(tenantId, new CachedTopology(graph, System.nanoTime()));
+        }
+    }
+
+    private TopologyGraph toGraph(ServiceTopologySnapshot snapshot) {
+        try {
+            List<TopologyGraph.Node> nodes = objectMapper.readValue(snapshot.getNodes(), new TypeReference<>() {});
+            List<TopologyGraph.Edge> edges = objectMapper.readValue(snapshot.getEdges(), new TypeReference<>() {});
+            return TopologyGraph.of(snapshot.getTenantId(), snapshot.getSnapshotVersion(),
+                snapshot.getCreatedAt(), nodes, edges);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt topology snapshot " + snapshot.getId(), e);
+        }
+    }
+
+    private static UUID requireService(Map<String, UUID> idsByName, String name) {
+        UUID id = idsByName.get(name);
+        if (id == null) {
+            throw new IllegalStateException("Dependency references unknown service: " + name);
+        }
+        return id;
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize topology", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.alert.Alert;
+import com.magiconcall.domain.graph.*;
+import com.magiconcall.domain.incident.Evidence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Feeds alert ingestion and tool evidence into the {@link TemporalCorrelator} and writes the
+ * correlations it emits as TIME_CORRELATION edges into the incident graph, creating the
+ * ALERT / evidence nodes on demand (idempotent by referenceId, like alert auto-seeding).
+ * An incident has at most one TIME_CORRELATION edge per ordered node pair; later emissions
+ * update its weight. Runs inside the caller's transaction.
+ * <p>
+ * Tool evidence is keyed by what it observed (e.g. {@code metrics:checkout-api:latency_p99}),
+ * not by the tool that was run, so a correlation means two system signals move together rather
+ * than that a responder tends to run two tools in a row. Tools without such a subject, or
+ * output missing it, are not correlated.
+ */
+@Service
+public class TemporalCorrelationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TemporalCorrelationService.class);
+
+    private static final Map<String, CorrelationNodeType> TOOL_NODE_TYPES = Map.of(
+        "metrics", CorrelationNodeType.METRIC_ANOMALY,
+        "logs", CorrelationNodeType.LOG_CLUSTER,
+        "deploy", CorrelationNodeType.DEPLOY
+    );
+
+    /** Response metadata that identifies what each tool's output is about, most significant first. */
+    private static final Map<String, List<String>> TOOL_SUBJECTS = Map.of(
+        "metrics", List.of("service", "metric"),
+        "logs", List.of("service"),
+        "deploy", List.of("service", "environment")
+    );
+
+    private final CorrelationNodeRepository nodeRepository;
+    private final CorrelationEdgeRepository edgeRepository;
+    private final TemporalCorrelator correlator;
+    private final boolean enabled;
+    private final long windowSeconds;
+
+    public TemporalCorrelationService(CorrelationNodeRepository nodeRepository,
+                                      CorrelationEdgeRepository edgeRepository,
+                                      @Value("${magiconcall.correlation.temporal.enabled:true}") boolean enabled,
+                                      @Value("${magiconcall.correlation.temporal.window:5m}") Duration window,
+                                      @Value("${magiconcall.correlation.temporal.max-window-keys:1024}") int maxWindowKeys,
+                                      @Value("${magiconcall.correlation.temporal.max-tracked-keys:16384}") int maxTrackedKeys,
+                                      @Value("${magiconcall.correlation.temporal.min-support:3}") int minSupport,
+                                      @Value("${magiconcall.correlation.temporal.min-lift:2.0}") double minLift,
+                                      @Value("${magiconcall.correlation.temporal.decay-horizon:24h}") Duration decayHorizon) {
+        this.nodeRepository = nodeRepository;
+        this.edgeRepository = edgeRepository;
+        this.enabled = enabled;
+        this.windowSeconds = window.toSeconds();
+        this.correlator = new TemporalCorrelator(window.toMillis(), maxWindowKeys, maxTrackedKeys, minSupport,
+            minLift, decayHorizon.toMillis());
+    }
+
+    public void onAlert(Alert alert) {
+        if (!enabled) return;
+        observe(new TemporalCorrelator.Signal(
+            "alert:" + alert.getSource() + ":" + alert.getTitle(),
+            alert.getTenantId(), alert.getIncidentId(), alert.getId(),
+            CorrelationNodeType.ALERT, alert.getTitle(), Instant.now().toEpochMilli()));
+    }
+
+    public void onToolEvidence(String toolName, Map<String, String> responseMetadata, Evidence evidence) {
+        if (!enabled) return;
+        var subject = subject(toolName, responseMetadata);
+        if (subject == null) return;
+        observe(new TemporalCorrelator.Signal(
+            subject, evidence.getTenantId(), evidence.getIncidentId(), evidence.getId(),
+            TOOL_NODE_TYPES.get(toolName), subject, Instant.now().toEpochMilli()));
+    }
+
+    /** {@code tool:value:value…}, or null if the tool has no subject or it is not in the metadata. */
+    static String subject(String toolName, Map<String, String> responseMetadata) {
+        var fields = TOOL_SUBJECTS.get(toolName);
+        if (fields == null || responseMetadata == null) return null;
+        var subject = new StringBuilder(toolName);
+        for (var field : fields) {
+            var value = responseMetadata.get(field);
+            if (value == null || value.isBlank() || "unknown".equals(value)) return null;
+            subject.append(':').append(value);
+        }
+        return subject.toString();
+    }
+
+    private void observe(TemporalCorrelator.Signal signal) {
+        for (var correlation : correlator.observe(signal)) {
+            var source = ensureNode(correlation.earlier());
+            var target = ensureNode(correlation.later());
+
+            var edge = new CorrelationEdge(
+                signal.incidentId(), source, target, CorrelationEdgeType.TIME_CORRELATION,
+                correlation.weight(),
+                "Co-occurred %.0f times within %ds (lift %.1f)".formatted(
+                    correlation.coOccurrences(), windowSeconds, correlation.lift()),
+                String.format(Locale.ROOT, "{\"coOccurrences\":%.1f,\"lift\":%.3f}",
+                    correlation.coOccurrences(), correlation.lift())
+            );
+            edge.setTenantId(signal.tenantId());
+            edgeRepository.upsertTimeCorrelation(edge);
+
+            log.info("Time correlation inferred: {} → {} (weight={}, lift={})",
+                correlation.earlier().label(), correlation.later().label(),
+                correlation.weight(), correlation.lift());
+        }
+    }
+
+    private UUID ensureNode(TemporalCorrelator.Signal signal) {
+        var existing = nodeRepository.findByIncidentIdAndReferenceId(signal.incidentId(), signal.referenceId());
+        if (!existing.isEmpty()) {
+            return existing.getFirst().getId();
+        }
+        var node = new CorrelationNode(signal.incidentId(), signal.nodeType(), signal.label(),
+            null, signal.referenceId(), "temporal-correlator", "{}");
+        node.setTenantId(signal.tenantId());
+        return nodeRepository.save(node).getId();
+    }
+}
@@ -0,0 +1,330 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.CorrelationNodeType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Streaming temporal co-occurrence detector.
+ * <p>
+ * Each tenant keeps the latest signal of every key seen in the last {@code window} plus running
+ * occurrence counts per signal key and co-occurrence counts per key pair. Observing a signal
+ * walks only the keys active in the window (O(distinct keys), independent of the event rate),
+ * bumps the pair counters, and emits a {@link Correlation} towards the most recent in-window
+ * signal of every other key when the pair co-occurs more often than chance:
+ * <pre>
+ *   expected(a,b) = N_a · N_b · 2W / T        (independent Poisson arrivals over horizon T)
+ *   lift          = C_ab / expected(a,b)
+ *   emit when C_ab ≥ minSupport and lift ≥ minLift, weight = min(1, C_ab / min(N_a, N_b))
+ * </pre>
+ * Counts are halved every {@code decayHorizon} (and T with them) so the statistics track recent
+ * behaviour without ever recomputing from history. Only signals of the same incident are linked;
+ * signals without an incident still feed the statistics.
+ * <p>
+ * At most {@code maxWindowKeys} distinct keys are held per tenant; beyond that the key whose
+ * latest signal is oldest leaves the window early. The window itself is never truncated by the
+ * number of signals in it.
+ * <p>
+ * A key that has left the window keeps its counts, which span the decay horizon, until decay
+ * brings its occurrences below one half like a pair's; it is then forgotten along with its pairs
+ * and its id is reused. Keys that never repeat (host names, request ids) would still pile up over
+ * a long horizon, so reaching {@code maxTrackedKeys} keys, or {@value #PAIRS_PER_TRACKED_KEY}
+ * pairs per tracked key, prunes the keys outside the window seen fewer than {@code minSupport}
+ * times, and rarer-first more of them while the keys alone are still above half the bound. A
+ * window full of keys holds up to {@code maxWindowKeys²/2} pairs by itself, so after a prune the
+ * next one waits until the pairs have doubled rather than thrash.
+ */
+public class TemporalCorrelator {
+
+    public record Signal(String key, String tenantId, UUID incidentId, UUID referenceId,
+                         CorrelationNodeType nodeType, String label, long timestampMillis) {}
+
+    public record Correlation(Signal earlier, Signal later, double coOccurrences, double lift, double weight) {}
+
+    private final long windowMillis;
+    private static final int NONE = -1;
+
+    /** Pair rows a tenant may hold per tracked key before rare keys are pruned. */
+    static final int PAIRS_PER_TRACKED_KEY = 64;
+
+    private final int maxWindowKeys;
+    private final int maxTrackedKeys;
+    private final int minSupport;
+    private final double minLift;
+    private final long decayHorizonMillis;
+    private final ConcurrentHashMap<String, TenantWindow> windows = new ConcurrentHashMap<>();
+
+    public TemporalCorrelator(long windowMillis, int maxWindowKeys, int maxTrackedKeys, int minSupport,
+                              double minLift, long decayHorizonMillis) {
+        if (windowMillis <= 0 || maxWindowKeys <= 0 || decayHorizonMillis <= windowMillis) {
+            throw new IllegalArgumentException("window and max keys must be positive and decay horizon > window");
+        }
+        if (maxTrackedKeys < 2 * maxWindowKeys) {
+            throw new IllegalArgumentException("max tracked keys must be at least twice max window keys");
+        }
+        this.windowMillis = windowMillis;
+        this.maxWindowKeys = maxWindowKeys;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.minSupport = minSupport;
+        this.minLift = minLift;
+        this.decayHorizonMillis = decayHorizonMillis;
+    }
+
+    public List<Correlation> observe(Signal signal) {
+        var window = windows.computeIfAbsent(signal.tenantId(), t -> new TenantWindow(signal.timestampMillis()));
+        synchronized (window) {
+            return window.observe(signal);
+        }
+    }
+
+    public void reset(String tenantId) {
+        windows.remove(tenantId);
+    }
+
+    /** Number of distinct keys the tenant still holds counts for. */
+    int trackedKeys(String tenantId) {
+        var window = windows.get(tenantId);
+        if (window == null) return 0;
+        synchronized (window) {
+            return window.keyIds.size();
+        }
+    }
+
+    private final class TenantWindow {
+
+        // Signal keys are interned to dense ids so the hot loop touches only primitive arrays.
+        // The keys seen within the window form a doubly linked list in order of their latest
+        // signal (oldest first); only the latest signal per key can be linked to, so this is
+        // all of the window that matters, however many signals arrived in it. Ids of forgotten
+        // keys are chained through next[] for reuse.
+        private final Map<String, Integer> keyIds = new HashMap<>();
+        private String[] keys = new String[64];
+        private int allocatedIds;
+        private int freeIds = NONE;
+        private Signal[] latest = new Signal[64];
+        private int[] prev = new int[64];
+        private int[] next = new int[64];
+        private double[] occurrences = new double[64];
+        private int oldest = NONE;
+        private int newest = NONE;
+        private int activeKeys;
+        private long horizonStart;
+        private long lastDecay;
+        private final PairCounts coOccurrences = new PairCounts();
+        private long prunePairsAt = (long) maxTrackedKeys * PAIRS_PER_TRACKED_KEY;
+
+        TenantWindow(long start) {
+            this.horizonStart = start;
+            this.lastDecay = start;
+        }
+
+        List<Correlation> observe(Signal signal) {
+            long now = signal.timestampMillis();
+            evictOlderThan(now - windowMillis);
+            if (now - lastDecay >= decayHorizonMillis) {
+                decay(now);
+            }
+
+            int self = keyId(signal.key());
+            double nSelf = ++occurrences[self];
+            double horizon = Math.max(now - horizonStart, windowMillis);
+            boolean linkable = signal.incidentId() != null;
+            if (latest[self] != null) unlink(self);
+
+            List<Correlation> emitted = List.of();
+            for (int other = newest; other != NONE; other = prev[other]) {
+                double cab = coOccurrences.increment(pairKey(self, other));
+                if (cab < minSupport || !linkable) continue;
+                var prior = latest[other];
+                if (!signal.incidentId().equals(prior.incidentId())) continue;
+
+                double nPrior = occurrences[other];
+                double expected = nSelf * nPrior * (2.0 * windowMillis) / horizon;
+                double lift = cab / expected;
+                if (lift < minLift) continue;
+
+                double weight = Math.min(1.0, cab / Math.min(nSelf, nPrior));
+                if (emitted.isEmpty()) emitted = new ArrayList<>();
+                emitted.add(new Correlation(prior, signal, cab, lift, weight));
+            }
+
+            latest[self] = signal;
+            append(self);
+            if (activeKeys > maxWindowKeys) {
+                evict(oldest);
+            }
+            return emitted;
+        }
+
+        private int keyId(String key) {
+            Integer id = keyIds.get(key);
+            if (id != null) return id;
+            if (keyIds.size() >= maxTrackedKeys || coOccurrences.size() > prunePairsAt) {
+                prune();
+            }
+            int added;
+            if (freeIds != NONE) {
+                added = freeIds;
+                freeIds = next[added];
+                occurrences[added] = 0;
+            } else {
+                added = allocatedIds++;
+                if (added == occurrences.length) {
+                    keys = Arrays.copyOf(keys, added * 2);
+                    occurrences = Arrays.copyOf(occurrences, added * 2);
+                    latest = Arrays.copyOf(latest, added * 2);
+                    prev = Arrays.copyOf(prev, added * 2);
+                    next = Arrays.copyOf(next, added * 2);
+                }
+            }
+            keys[added] = key;
+            keyIds.put(key, added);
+            return added;
+        }
+
+        private void evictOlderThan(long cutoff) {
+            while (oldest != NONE && latest[oldest].timestampMillis() < cutoff) {
+                evict(oldest);
+            }
+        }
+
+        private void evict(int key) {
+            unlink(key);
+            latest[key] = null;
+        }
+
+        /**
+         * Forgets the keys outside the window seen fewer than {@code minSupport} times, then
+         * rarer-first more of them while over half of {@code maxTrackedKeys} remain.
+         */
+        private void prune() {
+            double below = Math.max(minSupport, 1);
+            do {
+                for (int i = 0; i < allocatedIds; i++) {
+                    if (keys[i] != null && latest[i] == null && occurrences[i] < below) {
+                        forget(i);
+                    }
+                }
+                below *= 2;
+            } while (keyIds.size() > maxTrackedKeys / 2 && keyIds.size() > activeKeys);
+            coOccurrences.retain(id -> keys[id] == null, 1.0);
+            prunePairsAt = Math.max((long) maxTrackedKeys * PAIRS_PER_TRACKED_KEY, 2L * coOccurrences.size());
+        }
+
+        /** Drops a key that is out of the window; its pairs go with the next {@link PairCounts#retain}. */
+        private void forget(int key) {
+            keyIds.remove(keys[key]);
+            keys[key] = null;
+            next[key] = freeIds;
+            freeIds = key;
+        }
+
+        private void append(int key) {
+            prev[key] = newest;
+            next[key] = NONE;
+            if (newest != NONE) next[newest] = key; else oldest = key;
+            newest = key;
+            activeKeys++;
+        }
+
+        private void unlink(int key) {
+            if (prev[key] != NONE) next[prev[key]] = next[key]; else oldest = next[key];
+            if (next[key] != NONE) prev[next[key]] = prev[key]; else newest = prev[key];
+            activeKeys--;
+        }
+
+        private void decay(long now) {
+            for (int i = 0; i < allocatedIds; i++) {
+                if (keys[i] == null) continue;
+                occurrences[i] /= 2;
+                if (latest[i] == null && occurrences[i] < 0.5) {
+                    forget(i);
+                }
+            }
+            coOccurrences.retain(id -> keys[id] == null, 0.5);
+            horizonStart = now - (now - horizonStart) / 2;
+            lastDecay = now;
+        }
+    }
+
+    private static long pairKey(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    /** Open-addressing long → double map; avoids boxing on the per-event hot path. */
+    private static final class PairCounts {
+
+        private static final long EMPTY = -1L;
+        private static final int MIN_CAPACITY = 1024;
+
+        private long[] keys = newKeys(MIN_CAPACITY);
+        private double[] values = new double[MIN_CAPACITY];
+        private int size;
+
+        double increment(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    values[slot] = 1.0;
+                    rehash(keys.length * 2);
+                    return 1.0;
+                }
+            }
+            return ++values[slot];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Scales every count and drops pairs that fall below one half or involve a forgotten key. */
+        void retain(IntPredicate forgotten, double factor) {
+            int kept = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == EMPTY) continue;
+                boolean dropped = forgotten.test((int) (keys[i] >>> 32)) || forgotten.test((int) keys[i]);
+                values[i] = dropped ? 0 : values[i] * factor;
+                if (values[i] >= 0.5) kept++;
+            }
+            // Shrink only once far oversized, so pairs growing back do not have to double it again
+            int capacity = keys.length;
+            while (capacity > MIN_CAPACITY && kept * 16 < capacity) capacity >>= 1;
+            rehash(capacity);
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            double[] oldValues = values;
+            keys = newKeys(capacity);
+            values = new double[capacity];
+            size = 0;
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY || oldValues[i] < 0.5) continue;
+                int slot = (int) mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+
+        private static long[] newKeys(int capacity) {
+            long[] k = new long[capacity];
+            Arrays.fill(k, EMPTY);
+            return k;
+        }
+
+        private static long mix(long key) {
+            key *= 0x9E3779B97F4A7C15L;
+            return key ^ (key >>> 32);
+        }
+    }
+}
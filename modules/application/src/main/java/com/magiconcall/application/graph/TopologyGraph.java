@@ -0,0 +1,173 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.CorrelationEdgeType;
+import com.magiconcall.domain.graph.CorrelationNodeType;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Immutable in-memory form of one {@code ServiceTopologySnapshot}.
+ * <p>
+ * Nodes are addressed by a dense int index; adjacency is stored in CSR form
+ * (offset array + flat neighbour/weight arrays) in both directions, so a tenant's
+ * topology costs a handful of primitive arrays instead of one entity per node and edge.
+ * Instances are shared by every incident of the tenant and must never be mutated.
+ */
+public final class TopologyGraph {
+
+    @FunctionalInterface
+    public interface NeighbourVisitor {
+        void visit(int neighbour, double weight);
+    }
+
+    public record Node(UUID id, CorrelationNodeType nodeType, String label, String description) {}
+
+    public record Edge(UUID sourceId, UUID targetId, double weight) {}
+
+    private final String tenantId;
+    private final long version;
+    private final Instant publishedAt;
+
+    private final UUID[] ids;
+    private final CorrelationNodeType[] types;
+    private final String[] labels;
+    private final String[] descriptions;
+    private final Map<UUID, Integer> indexById;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final double[] outWeights;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final double[] inWeights;
+
+    private TopologyGraph(String tenantId, long version, Instant publishedAt, List<Node> nodes, List<Edge> edges) {
+        this.tenantId = tenantId;
+        this.version = version;
+        this.publishedAt = publishedAt;
+
+        int n = nodes.size();
+        this.ids = new UUID[n];
+        this.types = new CorrelationNodeType[n];
+        this.labels = new String[n];
+        this.descriptions = new String[n];
+        this.indexById = HashMap.newHashMap(n);
+        for (int i = 0; i < n; i++) {
+            var node = nodes.get(i);
+            ids[i] = node.id();
+            types[i] = node.nodeType();
+            labels[i] = node.label();
+            descriptions[i] = node.description();
+            if (indexById.put(node.id(), i) != null) {
+                throw new IllegalArgumentException("Duplicate topology node: " + node.label());
+            }
+        }
+
+        int m = edges.size();
+        int[] src = new int[m];
+        int[] dst = new int[m];
+        for (int e = 0; e < m; e++) {
+            src[e] = requireIndex(edges.get(e).sourceId());
+            dst[e] = requireIndex(edges.get(e).targetId());
+        }
+
+        this.outOffsets = new int[n + 1];
+        this.inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            outOffsets[src[e] + 1]++;
+            inOffsets[dst[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            outOffsets[i + 1] += outOffsets[i];
+            inOffsets[i + 1] += inOffsets[i];
+        }
+
+        this.outTargets = new int[m];
+        this.outWeights = new double[m];
+        this.inSources = new int[m];
+        this.inWeights = new double[m];
+        int[] outCursor = Arrays.copyOf(outOffsets, n);
+        int[] inCursor = Arrays.copyOf(inOffsets, n);
+        for (int e = 0; e < m; e++) {
+            double w = edges.get(e).weight();
+            int o = outCursor[src[e]]++;
+            outTargets[o] = dst[e];
+            outWeights[o] = w;
+            int in = inCursor[dst[e]]++;
+            inSources[in] = src[e];
+            inWeights[in] = w;
+        }
+    }
+
+    public static TopologyGraph of(String tenantId, long version, Instant publishedAt,
+                                   List<Node> nodes, List<Edge> edges) {
+        return new TopologyGraph(tenantId, version, publishedAt, nodes, edges);
+    }
+
+    public static TopologyGraph empty(String tenantId) {
+        return new TopologyGraph(tenantId, 0L, null, List.of(), List.of());
+    }
+
+    private int requireIndex(UUID id) {
+        Integer idx = indexById.get(id);
+        if (idx == null) {
+            throw new IllegalArgumentException("Topology edge references unknown node: " + id);
+        }
+        return idx;
+    }
+
+    public String tenantId() { return tenantId; }
+    public long version() { return version; }
+    public Instant publishedAt() { return publishedAt; }
+    public int nodeCount() { return ids.length; }
+    public int edgeCount() { return outTargets.length; }
+    public boolean isEmpty() { return ids.length == 0; }
+
+    /** Dense index of the node, or -1 if the id is not part of this topology. */
+    public int indexOf(UUID id) {
+        Integer idx = indexById.get(id);
+        return idx == null ? -1 : idx;
+    }
+
+    public boolean contains(UUID id) { return indexById.containsKey(id); }
+
+    public UUID id(int index) { return ids[index]; }
+    public CorrelationNodeType nodeType(int index) { return types[index]; }
+    public String label(int index) { return labels[index]; }
+    public String description(int index) { return descriptions[index]; }
+
+    public void forEachOutgoing(int index, NeighbourVisitor visitor) {
+        for (int e = outOffsets[index]; e < outOffsets[index + 1]; e++) {
+            visitor.visit(outTargets[e], outWeights[e]);
+        }
+    }
+
+    public void forEachIncoming(int index, NeighbourVisitor visitor) {
+        for (int e = inOffsets[index]; e < inOffsets[index + 1]; e++) {
+            visitor.visit(inSources[e], inWeights[e]);
+        }
+    }
+
+    public GraphNodeResult toNodeResult(int index) {
+        return new GraphNodeResult(ids[index], null, types[index].name(), labels[index],
+            descriptions[index], null, ServiceTopologyService.TOPOLOGY_SOURCE, "{}", publishedAt);
+    }
+
+    public List<GraphNodeResult> nodeResults() {
+        var result = new ArrayList<GraphNodeResult>(ids.length);
+        for (int i = 0; i < ids.length; i++) result.add(toNodeResult(i));
+        return result;
+    }
+
+    public List<GraphEdgeResult> edgeResults() {
+        var result = new ArrayList<GraphEdgeResult>(outTargets.length);
+        for (int i = 0; i < ids.length; i++) {
+            for (int e = outOffsets[i]; e < outOffsets[i + 1]; e++) {
+                result.add(new GraphEdgeResult(null, null, ids[i], ids[outTargets[e]],
+                    CorrelationEdgeType.DEPENDS_ON.name(), outWeights[e], null, "{}", publishedAt));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,16 @@
+package com.magiconcall.application.graph;
+
+import java.time.Instant;
+import java.util.List;
+
+public record TopologyResult(
+    long version,
+    Instant publishedAt,
+    List<GraphNodeResult> nodes,
+    List<GraphEdgeResult> edges
+) {
+    public static TopologyResult from(TopologyGraph graph) {
+        return new TopologyResult(graph.version(), graph.publishedAt(),
+            graph.nodeResults(), graph.edgeResults());
+    }
+}
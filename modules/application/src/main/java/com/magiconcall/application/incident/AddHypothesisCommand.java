@@ -8,11 +8,20 @@ public record AddHypothesisCommand(
     String evidenceFor,
     String evidenceAgainst,
     String nextBestTest,
-    String stopCondition
+    String stopCondition,
+    String evidenceHash
 ) {
+    /** AI hypothesis not tied to a triage run's evidence hash. */
+    public AddHypothesisCommand(String title, String description, double confidence, String source,
+                                String evidenceFor, String evidenceAgainst,
+                                String nextBestTest, String stopCondition) {
+        this(title, description, confidence, source, evidenceFor, evidenceAgainst,
+            nextBestTest, stopCondition, null);
+    }
+
     /** Backward-compatible constructor for manual (non-AI) hypotheses. */
     public AddHypothesisCommand(String title, String description,
                                 double confidence, String source) {
-        this(title, description, confidence, source, null, null, null, null);
+        this(title, description, confidence, source, null, null, null, null, null);
     }
 }
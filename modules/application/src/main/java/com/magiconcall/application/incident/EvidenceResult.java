@@ -13,13 +13,15 @@ public record EvidenceResult(
     String title,
     String content,
     String sourceUrl,
+    String contentRef,
+    Long contentLength,
     Instant createdAt
 ) {
     public static EvidenceResult from(Evidence e) {
         return new EvidenceResult(
             e.getId(), e.getIncidentId(), e.getHypothesisId(),
             e.getEvidenceType().name(), e.getTitle(), e.getContent(),
-            e.getSourceUrl(), e.getCreatedAt()
+            e.getSourceUrl(), e.getContentRef(), e.getContentLength(), e.getCreatedAt()
         );
     }
 }
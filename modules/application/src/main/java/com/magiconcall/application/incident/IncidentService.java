@@ -2,6 +2,8 @@ package com.magiconcall.application.incident;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.similarity.SimilarIncidentIndex;
+import com.magiconcall.application.triage.EvidenceSummarizer;
 import com.magiconcall.domain.event.DomainEvent;
 import com.magiconcall.domain.event.EventPublisher;
 import com.magiconcall.domain.event.IncidentCreatedEvent;
@@ -29,6 +31,8 @@ public class IncidentService {
     private final AuditLogRepository auditLogRepository;
     private final EventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    private final EvidenceSummarizer evidenceSummarizer;
+    private final SimilarIncidentIndex similarIncidentIndex;
 
     public IncidentService(IncidentRepository incidentRepository,
                            IncidentEventRepository incidentEventRepository,
@@ -36,7 +40,9 @@ public class IncidentService {
                            EvidenceRepository evidenceRepository,
                            AuditLogRepository auditLogRepository,
                            EventPublisher eventPublisher,
-                           ObjectMapper objectMapper) {
+                           ObjectMapper objectMapper,
+                           EvidenceSummarizer evidenceSummarizer,
+                           SimilarIncidentIndex similarIncidentIndex) {
         this.incidentRepository = incidentRepository;
         this.incidentEventRepository = incidentEventRepository;
         this.hypothesisRepository = hypothesisRepository;
@@ -44,6 +50,8 @@ public class IncidentService {
         this.auditLogRepository = auditLogRepository;
         this.eventPublisher = eventPublisher;
         this.objectMapper = objectMapper;
+        this.evidenceSummarizer = evidenceSummarizer;
+        this.similarIncidentIndex = similarIncidentIndex;
     }
 
     @Transactional
@@ -115,6 +123,11 @@ public class IncidentService {
                 "{\"status\":\"%s\"}".formatted(newStatus));
             audit.setTenantId(incident.getTenantId());
             auditLogRepository.save(audit);
+
+            // Resolved incidents become context for triaging similar ones
+            if (newStatus == IncidentStatus.RESOLVED || newStatus == IncidentStatus.POSTMORTEM) {
+                similarIncidentIndex.onResolved(incident);
+            }
         }
 
         return IncidentResult.from(incident);
@@ -152,6 +165,7 @@ public class IncidentService {
             hypothesis.setEvidenceAgainst(command.evidenceAgainst());
             hypothesis.setNextBestTest(command.nextBestTest());
             hypothesis.setStopCondition(command.stopCondition());
+            hypothesis.setEvidenceHash(command.evidenceHash());
             hypothesis.setTenantId(incident.getTenantId());
             hypothesis = hypothesisRepository.save(hypothesis);
 
@@ -187,6 +201,7 @@ public class IncidentService {
             );
             evidence.setTenantId(incident.getTenantId());
             evidence = evidenceRepository.save(evidence);
+            evidenceSummarizer.onEvidenceAdded(evidence);
 
             log.info("Evidence added: id={}, type={}, title={}",
                 evidence.getId(), evidenceType, evidence.getTitle());
@@ -0,0 +1,540 @@
+package com.magiconcall.application.similarity;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate nearest-neighbour index over unit vectors (a Hierarchical Navigable Small World
+ * graph), kept in a memory-mapped file so it survives restarts without re-embedding anything.
+ * <p>
+ * Every node lives on level 0 and, with probability {@code 1/m} per level, on the levels above
+ * it, up to {@value #MAX_LEVEL}. A search walks greedily down from the top level's entry point
+ * and then explores level 0 best-first, keeping the {@code ef} most similar nodes of the tenant
+ * seen; nodes of other tenants are walked through but not kept, so a small tenant's matches are
+ * found however many other nodes are more similar to the query. New nodes
+ * are linked to up to {@code m} neighbours per level (twice that on level 0), chosen so each
+ * neighbour is closer to the new node than to any neighbour already chosen; this keeps links
+ * pointing in different directions and the graph navigable when incidents cluster.
+ * <p>
+ * The file is a 64-byte header followed by fixed-size records, so a node's offset follows from
+ * its number: id, tenant key, level, flags, vector, then a count and slots for its links on each
+ * level. Removing or replacing an id marks its node deleted; deleted nodes still route searches
+ * but are never returned, until {@link #compact} rewrites the file without them. The file doubles
+ * when full; the mapping limits it to 2 GB.
+ * <p>
+ * Searches run concurrently; additions and removals take the write lock. Changes reach the disk
+ * on {@link #flush} or {@link #close}. A node is counted in the header only once it is fully
+ * linked, so links to nodes past the count, left by a crash mid-add, are ignored.
+ */
+public final class HnswIndex implements AutoCloseable {
+
+    static final int MAX_LEVEL = 5;
+
+    private static final int MAGIC = 0x4d4f4348;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int FLAG_DELETED = 1;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_DIMENSIONS = 8;
+    private static final int H_M = 12;
+    private static final int H_COUNT = 16;
+    private static final int H_ENTRY_POINT = 20;
+    private static final int H_TOP_LEVEL = 24;
+
+    private static final int R_ID_MSB = 0;
+    private static final int R_ID_LSB = 8;
+    private static final int R_TENANT = 16;
+    private static final int R_LEVEL = 24;
+    private static final int R_FLAGS = 28;
+    private static final int R_VECTOR = 32;
+
+    private final Path path;
+    private final int dimensions;
+    private final int m;
+    private final int efConstruction;
+    private final int linksOffset;
+    private final int recordBytes;
+    private final double levelMultiplier;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> live = new HashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    // Additions and removals so far; a compaction discards its copy if any happened meanwhile
+    private long modifications;
+    private int count;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    /** A stored id and its cosine similarity to the query. */
+    public record Match(UUID id, float similarity) {}
+
+    private record Scored(int node, float similarity) {}
+
+    private HnswIndex(Path path, FileChannel channel, int dimensions, int m, int efConstruction) {
+        this.path = path;
+        this.channel = channel;
+        this.dimensions = dimensions;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.linksOffset = R_VECTOR + 4 * dimensions;
+        this.recordBytes = linksOffset + (4 + 8 * m) + MAX_LEVEL * (4 + 4 * m);
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    /**
+     * Opens the index at {@code path}, creating it if the file does not exist.
+     *
+     * @throws IncompatibleIndexException if the file is not an index with these parameters
+     */
+    public static HnswIndex open(Path path, int dimensions, int m, int efConstruction) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        var channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var index = new HnswIndex(path, channel, dimensions, m, efConstruction);
+        try {
+            if (channel.size() == 0) {
+                index.create();
+            } else {
+                index.load(path);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return index;
+    }
+
+    private void create() throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) INITIAL_CAPACITY * recordBytes);
+        buffer.putInt(H_MAGIC, MAGIC);
+        buffer.putInt(H_VERSION, FORMAT_VERSION);
+        buffer.putInt(H_DIMENSIONS, dimensions);
+        buffer.putInt(H_M, m);
+        writeHeader();
+    }
+
+    private void load(Path path) throws IOException {
+        if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+            throw new IncompatibleIndexException(path, "unexpected size " + channel.size());
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (buffer.getInt(H_MAGIC) != MAGIC || buffer.getInt(H_VERSION) != FORMAT_VERSION) {
+            throw new IncompatibleIndexException(path, "not an index file of format " + FORMAT_VERSION);
+        }
+        if (buffer.getInt(H_DIMENSIONS) != dimensions || buffer.getInt(H_M) != m) {
+            throw new IncompatibleIndexException(path, "built with dimensions=%d, m=%d"
+                .formatted(buffer.getInt(H_DIMENSIONS), buffer.getInt(H_M)));
+        }
+        count = buffer.getInt(H_COUNT);
+        entryPoint = buffer.getInt(H_ENTRY_POINT);
+        topLevel = buffer.getInt(H_TOP_LEVEL);
+        if (count < 0 || HEADER_BYTES + (long) count * recordBytes > buffer.capacity()
+            || entryPoint >= count || topLevel > MAX_LEVEL) {
+            throw new IncompatibleIndexException(path, "corrupt header");
+        }
+        for (int node = 0; node < count; node++) {
+            if (!isDeleted(node)) live.put(idOf(node), node);
+        }
+    }
+
+    /**
+     * Adds {@code vector} under {@code id}, replacing any vector already stored for it. The
+     * vector must be unit length.
+     */
+    public void add(UUID id, long tenantKey, float[] vector) throws IOException {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected %d dimensions, got %d".formatted(dimensions, vector.length));
+        }
+        lock.writeLock().lock();
+        try {
+            modifications++;
+            var previous = live.remove(id);
+            if (previous != null) markDeleted(previous);
+
+            int node = count;
+            ensureCapacity(node + 1);
+            int level = levelOf(id);
+            int base = offset(node);
+            buffer.putLong(base + R_ID_MSB, id.getMostSignificantBits());
+            buffer.putLong(base + R_ID_LSB, id.getLeastSignificantBits());
+            buffer.putLong(base + R_TENANT, tenantKey);
+            buffer.putInt(base + R_LEVEL, level);
+            buffer.putInt(base + R_FLAGS, 0);
+            for (int i = 0; i < dimensions; i++) {
+                buffer.putFloat(base + R_VECTOR + 4 * i, vector[i]);
+            }
+            for (int l = 0; l <= MAX_LEVEL; l++) {
+                buffer.putInt(linkBlock(node, l), 0);
+            }
+            count = node + 1;
+
+            if (entryPoint >= 0) {
+                int ep = entryPoint;
+                for (int l = topLevel; l > level; l--) {
+                    ep = searchLayer(vector, ep, 1, l).getFirst().node();
+                }
+                for (int l = Math.min(level, topLevel); l >= 0; l--) {
+                    var found = searchLayer(vector, ep, efConstruction, l);
+                    var neighbours = selectNeighbours(found, m);
+                    writeLinks(node, l, neighbours.stream().mapToInt(Scored::node).toArray());
+                    for (var neighbour : neighbours) {
+                        connect(neighbour.node(), node, l);
+                    }
+                    ep = found.getFirst().node();
+                }
+            }
+            if (level > topLevel) {
+                entryPoint = node;
+                topLevel = level;
+            }
+            live.put(id, node);
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Marks the id's vector deleted; false if none is stored. */
+    public boolean remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            var node = live.remove(id);
+            if (node == null) return false;
+            modifications++;
+            markDeleted(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The up to {@code k} stored vectors under {@code tenantKey} most similar to {@code query},
+     * most similar first. Approximate: {@code ef} is how many candidates the search keeps, and a
+     * higher value finds the true nearest neighbours more often, at some cost in speed.
+     */
+    public List<Match> search(float[] query, long tenantKey, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) return List.of();
+            int ep = entryPoint;
+            for (int l = topLevel; l > 0; l--) {
+                ep = searchLayer(query, ep, 1, l).getFirst().node();
+            }
+            IntPredicate returnable = node -> !isDeleted(node) && buffer.getLong(offset(node) + R_TENANT) == tenantKey;
+            var found = searchLayer(query, ep, Math.max(ef, k), 0, returnable);
+            return found.subList(0, Math.min(k, found.size())).stream()
+                .map(scored -> new Match(idOf(scored.node()), scored.similarity()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Share of the stored nodes that are deleted, which {@link #compact} would reclaim. */
+    public double deletedFraction() {
+        lock.readLock().lock();
+        try {
+            return count == 0 ? 0 : (double) (count - live.size()) / count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the index without its deleted nodes: the live vectors are added to a new file next
+     * to this one, which then replaces it. Searches carry on meanwhile; additions and removals wait
+     * for the copy. Returns false, leaving the index as it was, if it was closed meanwhile.
+     */
+    public boolean compact() throws IOException {
+        var compactPath = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compactPath);
+        HnswIndex compacted = null;
+        try {
+            long seen;
+            lock.readLock().lock();
+            try {
+                if (!channel.isOpen()) return false;
+                seen = modifications;
+                compacted = open(compactPath, dimensions, m, efConstruction);
+                for (int node = 0; node < count; node++) {
+                    if (isDeleted(node)) continue;
+                    compacted.add(idOf(node), buffer.getLong(offset(node) + R_TENANT), vectorOf(node));
+                }
+                compacted.buffer.force();
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            lock.writeLock().lock();
+            try {
+                // A writer can slip in between the two locks; its change is not in the copy
+                if (!channel.isOpen() || modifications != seen) return false;
+                Files.move(compactPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                var old = channel;
+                channel = compacted.channel;
+                buffer = compacted.buffer;
+                count = compacted.count;
+                entryPoint = compacted.entryPoint;
+                topLevel = compacted.topLevel;
+                live.clear();
+                live.putAll(compacted.live);
+                compacted = null;
+                old.close();
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            if (compacted != null) {
+                compacted.close();
+                Files.deleteIfExists(compactPath);
+            }
+        }
+    }
+
+    /** Number of ids with a stored vector. */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(UUID id) {
+        lock.readLock().lock();
+        try {
+            return live.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Writes changes through to the file. */
+    public void flush() {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Best-first search of one level from {@code entry}; the {@code ef} best nodes, most similar first. */
+    private List<Scored> searchLayer(float[] query, int entry, int ef, int level) {
+        return searchLayer(query, entry, ef, level, node -> true);
+    }
+
+    /**
+     * Best-first search of one level from {@code entry} that keeps only nodes passing
+     * {@code returnable}: the others are still walked through, so the search goes on until it
+     * holds {@code ef} returnable nodes no candidate can beat, or runs out of candidates.
+     */
+    private List<Scored> searchLayer(float[] query, int entry, int ef, int level, IntPredicate returnable) {
+        var visited = new BitSet(count);
+        var candidates = new PriorityQueue<Scored>(Comparator.comparingDouble(Scored::similarity).reversed());
+        var results = new PriorityQueue<Scored>(Comparator.comparingDouble(Scored::similarity));
+        var start = new Scored(entry, similarity(entry, query));
+        visited.set(entry);
+        candidates.add(start);
+        if (returnable.test(entry)) results.add(start);
+        while (!candidates.isEmpty()) {
+            var current = candidates.poll();
+            if (results.size() >= ef && current.similarity() < results.peek().similarity()) break;
+            for (int neighbour : links(current.node(), level)) {
+                if (visited.get(neighbour)) continue;
+                visited.set(neighbour);
+                float similarity = similarity(neighbour, query);
+                if (results.size() < ef || similarity > results.peek().similarity()) {
+                    var scored = new Scored(neighbour, similarity);
+                    candidates.add(scored);
+                    if (returnable.test(neighbour)) {
+                        results.add(scored);
+                        if (results.size() > ef) results.poll();
+                    }
+                }
+            }
+        }
+        var ordered = new ArrayList<>(results);
+        ordered.sort(Comparator.comparingDouble(Scored::similarity).reversed());
+        return ordered;
+    }
+
+    /**
+     * Picks up to {@code max} of {@code candidates} (most similar first), skipping any that is
+     * more similar to an already picked neighbour than to the node being linked; skipped ones
+     * fill the remaining slots.
+     */
+    private List<Scored> selectNeighbours(List<Scored> candidates, int max) {
+        var selected = new ArrayList<Scored>(max);
+        var skipped = new ArrayList<Scored>();
+        for (var candidate : candidates) {
+            if (selected.size() >= max) break;
+            boolean diverse = true;
+            for (var chosen : selected) {
+                if (similarity(candidate.node(), chosen.node()) > candidate.similarity()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : skipped).add(candidate);
+        }
+        for (var candidate : skipped) {
+            if (selected.size() >= max) break;
+            selected.add(candidate);
+        }
+        return selected;
+    }
+
+    /** Links {@code from} to {@code to} on the level, re-selecting its neighbours if it has no free slot. */
+    private void connect(int from, int to, int level) {
+        var existing = links(from, level);
+        int max = maxLinks(level);
+        if (existing.length < max) {
+            var grown = Arrays.copyOf(existing, existing.length + 1);
+            grown[existing.length] = to;
+            writeLinks(from, level, grown);
+            return;
+        }
+        var candidates = new ArrayList<Scored>(existing.length + 1);
+        for (int node : existing) candidates.add(new Scored(node, similarity(from, node)));
+        candidates.add(new Scored(to, similarity(from, to)));
+        candidates.sort(Comparator.comparingDouble(Scored::similarity).reversed());
+        writeLinks(from, level, selectNeighbours(candidates, max).stream().mapToInt(Scored::node).toArray());
+    }
+
+    private int[] links(int node, int level) {
+        int block = linkBlock(node, level);
+        int size = Math.min(buffer.getInt(block), maxLinks(level));
+        var links = new int[size];
+        int valid = 0;
+        for (int i = 0; i < size; i++) {
+            int link = buffer.getInt(block + 4 + 4 * i);
+            if (link >= 0 && link < count) links[valid++] = link;
+        }
+        return valid == size ? links : Arrays.copyOf(links, valid);
+    }
+
+    private void writeLinks(int node, int level, int[] links) {
+        int block = linkBlock(node, level);
+        for (int i = 0; i < links.length; i++) {
+            buffer.putInt(block + 4 + 4 * i, links[i]);
+        }
+        buffer.putInt(block, links.length);
+    }
+
+    private float similarity(int node, float[] query) {
+        int base = offset(node) + R_VECTOR;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += buffer.getFloat(base + 4 * i) * query[i];
+        }
+        return sum;
+    }
+
+    private float[] vectorOf(int node) {
+        int base = offset(node) + R_VECTOR;
+        var vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = buffer.getFloat(base + 4 * i);
+        }
+        return vector;
+    }
+
+    private float similarity(int a, int b) {
+        int baseA = offset(a) + R_VECTOR;
+        int baseB = offset(b) + R_VECTOR;
+        float sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            sum += buffer.getFloat(baseA + 4 * i) * buffer.getFloat(baseB + 4 * i);
+        }
+        return sum;
+    }
+
+    /** The node's top level, derived from its id so re-adding an id gives the same level. */
+    private int levelOf(UUID id) {
+        long bits = id.getMostSignificantBits() * 0x9e3779b97f4a7c15L ^ id.getLeastSignificantBits();
+        bits ^= bits >>> 31;
+        bits *= 0xbf58476d1ce4e5b9L;
+        bits ^= bits >>> 29;
+        double uniform = ((bits >>> 11) + 1) * 0x1.0p-53;
+        return Math.min(MAX_LEVEL, (int) (-Math.log(uniform) * levelMultiplier));
+    }
+
+    private void ensureCapacity(int nodes) throws IOException {
+        long needed = HEADER_BYTES + (long) nodes * recordBytes;
+        if (needed <= buffer.capacity()) return;
+        long grown = Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * buffer.capacity()));
+        if (needed > grown) {
+            throw new IOException("Similarity index is full at %d nodes".formatted(count));
+        }
+        buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, grown);
+    }
+
+    private void writeHeader() {
+        buffer.putInt(H_ENTRY_POINT, entryPoint);
+        buffer.putInt(H_TOP_LEVEL, topLevel);
+        buffer.putInt(H_COUNT, count);
+    }
+
+    private void markDeleted(int node) {
+        int flags = offset(node) + R_FLAGS;
+        buffer.putInt(flags, buffer.getInt(flags) | FLAG_DELETED);
+    }
+
+    private boolean isDeleted(int node) {
+        return (buffer.getInt(offset(node) + R_FLAGS) & FLAG_DELETED) != 0;
+    }
+
+    private UUID idOf(int node) {
+        int base = offset(node);
+        return new UUID(buffer.getLong(base + R_ID_MSB), buffer.getLong(base + R_ID_LSB));
+    }
+
+    private int offset(int node) {
+        return HEADER_BYTES + node * recordBytes;
+    }
+
+    private int linkBlock(int node, int level) {
+        int block = offset(node) + linksOffset;
+        return level == 0 ? block : block + (4 + 8 * m) + (level - 1) * (4 + 4 * m);
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    /** The file exists but was not written by this version of the index with the same parameters. */
+    public static class IncompatibleIndexException extends IOException {
+        public IncompatibleIndexException(Path path, String reason) {
+            super("Similarity index %s is unusable: %s".formatted(path, reason));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.magiconcall.application.similarity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns an incident's text into a fixed-length vector, locally and deterministically, so the same
+ * incident embeds the same way on every replica and across restarts.
+ * <p>
+ * Features are word unigrams and bigrams. Numbers, hex ids and UUIDs are replaced by placeholders
+ * first, so two incidents differing only in timestamps, hosts or request ids share features.
+ * Each feature is hashed into one of {@code dimensions} buckets with a hash-derived sign, so
+ * colliding features tend to cancel rather than pile up. A feature's weight is the log of its
+ * field-weighted count: the title counts most, then confirmed root causes, then evidence, and a
+ * log line repeated a hundred times does not drown out everything else. Vectors are scaled to unit
+ * length, so cosine similarity is their dot product.
+ */
+public final class IncidentEmbedder {
+
+    public static final int DEFAULT_DIMENSIONS = 512;
+
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double ROOT_CAUSE_WEIGHT = 1.5;
+    private static final double EVIDENCE_WEIGHT = 1.0;
+    private static final double BIGRAM_WEIGHT = 0.5;
+
+    private static final Pattern UUID_PATTERN =
+        Pattern.compile("\\b\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}\\b");
+    private static final Pattern HEX_PATTERN = Pattern.compile("\\b(?:0x)?(?=[a-f]*\\d)(?=\\d*[a-f])\\p{XDigit}{8,}\\b");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+(?:[.,:]\\d+)*");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}_<>]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "in", "is", "it",
+        "of", "on", "or", "that", "the", "this", "to", "was", "were", "with"
+    );
+
+    private final int dimensions;
+
+    public IncidentEmbedder(int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive: " + dimensions);
+        }
+        this.dimensions = dimensions;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /** Embeds an incident; any argument may be null or empty. All zeros if there is no text. */
+    public float[] embed(String title, String summary, List<String> evidence, List<String> rootCauses) {
+        var counts = new HashMap<String, Double>();
+        addText(counts, title, TITLE_WEIGHT);
+        addText(counts, summary, EVIDENCE_WEIGHT);
+        if (evidence != null) {
+            for (var text : evidence) addText(counts, text, EVIDENCE_WEIGHT);
+        }
+        if (rootCauses != null) {
+            for (var text : rootCauses) addText(counts, text, ROOT_CAUSE_WEIGHT);
+        }
+
+        var vector = new float[dimensions];
+        for (var entry : counts.entrySet()) {
+            long hash = hash(entry.getKey());
+            int bucket = (int) Long.remainderUnsigned(hash >>> 1, dimensions);
+            double weight = Math.log1p(entry.getValue());
+            vector[bucket] += (float) ((hash & 1) == 0 ? weight : -weight);
+        }
+        normalize(vector);
+        return vector;
+    }
+
+    private static void addText(Map<String, Double> counts, String text, double weight) {
+        if (text == null || text.isBlank()) return;
+        var normalized = text.toLowerCase(Locale.ROOT);
+        normalized = UUID_PATTERN.matcher(normalized).replaceAll(" <uuid> ");
+        normalized = HEX_PATTERN.matcher(normalized).replaceAll(" <hex> ");
+        normalized = NUMBER_PATTERN.matcher(normalized).replaceAll(" <num> ");
+        String previous = null;
+        for (var word : NON_WORD.split(normalized)) {
+            if (word.isEmpty() || STOPWORDS.contains(word)) continue;
+            counts.merge(word, weight, Double::sum);
+            if (previous != null) {
+                counts.merge(previous + ' ' + word, weight * BIGRAM_WEIGHT, Double::sum);
+            }
+            previous = word;
+        }
+    }
+
+    /** 64-bit FNV-1a over the feature's characters, so buckets are the same on every JVM. */
+    private static long hash(String feature) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // Final avalanche so the low bit used for the sign depends on every character
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    static void normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) norm += v * v;
+        if (norm == 0) return;
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) vector[i] *= scale;
+    }
+}
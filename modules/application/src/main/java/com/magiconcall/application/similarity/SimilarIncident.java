@@ -0,0 +1,13 @@
+package com.magiconcall.application.similarity;
+
+import java.util.List;
+import java.util.UUID;
+
+public record SimilarIncident(
+    UUID incidentId,
+    String title,
+    String severity,
+    String status,
+    double similarity,
+    List<String> confirmedRootCauses
+) {}
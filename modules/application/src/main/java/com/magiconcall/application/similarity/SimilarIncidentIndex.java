@@ -0,0 +1,260 @@
+package com.magiconcall.application.similarity;
+
+import com.magiconcall.domain.incident.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds past incidents resembling the one being triaged, so the prompt can carry root causes
+ * already confirmed for them.
+ * <p>
+ * Incidents are embedded with {@link IncidentEmbedder} (title, summary, evidence and CONFIRMED
+ * hypotheses) when they are resolved, and again when they move to postmortem, by which time more
+ * root causes may be confirmed. Vectors are kept in an {@link HnswIndex} file on local disk; on
+ * first start, or when the file is unusable, the index is rebuilt in the background from resolved
+ * and postmortem incidents. Each replica keeps its own file and indexes the incidents it resolves,
+ * plus whatever its rebuild found, so replicas can differ until their next rebuild. Re-indexing
+ * an incident leaves its old vector behind as a deleted node; once more than
+ * {@code compact-deleted-fraction} of the nodes are deleted, the file is compacted in the background.
+ * <p>
+ * Lookups return only incidents of the same tenant with at least {@code min-similarity}. They
+ * read the index in memory, then load the few matching incidents and their hypotheses.
+ */
+@Component
+public class SimilarIncidentIndex implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarIncidentIndex.class);
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int MAX_EVIDENCE_LENGTH = 2000;
+
+    private final IncidentRepository incidentRepository;
+    private final EvidenceRepository evidenceRepository;
+    private final HypothesisRepository hypothesisRepository;
+    private final boolean enabled;
+    private final Path indexPath;
+    private final int topK;
+    private final double minSimilarity;
+    private final int efSearch;
+    private final double compactDeletedFraction;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final IncidentEmbedder embedder = new IncidentEmbedder(IncidentEmbedder.DEFAULT_DIMENSIONS);
+    private volatile HnswIndex index;
+    private volatile boolean running;
+
+    public SimilarIncidentIndex(IncidentRepository incidentRepository,
+                                EvidenceRepository evidenceRepository,
+                                HypothesisRepository hypothesisRepository,
+                                @Value("${magiconcall.triage.similar.enabled:true}") boolean enabled,
+                                @Value("${magiconcall.triage.similar.index-path:data/similar-incidents.hnsw}") String indexPath,
+                                @Value("${magiconcall.triage.similar.top-k:3}") int topK,
+                                @Value("${magiconcall.triage.similar.min-similarity:0.35}") double minSimilarity,
+                                @Value("${magiconcall.triage.similar.ef-search:64}") int efSearch,
+                                @Value("${magiconcall.triage.similar.compact-deleted-fraction:0.3}") double compactDeletedFraction) {
+        this.incidentRepository = incidentRepository;
+        this.evidenceRepository = evidenceRepository;
+        this.hypothesisRepository = hypothesisRepository;
+        this.enabled = enabled;
+        this.indexPath = Path.of(indexPath);
+        this.topK = topK;
+        this.minSimilarity = minSimilarity;
+        this.efSearch = efSearch;
+        this.compactDeletedFraction = compactDeletedFraction;
+    }
+
+    /**
+     * Past incidents of the same tenant most similar to {@code incident} with the given evidence
+     * text, most similar first; never the incident itself. Empty until the index is open.
+     */
+    public List<SimilarIncident> findSimilar(Incident incident, List<String> evidence) {
+        var current = index;
+        if (current == null || topK <= 0) return List.of();
+        var vector = embedder.embed(incident.getTitle(), incident.getSummary(), evidence, List.of());
+        // One extra, in case the incident itself was indexed (e.g. resolved, then triaged again)
+        var matches = current.search(vector, tenantKey(incident.getTenantId()), topK + 1, efSearch);
+        var similar = new ArrayList<SimilarIncident>(topK);
+        for (var match : matches) {
+            if (match.similarity() < minSimilarity || similar.size() == topK) break;
+            if (match.id().equals(incident.getId())) continue;
+            incidentRepository.findById(match.id())
+                .filter(past -> sameTenant(past, incident))
+                .ifPresent(past -> similar.add(new SimilarIncident(
+                    past.getId(), past.getTitle(), past.getSeverity().name(), past.getStatus().name(),
+                    match.similarity(), confirmedRootCauses(past.getId()))));
+        }
+        return similar;
+    }
+
+    /**
+     * Indexes the incident once the caller's transaction commits, so the index never holds an
+     * incident whose resolution was rolled back.
+     */
+    public void onResolved(Incident incident) {
+        if (!enabled) return;
+        var incidentId = incident.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexQuietly(incidentId);
+                }
+            });
+        } else {
+            indexQuietly(incidentId);
+        }
+    }
+
+    private void indexQuietly(UUID incidentId) {
+        var current = index;
+        if (current == null) return;
+        try {
+            index(incidentId);
+            current.flush();
+        } catch (RuntimeException e) {
+            // The resolution stands; the incident is picked up again by the next rebuild
+            log.warn("Could not index incident {} for similarity search: {}", incidentId, e.getMessage());
+        }
+        compactIfNeeded(current);
+    }
+
+    /** Compacts the index in the background once enough of it is deleted nodes; one compaction at a time. */
+    private void compactIfNeeded(HnswIndex current) {
+        if (current.deletedFraction() <= compactDeletedFraction || !compacting.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("similar-incident-compact").start(() -> {
+            try {
+                if (current.compact()) {
+                    log.info("Similar-incident index compacted: {} incidents", current.size());
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not compact similar-incident index: {}", e.getMessage());
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    /** Embeds the incident's current title, evidence and confirmed hypotheses and stores the vector. */
+    void index(UUID incidentId) {
+        var current = index;
+        if (current == null) return;
+        var incident = incidentRepository.findById(incidentId).orElse(null);
+        if (incident == null) return;
+        var evidence = evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(incidentId).stream()
+            .map(SimilarIncidentIndex::evidenceText)
+            .toList();
+        var vector = embedder.embed(incident.getTitle(), incident.getSummary(), evidence, confirmedRootCauses(incidentId));
+        try {
+            current.add(incidentId, tenantKey(incident.getTenantId()), vector);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<String> confirmedRootCauses(UUID incidentId) {
+        return hypothesisRepository.findByIncidentIdOrderByCreatedAtDesc(incidentId).stream()
+            .filter(h -> h.getStatus() == HypothesisStatus.CONFIRMED)
+            .map(h -> h.getDescription() == null || h.getDescription().isBlank()
+                ? h.getTitle() : h.getTitle() + ": " + h.getDescription())
+            .toList();
+    }
+
+    private static String evidenceText(Evidence evidence) {
+        var content = evidence.getContent();
+        if (content != null && content.length() > MAX_EVIDENCE_LENGTH) {
+            content = content.substring(0, MAX_EVIDENCE_LENGTH);
+        }
+        return evidence.getTitle() + "\n" + (content != null ? content : "");
+    }
+
+    private static boolean sameTenant(Incident a, Incident b) {
+        return a.getTenantId() == null ? b.getTenantId() == null : a.getTenantId().equals(b.getTenantId());
+    }
+
+    /** Tenant id folded to the 64 bits stored per node; collisions are caught by {@link #sameTenant}. */
+    static long tenantKey(String tenantId) {
+        if (tenantId == null) return 0;
+        return UUID.nameUUIDFromBytes(tenantId.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    private void rebuild() {
+        var current = index;
+        int indexed = 0;
+        for (var status : List.of(IncidentStatus.RESOLVED, IncidentStatus.POSTMORTEM)) {
+            for (var incident : incidentRepository.findByStatusOrderByCreatedAtDesc(status)) {
+                if (!running) return;
+                try {
+                    index(incident.getId());
+                    indexed++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not index incident {} for similarity search: {}", incident.getId(), e.getMessage());
+                }
+            }
+        }
+        current.flush();
+        log.info("Similar-incident index rebuilt: {} incidents", indexed);
+        compactIfNeeded(current);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) return;
+        try {
+            try {
+                index = HnswIndex.open(indexPath, embedder.dimensions(), M, EF_CONSTRUCTION);
+            } catch (HnswIndex.IncompatibleIndexException e) {
+                // Only derived data: start over and rebuild
+                log.warn("{}; rebuilding it", e.getMessage());
+                Files.delete(indexPath);
+                index = HnswIndex.open(indexPath, embedder.dimensions(), M, EF_CONSTRUCTION);
+            }
+        } catch (IOException e) {
+            log.error("Similar-incident index unavailable at {}; triage runs without it", indexPath, e);
+            return;
+        }
+        log.info("Similar-incident index opened: path={}, incidents={}", indexPath, index.size());
+        if (index.size() == 0) {
+            Thread.ofVirtual().name("similar-incident-rebuild").start(this::rebuild);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        var current = index;
+        index = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.warn("Could not close similar-incident index: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the triage workers, which read the index
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
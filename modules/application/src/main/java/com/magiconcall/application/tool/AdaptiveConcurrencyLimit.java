@@ -0,0 +1,87 @@
+package com.magiconcall.application.tool;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit for one tool, driven by observed latency.
+ * <p>
+ * Every finished call is a sample. A sample is a <em>drop</em> if the call failed or timed out,
+ * or if its latency exceeded {@code latencyTolerance} × the tool's long-term average latency (an
+ * EWMA over roughly the last 100 calls) — the sign of a backend queueing up. A drop cuts the
+ * limit by {@code backoffRatio}; a healthy sample raises it by one, but only while the limit is
+ * actually being used (at least half of it in flight), so an idle tool does not drift up to the
+ * maximum and then flood a backend that has since degraded.
+ * <p>
+ * {@link #tryAcquire} never waits: callers over the limit are shed at once.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    /** Limits and tuning for one tool's AIMD limit. */
+    public record Settings(int initialLimit, int minLimit, int maxLimit,
+                           double latencyTolerance, double backoffRatio) {
+        public Settings {
+            if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Expected 1 <= min <= initial <= max, got min=" + minLimit
+                    + ", initial=" + initialLimit + ", max=" + maxLimit);
+            }
+            if (!(latencyTolerance > 1) || !(backoffRatio > 0 && backoffRatio < 1)) {
+                throw new IllegalArgumentException("Expected latencyTolerance > 1 and 0 < backoffRatio < 1");
+            }
+        }
+    }
+
+    private static final double LATENCY_SMOOTHING = 0.01;
+
+    private final Settings settings;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private double limit;
+    private double averageLatencyNanos = -1;
+    private volatile int currentLimit;
+
+    public AdaptiveConcurrencyLimit(Settings settings) {
+        this.settings = settings;
+        this.limit = settings.initialLimit();
+        this.currentLimit = settings.initialLimit();
+    }
+
+    /** Takes a slot if fewer than {@link #limit()} calls are in flight. */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Returns the slot taken by {@link #tryAcquire} and adjusts the limit. */
+    public void onSample(long latencyNanos, boolean failed) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        synchronized (this) {
+            boolean slow = averageLatencyNanos > 0
+                && latencyNanos > settings.latencyTolerance() * averageLatencyNanos;
+            averageLatencyNanos = averageLatencyNanos < 0
+                ? latencyNanos
+                : averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+
+            if (failed || slow) {
+                limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+            } else if (inFlightAtCompletion * 2 >= currentLimit) {
+                limit = Math.min(settings.maxLimit(), limit + 1);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    /** Returns the slot without a sample, for calls that never reached the backend. */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return currentLimit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
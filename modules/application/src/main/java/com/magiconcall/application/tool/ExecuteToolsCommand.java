@@ -0,0 +1,31 @@
+package com.magiconcall.application.tool;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Several tool calls for one incident, run concurrently under one overall deadline.
+ * A null deadline means {@link #DEFAULT_DEADLINE}; longer deadlines are capped at {@link #MAX_DEADLINE}.
+ */
+public record ExecuteToolsCommand(
+    UUID incidentId,
+    List<ToolCall> calls,
+    Duration deadline,
+    String requestedBy
+) {
+    public static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(10);
+    public static final Duration MAX_DEADLINE = Duration.ofSeconds(60);
+
+    public record ToolCall(String toolName, Map<String, String> parameters) {}
+
+    public ExecuteToolsCommand {
+        calls = List.copyOf(calls);
+        if (deadline == null) {
+            deadline = DEFAULT_DEADLINE;
+        } else if (deadline.compareTo(MAX_DEADLINE) > 0) {
+            deadline = MAX_DEADLINE;
+        }
+    }
+}
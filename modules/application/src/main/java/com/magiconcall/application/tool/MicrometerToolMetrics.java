@@ -1,34 +1,233 @@
 package com.magiconcall.application.tool;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer-backed tool metrics.
+ * <p>
+ * Meters are registered once per tool (and per status or shed reason) and their handles kept in
+ * {@link ToolMeters}, so recording on the hot path is a map lookup and an increment. Execution
+ * time and queue wait are separate timers: execution starts once the call holds its bulkhead
+ * permit, queue wait covers the time spent waiting for it. Both publish a percentile histogram
+ * (if enabled) and the configured SLO buckets.
+ */
 @Component
 public class MicrometerToolMetrics implements ToolMetrics {
 
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(2);
+    private static final double[] RETRY_BUCKETS = {0, 1, 2, 3, 5, 10};
+
     private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final Duration[] slos;
+    private final ConcurrentHashMap<String, ToolMeters> tools = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MicrometerToolMetrics(MeterRegistry meterRegistry,
+                                 @Value("${magiconcall.tool.metrics.percentile-histogram:true}") boolean percentileHistogram,
+                                 @Value("${magiconcall.tool.metrics.slo:100ms,500ms,1s,5s,30s}") String slos) {
+        this(meterRegistry, percentileHistogram, parseSlos(slos));
+    }
 
-    public MicrometerToolMetrics(MeterRegistry meterRegistry) {
+    MicrometerToolMetrics(MeterRegistry meterRegistry, boolean percentileHistogram, List<Duration> slos) {
         this.meterRegistry = meterRegistry;
+        this.percentileHistogram = percentileHistogram;
+        this.slos = slos.toArray(Duration[]::new);
+    }
+
+    static List<Duration> parseSlos(String spec) {
+        if (spec == null || spec.isBlank()) return List.of();
+        return Arrays.stream(spec.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .map(DurationStyle::detectAndParse)
+            .sorted()
+            .toList();
     }
 
     @Override
-    public void recordExecution(String toolName, String status, long durationMs) {
-        Counter.builder("moc_tool_executions_total")
-            .description("Total tool executions")
-            .tag("tool", toolName)
-            .tag("status", status)
-            .register(meterRegistry)
-            .increment();
+    public void recordExecution(String toolName, String status, long durationMs, int retryCount) {
+        var meters = meters(toolName);
+        meters.executionTimer(status).record(durationMs, TimeUnit.MILLISECONDS);
+        meters.executionCounter(status).increment();
+        meters.retries.record(retryCount);
+    }
+
+    @Override
+    public void recordQueueWait(String toolName, long waitNanos) {
+        meters(toolName).queueWait.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordCallStarted(String toolName) {
+        meters(toolName).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void recordCallFinished(String toolName) {
+        meters(toolName).inFlight.decrementAndGet();
     }
 
     @Override
     public void recordRateLimited(String toolName) {
-        Counter.builder("moc_tool_rate_limited_total")
-            .description("Tool executions denied by rate limiter")
+        meters(toolName).rateLimited.increment();
+    }
+
+    @Override
+    public void recordBulkheadRejected(String toolName) {
+        meters(toolName).bulkheadRejected.increment();
+    }
+
+    @Override
+    public void recordShed(String toolName, String reason) {
+        meters(toolName).shedCounter(reason).increment();
+    }
+
+    @Override
+    public void recordCacheHit(String toolName) {
+        meters(toolName).cacheHits.increment();
+    }
+
+    @Override
+    public void recordCacheMiss(String toolName) {
+        meters(toolName).cacheMisses.increment();
+    }
+
+    @Override
+    public void registerBulkhead(String toolName, ToolBulkhead.LaneState state) {
+        // The bulkhead keeps its lanes for the life of the process, so the gauges' weak refs stay valid
+        Gauge.builder("moc_tool_bulkhead_active", state, ToolBulkhead.LaneState::activeCalls)
+            .description("Tool calls currently holding a bulkhead permit")
+            .tag("tool", toolName)
+            .register(meterRegistry);
+        Gauge.builder("moc_tool_bulkhead_queued", state, ToolBulkhead.LaneState::queuedCalls)
+            .description("Tool calls waiting for a bulkhead permit")
+            .tag("tool", toolName)
+            .register(meterRegistry);
+        Gauge.builder("moc_tool_bulkhead_saturation", state,
+                s -> (double) s.activeCalls() / s.maxConcurrent())
+            .description("Fraction of the tool's bulkhead permits in use")
+            .tag("tool", toolName)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void registerResilience(String toolName, ToolResilienceRegistry.ToolResilience resilience) {
+        // Held by the registry for the life of the process, like the bulkhead lanes
+        Gauge.builder("moc_tool_concurrency_limit", resilience.concurrencyLimit(), AdaptiveConcurrencyLimit::limit)
+            .description("Current adaptive concurrency limit of the tool")
+            .tag("tool", toolName)
+            .register(meterRegistry);
+        Gauge.builder("moc_tool_circuit_state", resilience.circuitBreaker(), cb -> cb.getState().getOrder())
+            .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
             .tag("tool", toolName)
-            .register(meterRegistry)
-            .increment();
+            .register(meterRegistry);
+    }
+
+    private ToolMeters meters(String toolName) {
+        // get() first: computeIfAbsent would allocate the capturing lambda on every call
+        var meters = tools.get(toolName);
+        return meters != null ? meters : tools.computeIfAbsent(toolName, ToolMeters::new);
+    }
+
+    /** Registered meter handles of one tool; status- and reason-tagged meters are added on first use. */
+    private final class ToolMeters {
+
+        private final String toolName;
+        private final ConcurrentHashMap<String, Timer> executionTimers = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Counter> executionCounters = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, Counter> shedCounters = new ConcurrentHashMap<>();
+        private final Timer queueWait;
+        private final DistributionSummary retries;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter rateLimited;
+        private final Counter bulkheadRejected;
+        private final Counter cacheHits;
+        private final Counter cacheMisses;
+
+        ToolMeters(String toolName) {
+            this.toolName = toolName;
+            this.queueWait = Timer.builder("moc_tool_queue_wait")
+                .description("Time a tool call waited for its bulkhead permit and a thread")
+                .tag("tool", toolName)
+                .publishPercentileHistogram(percentileHistogram)
+                .serviceLevelObjectives(slos)
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry);
+            this.retries = DistributionSummary.builder("moc_tool_retries")
+                .description("Retries per tool execution")
+                .tag("tool", toolName)
+                .serviceLevelObjectives(RETRY_BUCKETS)
+                .register(meterRegistry);
+            // The map holds this instance for the life of the process, so the weak ref stays valid
+            Gauge.builder("moc_tool_in_flight", inFlight, AtomicInteger::get)
+                .description("Tool calls currently executing against the backend")
+                .tag("tool", toolName)
+                .register(meterRegistry);
+            this.rateLimited = counter("moc_tool_rate_limited_total", "Tool executions denied by rate limiter");
+            this.bulkheadRejected = counter("moc_tool_bulkhead_rejected_total",
+                "Tool executions rejected by a saturated bulkhead");
+            this.cacheHits = counter("moc_tool_cache_hits_total",
+                "Tool calls answered from the response cache or a shared in-flight call");
+            this.cacheMisses = counter("moc_tool_cache_misses_total", "Cacheable tool calls that went to the backend");
+        }
+
+        Timer executionTimer(String status) {
+            var timer = executionTimers.get(status);
+            return timer != null ? timer : executionTimers.computeIfAbsent(status, s ->
+                Timer.builder("moc_tool_execution")
+                    .description("Tool execution time, from bulkhead admission to outcome")
+                    .tag("tool", toolName)
+                    .tag("status", s)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .serviceLevelObjectives(slos)
+                    .minimumExpectedValue(MIN_EXPECTED)
+                    .maximumExpectedValue(MAX_EXPECTED)
+                    .register(meterRegistry));
+        }
+
+        Counter executionCounter(String status) {
+            var counter = executionCounters.get(status);
+            return counter != null ? counter : executionCounters.computeIfAbsent(status, s ->
+                Counter.builder("moc_tool_executions_total")
+                    .description("Total tool executions")
+                    .tag("tool", toolName)
+                    .tag("status", s)
+                    .register(meterRegistry));
+        }
+
+        Counter shedCounter(String reason) {
+            var counter = shedCounters.get(reason);
+            return counter != null ? counter : shedCounters.computeIfAbsent(reason, r ->
+                Counter.builder("moc_tool_shed_total")
+                    .description("Tool calls shed before reaching the backend")
+                    .tag("tool", toolName)
+                    .tag("reason", r)
+                    .register(meterRegistry));
+        }
+
+        private Counter counter(String name, String description) {
+            return Counter.builder(name)
+                .description(description)
+                .tag("tool", toolName)
+                .register(meterRegistry);
+        }
     }
 }
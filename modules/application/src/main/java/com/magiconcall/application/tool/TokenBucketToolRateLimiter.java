@@ -0,0 +1,173 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tool.DistributedRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per (tool, tenant) in two tiers.
+ * <p>
+ * The local tier is lock-free: a bucket is one {@link AtomicLong} holding its theoretical
+ * arrival time (GCRA) — the instant at which it would be full again. Taking a token moves that
+ * instant one emission interval ({@code 1 / refillPerSecond}) forward with a CAS, and is refused if
+ * it would land more than {@code capacity} intervals ahead of now. This is the same admission as a
+ * token bucket without storing a token count and a timestamp separately.
+ * <p>
+ * When a {@link DistributedRateLimiter} is configured ({@code global.enabled}), calls the local
+ * tier admits must also get a token from the shared bucket, which enforces the limit across all
+ * replicas; the local token is refunded if the shared bucket is empty. If the shared store is
+ * unreachable the local tier alone decides, so a Redis outage degrades to per-replica limits
+ * instead of blocking every tool call.
+ * <p>
+ * Limits come from configuration, so all replicas share them; there is deliberately no API override
+ * that would apply to one replica and every tenant. To change them without a restart, point
+ * {@code limits-file} at a properties file mounted on every replica (e.g. from a ConfigMap) with
+ * the same {@code default} and {@code overrides} keys: it is re-read every {@code reload-interval-ms}
+ * and replaces the configured limits while it exists. A bucket keeps its arrival time across a
+ * change, so the next call is admitted under the new capacity and rate without a free burst.
+ */
+@Component
+public class TokenBucketToolRateLimiter implements ToolRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenBucketToolRateLimiter.class);
+
+    private final Optional<DistributedRateLimiter> distributedRateLimiter;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final ToolRateLimits configured;
+    private final Path limitsFile;
+    private volatile ToolRateLimits limits;
+    /** Content of the limits file last read, or null while there is none; touched only by reload. */
+    private String loadedContent;
+
+    @Autowired
+    public TokenBucketToolRateLimiter(@Value("${magiconcall.tool.rate-limit.default:60/10}") String defaultLimit,
+                                      @Value("${magiconcall.tool.rate-limit.overrides:}") String overrides,
+                                      @Value("${magiconcall.tool.rate-limit.limits-file:}") String limitsFile,
+                                      Optional<DistributedRateLimiter> distributedRateLimiter) {
+        this(ToolRateLimits.parse(ToolRateLimits.Limit.parse(defaultLimit), overrides),
+            limitsFile.isBlank() ? null : Path.of(limitsFile), distributedRateLimiter, System::nanoTime);
+    }
+
+    TokenBucketToolRateLimiter(ToolRateLimits limits, Optional<DistributedRateLimiter> distributedRateLimiter,
+                               LongSupplier nanoClock) {
+        this(limits, null, distributedRateLimiter, nanoClock);
+    }
+
+    TokenBucketToolRateLimiter(ToolRateLimits limits, Path limitsFile,
+                               Optional<DistributedRateLimiter> distributedRateLimiter, LongSupplier nanoClock) {
+        this.configured = limits;
+        this.limitsFile = limitsFile;
+        this.limits = limits;
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.nanoClock = nanoClock;
+        reload();
+    }
+
+    /**
+     * Re-reads the limits file and swaps in its limits when its content changed. A file that cannot
+     * be read or parsed keeps the current limits; a removed file restores the configured ones.
+     */
+    @Scheduled(fixedDelayString = "${magiconcall.tool.rate-limit.reload-interval-ms:10000}")
+    public synchronized void reload() {
+        if (limitsFile == null) {
+            return;
+        }
+        String content;
+        try {
+            content = Files.readString(limitsFile);
+        } catch (NoSuchFileException e) {
+            content = null;
+        } catch (IOException e) {
+            log.warn("Keeping current tool rate limits, cannot read {}: {}", limitsFile, e.getMessage());
+            return;
+        }
+        if (Objects.equals(content, loadedContent)) {
+            return;
+        }
+        loadedContent = content;
+        if (content == null) {
+            limits = configured;
+            log.info("Tool rate limits file {} removed, using configured limits: {}", limitsFile, configured);
+            return;
+        }
+        try {
+            var properties = new Properties();
+            properties.load(new StringReader(content));
+            String defaultLimit = properties.getProperty("default");
+            limits = ToolRateLimits.parse(defaultLimit == null || defaultLimit.isBlank()
+                ? configured.defaultLimit() : ToolRateLimits.Limit.parse(defaultLimit),
+                properties.getProperty("overrides"));
+            log.info("Tool rate limits reloaded from {}: {}", limitsFile, limits);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Keeping current tool rate limits, invalid {}: {}", limitsFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String toolName, String tenantId) {
+        var limit = limits.limitFor(toolName);
+        String key = toolName + ":" + tenantId;
+        long interval = intervalNanos(limit);
+        long now = nanoClock.getAsLong();
+        var bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+
+        if (!take(bucket, now, interval, limit.capacity())) {
+            return false;
+        }
+        if (distributedRateLimiter.isEmpty()) {
+            return true;
+        }
+        try {
+            if (distributedRateLimiter.get().tryAcquire(key, limit.capacity(), limit.refillPerSecond())) {
+                return true;
+            }
+            bucket.addAndGet(-interval);
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Global rate limiter unavailable, using local limit only: tool={}, tenant={}, error={}",
+                toolName, tenantId, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public ToolRateLimits limits() {
+        return limits;
+    }
+
+    private static boolean take(AtomicLong bucket, long now, long interval, long capacity) {
+        long burst = capacity > Long.MAX_VALUE / interval ? Long.MAX_VALUE : capacity * interval;
+        while (true) {
+            long arrival = bucket.get();
+            // Compare by difference: nanoTime values may wrap
+            long next = (arrival - now > 0 ? arrival : now) + interval;
+            if (next - now > burst) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static long intervalNanos(ToolRateLimits.Limit limit) {
+        return Math.max(1, Math.round(1_000_000_000 / limit.refillPerSecond()));
+    }
+}
@@ -0,0 +1,133 @@
+package com.magiconcall.application.tool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-tool and per-tenant concurrency limits for tool calls.
+ * <p>
+ * Every call needs a permit from its tenant's lane and from its tool's lane. A lane is a
+ * semaphore plus a bounded wait queue: when no permit is free the caller waits up to
+ * {@code max-wait}, but only if fewer than {@code max-queued} callers are already waiting —
+ * otherwise it is rejected at once. A hung backend therefore pins at most {@code per-tool}
+ * calls and sheds the rest instead of piling up threads.
+ */
+@Component
+public class ToolBulkhead {
+
+    /** Read-only view of a lane, exported as saturation gauges. */
+    public interface LaneState {
+        int activeCalls();
+        int queuedCalls();
+        int maxConcurrent();
+    }
+
+    /** Held for the duration of one call; closing returns both permits. */
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final int perToolConcurrency;
+    private final int perTenantConcurrency;
+    private final int maxQueued;
+    private final long maxWaitNanos;
+    private final ToolMetrics toolMetrics;
+    private final ConcurrentHashMap<String, Lane> toolLanes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Lane> tenantLanes = new ConcurrentHashMap<>();
+
+    public ToolBulkhead(@Value("${magiconcall.tool.bulkhead.per-tool-concurrency:16}") int perToolConcurrency,
+                        @Value("${magiconcall.tool.bulkhead.per-tenant-concurrency:32}") int perTenantConcurrency,
+                        @Value("${magiconcall.tool.bulkhead.max-queued:64}") int maxQueued,
+                        @Value("${magiconcall.tool.bulkhead.max-wait:2s}") Duration maxWait,
+                        ToolMetrics toolMetrics) {
+        this.perToolConcurrency = perToolConcurrency;
+        this.perTenantConcurrency = perTenantConcurrency;
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.toolMetrics = toolMetrics;
+    }
+
+    /** Returns a permit, or null if either lane is saturated. */
+    public Permit tryEnter(String toolName, String tenantId) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        var tenantLane = tenantLanes.computeIfAbsent(tenantId, t -> new Lane(perTenantConcurrency, maxQueued));
+        var toolLane = toolLanes.computeIfAbsent(toolName, t -> {
+            var lane = new Lane(perToolConcurrency, maxQueued);
+            toolMetrics.registerBulkhead(t, lane);
+            return lane;
+        });
+
+        if (!tenantLane.acquire(deadline)) {
+            return null;
+        }
+        try {
+            if (!toolLane.acquire(deadline)) {
+                tenantLane.release();
+                return null;
+            }
+        } catch (InterruptedException e) {
+            tenantLane.release();
+            throw e;
+        }
+
+        var released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                toolLane.release();
+                tenantLane.release();
+            }
+        };
+    }
+
+    public LaneState toolState(String toolName) {
+        return toolLanes.get(toolName);
+    }
+
+    private static final class Lane implements LaneState {
+
+        private final Semaphore permits;
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        Lane(int maxConcurrent, int maxQueued) {
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+
+        boolean acquire(long deadlineNanos) throws InterruptedException {
+            if (permits.tryAcquire()) return true;
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+
+        @Override
+        public int activeCalls() { return maxConcurrent - permits.availablePermits(); }
+
+        @Override
+        public int queuedCalls() { return queued.get(); }
+
+        @Override
+        public int maxConcurrent() { return maxConcurrent; }
+    }
+}
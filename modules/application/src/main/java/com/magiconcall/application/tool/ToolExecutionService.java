@@ -2,24 +2,29 @@ package com.magiconcall.application.tool;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.content.ContentStore;
+import com.magiconcall.application.content.StoredContent;
+import com.magiconcall.application.graph.LogTemplateService;
+import com.magiconcall.application.graph.TemporalCorrelationService;
+import com.magiconcall.application.triage.EvidenceSummarizer;
 import com.magiconcall.domain.event.DomainEvent;
 import com.magiconcall.domain.event.EventPublisher;
 import com.magiconcall.domain.incident.*;
 import com.magiconcall.domain.tenant.TenantContext;
 import com.magiconcall.domain.tool.*;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.retry.Retry;
-import io.github.resilience4j.retry.RetryConfig;
-import io.github.resilience4j.timelimiter.TimeLimiter;
-import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
@@ -37,11 +42,16 @@ public class ToolExecutionService implements ToolExecutor {
     private final EventPublisher eventPublisher;
     private final ToolMetrics toolMetrics;
     private final ObjectMapper objectMapper;
+    private final TemporalCorrelationService temporalCorrelationService;
+    private final ToolBulkhead bulkhead;
+    private final TransactionOperations transactionOperations;
+    private final ToolResponseCache responseCache;
     private final ExecutorService executor;
-    private final RetryConfig retryConfig;
-    private final TimeLimiterConfig timeLimiterConfig;
+    private final ToolResilienceRegistry resilienceRegistry;
+    private final ContentStore contentStore;
+    private final EvidenceSummarizer evidenceSummarizer;
+    private final LogTemplateService logTemplateService;
 
-    @Autowired
     public ToolExecutionService(ToolRegistry toolRegistry,
                                 ToolRateLimiter rateLimiter,
                                 ToolExecutionLogRepository executionLogRepository,
@@ -49,31 +59,15 @@ public class ToolExecutionService implements ToolExecutor {
                                 IncidentEventRepository incidentEventRepository,
                                 EventPublisher eventPublisher,
                                 ToolMetrics toolMetrics,
-                                ObjectMapper objectMapper) {
-        this(toolRegistry, rateLimiter, executionLogRepository, evidenceRepository,
-            incidentEventRepository, eventPublisher, toolMetrics, objectMapper,
-            RetryConfig.custom()
-                .maxAttempts(3)
-                .waitDuration(Duration.ofMillis(500))
-                .retryExceptions(RuntimeException.class)
-                .build(),
-            TimeLimiterConfig.custom()
-                .timeoutDuration(Duration.ofSeconds(30))
-                .cancelRunningFuture(true)
-                .build());
-    }
-
-    // Package-private constructor for testing with custom configs
-    ToolExecutionService(ToolRegistry toolRegistry,
-                         ToolRateLimiter rateLimiter,
-                         ToolExecutionLogRepository executionLogRepository,
-                         EvidenceRepository evidenceRepository,
-                         IncidentEventRepository incidentEventRepository,
-                         EventPublisher eventPublisher,
-                         ToolMetrics toolMetrics,
-                         ObjectMapper objectMapper,
-                         RetryConfig retryConfig,
-                         TimeLimiterConfig timeLimiterConfig) {
+                                ObjectMapper objectMapper,
+                                TemporalCorrelationService temporalCorrelationService,
+                                ToolBulkhead bulkhead,
+                                TransactionOperations transactionOperations,
+                                ToolResponseCache responseCache,
+                                ToolResilienceRegistry resilienceRegistry,
+                                ContentStore contentStore,
+                                EvidenceSummarizer evidenceSummarizer,
+                                LogTemplateService logTemplateService) {
         this.toolRegistry = toolRegistry;
         this.rateLimiter = rateLimiter;
         this.executionLogRepository = executionLogRepository;
@@ -82,22 +76,145 @@ public class ToolExecutionService implements ToolExecutor {
         this.eventPublisher = eventPublisher;
         this.toolMetrics = toolMetrics;
         this.objectMapper = objectMapper;
-        this.retryConfig = retryConfig;
-        this.timeLimiterConfig = timeLimiterConfig;
-        this.executor = Executors.newCachedThreadPool();
+        this.temporalCorrelationService = temporalCorrelationService;
+        this.bulkhead = bulkhead;
+        this.transactionOperations = transactionOperations;
+        this.responseCache = responseCache;
+        this.resilienceRegistry = resilienceRegistry;
+        this.contentStore = contentStore;
+        this.evidenceSummarizer = evidenceSummarizer;
+        this.logTemplateService = logTemplateService;
+        // One virtual thread per call; concurrency is bounded by the bulkhead, not the pool
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
     }
 
-    @Transactional
+    /**
+     * Not transactional: admission (rate limit, bulkhead, registry lookup) is in-memory, the tool
+     * call runs with no connection held, and only the final persistence step opens a short
+     * transaction. A slow backend therefore ties up a virtual thread and a bulkhead permit, never
+     * a pool connection.
+     * <p>
+     * Cacheable tools go through {@link ToolResponseCache} first: a cache hit or a call that joins
+     * an identical in-flight call skips admission and the backend entirely, and returns the
+     * execution that produced the response. It only writes new rows when the response becomes
+     * evidence for a different incident than the one it was fetched for.
+     */
     public ToolExecutionResult executeTool(ExecuteToolCommand command) {
         String tenantId = TenantContext.requireTenantId();
+
+        var cacheKey = responseCache.keyFor(command.toolName(), tenantId, command.parameters());
+        if (cacheKey == null) {
+            return executeUncached(command, tenantId).result();
+        }
+        var lookup = responseCache.get(cacheKey, () -> executeUncached(command, tenantId));
+        var entry = lookup.entry();
+        if (!lookup.shared() || !entry.succeeded()
+                || command.incidentId() == null || command.incidentId().equals(entry.incidentId())) {
+            return entry.result();
+        }
+        log.debug("Reusing cached tool response as evidence: tool={}, executionId={}, incidentId={}",
+            command.toolName(), entry.result().executionId(), command.incidentId());
+        return persistAndReturn(command, tenantId,
+            new Outcome(ToolExecutionStatus.CACHED, entry.response(), null, 0, 0));
+    }
+
+    private ToolResponseCache.Entry executeUncached(ExecuteToolCommand command, String tenantId) {
+        var outcome = invoke(command, tenantId);
+        return new ToolResponseCache.Entry(persistAndReturn(command, tenantId, outcome),
+            command.incidentId(), outcome.response());
+    }
+
+    /**
+     * Runs several tool calls for one incident concurrently and persists every result in a
+     * single transaction.
+     * <p>
+     * Each call goes through the same admission (rate limit, bulkhead) and retry/timeout as
+     * {@link #executeTool} on its own virtual thread. Calls still running at the overall deadline
+     * are cancelled and reported as TIMEOUT, so the caller always gets one result per call, in
+     * request order, within the deadline. Fan-out calls bypass the response cache: their results
+     * are persisted together, after all calls finish, so there is no single execution to share
+     * while they are in flight.
+     */
+    @Override
+    public ToolFanOutResult executeTools(ExecuteToolsCommand command) {
+        String tenantId = TenantContext.requireTenantId();
+        Instant start = Instant.now();
+        long deadline = System.nanoTime() + command.deadline().toNanos();
+
+        List<ExecuteToolCommand> calls = command.calls().stream()
+            .map(call -> new ExecuteToolCommand(call.toolName(), command.incidentId(),
+                call.parameters(), command.requestedBy()))
+            .toList();
+        // Fail fast on unknown tools before starting any call
+        calls.forEach(call -> toolRegistry.getByName(call.toolName()));
+
+        List<Outcome> outcomes = new ArrayList<>(calls.size());
+        // Closing the scope waits for every subtask, so none outlives this method
+        try (var scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Outcome>> futures = calls.stream()
+                .map(call -> scope.submit(() -> {
+                    TenantContext.setTenantId(tenantId);
+                    try {
+                        return invoke(call, tenantId);
+                    } finally {
+                        TenantContext.clear();
+                    }
+                }))
+                .toList();
+
+            for (var future : futures) {
+                outcomes.add(awaitOutcome(future, deadline));
+            }
+        }
+
+        boolean partial = outcomes.stream().anyMatch(o -> o.status() != ToolExecutionStatus.SUCCESS);
+        List<StoredContent> stored = outcomes.stream().map(this::storeResponse).toList();
+        List<ToolExecutionResult> results = transactionOperations.execute(tx -> {
+            List<ToolExecutionResult> persisted = new ArrayList<>(calls.size());
+            for (int i = 0; i < calls.size(); i++) {
+                persisted.add(persist(calls.get(i), tenantId, outcomes.get(i), stored.get(i)));
+            }
+            return persisted;
+        });
+
+        long durationMs = Duration.between(start, Instant.now()).toMillis();
+        log.info("Tool fan-out finished: incidentId={}, calls={}, partial={}, duration={}ms",
+            command.incidentId(), calls.size(), partial, durationMs);
+        return new ToolFanOutResult(command.incidentId(), results, partial, durationMs);
+    }
+
+    private static Outcome awaitOutcome(Future<Outcome> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return Outcome.failed(ToolExecutionStatus.TIMEOUT, "Fan-out deadline exceeded");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Outcome.failed(ToolExecutionStatus.FAILURE, "Interrupted");
+        } catch (ExecutionException e) {
+            return Outcome.failed(ToolExecutionStatus.FAILURE, e.getCause().getMessage());
+        }
+    }
+
+    /** Result of admission and the tool call, before anything is persisted. */
+    private record Outcome(ToolExecutionStatus status, ToolResponse response, String errorMessage,
+                           long durationMs, int retryCount) {
+        static Outcome failed(ToolExecutionStatus status, String errorMessage) {
+            return new Outcome(status, null, errorMessage, 0, 0);
+        }
+    }
+
+    /** Admission and the tool call itself; no transaction, no persistence. */
+    private Outcome invoke(ExecuteToolCommand command, String tenantId) {
         String toolName = command.toolName();
 
         // 1. Rate limit check
         if (!rateLimiter.tryAcquire(toolName, tenantId)) {
             toolMetrics.recordRateLimited(toolName);
             log.info("Tool rate-limited: tool={}, tenant={}", toolName, tenantId);
-            return persistAndReturn(command, tenantId, ToolExecutionStatus.RATE_LIMITED,
-                null, "Rate limit exceeded for tool: " + toolName, 0, 0);
+            return Outcome.failed(ToolExecutionStatus.RATE_LIMITED, "Rate limit exceeded for tool: " + toolName);
         }
 
         // 2. Lookup tool
@@ -106,65 +223,158 @@ public class ToolExecutionService implements ToolExecutor {
             command.incidentId(), toolName, command.parameters(), command.requestedBy()
         );
 
-        // 3. Execute with Resilience4j retry + timeout
+        // 3. Bulkhead: bounded concurrency per tool and per tenant; over that, calls wait in a
+        //    bounded queue and are rejected only when it is full or the wait runs out
+        var resilience = resilienceRegistry.forTool(toolName);
+        long admissionStart = System.nanoTime();
+        ToolBulkhead.Permit permit;
+        try {
+            permit = bulkhead.tryEnter(toolName, tenantId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+        if (permit == null) {
+            toolMetrics.recordBulkheadRejected(toolName);
+            log.info("Tool rejected by bulkhead: tool={}, tenant={}", toolName, tenantId);
+            return Outcome.failed(ToolExecutionStatus.REJECTED, "Too many concurrent executions for tool: " + toolName);
+        }
+
+        // 4. Adaptive concurrency limit, taken only once the bulkhead has admitted the call so
+        //    queued calls are not shed up front and no slot is held while waiting in a lane.
+        //    The bulkhead caps in-flight calls, so only a limit backed off below it sheds here.
+        var concurrencyLimit = resilience.concurrencyLimit();
+        if (!concurrencyLimit.tryAcquire()) {
+            permit.close();
+            toolMetrics.recordShed(toolName, "concurrency_limit");
+            log.info("Tool shed by concurrency limit: tool={}, tenant={}, limit={}",
+                toolName, tenantId, concurrencyLimit.limit());
+            return Outcome.failed(ToolExecutionStatus.REJECTED, "Concurrency limit reached for tool: " + toolName);
+        }
+
+        // 5. Execute: retry (closed circuit only) around circuit breaker, under the tool's time limit
         Instant start = Instant.now();
-        int[] retryCount = {0};
+        int[] attempts = {0};
         ToolResponse toolResponse;
         ToolExecutionStatus status;
+        Future<ToolResponse> future = null;
 
         try {
-            Retry retry = Retry.of("tool-" + toolName, retryConfig);
-            retry.getEventPublisher().onRetry(event ->
-                retryCount[0] = event.getNumberOfRetryAttempts());
+            Callable<ToolResponse> attempt = CircuitBreaker.decorateCallable(resilience.circuitBreaker(), () -> {
+                attempts[0]++;
+                return tool.execute(toolRequest);
+            });
+            Callable<ToolResponse> retryWrapped = Retry.decorateCallable(resilience.retry(), attempt);
 
-            TimeLimiter timeLimiter = TimeLimiter.of("tool-" + toolName, timeLimiterConfig);
-
-            Callable<ToolResponse> retryWrapped = Retry.decorateCallable(
-                retry, () -> tool.execute(toolRequest));
-
-            Future<ToolResponse> future = executor.submit(retryWrapped);
-            toolResponse = timeLimiter.executeFutureSupplier(() -> future);
+            // Permit and limit slot are held until the call itself finishes, even if the caller
+            // times out first; the limit samples the backend's real latency
+            var heldPermit = permit;
+            var submitted = executor.submit(() -> {
+                long callStart = System.nanoTime();
+                toolMetrics.recordQueueWait(toolName, callStart - admissionStart);
+                toolMetrics.recordCallStarted(toolName);
+                Boolean failed = null;
+                try {
+                    var response = retryWrapped.call();
+                    failed = !response.success();
+                    return response;
+                } catch (CallNotPermittedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    if (failed == null) {
+                        concurrencyLimit.release();
+                    } else {
+                        concurrencyLimit.onSample(System.nanoTime() - callStart, failed);
+                    }
+                    toolMetrics.recordCallFinished(toolName);
+                    heldPermit.close();
+                }
+            });
+            future = submitted;
+            permit = null;
+            toolResponse = resilience.timeLimiter().executeFutureSupplier(() -> submitted);
             status = toolResponse.success() ? ToolExecutionStatus.SUCCESS : ToolExecutionStatus.FAILURE;
+        } catch (CallNotPermittedException e) {
+            toolMetrics.recordShed(toolName, "circuit_open");
+            log.info("Tool shed by open circuit: tool={}, tenant={}", toolName, tenantId);
+            return Outcome.failed(ToolExecutionStatus.REJECTED, "Circuit open for tool: " + toolName);
         } catch (TimeoutException e) {
             toolResponse = ToolResponse.failure("Tool execution timed out");
             status = ToolExecutionStatus.TIMEOUT;
+        } catch (InterruptedException e) {
+            // Caller gave up (e.g. fan-out deadline): stop the call rather than let it run on
+            Thread.currentThread().interrupt();
+            if (future != null) future.cancel(true);
+            toolResponse = ToolResponse.failure("Tool execution interrupted");
+            status = ToolExecutionStatus.TIMEOUT;
         } catch (Exception e) {
             String msg = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
             toolResponse = ToolResponse.failure(msg);
             status = ToolExecutionStatus.FAILURE;
+        } finally {
+            // Only still set if the call was never submitted
+            if (permit != null) {
+                permit.close();
+                concurrencyLimit.release();
+            }
         }
 
+        int retryCount = Math.max(0, attempts[0] - 1);
         long durationMs = Duration.between(start, Instant.now()).toMillis();
+        return new Outcome(status, toolResponse, toolResponse.errorMessage(), durationMs, retryCount);
+    }
 
-        // 4. Persist + store evidence + publish event
-        return persistAndReturn(command, tenantId, status, toolResponse,
-            toolResponse.errorMessage(), durationMs, retryCount[0]);
+    private ToolExecutionResult persistAndReturn(ExecuteToolCommand command, String tenantId, Outcome outcome) {
+        var stored = storeResponse(outcome);
+        return transactionOperations.execute(tx -> persist(command, tenantId, outcome, stored));
     }
 
-    private ToolExecutionResult persistAndReturn(ExecuteToolCommand command, String tenantId,
-                                                  ToolExecutionStatus status, ToolResponse toolResponse,
-                                                  String errorMessage, long durationMs, int retryCount) {
+    /**
+     * Moves a large response body into the content store ahead of the persistence transaction;
+     * the log and evidence rows then carry only a preview and the content reference.
+     */
+    private StoredContent storeResponse(Outcome outcome) {
+        return outcome.response() != null ? contentStore.store(outcome.response().content()) : null;
+    }
+
+    /** Log, evidence, timeline and outbox event; runs inside the caller's transaction. */
+    private ToolExecutionResult persist(ExecuteToolCommand command, String tenantId, Outcome outcome,
+                                        StoredContent stored) {
         String toolName = command.toolName();
+        ToolExecutionStatus status = outcome.status();
+        ToolResponse toolResponse = outcome.response();
+        String errorMessage = outcome.errorMessage();
+        long durationMs = outcome.durationMs();
+        int retryCount = outcome.retryCount();
         String responseContent = toolResponse != null ? toolResponse.content() : null;
 
         try (var ignored = MDC.putCloseable("toolName", toolName)) {
             // Persist ToolExecutionLog
             var execLog = new ToolExecutionLog(
                 toolName, command.incidentId(), status,
-                serializeJson(command.parameters()), responseContent,
+                serializeJson(command.parameters()), stored != null ? stored.preview() : null,
                 errorMessage, durationMs, retryCount,
                 command.requestedBy(), Instant.now()
             );
+            if (stored != null && stored.referenced()) {
+                execLog.referenceResponse(stored.contentRef(), stored.length());
+            }
             execLog.setTenantId(tenantId);
             execLog = executionLogRepository.save(execLog);
 
-            // Record metrics
-            toolMetrics.recordExecution(toolName, status.name(), durationMs);
+            // Record metrics; a reused response did not run the tool and has no latency of its own
+            if (status != ToolExecutionStatus.CACHED) {
+                toolMetrics.recordExecution(toolName, status.name(), durationMs, retryCount);
+            }
 
-            // Store as Evidence if incidentId provided and execution succeeded
+            // Store as Evidence if incidentId provided and execution succeeded (or was reused)
             UUID evidenceId = null;
-            if (command.incidentId() != null && status == ToolExecutionStatus.SUCCESS) {
-                evidenceId = storeAsEvidence(command, toolResponse, tenantId);
+            if (command.incidentId() != null
+                    && (status == ToolExecutionStatus.SUCCESS || status == ToolExecutionStatus.CACHED)) {
+                evidenceId = storeAsEvidence(command, toolResponse, stored, tenantId);
             }
 
             // Publish domain event
@@ -181,21 +391,29 @@ public class ToolExecutionService implements ToolExecutor {
         }
     }
 
-    private UUID storeAsEvidence(ExecuteToolCommand command, ToolResponse response, String tenantId) {
+    private UUID storeAsEvidence(ExecuteToolCommand command, ToolResponse response, StoredContent stored,
+                                 String tenantId) {
         var evidence = new Evidence(
             command.incidentId(), null, EvidenceType.TOOL_OUTPUT,
             "Tool output: " + command.toolName(),
-            response.content(), null,
+            stored != null ? stored.preview() : null, null,
             serializeJson(response.metadata())
         );
+        if (stored != null && stored.referenced()) {
+            evidence.referenceContent(stored.contentRef(), stored.length());
+        }
         evidence.setTenantId(tenantId);
         evidence = evidenceRepository.save(evidence);
+        evidenceSummarizer.onEvidenceAdded(evidence);
 
         var timelineEvent = IncidentEvent.evidenceAdded(
             command.incidentId(), "Tool output: " + command.toolName(), "TOOL_OUTPUT");
         timelineEvent.setTenantId(tenantId);
         incidentEventRepository.save(timelineEvent);
 
+        temporalCorrelationService.onToolEvidence(command.toolName(), response.metadata(), evidence);
+        logTemplateService.onToolOutput(command.toolName(), evidence, response.content());
+
         return evidence.getId();
     }
 
@@ -3,4 +3,6 @@ package com.magiconcall.application.tool;
 public interface ToolExecutor {
 
     ToolExecutionResult executeTool(ExecuteToolCommand command);
+
+    ToolFanOutResult executeTools(ExecuteToolsCommand command);
 }
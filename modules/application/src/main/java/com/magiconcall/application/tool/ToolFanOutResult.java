@@ -0,0 +1,15 @@
+package com.magiconcall.application.tool;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One result per requested call, in request order. {@code partial} is true if any call did not
+ * succeed (failed, timed out, or was rejected by admission).
+ */
+public record ToolFanOutResult(
+    UUID incidentId,
+    List<ToolExecutionResult> results,
+    boolean partial,
+    long durationMs
+) {}
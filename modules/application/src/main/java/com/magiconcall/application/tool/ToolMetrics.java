@@ -1,6 +1,20 @@
 package com.magiconcall.application.tool;
 
 public interface ToolMetrics {
-    void recordExecution(String toolName, String status, long durationMs);
+    /** {@code durationMs} runs from bulkhead admission to the outcome and excludes queue wait. */
+    void recordExecution(String toolName, String status, long durationMs, int retryCount);
+    /** Time from the start of bulkhead admission until the call started running. */
+    void recordQueueWait(String toolName, long waitNanos);
+    void recordCallStarted(String toolName);
+    void recordCallFinished(String toolName);
     void recordRateLimited(String toolName);
+    void recordBulkheadRejected(String toolName);
+    /** A call dropped before reaching the backend; {@code reason} is circuit_open or concurrency_limit. */
+    void recordShed(String toolName, String reason);
+    void recordCacheHit(String toolName);
+    void recordCacheMiss(String toolName);
+    /** Exports the lane's active/queued calls and saturation as gauges for {@code toolName}. */
+    void registerBulkhead(String toolName, ToolBulkhead.LaneState state);
+    /** Exports the tool's circuit state and adaptive concurrency limit as gauges. */
+    void registerResilience(String toolName, ToolResilienceRegistry.ToolResilience resilience);
 }
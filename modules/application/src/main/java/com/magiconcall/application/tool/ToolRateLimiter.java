@@ -1,10 +1,12 @@
 package com.magiconcall.application.tool;
 
 /**
- * Port for rate limiting tool executions.
- * Stub implementation always allows; replace with Redis-based impl later.
+ * Port for rate limiting tool executions per (tool, tenant).
  */
 public interface ToolRateLimiter {
 
     boolean tryAcquire(String toolName, String tenantId);
+
+    /** The configured limits, identical on every replica. */
+    ToolRateLimits limits();
 }
@@ -0,0 +1,62 @@
+package com.magiconcall.application.tool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket limits for tool calls: a default plus per-tool overrides. Each (tool, tenant)
+ * pair gets its own bucket sized by the limit of its tool.
+ */
+public record ToolRateLimits(Limit defaultLimit, Map<String, Limit> overrides) {
+
+    /** Bucket of {@code capacity} tokens (the burst) refilled at {@code refillPerSecond}. */
+    public record Limit(long capacity, double refillPerSecond) {
+        public Limit {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be at least 1, got " + capacity);
+            }
+            if (!(refillPerSecond > 0)) {
+                throw new IllegalArgumentException("refillPerSecond must be positive, got " + refillPerSecond);
+            }
+        }
+
+        /**
+         * Parses {@code capacity/refillPerSecond}, e.g. {@code 20/5}.
+         */
+        public static Limit parse(String spec) {
+            int slash = spec.indexOf('/');
+            if (slash < 0) {
+                throw new IllegalArgumentException("Expected capacity/refillPerSecond, got: " + spec);
+            }
+            return new Limit(Long.parseLong(spec.substring(0, slash).trim()),
+                Double.parseDouble(spec.substring(slash + 1).trim()));
+        }
+    }
+
+    public ToolRateLimits {
+        overrides = Map.copyOf(overrides);
+    }
+
+    public Limit limitFor(String toolName) {
+        return overrides.getOrDefault(toolName, defaultLimit);
+    }
+
+    /**
+     * Parses overrides written as {@code tool=capacity/refillPerSecond}, comma separated,
+     * e.g. {@code logs=20/5,metrics=50/10}.
+     */
+    public static ToolRateLimits parse(Limit defaultLimit, String overrides) {
+        Map<String, Limit> parsed = new LinkedHashMap<>();
+        if (overrides != null) {
+            for (String entry : overrides.split(",")) {
+                if (entry.isBlank()) continue;
+                int eq = entry.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected tool=capacity/refillPerSecond, got: " + entry.trim());
+                }
+                parsed.put(entry.substring(0, eq).trim(), Limit.parse(entry.substring(eq + 1)));
+            }
+        }
+        return new ToolRateLimits(defaultLimit, parsed);
+    }
+}
@@ -0,0 +1,57 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tool.ToolExecutionRollup;
+import com.magiconcall.domain.tool.ToolExecutionStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+/** Per-bucket reliability of one tool over a time range, plus the whole range merged. */
+public record ToolReliabilityReport(
+    String toolName,
+    ToolExecutionRollup.Granularity granularity,
+    Instant from,
+    Instant to,
+    List<Point> points,
+    Point total
+) {
+    /** Latency percentiles are null when no execution in the bucket reached the backend. */
+    public record Point(
+        Instant bucketStart,
+        long executions,
+        long succeeded,
+        long failed,
+        long timedOut,
+        long rateLimited,
+        long rejected,
+        double successRate,
+        Double p50Ms,
+        Double p90Ms,
+        Double p99Ms,
+        long maxMs,
+        double avgRetries
+    ) {
+        public static Point from(ToolExecutionRollup r) {
+            long executions = r.getTotal();
+            return new Point(
+                r.getBucketStart(),
+                executions,
+                r.getCount(ToolExecutionStatus.SUCCESS),
+                r.getCount(ToolExecutionStatus.FAILURE),
+                r.getCount(ToolExecutionStatus.TIMEOUT),
+                r.getCount(ToolExecutionStatus.RATE_LIMITED),
+                r.getCount(ToolExecutionStatus.REJECTED),
+                executions == 0 ? 0 : (double) r.getCount(ToolExecutionStatus.SUCCESS) / executions,
+                percentile(r, 0.50),
+                percentile(r, 0.90),
+                percentile(r, 0.99),
+                r.getDurationMaxMs(),
+                executions == 0 ? 0 : (double) r.getRetries() / executions
+            );
+        }
+
+        private static Double percentile(ToolExecutionRollup r, double q) {
+            return r.getLatency().count() == 0 ? null : r.getLatency().quantile(q);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tenant.TenantContext;
+import com.magiconcall.domain.tool.ToolExecutionRollup;
+import com.magiconcall.domain.tool.ToolExecutionRollup.Granularity;
+import com.magiconcall.domain.tool.ToolExecutionRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Reliability dashboards for tools, answered from the pre-aggregated rollups only.
+ * <p>
+ * Buckets are as fresh as the rollup worker's watermark, which trails real time by its
+ * lateness allowance (two minutes by default).
+ */
+@Service
+public class ToolReliabilityService {
+
+    private final ToolExecutionRollupRepository rollupRepository;
+    private final int maxPoints;
+
+    public ToolReliabilityService(ToolExecutionRollupRepository rollupRepository,
+                                  @Value("${magiconcall.tool.rollup.max-points:1440}") int maxPoints) {
+        this.rollupRepository = rollupRepository;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Buckets of {@code granularity} starting in {@code [from, to)}; both bounds are rounded down
+     * to a bucket boundary. Buckets without executions are omitted.
+     */
+    @Transactional(readOnly = true)
+    public ToolReliabilityReport report(String toolName, Granularity granularity, Instant from, Instant to) {
+        String tenantId = TenantContext.requireTenantId();
+        Instant start = granularity.bucketStart(from);
+        Instant end = granularity.bucketStart(to);
+        if (!start.isBefore(end)) {
+            throw new IllegalStateException("Range must span at least one " + granularity.name().toLowerCase()
+                + ": from=" + from + ", to=" + to);
+        }
+        if (end.isAfter(start.plus(granularity.width().multipliedBy(maxPoints)))) {
+            throw new IllegalStateException("Range exceeds " + maxPoints + " " + granularity.name().toLowerCase()
+                + " buckets; use a coarser granularity");
+        }
+
+        var rollups = rollupRepository.find(tenantId, toolName, granularity, start, end);
+        var total = new ToolExecutionRollup(tenantId, toolName, granularity, start);
+        for (var rollup : rollups) {
+            total.merge(rollup);
+        }
+        return new ToolReliabilityReport(toolName, granularity, start, end,
+            rollups.stream().map(ToolReliabilityReport.Point::from).toList(),
+            ToolReliabilityReport.Point.from(total));
+    }
+}
@@ -0,0 +1,109 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tool.ToolResponse;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Long-lived resilience state per tool: retry, time limiter, circuit breaker and adaptive
+ * concurrency limit, created on first use and shared by every call to that tool.
+ * <p>
+ * Retries back off exponentially with jitter and only happen while the tool's circuit is closed:
+ * once a backend starts failing, each call costs it one attempt instead of three, and once the
+ * failure or slow-call rate crosses its threshold the circuit opens and calls are shed without
+ * reaching the backend at all until a few half-open probes succeed.
+ * <p>
+ * The concurrency limit starts at the bulkhead size, so a tool is first bounded by the bulkhead
+ * alone and the adaptive limit only sheds calls once failures or rising latency have cut it
+ * below that; starting lower would shed load before there is any latency to go by.
+ */
+@Component
+public class ToolResilienceRegistry {
+
+    /** Resilience state of one tool. */
+    public record ToolResilience(String toolName, Retry retry, TimeLimiter timeLimiter,
+                                 CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimit concurrencyLimit) {}
+
+    private final Function<CircuitBreaker, RetryConfig> retryConfigFactory;
+    private final TimeLimiterConfig timeLimiterConfig;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final AdaptiveConcurrencyLimit.Settings limitSettings;
+    private final ToolMetrics toolMetrics;
+    private final ConcurrentHashMap<String, ToolResilience> tools = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ToolResilienceRegistry(
+            @Value("${magiconcall.tool.resilience.max-attempts:3}") int maxAttempts,
+            @Value("${magiconcall.tool.resilience.initial-backoff:200ms}") Duration initialBackoff,
+            @Value("${magiconcall.tool.resilience.timeout:30s}") Duration timeout,
+            @Value("${magiconcall.tool.resilience.circuit.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${magiconcall.tool.resilience.circuit.slow-call-threshold:10s}") Duration slowCallThreshold,
+            @Value("${magiconcall.tool.resilience.circuit.window-size:20}") int windowSize,
+            @Value("${magiconcall.tool.resilience.circuit.open-duration:30s}") Duration openDuration,
+            @Value("${magiconcall.tool.resilience.concurrency.initial-limit:${magiconcall.tool.bulkhead.per-tool-concurrency:16}}") int initialLimit,
+            @Value("${magiconcall.tool.resilience.concurrency.max-limit:${magiconcall.tool.bulkhead.per-tool-concurrency:16}}") int maxLimit,
+            @Value("${magiconcall.tool.resilience.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+            ToolMetrics toolMetrics) {
+        this(circuitBreaker -> RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(initialBackoff, 2.0, 0.5))
+                .retryOnException(e -> !(e instanceof CallNotPermittedException)
+                    && circuitBreaker.getState() == CircuitBreaker.State.CLOSED)
+                .build(),
+            TimeLimiterConfig.custom()
+                .timeoutDuration(timeout)
+                .cancelRunningFuture(true)
+                .build(),
+            CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(windowSize)
+                .minimumNumberOfCalls(Math.max(1, windowSize / 2))
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordResult(result -> result instanceof ToolResponse response && !response.success())
+                .build(),
+            new AdaptiveConcurrencyLimit.Settings(initialLimit, 1, maxLimit, latencyTolerance, 0.9),
+            toolMetrics);
+    }
+
+    ToolResilienceRegistry(Function<CircuitBreaker, RetryConfig> retryConfigFactory,
+                           TimeLimiterConfig timeLimiterConfig,
+                           CircuitBreakerConfig circuitBreakerConfig,
+                           AdaptiveConcurrencyLimit.Settings limitSettings,
+                           ToolMetrics toolMetrics) {
+        this.retryConfigFactory = retryConfigFactory;
+        this.timeLimiterConfig = timeLimiterConfig;
+        this.circuitBreakerConfig = circuitBreakerConfig;
+        this.limitSettings = limitSettings;
+        this.toolMetrics = toolMetrics;
+    }
+
+    public ToolResilience forTool(String toolName) {
+        return tools.computeIfAbsent(toolName, name -> {
+            var circuitBreaker = CircuitBreaker.of("tool-" + name, circuitBreakerConfig);
+            var resilience = new ToolResilience(name,
+                Retry.of("tool-" + name, retryConfigFactory.apply(circuitBreaker)),
+                TimeLimiter.of("tool-" + name, timeLimiterConfig),
+                circuitBreaker,
+                new AdaptiveConcurrencyLimit(limitSettings));
+            toolMetrics.registerResilience(name, resilience);
+            return resilience;
+        });
+    }
+}
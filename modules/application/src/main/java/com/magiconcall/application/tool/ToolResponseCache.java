@@ -0,0 +1,186 @@
+package com.magiconcall.application.tool;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.magiconcall.domain.tool.ToolExecutionStatus;
+import com.magiconcall.domain.tool.ToolResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of tool executions with single-flight.
+ * <p>
+ * Only tools with a configured TTL are cached. The key is (tenant, tool, canonical parameters,
+ * time bucket), where parameters are trimmed, blank values dropped and names sorted, and the time
+ * bucket is wall-clock time divided by the tool's TTL, so a "last 15 minutes" query is never
+ * answered from a previous bucket even if its entry has not expired yet.
+ * <p>
+ * The first caller for a key registers an in-flight future and runs the execution on its own
+ * thread; identical calls arriving meanwhile wait on that future instead of calling the backend.
+ * Only successful executions are retained — failures are shared with the callers already
+ * waiting but expire at once, so the next call retries. The same goes for responses above
+ * {@code max-entry-size}. Retained entries are weighed by their content length and evicted
+ * once together they exceed {@code max-size}.
+ */
+@Component
+public class ToolResponseCache {
+
+    /** {@code parameters} is sorted, so equal parameter sets give equal keys. */
+    public record Key(String tenantId, String toolName, SortedMap<String, String> parameters, long timeBucket) {}
+
+    // Allowance for an entry's records, key and cache node besides its content
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    /** A finished execution as seen by the caller that ran it. */
+    public record Entry(ToolExecutionResult result, UUID incidentId, ToolResponse response) {
+        boolean succeeded() {
+            return ToolExecutionStatus.SUCCESS.name().equals(result.status());
+        }
+
+        /** Approximate heap size: two bytes per content char, counting shared content once. */
+        int weight() {
+            var content = response != null ? response.content() : null;
+            long chars = length(content) + (result.content() == content ? 0 : length(result.content()));
+            return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + 2 * chars);
+        }
+
+        private static long length(String s) {
+            return s == null ? 0 : s.length();
+        }
+    }
+
+    /** {@code shared} is true if the entry came from the cache or another caller's in-flight call. */
+    public record Lookup(Entry entry, boolean shared) {}
+
+    private final Map<String, Duration> ttls;
+    private final long maxEntryBytes;
+    private final ToolMetrics toolMetrics;
+    private final Clock clock;
+    private final AsyncCache<Key, Entry> cache;
+
+    @Autowired
+    public ToolResponseCache(@Value("${magiconcall.tool.cache.ttl:}") String ttls,
+                             @Value("${magiconcall.tool.cache.max-size:64MB}") DataSize maxSize,
+                             @Value("${magiconcall.tool.cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                             ToolMetrics toolMetrics) {
+        this(parseTtls(ttls), maxSize.toBytes(), maxEntrySize.toBytes(), toolMetrics,
+            Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    ToolResponseCache(Map<String, Duration> ttls, long maxBytes, long maxEntryBytes, ToolMetrics toolMetrics,
+                      Clock clock, Ticker ticker) {
+        this.ttls = Map.copyOf(ttls);
+        this.maxEntryBytes = maxEntryBytes;
+        this.toolMetrics = toolMetrics;
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((Key key, Entry entry) -> entry.weight())
+            .ticker(ticker)
+            .expireAfter(new Expiry<Key, Entry>() {
+                @Override
+                public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                    return cacheable(entry) ? ttlFor(key.toolName()).toNanos() : 0;
+                }
+
+                @Override
+                public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, entry, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .buildAsync();
+    }
+
+    /** Returns the cache key for this call, or null if the tool is not cached. */
+    public Key keyFor(String toolName, String tenantId, Map<String, String> parameters) {
+        Duration ttl = ttlFor(toolName);
+        if (ttl.isZero()) return null;
+
+        var canonical = new TreeMap<String, String>();
+        if (parameters != null) {
+            parameters.forEach((name, value) -> {
+                if (name != null && value != null && !value.isBlank()) {
+                    canonical.put(name.trim(), value.trim());
+                }
+            });
+        }
+        long bucket = clock.millis() / Math.max(1, ttl.toMillis());
+        return new Key(tenantId, toolName, Collections.unmodifiableSortedMap(canonical), bucket);
+    }
+
+    /**
+     * Returns the cached or in-flight entry for {@code key}, or runs {@code execution} on the
+     * calling thread if there is none. Exceptions from the execution propagate to every waiter.
+     */
+    public Lookup get(Key key, Supplier<Entry> execution) {
+        var mine = new CompletableFuture<Entry>();
+        var existing = cache.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            toolMetrics.recordCacheHit(key.toolName());
+            try {
+                return new Lookup(existing.join(), true);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+
+        toolMetrics.recordCacheMiss(key.toolName());
+        Entry entry;
+        try {
+            entry = execution.get();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        mine.complete(entry);
+        return new Lookup(entry, false);
+    }
+
+    private boolean cacheable(Entry entry) {
+        return entry.succeeded() && entry.weight() <= maxEntryBytes;
+    }
+
+    /** Total weight of the retained entries once pending evictions have run. */
+    long weightedSize() {
+        var cache = this.cache.synchronous();
+        cache.cleanUp();
+        return cache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    Duration ttlFor(String toolName) {
+        return ttls.getOrDefault(toolName, Duration.ZERO);
+    }
+
+    /** Parses {@code tool=duration}, comma separated, e.g. {@code logs=30s,topology=5m}. */
+    static Map<String, Duration> parseTtls(String spec) {
+        Map<String, Duration> parsed = new HashMap<>();
+        if (spec == null) return parsed;
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            int eq = entry.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected tool=duration, got: " + entry.trim());
+            }
+            parsed.put(entry.substring(0, eq).trim(), DurationStyle.detectAndParse(entry.substring(eq + 1).trim()));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,152 @@
+package com.magiconcall.application.triage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Byte-level BPE tokenizer for prompt budgeting, running locally from a vocabulary file.
+ * <p>
+ * The vocabulary uses the tiktoken format, one {@code base64(token-bytes) rank} per line, so the
+ * provider's own file (e.g. {@code cl100k_base.tiktoken}) can be configured for exact counts. The
+ * bundled default is a 4,096-token vocabulary trained on this project's sources and docs; being
+ * much smaller than provider vocabularies it splits text into more tokens, so counts against it
+ * err on the side of the budget. Text is split into pieces with the cl100k pre-tokenization
+ * pattern, then each piece's bytes are merged pairwise, lowest rank first, until no adjacent pair
+ * is in the vocabulary.
+ * <p>
+ * Token bytes are held as ISO-8859-1 strings, one char per byte, so lookups hash and compare
+ * without a byte-array wrapper. Thread-safe after construction.
+ */
+@Component
+public class BpeTokenizer {
+
+    private static final Pattern PIECES = Pattern.compile(
+        "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}"
+            + "| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+");
+    private static final int NO_RANK = Integer.MAX_VALUE;
+
+    private final Map<String, Integer> ranks;
+    private final String[] tokens;
+
+    public BpeTokenizer(
+            @Value("${magiconcall.llm.tokenizer.vocabulary:classpath:tokenizer/moc-4k.tiktoken}") Resource vocabulary) {
+        var loaded = new HashMap<String, Integer>();
+        try (var reader = new BufferedReader(new InputStreamReader(vocabulary.getInputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                int space = line.indexOf(' ');
+                if (space < 0) throw new IllegalStateException("Malformed vocabulary line: " + line);
+                var bytes = Base64.getDecoder().decode(line.substring(0, space));
+                loaded.put(new String(bytes, StandardCharsets.ISO_8859_1), Integer.parseInt(line.substring(space + 1).trim()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot load tokenizer vocabulary " + vocabulary.getDescription(), e);
+        }
+        this.ranks = Map.copyOf(loaded);
+        this.tokens = new String[loaded.values().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+        loaded.forEach((token, rank) -> tokens[rank] = token);
+        // Every byte must be a token on its own, or some text could not be encoded at all
+        for (int b = 0; b < 256; b++) {
+            if (!ranks.containsKey(String.valueOf((char) b))) {
+                throw new IllegalStateException("Tokenizer vocabulary %s has no token for byte %d"
+                    .formatted(vocabulary.getDescription(), b));
+            }
+        }
+    }
+
+    public int count(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        int count = 0;
+        var pieces = PIECES.matcher(text);
+        while (pieces.find()) {
+            var piece = bytesOf(pieces.group());
+            count += ranks.containsKey(piece) ? 1 : merge(piece).length - 1;
+        }
+        return count;
+    }
+
+    public int[] encode(String text) {
+        if (text == null || text.isEmpty()) return new int[0];
+        var ids = new int[16];
+        int size = 0;
+        var pieces = PIECES.matcher(text);
+        while (pieces.find()) {
+            var piece = bytesOf(pieces.group());
+            var bounds = ranks.containsKey(piece) ? new int[] {0, piece.length()} : merge(piece);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+                ids[size++] = ranks.get(piece.substring(bounds[i], bounds[i + 1]));
+            }
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    public String decode(int[] ids) {
+        var bytes = new StringBuilder();
+        for (int id : ids) {
+            if (id < 0 || id >= tokens.length || tokens[id] == null) {
+                throw new IllegalArgumentException("Unknown token id: " + id);
+            }
+            bytes.append(tokens[id]);
+        }
+        return new String(bytes.toString().getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Merges the piece's bytes and returns the token boundaries: token {@code i} spans
+     * {@code [bounds[i], bounds[i + 1])}.
+     */
+    private int[] merge(String piece) {
+        // Boundaries between tokens, starting with one token per byte; there are size - 1 tokens
+        int size = piece.length() + 1;
+        var bounds = new int[size];
+        for (int i = 0; i < size; i++) bounds[i] = i;
+        // pairRanks[i] is the rank of the token formed by joining tokens i and i + 1
+        var pairRanks = new int[Math.max(size - 2, 0)];
+        for (int i = 0; i < pairRanks.length; i++) pairRanks[i] = rank(piece, i, i + 2);
+
+        while (size > 2) {
+            int at = -1;
+            int min = NO_RANK;
+            for (int i = 0; i < size - 2; i++) {
+                if (pairRanks[i] < min) {
+                    min = pairRanks[i];
+                    at = i;
+                }
+            }
+            if (at < 0) break;
+            // Drop the boundary between the two tokens; pairs to the right shift left by one
+            System.arraycopy(bounds, at + 2, bounds, at + 1, size - at - 2);
+            if (at + 2 < size - 2) System.arraycopy(pairRanks, at + 2, pairRanks, at + 1, size - at - 4);
+            size--;
+            if (at < size - 2) pairRanks[at] = rankOf(piece, bounds, at);
+            if (at > 0) pairRanks[at - 1] = rankOf(piece, bounds, at - 1);
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    private int rankOf(String piece, int[] bounds, int pair) {
+        return rank(piece, bounds[pair], bounds[pair + 2]);
+    }
+
+    private int rank(String piece, int from, int to) {
+        var rank = ranks.get(piece.substring(from, to));
+        return rank != null ? rank : NO_RANK;
+    }
+
+    private static String bytesOf(String text) {
+        return new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+    }
+}
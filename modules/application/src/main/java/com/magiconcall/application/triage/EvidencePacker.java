@@ -0,0 +1,169 @@
+package com.magiconcall.application.triage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Fits an incident's evidence into a token budget for the triage prompt.
+ * <p>
+ * When the whole summary fits it is used as is. Otherwise each item is valued by recency (items
+ * come newest first; the weight halves every {@value #RECENCY_HALF_LIFE} items), by evidence type,
+ * and by novelty: one minus its highest word-set similarity to an item already chosen, so the
+ * tenth copy of the same timeout log is worth little once the first is in. Items are then added
+ * greedily, most valuable first among those that still fit, and the prompt notes how many were
+ * left out. An item whose words are exactly those of a chosen item is never added.
+ * <p>
+ * The similar-past-incidents section is kept whole, its tokens set aside before items are chosen,
+ * as long as it takes no more than a quarter of the budget; otherwise it is dropped, since the
+ * incident's own evidence matters more.
+ */
+@Component
+public class EvidencePacker {
+
+    private static final double RECENCY_HALF_LIFE = 8;
+    private static final double MAX_SIMILAR_SHARE = 0.25;
+
+    // Direct signals of the failure first; reference material last
+    private static final Map<String, Double> TYPE_WEIGHTS = Map.of(
+        "ALERT", 1.0,
+        "LOG", 0.9,
+        "TRACE", 0.9,
+        "METRIC", 0.85,
+        "TOOL_OUTPUT", 0.8,
+        "RUNBOOK", 0.6,
+        "OTHER", 0.5,
+        "SCREENSHOT", 0.3
+    );
+    private static final double DEFAULT_TYPE_WEIGHT = 0.5;
+
+    private final BpeTokenizer tokenizer;
+
+    public EvidencePacker(BpeTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    public PackedEvidence pack(EvidenceSummary summary, int budget) {
+        int fullTokens = tokenizer.count(summary.formattedSummary());
+        if (fullTokens <= budget || summary.isEmpty()) {
+            return new PackedEvidence(summary.items(), summary.formattedSummary(), fullTokens, 0);
+        }
+
+        var similar = summary.similarIncidents().isEmpty()
+            ? "" : "\n\n" + EvidenceSummarizer.formatSimilarForLlm(summary.similarIncidents());
+        int similarTokens = tokenizer.count(similar);
+        if (similarTokens > budget * MAX_SIMILAR_SHARE) {
+            similar = "";
+            similarTokens = 0;
+        }
+
+        var items = summary.items();
+        var candidates = new ArrayList<Candidate>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            var item = items.get(i);
+            double value = TYPE_WEIGHTS.getOrDefault(item.type(), DEFAULT_TYPE_WEIGHT)
+                * Math.pow(0.5, i / RECENCY_HALF_LIFE);
+            candidates.add(new Candidate(i, item, value, tokenizer.count(EvidenceSummarizer.line(item)), words(item)));
+        }
+
+        // Room for the omission note, sized for the largest count it can show
+        int remaining = budget - tokenizer.count(omittedNote(items.size())) - similarTokens;
+        var chosen = new ArrayList<Candidate>();
+        var headers = new HashSet<String>();
+        while (true) {
+            Candidate best = null;
+            int bestCost = 0;
+            for (var candidate : candidates) {
+                if (candidate.chosen || candidate.maxSimilarity >= 1.0) continue;
+                int cost = candidate.tokens + (headers.contains(candidate.item.type()) ? 0 : headerTokens(candidate.item.type()));
+                if (cost > remaining) continue;
+                if (best == null || candidate.novelValue() > best.novelValue()) {
+                    best = candidate;
+                    bestCost = cost;
+                }
+            }
+            if (best == null) break;
+            best.chosen = true;
+            chosen.add(best);
+            headers.add(best.item.type());
+            remaining -= bestCost;
+            for (var candidate : candidates) {
+                if (!candidate.chosen) {
+                    candidate.maxSimilarity = Math.max(candidate.maxSimilarity, similarity(candidate.words, best.words));
+                }
+            }
+        }
+
+        // Per-item counts are close to, not exactly, the count of the joined text; trim if needed
+        while (true) {
+            var packed = render(chosen, items.size(), similar);
+            if (packed.tokens() <= budget || chosen.isEmpty()) return packed;
+            chosen.remove(chosen.stream().min(Comparator.comparingDouble(c -> c.value)).orElseThrow());
+        }
+    }
+
+    private PackedEvidence render(List<Candidate> chosen, int total, String similar) {
+        var included = chosen.stream()
+            .sorted(Comparator.comparingInt(c -> c.position))
+            .map(c -> c.item)
+            .toList();
+        int omitted = total - included.size();
+        var formatted = included.isEmpty()
+            ? omittedNote(omitted)
+            : EvidenceSummarizer.formatForLlm(included) + "\n\n" + omittedNote(omitted);
+        formatted += similar;
+        return new PackedEvidence(included, formatted, tokenizer.count(formatted), omitted);
+    }
+
+    private int headerTokens(String type) {
+        return tokenizer.count("## " + type + "\n\n");
+    }
+
+    private static String omittedNote(int omitted) {
+        return "(%d lower-priority evidence items omitted to fit the token budget)".formatted(omitted);
+    }
+
+    private static Set<String> words(EvidenceSummary.EvidenceItem item) {
+        var words = new HashSet<String>();
+        var text = item.title() + " " + (item.content() != null ? item.content() : "");
+        for (var word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    /** Jaccard similarity of two word sets. */
+    static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() && b.isEmpty()) return 1.0;
+        var smaller = a.size() <= b.size() ? a : b;
+        var larger = smaller == a ? b : a;
+        int common = 0;
+        for (var word : smaller) {
+            if (larger.contains(word)) common++;
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    private static final class Candidate {
+
+        final int position;
+        final EvidenceSummary.EvidenceItem item;
+        final double value;
+        final int tokens;
+        final Set<String> words;
+        double maxSimilarity;
+        boolean chosen;
+
+        Candidate(int position, EvidenceSummary.EvidenceItem item, double value, int tokens, Set<String> words) {
+            this.position = position;
+            this.item = item;
+            this.value = value;
+            this.tokens = tokens;
+            this.words = words;
+        }
+
+        double novelValue() {
+            return value * (1 - maxSimilarity);
+        }
+    }
+}
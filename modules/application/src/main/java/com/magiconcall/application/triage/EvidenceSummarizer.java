@@ -1,84 +1,284 @@
 package com.magiconcall.application.triage;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.magiconcall.application.similarity.SimilarIncident;
+import com.magiconcall.application.similarity.SimilarIncidentIndex;
 import com.magiconcall.domain.incident.Evidence;
 import com.magiconcall.domain.incident.EvidenceRepository;
+import com.magiconcall.domain.incident.Incident;
+import com.magiconcall.domain.incident.IncidentRepository;
+import com.magiconcall.domain.incident.SimHash;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * Maintains a per-incident evidence summary for triage prompts.
+ * <p>
+ * The summary is built from the incident's evidence once, then kept up to date as evidence is
+ * added on this instance. Its hash is an order-independent rolling digest: the sum, modulo
+ * 2^256, of the SHA-256 of each item. Adding an item adds one term, and any instance that sees
+ * the same evidence arrives at the same hash, whatever the order it saw it in.
+ * <p>
+ * Whether a cached summary is still current is decided by the incident's evidence version, which
+ * every evidence insert bumps in the database. Triage already has the incident loaded, so the
+ * check is a comparison; evidence added through another instance makes the versions differ, and
+ * the summary is rebuilt from the evidence rows. The rendered prompt is built on first use and
+ * kept until the next item arrives.
+ * <p>
+ * Near-duplicate items are rendered once. Each evidence row carries a {@link SimHash} of its title
+ * and content, taken at insert; items of the same type whose fingerprints are within
+ * {@link SimHash#NEAR_DUPLICATE_DISTANCE} bits of each other, typically the same tool output or
+ * error captured again with other timestamps, collapse into the newest of them with a count of
+ * how often it was seen. The hash still covers every item, so a repeat still counts as new
+ * evidence.
+ * <p>
+ * Similar past incidents, with their confirmed root causes, are looked up on every call and
+ * appended to the rendered summary. They are left out of the hash: a triage result stays valid
+ * for the incident's evidence even after another incident resolves.
+ */
 @Component
 public class EvidenceSummarizer {
 
     private static final int MAX_CONTENT_LENGTH = 2000;
+    private static final int MAX_ROOT_CAUSE_LENGTH = 300;
+    private static final BigInteger DIGEST_MODULUS = BigInteger.ONE.shiftLeft(256);
 
     private final EvidenceRepository evidenceRepository;
+    private final IncidentRepository incidentRepository;
+    private final SimilarIncidentIndex similarIncidentIndex;
+    private final Cache<UUID, IncidentEvidence> summaries;
 
-    public EvidenceSummarizer(EvidenceRepository evidenceRepository) {
+    public EvidenceSummarizer(EvidenceRepository evidenceRepository,
+                              IncidentRepository incidentRepository,
+                              SimilarIncidentIndex similarIncidentIndex,
+                              @Value("${magiconcall.triage.summary.max-incidents:1000}") long maxIncidents,
+                              @Value("${magiconcall.triage.summary.idle-ttl:1h}") Duration idleTtl) {
         this.evidenceRepository = evidenceRepository;
+        this.incidentRepository = incidentRepository;
+        this.similarIncidentIndex = similarIncidentIndex;
+        this.summaries = Caffeine.newBuilder()
+            .maximumSize(maxIncidents)
+            .expireAfterAccess(idleTtl)
+            .build();
     }
 
-    public EvidenceSummary summarize(UUID incidentId) {
-        var evidenceList = evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(incidentId);
+    public EvidenceSummary summarize(Incident incident) {
+        var summary = evidenceSummary(incident);
+        var similar = similarIncidentIndex.findSimilar(incident, summary.items().stream()
+            .map(item -> item.title() + "\n" + (item.content() != null ? item.content() : ""))
+            .toList());
+        if (similar.isEmpty()) {
+            return summary;
+        }
+        return new EvidenceSummary(summary.items(),
+            summary.formattedSummary() + "\n\n" + formatSimilarForLlm(similar), summary.evidenceHash(), similar);
+    }
 
-        var items = evidenceList.stream()
-            .map(e -> new EvidenceSummary.EvidenceItem(
-                e.getEvidenceType().name(),
-                e.getTitle(),
-                truncate(e.getContent())
-            ))
+    private EvidenceSummary evidenceSummary(Incident incident) {
+        var cached = summaries.getIfPresent(incident.getId());
+        if (cached != null && cached.version() == incident.getEvidenceVersion()) {
+            return cached.summary();
+        }
+        // The version is read before the evidence, so the rebuild holds at least that version's
+        // items; if more arrived in between, the next call sees a newer version and rebuilds again
+        var items = evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(incident.getId()).stream()
+            .map(EvidenceSummarizer::toEntry)
             .toList();
+        var digest = BigInteger.ZERO;
+        for (var entry : items) {
+            digest = digest.add(itemDigest(entry.item()));
+        }
+        var rebuilt = new IncidentEvidence(incident.getEvidenceVersion(), items, digest.mod(DIGEST_MODULUS));
+        summaries.put(incident.getId(), rebuilt);
+        return rebuilt.summary();
+    }
+
+    /**
+     * Records new evidence: bumps the incident's evidence version in the caller's transaction and,
+     * once it commits, folds the item into this instance's summary.
+     */
+    public void onEvidenceAdded(Evidence evidence) {
+        long version = incidentRepository.incrementEvidenceVersion(evidence.getIncidentId());
+        var entry = toEntry(evidence);
+        Runnable fold = () -> summaries.asMap().computeIfPresent(evidence.getIncidentId(),
+            // Only a summary of exactly the previous version can be extended; otherwise another
+            // insert is missing from it and the next summarize rebuilds
+            (id, current) -> current.version() == version - 1 ? current.with(entry, version) : current);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fold.run();
+                }
+            });
+        } else {
+            fold.run();
+        }
+    }
+
+    /** An evidence item with the fingerprint of its row. */
+    private record Entry(EvidenceSummary.EvidenceItem item, long simhash) {}
+
+    /** Evidence of one incident at one version, newest first, with its rendered summary. */
+    private static final class IncidentEvidence {
 
-        var formatted = formatForLlm(items);
-        var hash = sha256(formatted);
+        private final long version;
+        private final List<Entry> items;
+        private final BigInteger digest;
+        private volatile EvidenceSummary summary;
+
+        IncidentEvidence(long version, List<Entry> items, BigInteger digest) {
+            this.version = version;
+            this.items = items;
+            this.digest = digest;
+        }
+
+        long version() { return version; }
+
+        IncidentEvidence with(Entry entry, long newVersion) {
+            var newestFirst = new ArrayList<Entry>(items.size() + 1);
+            newestFirst.add(entry);
+            newestFirst.addAll(items);
+            return new IncidentEvidence(newVersion, Collections.unmodifiableList(newestFirst),
+                digest.add(itemDigest(entry.item())).mod(DIGEST_MODULUS));
+        }
+
+        EvidenceSummary summary() {
+            var rendered = summary;
+            if (rendered == null) {
+                // Racing renders produce the same value, so publishing either is fine
+                var collapsed = collapse(items);
+                rendered = new EvidenceSummary(collapsed, formatForLlm(collapsed), "%064x".formatted(digest));
+                summary = rendered;
+            }
+            return rendered;
+        }
+    }
 
-        return new EvidenceSummary(items, formatted, hash);
+    private static Entry toEntry(Evidence evidence) {
+        var item = new EvidenceSummary.EvidenceItem(
+            evidence.getEvidenceType().name(),
+            evidence.getTitle(),
+            truncate(evidence)
+        );
+        return new Entry(item, evidence.getContentSimhash());
     }
 
-    private String formatForLlm(List<EvidenceSummary.EvidenceItem> items) {
+    /**
+     * Folds near-duplicates of the same type into the newest of them, keeping newest-first order.
+     * Each item is compared with the clusters found so far, which stay few when evidence repeats.
+     */
+    private static List<EvidenceSummary.EvidenceItem> collapse(List<Entry> entries) {
+        var representatives = new ArrayList<Entry>();
+        var counts = new ArrayList<Integer>();
+        for (var entry : entries) {
+            int cluster = 0;
+            while (cluster < representatives.size() && !sameEvidence(representatives.get(cluster), entry)) {
+                cluster++;
+            }
+            if (cluster < representatives.size()) {
+                counts.set(cluster, counts.get(cluster) + 1);
+            } else {
+                representatives.add(entry);
+                counts.add(1);
+            }
+        }
+        var collapsed = new ArrayList<EvidenceSummary.EvidenceItem>(representatives.size());
+        for (int i = 0; i < representatives.size(); i++) {
+            collapsed.add(representatives.get(i).item().withOccurrences(counts.get(i)));
+        }
+        return Collections.unmodifiableList(collapsed);
+    }
+
+    private static boolean sameEvidence(Entry a, Entry b) {
+        return a.item().type().equals(b.item().type()) && SimHash.nearDuplicates(a.simhash(), b.simhash());
+    }
+
+    static String formatForLlm(List<EvidenceSummary.EvidenceItem> items) {
         if (items.isEmpty()) {
             return "No evidence collected yet.";
         }
 
-        // Group by type for structured presentation
-        var grouped = items.stream()
-            .collect(Collectors.groupingBy(
-                EvidenceSummary.EvidenceItem::type,
-                LinkedHashMap::new,
-                Collectors.toList()
-            ));
+        // Group by type for structured presentation, types in order of their newest item
+        var grouped = new LinkedHashMap<String, List<EvidenceSummary.EvidenceItem>>();
+        for (var item : items) {
+            grouped.computeIfAbsent(item.type(), t -> new ArrayList<>()).add(item);
+        }
 
         var sb = new StringBuilder();
         for (var entry : grouped.entrySet()) {
             sb.append("## ").append(entry.getKey()).append("\n");
             for (var item : entry.getValue()) {
-                sb.append("- **").append(item.title()).append("**: ");
-                sb.append(item.content() != null ? item.content() : "(no content)");
-                sb.append("\n");
+                sb.append(line(item));
             }
             sb.append("\n");
         }
         return sb.toString().trim();
     }
 
-    private String truncate(String content) {
+    static String line(EvidenceSummary.EvidenceItem item) {
+        var occurrences = item.occurrences() > 1 ? " (seen %d times)".formatted(item.occurrences()) : "";
+        return "- **" + item.title() + "**" + occurrences + ": "
+            + (item.content() != null ? item.content() : "(no content)") + "\n";
+    }
+
+    static String formatSimilarForLlm(List<SimilarIncident> similar) {
+        var sb = new StringBuilder("## SIMILAR PAST INCIDENTS\n");
+        for (var incident : similar) {
+            sb.append("- **").append(incident.title()).append("** (")
+                .append(incident.severity()).append(", ").append(incident.status())
+                .append(", similarity ").append(String.format(Locale.ROOT, "%.2f", incident.similarity())).append("): ");
+            if (incident.confirmedRootCauses().isEmpty()) {
+                sb.append("no confirmed root cause recorded");
+            } else {
+                sb.append("confirmed root cause: ");
+                var causes = new StringJoiner("; ");
+                for (var cause : incident.confirmedRootCauses()) {
+                    causes.add(cause.length() <= MAX_ROOT_CAUSE_LENGTH
+                        ? cause : cause.substring(0, MAX_ROOT_CAUSE_LENGTH) + "... [truncated]");
+                }
+                sb.append(causes);
+            }
+            sb.append("\n");
+        }
+        return sb.toString().trim();
+    }
+
+    private static String truncate(Evidence evidence) {
+        String content = evidence.getContent();
         if (content == null) return null;
+        // Large tool outputs are already stored as a preview; the full text stays in the content store
+        if (evidence.getContentRef() != null && content.length() <= MAX_CONTENT_LENGTH) {
+            return content + "... [truncated]";
+        }
         if (content.length() <= MAX_CONTENT_LENGTH) return content;
         return content.substring(0, MAX_CONTENT_LENGTH) + "... [truncated]";
     }
 
-    static String sha256(String input) {
+    /** SHA-256 of the item's type, title and content, as a non-negative 256-bit integer. */
+    static BigInteger itemDigest(EvidenceSummary.EvidenceItem item) {
         try {
             var digest = MessageDigest.getInstance("SHA-256");
-            var hashBytes = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            var hex = new StringBuilder();
-            for (byte b : hashBytes) {
-                hex.append(String.format("%02x", b));
+            digest.update(item.type().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(item.title()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // Distinguish null content from the literal text "null"
+            if (item.content() != null) {
+                digest.update((byte) 1);
+                digest.update(item.content().getBytes(StandardCharsets.UTF_8));
             }
-            return hex.toString();
+            return new BigInteger(1, digest.digest());
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("SHA-256 not available", e);
         }
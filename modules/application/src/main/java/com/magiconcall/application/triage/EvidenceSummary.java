@@ -1,17 +1,39 @@
 package com.magiconcall.application.triage;
 
+import com.magiconcall.application.similarity.SimilarIncident;
+
 import java.util.List;
 
+/**
+ * An incident's evidence rendered for the triage prompt. Similar past incidents are appended to
+ * {@link #formattedSummary} but are not part of {@link #evidenceHash}, which identifies the
+ * incident's own evidence.
+ */
 public record EvidenceSummary(
     List<EvidenceItem> items,
     String formattedSummary,
-    String evidenceHash
+    String evidenceHash,
+    List<SimilarIncident> similarIncidents
 ) {
+    public EvidenceSummary(List<EvidenceItem> items, String formattedSummary, String evidenceHash) {
+        this(items, formattedSummary, evidenceHash, List.of());
+    }
+
+    /** One item, or {@code occurrences} near-identical ones collapsed into the newest. */
     public record EvidenceItem(
         String type,
         String title,
-        String content
-    ) {}
+        String content,
+        int occurrences
+    ) {
+        public EvidenceItem(String type, String title, String content) {
+            this(type, title, content, 1);
+        }
+
+        public EvidenceItem withOccurrences(int occurrences) {
+            return occurrences == this.occurrences ? this : new EvidenceItem(type, title, content, occurrences);
+        }
+    }
 
     public boolean isEmpty() {
         return items.isEmpty();
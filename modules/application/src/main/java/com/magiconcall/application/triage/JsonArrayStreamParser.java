@@ -0,0 +1,80 @@
+package com.magiconcall.application.triage;
+
+import java.util.function.Consumer;
+
+/**
+ * Incremental scanner for a JSON array of objects arriving in fragments: each top-level object is
+ * handed to {@code onObject} as raw JSON the moment its closing brace arrives, so the first
+ * element can be used while the rest of the array is still being generated.
+ * <p>
+ * It only tracks nesting and string state; the emitted text is parsed by the caller. The array
+ * starts at the first {@code [} followed, after optional whitespace, by {@code {}, so brackets in
+ * prose before it (a citation like {@code [1]}, a markdown fence) are skipped; it ends at the
+ * {@code ]} that closes it, not at one closing an array nested inside. Anything after it is
+ * ignored, as are top-level elements that are not objects. Not thread-safe.
+ */
+class JsonArrayStreamParser {
+
+    private final Consumer<String> onObject;
+    private final StringBuilder current = new StringBuilder();
+    private boolean opened;     // saw a '[' that may start the array
+    private boolean done;
+    private int depth;          // 0 before the array, 1 between its elements, more inside one
+    private boolean capturing;  // the element being read is an object
+    private boolean inString;
+    private boolean escaped;
+
+    JsonArrayStreamParser(Consumer<String> onObject) {
+        this.onObject = onObject;
+    }
+
+    void feed(CharSequence fragment) {
+        for (int i = 0; i < fragment.length() && !done; i++) {
+            accept(fragment.charAt(i));
+        }
+    }
+
+    private void accept(char c) {
+        if (depth == 0) {
+            if (!opened || Character.isWhitespace(c)) {
+                opened = opened || c == '[';
+                return;
+            }
+            opened = c == '[';
+            if (c != '{') return;
+            depth = 1;
+        }
+        if (capturing) current.append(c);
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+            return;
+        }
+        switch (c) {
+            case '"' -> inString = true;
+            case '{', '[' -> {
+                if (depth == 1 && c == '{') {
+                    capturing = true;
+                    current.append(c);
+                }
+                depth++;
+            }
+            case '}', ']' -> {
+                if (--depth == 1 && capturing) {
+                    capturing = false;
+                    var object = current.toString();
+                    current.setLength(0);
+                    onObject.accept(object);
+                } else if (depth == 0) {
+                    done = true;
+                }
+            }
+            default -> { }
+        }
+    }
+}
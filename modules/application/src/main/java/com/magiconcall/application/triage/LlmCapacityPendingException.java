@@ -0,0 +1,16 @@
+package com.magiconcall.application.triage;
+
+import java.time.Duration;
+
+/** The LLM token buckets cannot cover a call yet; nothing was charged, and it may be retried after the wait. */
+public class LlmCapacityPendingException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LlmCapacityPendingException(String tenantId, Duration retryAfter) {
+        super("LLM token capacity for tenant %s frees up in %dms".formatted(tenantId, retryAfter.toMillis()));
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() { return retryAfter; }
+}
@@ -0,0 +1,19 @@
+package com.magiconcall.application.triage;
+
+import java.time.Duration;
+
+public class LlmRateLimitExceededException extends RuntimeException {
+
+    private final String scope;
+    private final Duration retryAfter;
+
+    public LlmRateLimitExceededException(String scope, String tenantId, Duration retryAfter) {
+        super("LLM token rate limit (%s) reached for tenant %s: capacity frees up in %ds"
+            .formatted(scope, tenantId, Math.max(1, retryAfter.toSeconds())));
+        this.scope = scope;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getScope() { return scope; }
+    public Duration getRetryAfter() { return retryAfter; }
+}
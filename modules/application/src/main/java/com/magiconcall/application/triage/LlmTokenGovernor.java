@@ -0,0 +1,182 @@
+package com.magiconcall.application.triage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Tokens-per-minute limits on LLM usage, per tenant and across all tenants, so one tenant's burst
+ * of triage runs cannot use up the provider's rate limit for everyone.
+ * <p>
+ * Each limit is a bucket holding up to a minute's worth of tokens, refilled continuously. A call
+ * is charged its estimated prompt tokens up front by {@link #tryAcquire}, which never waits: if
+ * either bucket is short, nothing is charged and {@link LlmCapacityPendingException} says how
+ * long until both would cover the charge, so the caller (a triage worker) can put the run aside
+ * and take other work meanwhile. Capacity is not held for a run put aside, so smaller calls may
+ * overtake it. Capacity further off than {@code max-wait} is refused with
+ * {@link LlmRateLimitExceededException} instead. Once the provider reports actual usage,
+ * {@link Grant#settle} charges or refunds the difference; a grant closed without settling (the
+ * call was never made, or failed) is refunded in full.
+ * <p>
+ * Both buckets are updated under one lock so a charge is taken from both or neither. A limit of
+ * zero or less disables that bucket. Limits are per replica.
+ */
+@Component
+public class LlmTokenGovernor {
+
+    private final long tenantTokensPerMinute;
+    private final Map<String, Long> tenantOverrides;
+    private final Bucket global;
+    private final long maxWaitNanos;
+    private final TriageMetrics triageMetrics;
+    private final LongSupplier nanoClock;
+    private final Map<String, Bucket> tenants = new HashMap<>();
+
+    @Autowired
+    public LlmTokenGovernor(@Value("${magiconcall.llm.rate-limit.tenant-tokens-per-minute:20000}") long tenantTokensPerMinute,
+                            @Value("${magiconcall.llm.rate-limit.tenant-overrides:}") String tenantOverrides,
+                            @Value("${magiconcall.llm.rate-limit.global-tokens-per-minute:100000}") long globalTokensPerMinute,
+                            @Value("${magiconcall.llm.rate-limit.max-wait:30s}") Duration maxWait,
+                            TriageMetrics triageMetrics) {
+        this(tenantTokensPerMinute, parseOverrides(tenantOverrides), globalTokensPerMinute, maxWait,
+            triageMetrics, System::nanoTime);
+    }
+
+    LlmTokenGovernor(long tenantTokensPerMinute, Map<String, Long> tenantOverrides, long globalTokensPerMinute,
+                     Duration maxWait, TriageMetrics triageMetrics, LongSupplier nanoClock) {
+        this.tenantTokensPerMinute = tenantTokensPerMinute;
+        this.tenantOverrides = Map.copyOf(tenantOverrides);
+        this.global = new Bucket(globalTokensPerMinute, nanoClock.getAsLong());
+        this.maxWaitNanos = maxWait.toNanos();
+        this.triageMetrics = triageMetrics;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Charges {@code estimatedTokens} to the tenant and global buckets if both cover it now. The
+     * grant must be closed once the call is done, after settling it if it was made.
+     *
+     * @throws LlmCapacityPendingException if the buckets will cover it within {@code max-wait}
+     * @throws LlmRateLimitExceededException if not even then
+     */
+    public synchronized Grant tryAcquire(String tenantId, int estimatedTokens) {
+        long now = nanoClock.getAsLong();
+        var tenant = tenants.computeIfAbsent(tenantId,
+            id -> new Bucket(tenantOverrides.getOrDefault(id, tenantTokensPerMinute), now));
+        long tenantWait = tenant.waitFor(estimatedTokens, now);
+        long globalWait = global.waitFor(estimatedTokens, now);
+        long wait = Math.max(tenantWait, globalWait);
+        if (wait > maxWaitNanos) {
+            var scope = tenantWait >= globalWait ? "tenant" : "global";
+            triageMetrics.recordLlmTokenRateRejected(scope);
+            throw new LlmRateLimitExceededException(scope, tenantId, Duration.ofNanos(wait));
+        }
+        if (wait > 0) {
+            triageMetrics.recordLlmTokenWait(Duration.ofNanos(wait));
+            throw new LlmCapacityPendingException(tenantId, Duration.ofNanos(wait));
+        }
+        tenant.take(estimatedTokens, now);
+        global.take(estimatedTokens, now);
+        return new Grant(tenant, estimatedTokens);
+    }
+
+    private synchronized void adjust(Bucket tenant, long tokens) {
+        long now = nanoClock.getAsLong();
+        tenant.take(tokens, now);
+        global.take(tokens, now);
+    }
+
+    /**
+     * Parses overrides written as {@code tenant=tokensPerMinute}, comma separated,
+     * e.g. {@code acme=50000,trial=5000}.
+     */
+    static Map<String, Long> parseOverrides(String overrides) {
+        Map<String, Long> parsed = new LinkedHashMap<>();
+        if (overrides != null) {
+            for (String entry : overrides.split(",")) {
+                if (entry.isBlank()) continue;
+                int eq = entry.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected tenant=tokensPerMinute, got: " + entry.trim());
+                }
+                parsed.put(entry.substring(0, eq).trim(), Long.parseLong(entry.substring(eq + 1).trim()));
+            }
+        }
+        return parsed;
+    }
+
+    /** Tokens charged for one LLM call. */
+    public final class Grant implements AutoCloseable {
+
+        private final Bucket tenant;
+        private final int charged;
+        private boolean settled;
+
+        private Grant(Bucket tenant, int charged) {
+            this.tenant = tenant;
+            this.charged = charged;
+        }
+
+        /** Reconciles the up-front charge with the tokens the provider reports the call used. */
+        public void settle(int actualTokens) {
+            if (settled) return;
+            settled = true;
+            int delta = actualTokens - charged;
+            if (delta != 0) {
+                adjust(tenant, delta);
+                triageMetrics.recordLlmTokenReconciliation(delta);
+            }
+        }
+
+        /** Refunds the charge if the call was never settled. */
+        @Override
+        public void close() {
+            if (settled) return;
+            settled = true;
+            adjust(tenant, -charged);
+        }
+    }
+
+    /** Tokens available under one limit; guarded by the governor's lock. */
+    private static final class Bucket {
+
+        private final boolean unlimited;
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(long tokensPerMinute, long now) {
+            this.unlimited = tokensPerMinute <= 0;
+            this.capacity = tokensPerMinute;
+            this.tokensPerNano = tokensPerMinute / (double) Duration.ofMinutes(1).toNanos();
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        long waitFor(long amount, long now) {
+            if (unlimited) return 0;
+            refill(now);
+            double deficit = amount - tokens;
+            return deficit <= 0 ? 0 : (long) Math.ceil(deficit / tokensPerNano);
+        }
+
+        /** Takes {@code amount} tokens, going into debt if short; a negative amount refunds. */
+        void take(long amount, long now) {
+            if (unlimited) return;
+            refill(now);
+            tokens = Math.min(capacity, tokens - amount);
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+        }
+    }
+}
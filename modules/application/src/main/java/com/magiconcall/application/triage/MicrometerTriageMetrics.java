@@ -1,9 +1,14 @@
 package com.magiconcall.application.triage;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Component
 public class MicrometerTriageMetrics implements TriageMetrics {
 
@@ -34,4 +39,76 @@ public class MicrometerTriageMetrics implements TriageMetrics {
             .register(meterRegistry)
             .increment();
     }
+
+    @Override
+    public void recordEvidenceOmitted(int items) {
+        Counter.builder("moc_triage_evidence_omitted_total")
+            .register(meterRegistry)
+            .increment(items);
+    }
+
+    @Override
+    public void recordCacheHit(String tier) {
+        Counter.builder("moc_triage_cache_hits_total")
+            .tag("tier", tier)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    @Override
+    public void recordCacheMiss() {
+        Counter.builder("moc_triage_cache_misses_total")
+            .register(meterRegistry)
+            .increment();
+    }
+
+    @Override
+    public void recordCacheEviction(String cause) {
+        Counter.builder("moc_triage_cache_evictions_total")
+            .tag("cause", cause)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    @Override
+    public void registerJobQueue(String severity, AtomicInteger depth) {
+        // The job service holds the counters for the life of the process, so the weak ref stays valid
+        Gauge.builder("moc_triage_job_queue_depth", depth, AtomicInteger::get)
+            .description("Triage jobs waiting for a worker")
+            .tag("severity", severity)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void recordJobWait(String severity, Duration wait) {
+        Timer.builder("moc_triage_job_wait")
+            .description("Time from triage job submission until a worker picks it up")
+            .tag("severity", severity)
+            .register(meterRegistry)
+            .record(wait);
+    }
+
+    @Override
+    public void recordLlmTokenWait(Duration wait) {
+        Timer.builder("moc_llm_token_wait")
+            .description("Time triage runs waited for LLM token-rate capacity")
+            .register(meterRegistry)
+            .record(wait);
+    }
+
+    @Override
+    public void recordLlmTokenRateRejected(String scope) {
+        Counter.builder("moc_llm_token_rate_rejected_total")
+            .tag("scope", scope)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    @Override
+    public void recordLlmTokenReconciliation(int delta) {
+        Counter.builder("moc_llm_token_reconciled_total")
+            .tag("direction", delta > 0 ? "under_estimated" : "over_estimated")
+            .register(meterRegistry)
+            .increment(Math.abs(delta));
+    }
 }
@@ -3,13 +3,20 @@ package com.magiconcall.application.triage;
 import com.magiconcall.domain.llm.LlmClient;
 import com.magiconcall.domain.llm.LlmRequest;
 import com.magiconcall.domain.llm.LlmResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.function.Consumer;
+
 @Component
 @ConditionalOnProperty(name = "magiconcall.llm.enabled", havingValue = "false", matchIfMissing = true)
 public class MockLlmClient implements LlmClient {
 
+    private static final int CHARS_PER_TOKEN = 4;
+
     private static final String MOCK_RESPONSE = """
         [
           {
@@ -42,6 +49,21 @@ public class MockLlmClient implements LlmClient {
         ]
         """;
 
+    private final Duration streamTokenDelay;
+
+    public MockLlmClient() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * {@code stream-token-delay} paces {@link #stream}, which emits the canned response a few
+     * characters at a time, so tests can observe results arriving before the completion ends.
+     */
+    @Autowired
+    public MockLlmClient(@Value("${magiconcall.llm.mock.stream-token-delay:0ms}") Duration streamTokenDelay) {
+        this.streamTokenDelay = streamTokenDelay;
+    }
+
     @Override
     public LlmResponse complete(LlmRequest request) {
         int promptTokens = estimateTokens(request.systemPrompt()) + estimateTokens(request.userPrompt());
@@ -49,8 +71,24 @@ public class MockLlmClient implements LlmClient {
         return new LlmResponse(MOCK_RESPONSE, promptTokens, completionTokens, "mock", "stop");
     }
 
+    @Override
+    public LlmResponse stream(LlmRequest request, Consumer<String> onContent) {
+        for (int i = 0; i < MOCK_RESPONSE.length(); i += CHARS_PER_TOKEN) {
+            if (i > 0 && !streamTokenDelay.isZero()) {
+                try {
+                    Thread.sleep(streamTokenDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while streaming mock completion", e);
+                }
+            }
+            onContent.accept(MOCK_RESPONSE.substring(i, Math.min(i + CHARS_PER_TOKEN, MOCK_RESPONSE.length())));
+        }
+        return complete(request);
+    }
+
     private int estimateTokens(String text) {
         if (text == null) return 0;
-        return text.length() / 4;
+        return text.length() / CHARS_PER_TOKEN;
     }
 }
@@ -0,0 +1,11 @@
+package com.magiconcall.application.triage;
+
+import java.util.List;
+
+/** The evidence that goes into a triage prompt, rendered, with its token count. */
+public record PackedEvidence(
+    List<EvidenceSummary.EvidenceItem> items,
+    String formattedSummary,
+    int tokens,
+    int omitted
+) {}
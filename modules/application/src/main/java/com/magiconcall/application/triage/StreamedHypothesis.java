@@ -0,0 +1,10 @@
+package com.magiconcall.application.triage;
+
+import com.magiconcall.application.incident.HypothesisResult;
+
+/**
+ * A hypothesis handed out by streaming triage. A provisional one comes from a run that has not
+ * committed yet and is discarded if that run fails; the run's final {@link TriageResult} holds
+ * the committed hypotheses. Hypotheses reused from a committed run are never provisional.
+ */
+public record StreamedHypothesis(HypothesisResult hypothesis, boolean provisional) {}
@@ -0,0 +1,131 @@
+package com.magiconcall.application.triage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.magiconcall.domain.llm.DistributedTriageCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of triage results, keyed by tenant and evidence hash.
+ * <p>
+ * The local tier is a Caffeine cache bounded by {@code max-entries} and {@code ttl}; Caffeine's
+ * W-TinyLFU admission keeps frequently re-triaged evidence sets over one-off ones. When a
+ * {@link DistributedTriageCache} is configured ({@code redis.enabled}), results are also written
+ * there, so a replica that has never seen an evidence set, or one that just restarted, reuses
+ * another replica's completion instead of paying for it again. The shared tier is best-effort:
+ * if it fails, the lookup counts as a miss and triage goes to the LLM.
+ * <p>
+ * Inside a transaction, results are only cached once it commits, so a rolled-back triage never
+ * leaves hypotheses in the cache that were not persisted.
+ */
+@Component
+public class TriageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TriageCache.class);
+
+    static final String LOCAL = "local";
+    static final String SHARED = "shared";
+
+    record Key(String tenantId, String evidenceHash) {}
+
+    private final Cache<Key, TriageResult> local;
+    private final Optional<DistributedTriageCache> shared;
+    private final Duration ttl;
+    private final TriageMetrics triageMetrics;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TriageCache(@Value("${magiconcall.triage.cache.max-entries:10000}") long maxEntries,
+                       @Value("${magiconcall.triage.cache.ttl:6h}") Duration ttl,
+                       Optional<DistributedTriageCache> shared,
+                       TriageMetrics triageMetrics,
+                       ObjectMapper objectMapper) {
+        this(maxEntries, ttl, shared, triageMetrics, objectMapper, Ticker.systemTicker());
+    }
+
+    TriageCache(long maxEntries, Duration ttl, Optional<DistributedTriageCache> shared,
+                TriageMetrics triageMetrics, ObjectMapper objectMapper, Ticker ticker) {
+        this.shared = shared;
+        this.ttl = ttl;
+        this.triageMetrics = triageMetrics;
+        this.objectMapper = objectMapper;
+        this.local = Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .ticker(ticker)
+            .evictionListener((Key key, TriageResult result, RemovalCause cause) ->
+                triageMetrics.recordCacheEviction(cause.name()))
+            .build();
+    }
+
+    public Optional<TriageResult> get(String tenantId, String evidenceHash) {
+        var key = new Key(tenantId, evidenceHash);
+        var cached = local.getIfPresent(key);
+        if (cached != null) {
+            triageMetrics.recordCacheHit(LOCAL);
+            return Optional.of(cached);
+        }
+        var fromShared = readShared(key);
+        if (fromShared.isPresent()) {
+            local.put(key, fromShared.get());
+            triageMetrics.recordCacheHit(SHARED);
+            return fromShared;
+        }
+        triageMetrics.recordCacheMiss();
+        return Optional.empty();
+    }
+
+    public void put(String tenantId, TriageResult result) {
+        var key = new Key(tenantId, result.evidenceHash());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(key, result);
+                }
+            });
+        } else {
+            store(key, result);
+        }
+    }
+
+    long localSize() {
+        local.cleanUp();
+        return local.estimatedSize();
+    }
+
+    private void store(Key key, TriageResult result) {
+        local.put(key, result);
+        if (shared.isEmpty()) return;
+        try {
+            shared.get().put(key.tenantId(), key.evidenceHash(), objectMapper.writeValueAsString(result), ttl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to write triage result to shared cache: hash={}", key.evidenceHash(), e);
+        }
+    }
+
+    private Optional<TriageResult> readShared(Key key) {
+        if (shared.isEmpty()) return Optional.empty();
+        try {
+            var payload = shared.get().get(key.tenantId(), key.evidenceHash());
+            if (payload.isEmpty()) return Optional.empty();
+            return Optional.of(objectMapper.readValue(payload.get(), TriageResult.class));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to read triage result from shared cache: hash={}", key.evidenceHash(), e);
+            return Optional.empty();
+        }
+    }
+}
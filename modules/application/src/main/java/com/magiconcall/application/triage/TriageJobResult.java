@@ -0,0 +1,17 @@
+package com.magiconcall.application.triage;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** A triage job's state; {@code result} is set once it has succeeded, {@code error} once it has failed. */
+public record TriageJobResult(
+    UUID jobId,
+    UUID incidentId,
+    String severity,
+    String status,
+    TriageResult result,
+    String error,
+    Instant enqueuedAt,
+    Instant startedAt,
+    Instant finishedAt
+) {}
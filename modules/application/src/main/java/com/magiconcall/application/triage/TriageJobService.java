@@ -0,0 +1,462 @@
+package com.magiconcall.application.triage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.incident.IncidentService;
+import com.magiconcall.domain.incident.IncidentRepository;
+import com.magiconcall.domain.incident.IncidentSeverity;
+import com.magiconcall.domain.incident.TriageJob;
+import com.magiconcall.domain.incident.TriageJobRepository;
+import com.magiconcall.domain.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Runs triage in the background. {@link #submit} records a {@code QUEUED} job and returns at once;
+ * a fixed pool of {@code workers} threads takes jobs from a priority queue, most severe incident
+ * first and in submission order within a severity, and stores each job's result or error on its
+ * row. Clients poll {@link #find} or follow status changes with {@link #watch}.
+ * <p>
+ * The queue is in memory and bounded by {@code queue-capacity}: when it is full, submissions fail
+ * with {@link QueueFullException} rather than waiting. Jobs are persisted, so any replica can
+ * report on them, but each runs on the replica that accepted it. Jobs still queued when the
+ * context stops are failed. Every {@code heartbeat-interval-ms} the replica refreshes the
+ * heartbeat of the jobs it holds, queued or running; those lost with a crashed replica stop
+ * getting one and are failed by the abandoned-job sweep after {@code abandon-after}.
+ * <p>
+ * A job whose model call the {@link LlmTokenGovernor} cannot cover yet is not waited on: it goes
+ * back to {@code QUEUED} and is put aside until the governor expects capacity, then re-enters the
+ * queue in its original place, so its worker takes other jobs meanwhile.
+ * <p>
+ * A job submitted for streaming runs triage with a streamed completion and publishes each
+ * hypothesis to the job's watchers on this replica as it is produced, provisional until the job
+ * has succeeded. Watchers on other replicas see only status changes.
+ */
+@Service
+public class TriageJobService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(TriageJobService.class);
+    private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(30);
+    private static final long TAKE_TIMEOUT_MS = 500;
+
+    private final IncidentRepository incidentRepository;
+    private final TriageJobRepository jobRepository;
+    private final TriageService triageService;
+    private final TriageMetrics triageMetrics;
+    private final ObjectMapper objectMapper;
+    private final int workerCount;
+    private final int queueCapacity;
+    private final Duration watchPollInterval;
+    private final PriorityBlockingQueue<Queued> queue = new PriorityBlockingQueue<>();
+    // Jobs put aside until the LLM token buckets can cover them; still counted as queued
+    private final DelayQueue<Deferred> deferred = new DelayQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<IncidentSeverity, AtomicInteger> depths = new EnumMap<>(IncidentSeverity.class);
+    private final AtomicLong sequence = new AtomicLong();
+    // One future per waiting watcher, completed when the job changes status on this replica to
+    // wake it early; a job's entry only exists while someone waits on it
+    private final ConcurrentHashMap<UUID, Set<CompletableFuture<Void>>> changes = new ConcurrentHashMap<>();
+    // Hypotheses published so far by the streaming jobs running or queued on this replica
+    private final ConcurrentHashMap<UUID, List<StreamedHypothesis>> streamed = new ConcurrentHashMap<>();
+    // Jobs claimed by a worker on this replica and not yet finished
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    /** A job waiting for a worker; ordered by severity (SEV1 first), then by submission. */
+    private record Queued(UUID jobId, String tenantId, UUID incidentId, IncidentSeverity severity,
+                          Instant enqueuedAt, long sequence, boolean streaming) implements Comparable<Queued> {
+
+        private static final Comparator<Queued> ORDER = Comparator
+            .comparing(Queued::severity)
+            .thenComparingLong(Queued::sequence);
+
+        @Override
+        public int compareTo(Queued other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /** A queued job put aside until {@code dueNanos}, on the {@link System#nanoTime} clock. */
+    private record Deferred(Queued job, long dueNanos) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    public TriageJobService(IncidentRepository incidentRepository,
+                            TriageJobRepository jobRepository,
+                            TriageService triageService,
+                            TriageMetrics triageMetrics,
+                            ObjectMapper objectMapper,
+                            @Value("${magiconcall.triage.jobs.workers:4}") int workerCount,
+                            @Value("${magiconcall.triage.jobs.queue-capacity:1000}") int queueCapacity,
+                            @Value("${magiconcall.triage.jobs.watch-poll-interval:1s}") Duration watchPollInterval) {
+        this.incidentRepository = incidentRepository;
+        this.jobRepository = jobRepository;
+        this.triageService = triageService;
+        this.triageMetrics = triageMetrics;
+        this.objectMapper = objectMapper;
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.watchPollInterval = watchPollInterval;
+        for (var severity : IncidentSeverity.values()) {
+            var depth = new AtomicInteger();
+            depths.put(severity, depth);
+            triageMetrics.registerJobQueue(severity.name(), depth);
+        }
+    }
+
+    /**
+     * Queues a triage run for the incident at its current severity. Not transactional: the job
+     * row is committed before the job is queued, so a worker never looks for a row it cannot see.
+     */
+    public TriageJobResult submit(UUID incidentId) {
+        return submit(incidentId, false);
+    }
+
+    /**
+     * {@link #submit(UUID)}; if {@code streaming}, the job publishes its hypotheses to
+     * {@link #watch(UUID, Predicate, Consumer, Duration) watchers} as they are produced.
+     */
+    public TriageJobResult submit(UUID incidentId, boolean streaming) {
+        var incident = incidentRepository.findById(incidentId)
+            .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
+        if (!running) {
+            throw new QueueFullException("Triage workers are not running");
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            throw new QueueFullException("Triage queue is full (%d jobs waiting)".formatted(queueCapacity));
+        }
+        try {
+            var job = new TriageJob(incidentId, incident.getSeverity());
+            job.setTenantId(incident.getTenantId());
+            job = jobRepository.save(job);
+            depths.get(job.getSeverity()).incrementAndGet();
+            if (streaming) streamed.put(job.getId(), new CopyOnWriteArrayList<>());
+            queue.add(new Queued(job.getId(), job.getTenantId(), incidentId, job.getSeverity(),
+                job.getEnqueuedAt(), sequence.getAndIncrement(), streaming));
+            log.info("Triage job queued: jobId={}, incidentId={}, severity={}",
+                job.getId(), incidentId, job.getSeverity());
+            return toResult(job);
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /** The job, if it exists and belongs to the current tenant. */
+    public Optional<TriageJobResult> find(UUID jobId) {
+        return findJob(jobId).map(this::toResult);
+    }
+
+    /**
+     * Hands the job's state to {@code onChange} now and after every status change, until the job
+     * has finished, {@code timeout} has passed, or {@code onChange} returns false. Changes made on
+     * this replica are seen at once; those made on another replica within
+     * {@code watch-poll-interval}. Blocks the calling thread; returns the last state seen.
+     */
+    public TriageJobResult watch(UUID jobId, Predicate<TriageJobResult> onChange, Duration timeout) {
+        return watch(jobId, onChange, hypothesis -> {}, timeout);
+    }
+
+    /**
+     * {@link #watch(UUID, Predicate, Duration)} that also hands each hypothesis a streaming job
+     * running on this replica publishes to {@code onHypothesis}, as provisional, before the
+     * status change that follows it.
+     */
+    public TriageJobResult watch(UUID jobId, Predicate<TriageJobResult> onChange,
+                                 Consumer<StreamedHypothesis> onHypothesis, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        TriageJob.Status last = null;
+        int delivered = 0;
+        // Nothing is registered for an id that does not exist
+        findJob(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
+        while (true) {
+            // Registered before reading, so a change between the read and the wait still wakes us
+            var change = awaitChange(jobId);
+            try {
+                var published = streamed.get(jobId);
+                if (published != null) {
+                    while (delivered < published.size()) onHypothesis.accept(published.get(delivered++));
+                }
+                var job = findJob(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
+                var result = toResult(job);
+                if (job.getStatus() != last) {
+                    last = job.getStatus();
+                    if (!onChange.test(result)) return result;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (last.isTerminal() || remaining <= 0) return result;
+                try {
+                    change.get(Math.min(remaining, watchPollInterval.toNanos()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // Poll again: the change may have happened on another replica
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return result;
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            } finally {
+                forgetChange(jobId, change);
+            }
+        }
+    }
+
+    /** Jobs someone on this replica is currently waiting on. */
+    int watchedJobs() {
+        return changes.size();
+    }
+
+    /** A future completed by the job's next {@link #signal}. */
+    private CompletableFuture<Void> awaitChange(UUID jobId) {
+        var change = new CompletableFuture<Void>();
+        changes.compute(jobId, (id, waiting) -> {
+            var set = waiting != null ? waiting : new HashSet<CompletableFuture<Void>>();
+            set.add(change);
+            return set;
+        });
+        return change;
+    }
+
+    /** Drops the watcher's future, and the job's entry with the last one; a no-op once signalled. */
+    private void forgetChange(UUID jobId, CompletableFuture<Void> change) {
+        changes.computeIfPresent(jobId, (id, waiting) -> {
+            waiting.remove(change);
+            return waiting.isEmpty() ? null : waiting;
+        });
+    }
+
+    private Optional<TriageJob> findJob(UUID jobId) {
+        var tenantId = TenantContext.getTenantId();
+        return jobRepository.findById(jobId)
+            .filter(job -> tenantId == null || tenantId.equals(job.getTenantId()));
+    }
+
+    /** Refreshes the heartbeat of every job this replica holds, so the sweep leaves them alone. */
+    @Scheduled(fixedDelayString = "${magiconcall.triage.jobs.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        var held = new ArrayList<UUID>(runningJobs);
+        for (var job : queue) held.add(job.jobId());
+        for (var job : deferred) held.add(job.job().jobId());
+        if (held.isEmpty()) return;
+        try {
+            jobRepository.heartbeat(held, Instant.now());
+        } catch (RuntimeException e) {
+            // Missing one beat is harmless while abandon-after spans several
+            log.warn("Could not refresh the heartbeat of {} triage jobs: {}", held.size(), e.getMessage());
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                runNext(TAKE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                // Only stop() ends the loop
+            } catch (RuntimeException e) {
+                // E.g. the database was unreachable when claiming; the sweep fails the job later
+                log.error("Triage worker failed to run a job", e);
+            }
+        }
+    }
+
+    /**
+     * Runs the next queued job on the calling thread, waiting up to {@code timeoutMs} for one.
+     * Put-aside jobs that are due re-enter the queue first.
+     */
+    boolean runNext(long timeoutMs) throws InterruptedException {
+        for (Deferred due; (due = deferred.poll()) != null; ) {
+            queue.add(due.job());
+        }
+        var next = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (next == null) return false;
+        queued.decrementAndGet();
+        depths.get(next.severity()).decrementAndGet();
+        run(next);
+        return true;
+    }
+
+    private void run(Queued job) {
+        boolean putAside = false;
+        runningJobs.add(job.jobId());
+        TenantContext.setTenantId(job.tenantId());
+        try (var ignored = MDC.putCloseable("triageJobId", job.jobId().toString())) {
+            var startedAt = Instant.now();
+            if (!jobRepository.claim(job.jobId(), startedAt)) {
+                log.info("Triage job {} is no longer queued, skipping", job.jobId());
+                return;
+            }
+            triageMetrics.recordJobWait(job.severity().name(), Duration.between(job.enqueuedAt(), startedAt));
+            signal(job.jobId());
+
+            String resultJson;
+            try {
+                var result = job.streaming()
+                    ? triageService.triageStreaming(job.incidentId(), hypothesis -> publish(job.jobId(), hypothesis))
+                    : triageService.triage(job.incidentId());
+                resultJson = objectMapper.writeValueAsString(result);
+            } catch (LlmCapacityPendingException e) {
+                putAside = putAside(job, e.getRetryAfter());
+                return;
+            } catch (JsonProcessingException | RuntimeException e) {
+                log.warn("Triage job {} failed: {}", job.jobId(), e.getMessage());
+                jobRepository.fail(job.jobId(), String.valueOf(e.getMessage()), Instant.now());
+                return;
+            }
+            if (!jobRepository.succeed(job.jobId(), resultJson, Instant.now())) {
+                log.warn("Triage job {} finished after it was marked abandoned", job.jobId());
+            }
+        } catch (RuntimeException e) {
+            // Claiming the job or recording its outcome failed; the sweep fails it once it is abandoned
+            log.error("Could not record the state of triage job {}", job.jobId(), e);
+        } finally {
+            runningJobs.remove(job.jobId());
+            TenantContext.clear();
+            // The terminal status carries the full result, so watchers need the published ones no longer
+            if (!putAside) streamed.remove(job.jobId());
+            signal(job.jobId());
+        }
+    }
+
+    /** Releases the claimed job and puts it aside for {@code wait}; false if it was no longer running. */
+    private boolean putAside(Queued job, Duration wait) {
+        if (!jobRepository.release(job.jobId(), Instant.now())) {
+            log.warn("Triage job {} was marked abandoned while waiting for LLM capacity", job.jobId());
+            return false;
+        }
+        queued.incrementAndGet();
+        depths.get(job.severity()).incrementAndGet();
+        deferred.add(new Deferred(job, System.nanoTime() + wait.toNanos()));
+        log.info("Triage job {} put aside for {}ms until LLM token capacity frees up", job.jobId(), wait.toMillis());
+        return true;
+    }
+
+    private void publish(UUID jobId, StreamedHypothesis hypothesis) {
+        var published = streamed.get(jobId);
+        if (published == null) return;
+        published.add(hypothesis);
+        signal(jobId);
+    }
+
+    private void signal(UUID jobId) {
+        // The sets are only changed inside compute calls, so once removed this one is ours
+        var waiting = changes.remove(jobId);
+        if (waiting != null) waiting.forEach(change -> change.complete(null));
+    }
+
+    private TriageJobResult toResult(TriageJob job) {
+        TriageResult result = null;
+        if (job.getResult() != null) {
+            try {
+                result = objectMapper.readValue(job.getResult(), TriageResult.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unreadable result on triage job " + job.getId(), e);
+            }
+        }
+        return new TriageJobResult(
+            job.getId(), job.getIncidentId(), job.getSeverity().name(), job.getStatus().name(),
+            result, job.getError(), job.getEnqueuedAt(), job.getStartedAt(), job.getFinishedAt()
+        );
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform().name("triage-worker-" + i).daemon().start(this::work));
+        }
+        log.info("Triage job workers started: workers={}, queueCapacity={}", workerCount, queueCapacity);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        // Jobs already running get a grace period to finish; the rest would wait forever
+        long deadline = System.nanoTime() + SHUTDOWN_GRACE.toNanos();
+        for (var worker : workers) {
+            try {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        var abandoned = new ArrayList<Queued>();
+        queue.drainTo(abandoned);
+        for (var job : deferred) abandoned.add(job.job());
+        deferred.clear();
+        int failed = jobRepository.failUnfinished(abandoned.stream().map(Queued::jobId).toList(),
+            "Shut down before the job started", Instant.now());
+        for (var job : abandoned) {
+            queued.decrementAndGet();
+            depths.get(job.severity()).decrementAndGet();
+            streamed.remove(job.jobId());
+            signal(job.jobId());
+        }
+        log.info("Triage job workers stopped, {} queued jobs failed", failed);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server, so nothing is submitted while the queue is drained
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    public static class JobNotFoundException extends RuntimeException {
+        public JobNotFoundException(UUID id) {
+            super("Triage job not found: " + id);
+        }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.magiconcall.application.triage;
 
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public interface TriageMetrics {
 
     void recordTriageRun(boolean cached);
@@ -7,4 +10,30 @@ public interface TriageMetrics {
     void recordTokensUsed(int tokens);
 
     void recordBudgetExceeded();
+
+    /** Evidence items left out of a triage prompt to fit the token budget. */
+    void recordEvidenceOmitted(int items);
+
+    /** {@code tier} is the cache tier that answered: local or shared. */
+    void recordCacheHit(String tier);
+
+    void recordCacheMiss();
+
+    /** {@code cause} is why the entry left the local tier, e.g. SIZE or EXPIRED. */
+    void recordCacheEviction(String cause);
+
+    /** Exposes the number of triage jobs waiting for a worker at {@code severity}. */
+    void registerJobQueue(String severity, AtomicInteger depth);
+
+    /** Time a triage job waited between submission and a worker picking it up. */
+    void recordJobWait(String severity, Duration wait);
+
+    /** Time a triage run waited for LLM token-rate capacity before calling the model. */
+    void recordLlmTokenWait(Duration wait);
+
+    /** A triage run turned away by the LLM token-rate limit; {@code scope} is tenant or global. */
+    void recordLlmTokenRateRejected(String scope);
+
+    /** Tokens a call used beyond (positive) or short of (negative) its up-front estimate. */
+    void recordLlmTokenReconciliation(int delta);
 }
@@ -6,30 +6,41 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.magiconcall.application.incident.AddHypothesisCommand;
 import com.magiconcall.application.incident.HypothesisResult;
 import com.magiconcall.application.incident.IncidentService;
+import com.magiconcall.domain.incident.HypothesisRepository;
+import com.magiconcall.domain.incident.HypothesisStatus;
+import com.magiconcall.domain.incident.Incident;
 import com.magiconcall.domain.incident.IncidentEvent;
 import com.magiconcall.domain.incident.IncidentEventRepository;
 import com.magiconcall.domain.incident.IncidentRepository;
+import com.magiconcall.domain.incident.TriageLock;
 import com.magiconcall.domain.llm.LlmClient;
 import com.magiconcall.domain.llm.LlmRequest;
+import com.magiconcall.domain.llm.LlmResponse;
 import com.magiconcall.domain.tenant.TenantContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 public class TriageService {
 
     private static final Logger log = LoggerFactory.getLogger(TriageService.class);
+    private static final String SOURCE = "AI";
 
     private static final String SYSTEM_PROMPT = """
         You are an expert incident responder. Given the evidence collected so far for an incident,
@@ -45,107 +56,245 @@ public class TriageService {
         Return ONLY a valid JSON array, no markdown fences or extra text.
         """;
 
-    private static final int CHARS_PER_TOKEN = 4;
-
     private final IncidentRepository incidentRepository;
     private final IncidentEventRepository incidentEventRepository;
     private final IncidentService incidentService;
     private final EvidenceSummarizer evidenceSummarizer;
+    private final EvidencePacker evidencePacker;
     private final LlmClient llmClient;
+    private final LlmTokenGovernor tokenGovernor;
     private final TriageMetrics triageMetrics;
+    private final TriageCache triageCache;
+    private final HypothesisRepository hypothesisRepository;
+    private final TriageLock triageLock;
+    private final TransactionOperations transactionOperations;
     private final ObjectMapper objectMapper;
     private final int tokenBudget;
+    private final int systemPromptTokens;
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<TriageResult>> flights = new ConcurrentHashMap<>();
 
-    // In-memory cache: evidenceHash → list of TriageResult
-    private final ConcurrentHashMap<String, TriageResult> cache = new ConcurrentHashMap<>();
+    private record FlightKey(UUID incidentId, String evidenceHash) {}
 
     public TriageService(IncidentRepository incidentRepository,
                          IncidentEventRepository incidentEventRepository,
                          IncidentService incidentService,
                          EvidenceSummarizer evidenceSummarizer,
+                         EvidencePacker evidencePacker,
+                         BpeTokenizer tokenizer,
                          LlmClient llmClient,
+                         LlmTokenGovernor tokenGovernor,
                          TriageMetrics triageMetrics,
+                         TriageCache triageCache,
+                         HypothesisRepository hypothesisRepository,
+                         TriageLock triageLock,
+                         TransactionOperations transactionOperations,
                          ObjectMapper objectMapper,
                          @Value("${magiconcall.llm.token-budget:4096}") int tokenBudget) {
         this.incidentRepository = incidentRepository;
         this.incidentEventRepository = incidentEventRepository;
         this.incidentService = incidentService;
         this.evidenceSummarizer = evidenceSummarizer;
+        this.evidencePacker = evidencePacker;
         this.llmClient = llmClient;
+        this.tokenGovernor = tokenGovernor;
         this.triageMetrics = triageMetrics;
+        this.triageCache = triageCache;
+        this.hypothesisRepository = hypothesisRepository;
+        this.triageLock = triageLock;
+        this.transactionOperations = transactionOperations;
         this.objectMapper = objectMapper;
         this.tokenBudget = tokenBudget;
+        this.systemPromptTokens = tokenizer.count(SYSTEM_PROMPT);
     }
 
-    @Transactional
+    /**
+     * Triages the incident's current evidence, reusing a cached or persisted result for the same
+     * evidence hash. Concurrent calls for the same incident and evidence share one run: the first
+     * becomes the leader and the others wait for its result. Across replicas, leaders serialize on
+     * a {@link TriageLock} lease and the later one returns the hypotheses the earlier one persisted.
+     * <p>
+     * Not transactional as a whole: the model call runs outside any transaction, and only the
+     * leader's final write of the hypotheses holds one, so neither waiting callers nor a run in
+     * generation hold database connections. It does not wait for LLM token capacity either: if
+     * the {@link LlmTokenGovernor} cannot cover the call yet, it throws
+     * {@link LlmCapacityPendingException} and the caller retries later.
+     */
     public TriageResult triage(UUID incidentId) {
+        return triage(incidentId, null);
+    }
+
+    /**
+     * {@link #triage(UUID)} that streams the completion and hands each hypothesis to
+     * {@code onHypothesis} as soon as its JSON object is complete, on the calling thread.
+     * Hypotheses are persisted together once the model has finished, so those delivered while it
+     * is running are provisional and have no id yet: if the run fails none are persisted and the
+     * exception is thrown, and only the returned result confirms them. Reused results (cache, a joined run,
+     * hypotheses persisted by another replica) are already committed and delivered all at once.
+     */
+    public TriageResult triageStreaming(UUID incidentId, Consumer<StreamedHypothesis> onHypothesis) {
+        return triage(incidentId, Objects.requireNonNull(onHypothesis));
+    }
+
+    private TriageResult triage(UUID incidentId, Consumer<StreamedHypothesis> onHypothesis) {
         var incident = incidentRepository.findById(incidentId)
             .orElseThrow(() -> new IncidentService.IncidentNotFoundException(incidentId));
 
         try (var ignored = MDC.putCloseable("incidentId", incidentId.toString())) {
             // 1. Summarize evidence
-            var summary = evidenceSummarizer.summarize(incidentId);
+            var summary = evidenceSummarizer.summarize(incident);
             log.info("Evidence summarized: {} items, hash={}", summary.items().size(), summary.evidenceHash());
 
             // 2. Cache check
-            var cached = cache.get(summary.evidenceHash());
+            var cached = triageCache.get(incident.getTenantId(), summary.evidenceHash()).orElse(null);
             if (cached != null) {
                 log.info("Cache hit for evidence hash={}", summary.evidenceHash());
                 triageMetrics.recordTriageRun(true);
-                return new TriageResult(
-                    incidentId, cached.hypotheses(), cached.evidenceHash(),
-                    0, true, Instant.now()
-                );
+                return deliver(reused(incidentId, cached), onHypothesis);
             }
 
-            // 3. Budget check
-            int estimatedTokens = (SYSTEM_PROMPT.length() + summary.formattedSummary().length()) / CHARS_PER_TOKEN;
-            if (estimatedTokens > tokenBudget) {
-                log.warn("Token budget exceeded: estimated={}, budget={}", estimatedTokens, tokenBudget);
+            // 3. Fit the evidence into the budget left after the system prompt
+            var packed = evidencePacker.pack(summary, tokenBudget - systemPromptTokens);
+            if (packed.items().isEmpty() && !summary.isEmpty()) {
+                int required = systemPromptTokens + packed.tokens();
+                log.warn("Token budget exceeded: required={}, budget={}", required, tokenBudget);
                 triageMetrics.recordBudgetExceeded();
-                throw new TokenBudgetExceededException(estimatedTokens, tokenBudget);
+                throw new TokenBudgetExceededException(required, tokenBudget);
+            }
+            if (packed.omitted() > 0) {
+                log.info("Evidence packed into budget: {} of {} items, {} tokens",
+                    packed.items().size(), summary.items().size(), packed.tokens());
+                triageMetrics.recordEvidenceOmitted(packed.omitted());
             }
 
-            // 4. LLM call
-            var request = new LlmRequest(SYSTEM_PROMPT, summary.formattedSummary(), tokenBudget, null);
-            var response = llmClient.complete(request);
-            log.info("LLM response: {} tokens used", response.totalTokens());
+            // 4. Single-flight: attach to an in-flight run for the same evidence, or lead one
+            var key = new FlightKey(incidentId, summary.evidenceHash());
+            var flight = new CompletableFuture<TriageResult>();
+            var inFlight = flights.putIfAbsent(key, flight);
+            if (inFlight != null) {
+                log.info("Joining in-flight triage for evidence hash={}", summary.evidenceHash());
+                var shared = await(inFlight);
+                triageMetrics.recordTriageRun(true);
+                return deliver(reused(incidentId, shared), onHypothesis);
+            }
+            // Short of token capacity this throws rather than waits, so the job can be put aside
+            try (var tokens = tokenGovernor.tryAcquire(incident.getTenantId(), systemPromptTokens + packed.tokens())) {
+                var result = runTriage(incident, summary, packed, tokens, onHypothesis);
+                flight.complete(result);
+                return result;
+            } catch (RuntimeException e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(key, flight);
+            }
+        }
+    }
 
-            // 5. Parse hypotheses from JSON
-            var parsedHypotheses = parseHypotheses(response.content());
+    private TriageResult runTriage(Incident incident, EvidenceSummary summary, PackedEvidence packed,
+                                   LlmTokenGovernor.Grant tokens, Consumer<StreamedHypothesis> onHypothesis) {
+        var incidentId = incident.getId();
 
-            // 6. Persist hypotheses via IncidentService
-            var results = new ArrayList<HypothesisResult>();
-            for (var h : parsedHypotheses) {
-                var command = new AddHypothesisCommand(
-                    h.title(), h.description(), h.confidence(), "AI",
-                    h.evidenceFor(), h.evidenceAgainst(),
-                    h.nextBestTest(), h.stopCondition()
+        // 5. Cross-replica lease; a run that held it before us may already have persisted this evidence
+        try (var lease = triageLock.acquire(incidentId, summary.evidenceHash())) {
+            var persisted = hypothesisRepository.findByIncidentIdAndEvidenceHash(incidentId, summary.evidenceHash());
+            if (!persisted.isEmpty()) {
+                log.info("Evidence hash={} already triaged, reusing {} hypotheses",
+                    summary.evidenceHash(), persisted.size());
+                var result = new TriageResult(
+                    incidentId, persisted.stream().map(HypothesisResult::from).toList(),
+                    summary.evidenceHash(), 0, true, Instant.now()
                 );
-                results.add(incidentService.addHypothesis(incidentId, command));
+                triageCache.put(incident.getTenantId(), result);
+                triageMetrics.recordTriageRun(true);
+                return deliver(result, onHypothesis);
             }
 
-            // 7. Timeline event
-            var timelineEvent = IncidentEvent.triageCompleted(incidentId, results.size());
-            timelineEvent.setTenantId(incident.getTenantId());
-            incidentEventRepository.save(timelineEvent);
+            // 6. LLM call and 7. parse, outside any transaction: generation holds no connection
+            var request = new LlmRequest(SYSTEM_PROMPT, packed.formattedSummary(), tokenBudget, null);
+            var parsed = new ArrayList<ParsedHypothesis>();
+            LlmResponse response;
+            if (onHypothesis == null) {
+                response = llmClient.complete(request);
+                parsed.addAll(parseHypotheses(response.content()));
+            } else {
+                // Each hypothesis is delivered, provisionally, as soon as its object closes in the stream
+                var parser = new JsonArrayStreamParser(json -> parseHypothesis(json).ifPresent(h -> {
+                    parsed.add(h);
+                    onHypothesis.accept(new StreamedHypothesis(provisional(incidentId, h), true));
+                }));
+                response = llmClient.stream(request, parser::feed);
+            }
+            tokens.settle(response.totalTokens());
+            log.info("LLM response: {} tokens used", response.totalTokens());
+
+            // 8. Persist each hypothesis via IncidentService and 9. the timeline event, in one
+            //    short transaction; committed (and cached) once execute returns, so waiters never
+            //    see a rolled-back run
+            var results = transactionOperations.execute(status -> persist(incident, summary, parsed));
 
-            // 8. Metrics
+            // 10. Metrics
             triageMetrics.recordTriageRun(false);
             triageMetrics.recordTokensUsed(response.totalTokens());
 
-            // 9. Cache result
+            // 11. Cache result
             var result = new TriageResult(
                 incidentId, results, summary.evidenceHash(),
                 response.totalTokens(), false, Instant.now()
             );
-            cache.put(summary.evidenceHash(), result);
+            triageCache.put(incident.getTenantId(), result);
 
             log.info("Triage completed: {} hypotheses generated", results.size());
             return result;
         }
     }
 
+    private List<HypothesisResult> persist(Incident incident, EvidenceSummary summary, List<ParsedHypothesis> parsed) {
+        var incidentId = incident.getId();
+        var results = new ArrayList<HypothesisResult>(parsed.size());
+        for (var h : parsed) {
+            var command = new AddHypothesisCommand(
+                h.title(), h.description(), h.confidence(), SOURCE,
+                h.evidenceFor(), h.evidenceAgainst(),
+                h.nextBestTest(), h.stopCondition(), summary.evidenceHash()
+            );
+            results.add(incidentService.addHypothesis(incidentId, command));
+        }
+        var timelineEvent = IncidentEvent.triageCompleted(incidentId, results.size());
+        timelineEvent.setTenantId(incident.getTenantId());
+        incidentEventRepository.save(timelineEvent);
+        return results;
+    }
+
+    /** A streamed hypothesis as it will be persisted, before it has an id. */
+    private static HypothesisResult provisional(UUID incidentId, ParsedHypothesis h) {
+        return new HypothesisResult(
+            null, incidentId, h.title(), h.description(), HypothesisStatus.PROPOSED.name(),
+            h.confidence(), SOURCE, h.evidenceFor(), h.evidenceAgainst(),
+            h.nextBestTest(), h.stopCondition(), null
+        );
+    }
+
+    /** A result produced by another run, as returned to this caller. */
+    private static TriageResult reused(UUID incidentId, TriageResult result) {
+        return new TriageResult(incidentId, result.hypotheses(), result.evidenceHash(), 0, true, Instant.now());
+    }
+
+    private static TriageResult deliver(TriageResult result, Consumer<StreamedHypothesis> onHypothesis) {
+        if (onHypothesis != null) {
+            result.hypotheses().forEach(h -> onHypothesis.accept(new StreamedHypothesis(h, false)));
+        }
+        return result;
+    }
+
+    private static TriageResult await(CompletableFuture<TriageResult> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
     private List<ParsedHypothesis> parseHypotheses(String json) {
         try {
             return objectMapper.readValue(json, new TypeReference<>() {});
@@ -155,6 +304,15 @@ public class TriageService {
         }
     }
 
+    private Optional<ParsedHypothesis> parseHypothesis(String json) {
+        try {
+            return Optional.of(objectMapper.readValue(json, ParsedHypothesis.class));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse streamed hypothesis, skipping it", e);
+            return Optional.empty();
+        }
+    }
+
     record ParsedHypothesis(
         String title,
         String description,
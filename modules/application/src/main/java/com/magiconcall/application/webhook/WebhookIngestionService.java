@@ -2,6 +2,7 @@ package com.magiconcall.application.webhook;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.graph.TemporalCorrelationService;
 import com.magiconcall.domain.alert.Alert;
 import com.magiconcall.domain.alert.AlertRepository;
 import com.magiconcall.domain.alert.AlertSeverity;
@@ -29,6 +30,7 @@ public class WebhookIngestionService {
     private final EventPublisher eventPublisher;
     private final WebhookMetrics metrics;
     private final ObjectMapper objectMapper;
+    private final TemporalCorrelationService temporalCorrelationService;
 
     public WebhookIngestionService(AlertRepository alertRepository,
                                    IncidentRepository incidentRepository,
@@ -36,7 +38,8 @@ public class WebhookIngestionService {
                                    AuditLogRepository auditLogRepository,
                                    EventPublisher eventPublisher,
                                    WebhookMetrics metrics,
-                                   ObjectMapper objectMapper) {
+                                   ObjectMapper objectMapper,
+                                   TemporalCorrelationService temporalCorrelationService) {
         this.alertRepository = alertRepository;
         this.incidentRepository = incidentRepository;
         this.incidentEventRepository = incidentEventRepository;
@@ -44,6 +47,7 @@ public class WebhookIngestionService {
         this.eventPublisher = eventPublisher;
         this.metrics = metrics;
         this.objectMapper = objectMapper;
+        this.temporalCorrelationService = temporalCorrelationService;
     }
 
     @Transactional
@@ -128,6 +132,9 @@ public class WebhookIngestionService {
 
             // 5. Publish alert.received event via outbox
             publishAlertReceivedEvent(alert, incident.getId(), newIncident);
+
+            // 6. Feed the streaming temporal correlator
+            temporalCorrelationService.onAlert(alert);
         }
 
         return WebhookResult.ingested(alert.getId(), incident.getId(), newIncident);
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.Instant;
 import java.util.Map;
@@ -46,7 +47,8 @@ class ActionServiceTest {
         var evaluator = new ActionPolicyEvaluator("logs,metrics,deploy,topology", 10, true);
         service = new ActionService(
             actionRepository, incidentRepository, incidentEventRepository,
-            auditLogRepository, evaluator, toolExecutionService, actionMetrics, objectMapper
+            auditLogRepository, evaluator, toolExecutionService, actionMetrics, objectMapper,
+            TransactionOperations.withoutTransaction()
         );
 
         testIncident = new Incident("ext-1", "Test Incident", "summary",
@@ -0,0 +1,154 @@
+package com.magiconcall.application.content;
+
+import com.magiconcall.domain.content.ContentBlob;
+import com.magiconcall.domain.content.ContentBlobRepository;
+import com.magiconcall.domain.content.ContentChunk;
+import com.magiconcall.domain.content.ContentChunkRepository;
+import com.magiconcall.domain.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentStoreTest {
+
+    @Mock private ContentBlobRepository blobRepository;
+    @Mock private ContentChunkRepository chunkRepository;
+
+    private final List<ContentBlob> blobs = new ArrayList<>();
+    private final List<ContentChunk> chunks = new ArrayList<>();
+    private ContentStore store;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId("tenant-test");
+        // Preview of 10 chars, chunks of 16 chars, reads capped at 40 chars
+        store = new ContentStore(blobRepository, chunkRepository,
+            TransactionOperations.withoutTransaction(), 10, 16, 40);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("short content is kept inline and never touches the store")
+    void shortContentInline() {
+        var stored = store.store("tiny");
+
+        assertThat(stored.referenced()).isFalse();
+        assertThat(stored.preview()).isEqualTo("tiny");
+        verifyNoInteractions(blobRepository, chunkRepository);
+    }
+
+    @Test
+    @DisplayName("large content is chunked, and ranged reads across chunk boundaries return the original text")
+    void chunkedRoundTrip() {
+        recordWrites();
+        String content = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJéè 🔥 end";
+
+        var stored = store.store(content);
+
+        assertThat(stored.referenced()).isTrue();
+        assertThat(stored.preview()).isEqualTo("0123456789");
+        assertThat(stored.length()).isEqualTo(content.length());
+        assertThat(blobs).hasSize(1);
+        assertThat(blobs.getFirst().getChunkCount()).isEqualTo(chunks.size()).isEqualTo(4);
+
+        when(blobRepository.findByContentHash("tenant-test", stored.contentRef()))
+            .thenReturn(Optional.of(blobs.getFirst()));
+
+        var middle = store.read(stored.contentRef(), 12, 10);
+        assertThat(middle.content()).isEqualTo(content.substring(12, 22));
+        assertThat(middle.nextOffset()).isEqualTo(22L);
+
+        var rebuilt = new StringBuilder();
+        Long offset = 0L;
+        while (offset != null) {
+            var page = store.read(stored.contentRef(), offset, 1_000);
+            assertThat(page.content().length()).isLessThanOrEqualTo(40);
+            rebuilt.append(page.content());
+            offset = page.nextOffset();
+        }
+        assertThat(rebuilt.toString()).isEqualTo(content);
+    }
+
+    @Test
+    @DisplayName("identical content is stored once")
+    void deduplicatesByHash() {
+        String content = "the same large tool output, twice";
+        var existing = new ContentBlob(ContentStore.sha256(content.getBytes(java.nio.charset.StandardCharsets.UTF_8)),
+            ContentStore.CODEC, content.length(), content.length(), 20, 3);
+        when(blobRepository.markReferenced(eq("tenant-test"), eq(existing.getContentHash()), any()))
+            .thenReturn(true);
+
+        var stored = store.store(content);
+
+        assertThat(stored.contentRef()).isEqualTo(existing.getContentHash());
+        verify(blobRepository, never()).save(any());
+        verify(chunkRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("new content is written with a fresh reference time, so the retention sweep keeps it")
+    void newBlobMarkedReferenced() {
+        recordWrites();
+        var before = java.time.Instant.now();
+
+        store.store("a large tool output that is not stored yet");
+
+        verify(blobRepository).markReferenced(eq("tenant-test"), any(), any());
+        assertThat(blobs).hasSize(1);
+        assertThat(blobs.getFirst().getLastReferencedAt()).isAfterOrEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("reading an unknown reference fails with ContentNotFoundException")
+    void unknownReference() {
+        when(blobRepository.findByContentHash(eq("tenant-test"), any())).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> store.read("deadbeef", 0, 10))
+            .isInstanceOf(ContentStore.ContentNotFoundException.class);
+    }
+
+    /** Backs the mocked repositories with in-memory lists. */
+    private void recordWrites() {
+        when(blobRepository.markReferenced(eq("tenant-test"), any(), any())).thenReturn(false);
+        when(blobRepository.save(any(ContentBlob.class))).thenAnswer(invocation -> {
+            ContentBlob blob = invocation.getArgument(0);
+            blob.setId(UUID.randomUUID());
+            blobs.add(blob);
+            return blob;
+        });
+        when(chunkRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<ContentChunk> saved = invocation.getArgument(0);
+            chunks.addAll(saved);
+            return saved;
+        });
+        when(chunkRepository.findOverlapping(any(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            long from = invocation.getArgument(1);
+            long to = invocation.getArgument(2);
+            return chunks.stream()
+                .filter(c -> c.getCharOffset() < to && c.getCharOffset() + c.getCharLength() > from)
+                .toList();
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.domain.graph.*;
+import com.magiconcall.domain.incident.Incident;
+import com.magiconcall.domain.incident.IncidentRepository;
+import com.magiconcall.domain.incident.IncidentSeverity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CorrelationGraphExporterTest {
+
+    @Mock private IncidentRepository incidentRepository;
+    @Mock private CorrelationNodeRepository nodeRepository;
+    @Mock private CorrelationEdgeRepository edgeRepository;
+    @Mock private ServiceTopologySnapshotRepository topologyRepository;
+
+    private CorrelationGraphExporter exporter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final UUID INCIDENT_ID = UUID.randomUUID();
+    private static final String TENANT = "tenant-test";
+
+    private final UUID apiId = ServiceTopologyService.topologyNodeId(TENANT, "payments-api");
+    private CorrelationNode deployNode;
+    private CorrelationNode alertNode;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        exporter = new CorrelationGraphExporter(incidentRepository, nodeRepository, edgeRepository,
+            new ServiceTopologyService(topologyRepository, edgeRepository, objectMapper, Duration.ofSeconds(30)), objectMapper);
+
+        var incident = new Incident("ext-1", "Test Incident", "summary", IncidentSeverity.SEV2, null, "{}");
+        incident.setTenantId(TENANT);
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+
+        var topologyNodes = List.of(new TopologyGraph.Node(apiId, CorrelationNodeType.SERVICE, "payments-api", null));
+        var snapshot = new ServiceTopologySnapshot(1L, 1, 0,
+            objectMapper.writeValueAsString(topologyNodes), "[]");
+        snapshot.setTenantId(TENANT);
+        when(topologyRepository.findLatestVersionByTenantId(TENANT)).thenReturn(Optional.of(1L));
+        when(topologyRepository.findLatestByTenantId(TENANT)).thenReturn(Optional.of(snapshot));
+
+        deployNode = node(CorrelationNodeType.DEPLOY, "Deploy v2 <canary>");
+        alertNode = node(CorrelationNodeType.ALERT, "Checkout 5xx");
+        var deployToApi = edge(deployNode.getId(), apiId, CorrelationEdgeType.CAUSAL_HINT);
+        var apiToAlert = edge(apiId, alertNode.getId(), CorrelationEdgeType.DEPENDS_ON);
+        when(nodeRepository.streamByIncidentId(INCIDENT_ID)).thenReturn(Stream.of(deployNode, alertNode));
+        when(edgeRepository.streamByIncidentId(INCIDENT_ID)).thenReturn(Stream.of(deployToApi, apiToAlert));
+    }
+
+    @Test
+    @DisplayName("walk delivers incident nodes, then each topology endpoint once before its first edge")
+    void walk_ordersElements() {
+        List<String> events = new ArrayList<>();
+        exporter.walk(INCIDENT_ID, new GraphVisitor() {
+            @Override public void node(GraphNodeResult node) { events.add("node:" + node.label()); }
+            @Override public void startEdges() { events.add("edges"); }
+            @Override public void edge(GraphEdgeResult edge) { events.add("edge:" + edge.edgeType()); }
+        });
+
+        assertThat(events).containsExactly(
+            "node:Deploy v2 <canary>", "node:Checkout 5xx", "edges",
+            "node:payments-api", "edge:CAUSAL_HINT", "edge:DEPENDS_ON");
+    }
+
+    @Test
+    @DisplayName("GRAPHML export is well-formed and escapes labels")
+    void export_graphMl() throws Exception {
+        var out = new ByteArrayOutputStream();
+        exporter.export(INCIDENT_ID, GraphExportFormat.GRAPHML, out);
+
+        var document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(document.getElementsByTagName("node").getLength()).isEqualTo(3);
+        assertThat(document.getElementsByTagName("edge").getLength()).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("Deploy v2 &lt;canary&gt;");
+    }
+
+    @Test
+    @DisplayName("NDJSON export writes one typed line per element")
+    void export_ndjson() throws Exception {
+        var out = new ByteArrayOutputStream();
+        exporter.export(INCIDENT_ID, GraphExportFormat.NDJSON, out);
+
+        var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(5);
+        assertThat(objectMapper.readTree(lines.get(0)).get("type").asText()).isEqualTo("node");
+        assertThat(objectMapper.readTree(lines.get(4)).get("type").asText()).isEqualTo("edge");
+    }
+
+    private static CorrelationNode node(CorrelationNodeType type, String label) {
+        var node = new CorrelationNode(INCIDENT_ID, type, label, null, null, null, "{}");
+        node.setId(UUID.randomUUID());
+        return node;
+    }
+
+    private static CorrelationEdge edge(UUID source, UUID target, CorrelationEdgeType type) {
+        var edge = new CorrelationEdge(INCIDENT_ID, source, target, type, 0.8, null, "{}");
+        edge.setId(UUID.randomUUID());
+        return edge;
+    }
+}
@@ -16,6 +16,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -33,8 +36,10 @@ class CorrelationGraphServiceTest {
     @Mock private CorrelationNodeRepository nodeRepository;
     @Mock private CorrelationEdgeRepository edgeRepository;
     @Mock private IncidentEventRepository incidentEventRepository;
+    @Mock private ServiceTopologySnapshotRepository topologyRepository;
 
     private CorrelationGraphService service;
+    private final RootCauseRankingPublisher rankingPublisher = new RootCauseRankingPublisher();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private static final UUID INCIDENT_ID = UUID.randomUUID();
@@ -45,7 +50,9 @@ class CorrelationGraphServiceTest {
         TenantContext.setTenantId(TENANT);
         service = new CorrelationGraphService(
             incidentRepository, alertRepository, nodeRepository,
-            edgeRepository, incidentEventRepository, objectMapper
+            edgeRepository, incidentEventRepository, objectMapper,
+            new ServiceTopologyService(topologyRepository, edgeRepository, objectMapper, Duration.ofSeconds(30)),
+            rankingPublisher, Duration.ofMinutes(5)
         );
     }
 
@@ -178,6 +185,30 @@ class CorrelationGraphServiceTest {
             .isInstanceOf(CorrelationGraphService.NodeNotFoundException.class);
     }
 
+    @Test
+    @DisplayName("findNodes pages by id and filters by type")
+    void findNodes_keysetPage() {
+        when(incidentRepository.findById(INCIDENT_ID))
+            .thenReturn(Optional.of(createIncident()));
+
+        var first = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT, "a", null, null, null, "{}");
+        first.setId(UUID.randomUUID());
+        var second = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT, "b", null, null, null, "{}");
+        second.setId(UUID.randomUUID());
+        when(nodeRepository.findPage(INCIDENT_ID, EnumSet.of(CorrelationNodeType.ALERT), new UUID(0L, 0L), 2))
+            .thenReturn(List.of(first, second));
+        when(nodeRepository.findPage(INCIDENT_ID, EnumSet.of(CorrelationNodeType.ALERT), second.getId(), 2))
+            .thenReturn(List.of());
+
+        var page = service.findNodes(INCIDENT_ID, List.of("alert"), null, 2);
+        assertThat(page.items()).hasSize(2);
+        assertThat(page.nextCursor()).isEqualTo(second.getId());
+
+        var last = service.findNodes(INCIDENT_ID, List.of("alert"), page.nextCursor(), 2);
+        assertThat(last.items()).isEmpty();
+        assertThat(last.nextCursor()).isNull();
+    }
+
     @Test
     @DisplayName("findRootCausePaths returns empty for graph with no edges")
     void findRootCausePaths_emptyGraph() {
@@ -277,6 +308,108 @@ class CorrelationGraphServiceTest {
         assertThat(paths.get(0).nodeLabels()).contains("Deploy A");
     }
 
+    @Test
+    @DisplayName("findRootCausePaths with PAGERANK ranks the cause shared by most symptoms first")
+    void findRootCausePaths_pageRank() {
+        when(incidentRepository.findById(INCIDENT_ID))
+            .thenReturn(Optional.of(createIncident()));
+
+        var sharedDeploy = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.DEPLOY,
+            "Deploy v2.3", null, null, null, "{}");
+        sharedDeploy.setId(UUID.randomUUID());
+        var loneDeploy = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.DEPLOY,
+            "Config push", null, null, null, "{}");
+        loneDeploy.setId(UUID.randomUUID());
+        List<CorrelationNode> nodes = new ArrayList<>(List.of(sharedDeploy, loneDeploy));
+        List<CorrelationEdge> edges = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            var alert = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT,
+                "Alert " + i, null, null, null, "{}");
+            alert.setId(UUID.randomUUID());
+            nodes.add(alert);
+            var cause = i == 0 ? loneDeploy : sharedDeploy;
+            edges.add(new CorrelationEdge(INCIDENT_ID, cause.getId(), alert.getId(),
+                CorrelationEdgeType.CAUSAL_HINT, 0.9, null, "{}"));
+        }
+        when(nodeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(nodes);
+        when(edgeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(edges);
+
+        var ranked = service.findRootCausePaths(INCIDENT_ID, 5, RootCauseScorer.PAGERANK);
+
+        assertThat(ranked).hasSize(2);
+        assertThat(ranked.get(0).nodeLabels()).containsExactly("Deploy v2.3");
+        assertThat(ranked.get(1).nodeLabels()).containsExactly("Config push");
+        assertThat(ranked.get(0).score()).isGreaterThan(ranked.get(1).score());
+    }
+
+    @Test
+    @DisplayName("addEdge extends the cached ranking and pushes it to subscribers")
+    void addEdge_pushesIncrementalRanking() {
+        when(incidentRepository.findById(INCIDENT_ID))
+            .thenReturn(Optional.of(createIncident()));
+
+        var deployNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.DEPLOY,
+            "Deploy v2.3", null, null, null, "{}");
+        deployNode.setId(UUID.randomUUID());
+        var alertNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT,
+            "High Error Rate", null, null, null, "{}");
+        alertNode.setId(UUID.randomUUID());
+        when(nodeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(List.of(deployNode, alertNode));
+        when(edgeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(List.of());
+
+        assertThat(service.findRootCausePaths(INCIDENT_ID, 3)).isEmpty();
+
+        List<RootCauseRankingUpdate> updates = new ArrayList<>();
+        var subscription = rankingPublisher.subscribe(INCIDENT_ID, updates::add);
+
+        when(nodeRepository.findById(deployNode.getId())).thenReturn(Optional.of(deployNode));
+        when(nodeRepository.findById(alertNode.getId())).thenReturn(Optional.of(alertNode));
+        when(edgeRepository.save(any(CorrelationEdge.class))).thenAnswer(inv -> inv.getArgument(0));
+        service.addEdge(INCIDENT_ID, new AddEdgeCommand(deployNode.getId(), alertNode.getId(),
+            "CAUSAL_HINT", 0.9, null, null));
+        subscription.close();
+
+        assertThat(updates).hasSize(1);
+        assertThat(updates.getFirst().topPaths().getFirst().nodeLabels())
+            .containsExactly("Deploy v2.3", "High Error Rate");
+        assertThat(service.findRootCausePaths(INCIDENT_ID, 3)).hasSize(1);
+        // Served from the incrementally updated ranking, not re-read from the repositories
+        verify(nodeRepository, times(1)).findByIncidentId(INCIDENT_ID);
+    }
+
+    @Test
+    @DisplayName("a ranking rebuilt from a read that raced a committed edge is not cached")
+    void rankingRebuild_racingEdgeIsNotCached() {
+        when(incidentRepository.findById(INCIDENT_ID))
+            .thenReturn(Optional.of(createIncident()));
+
+        var deployNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.DEPLOY,
+            "Deploy v2.3", null, null, null, "{}");
+        deployNode.setId(UUID.randomUUID());
+        var alertNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT,
+            "High Error Rate", null, null, null, "{}");
+        alertNode.setId(UUID.randomUUID());
+        var edge = new CorrelationEdge(INCIDENT_ID, deployNode.getId(), alertNode.getId(),
+            CorrelationEdgeType.CAUSAL_HINT, 0.9, null, "{}");
+        when(nodeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(List.of(deployNode, alertNode));
+        when(nodeRepository.findById(deployNode.getId())).thenReturn(Optional.of(deployNode));
+        when(nodeRepository.findById(alertNode.getId())).thenReturn(Optional.of(alertNode));
+        when(edgeRepository.save(any(CorrelationEdge.class))).thenReturn(edge);
+
+        int[] reads = {0};
+        when(edgeRepository.findByIncidentId(INCIDENT_ID)).thenAnswer(inv -> {
+            if (reads[0]++ > 0) return List.of(edge);
+            // The edge commits after this read's snapshot was taken
+            service.addEdge(INCIDENT_ID, new AddEdgeCommand(deployNode.getId(), alertNode.getId(),
+                "CAUSAL_HINT", 0.9, null, null));
+            return List.of();
+        });
+
+        assertThat(service.findRootCausePaths(INCIDENT_ID, 3)).isEmpty();
+        assertThat(service.findRootCausePaths(INCIDENT_ID, 3)).hasSize(1);
+        verify(edgeRepository, times(2)).findByIncidentId(INCIDENT_ID);
+    }
+
     @Test
     @DisplayName("computeBlastRadius performs BFS forward traversal")
     void computeBlastRadius_forwardTraversal() {
@@ -321,6 +454,82 @@ class CorrelationGraphServiceTest {
             .containsExactlyInAnyOrder("api-gateway", "auth-service");
     }
 
+    @Test
+    @DisplayName("findRootCausePaths traverses through the shared tenant topology")
+    void findRootCausePaths_throughTopology() throws Exception {
+        when(incidentRepository.findById(INCIDENT_ID))
+            .thenReturn(Optional.of(createIncident()));
+
+        UUID dbId = ServiceTopologyService.topologyNodeId(TENANT, "payments-db");
+        UUID apiId = ServiceTopologyService.topologyNodeId(TENANT, "payments-api");
+        stubTopology(
+            List.of(new TopologyGraph.Node(dbId, CorrelationNodeType.SERVICE, "payments-db", null),
+                new TopologyGraph.Node(apiId, CorrelationNodeType.SERVICE, "payments-api", null)),
+            List.of(new TopologyGraph.Edge(dbId, apiId, 0.9)));
+
+        UUID deployId = UUID.randomUUID();
+        UUID alertId = UUID.randomUUID();
+        var deployNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.DEPLOY,
+            "Deploy db-migration", null, null, null, "{}");
+        deployNode.setId(deployId);
+        var alertNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT,
+            "Checkout 5xx", null, null, null, "{}");
+        alertNode.setId(alertId);
+
+        // Incident layer attaches to the topology: deploy → payments-db, payments-api → alert
+        var edge1 = new CorrelationEdge(INCIDENT_ID, deployId, dbId,
+            CorrelationEdgeType.CAUSAL_HINT, 0.8, null, "{}");
+        var edge2 = new CorrelationEdge(INCIDENT_ID, apiId, alertId,
+            CorrelationEdgeType.DEPENDS_ON, 0.9, null, "{}");
+
+        when(nodeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(List.of(deployNode, alertNode));
+        when(edgeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(List.of(edge1, edge2));
+
+        var paths = service.findRootCausePaths(INCIDENT_ID, 5);
+
+        assertThat(paths).anyMatch(p -> p.nodeLabels().equals(
+            List.of("Deploy db-migration", "payments-db", "payments-api", "Checkout 5xx")));
+        assertThat(paths).anyMatch(p -> p.nodeLabels().equals(List.of("payments-api", "Checkout 5xx")));
+    }
+
+    @Test
+    @DisplayName("computeBlastRadius starts from a topology node and crosses into the incident layer")
+    void computeBlastRadius_fromTopologyNode() throws Exception {
+        when(incidentRepository.findById(INCIDENT_ID))
+            .thenReturn(Optional.of(createIncident()));
+
+        UUID dbId = ServiceTopologyService.topologyNodeId(TENANT, "payments-db");
+        UUID apiId = ServiceTopologyService.topologyNodeId(TENANT, "payments-api");
+        stubTopology(
+            List.of(new TopologyGraph.Node(dbId, CorrelationNodeType.SERVICE, "payments-db", null),
+                new TopologyGraph.Node(apiId, CorrelationNodeType.SERVICE, "payments-api", null)),
+            List.of(new TopologyGraph.Edge(dbId, apiId, 0.9)));
+
+        UUID alertId = UUID.randomUUID();
+        var alertNode = new CorrelationNode(INCIDENT_ID, CorrelationNodeType.ALERT,
+            "Checkout 5xx", null, null, null, "{}");
+        alertNode.setId(alertId);
+        when(nodeRepository.findById(alertId)).thenReturn(Optional.of(alertNode));
+
+        var edge = new CorrelationEdge(INCIDENT_ID, apiId, alertId,
+            CorrelationEdgeType.DEPENDS_ON, 0.9, null, "{}");
+        when(edgeRepository.findByIncidentId(INCIDENT_ID)).thenReturn(List.of(edge));
+
+        var result = service.computeBlastRadius(INCIDENT_ID, dbId);
+
+        assertThat(result.rootCauseNode().label()).isEqualTo("payments-db");
+        assertThat(result.affectedNodes()).extracting("label")
+            .containsExactlyInAnyOrder("payments-api", "Checkout 5xx");
+    }
+
+    private void stubTopology(List<TopologyGraph.Node> nodes, List<TopologyGraph.Edge> edges) throws Exception {
+        var snapshot = new ServiceTopologySnapshot(1L, nodes.size(), edges.size(),
+            objectMapper.writeValueAsString(nodes), objectMapper.writeValueAsString(edges));
+        snapshot.setTenantId(TENANT);
+        when(topologyRepository.findLatestVersionByTenantId(TENANT)).thenReturn(Optional.of(1L));
+        when(topologyRepository.findLatestByTenantId(TENANT)).thenReturn(Optional.of(snapshot));
+    }
+
     private Incident createIncident() {
         var incident = new Incident("ext-1", "Test Incident", "summary",
             IncidentSeverity.SEV2, null, "{}");
@@ -0,0 +1,77 @@
+package com.magiconcall.application.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark for the template miner on a synthetic 1M-line corpus drawn from a few
+ * dozen message shapes with varying timestamps, ids, hosts and durations.
+ * Excluded from the default test task; run with {@code ./gradlew benchmark} or {@code make bench}.
+ */
+@Tag("benchmark")
+class DrainLogTemplateMinerBenchmarkTest {
+
+    private static final int LINES = 1_000_000;
+    private static final int MIN_LINES_PER_SECOND = 200_000;
+
+    private static final String[] LEVELS = {"INFO", "WARN", "ERROR", "DEBUG"};
+    private static final String[] SERVICES = {"checkout-api", "payments-db", "auth-svc", "cart", "search", "gateway"};
+    private static final String[] HOSTS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"};
+    private static final String[] MESSAGES = {
+        "request %s failed: upstream timeout after %s",
+        "connection pool exhausted, %s of %s connections in use",
+        "GC pause of %s on host %s",
+        "user %s logged in from %s",
+        "cache miss for key %s, loading from %s",
+        "retrying call to %s attempt %s",
+        "circuit breaker %s transitioned to OPEN after %s",
+        "slow query took %s: SELECT * FROM orders WHERE id = %s",
+    };
+
+    @Test
+    @DisplayName("mines a 1M-line corpus at well over 200k lines/s")
+    void minesOneMillionLines() {
+        var random = new SplittableRandom(42);
+        var corpus = new String[LINES];
+        for (int i = 0; i < LINES; i++) corpus[i] = line(random, i);
+
+        var warmup = new DrainLogTemplateMiner(4, 0.5, 100, 500);
+        for (int i = 0; i < 100_000; i++) warmup.add(corpus[i]);
+
+        var miner = new DrainLogTemplateMiner(4, 0.5, 100, 500);
+        long start = System.nanoTime();
+        long matched = 0;
+        for (var line : corpus) {
+            if (miner.add(line) >= 0) matched++;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = LINES / seconds;
+
+        System.out.printf("DrainLogTemplateMiner: %,d lines in %.2fs = %,.0f lines/s (%d templates)%n",
+            LINES, seconds, throughput, miner.size());
+        assertThat(matched).isEqualTo(LINES);
+        assertThat(miner.size()).isLessThan(500);
+        assertThat(throughput).isGreaterThan((double) MIN_LINES_PER_SECOND);
+    }
+
+    private static String line(SplittableRandom random, int i) {
+        var message = MESSAGES[random.nextInt(MESSAGES.length)];
+        var args = new Object[2];
+        for (int a = 0; a < args.length; a++) {
+            args[a] = switch (random.nextInt(3)) {
+                case 0 -> random.nextInt(100_000);
+                case 1 -> HOSTS[random.nextInt(HOSTS.length)];
+                default -> "req-" + Integer.toHexString(random.nextInt());
+            };
+        }
+        return "2024-05-01T10:%02d:%02d.%03dZ %s %s [%s] %s".formatted(
+            (i / 60_000) % 60, (i / 1000) % 60, i % 1000,
+            LEVELS[random.nextInt(LEVELS.length)], SERVICES[random.nextInt(SERVICES.length)],
+            "thread-" + random.nextInt(32), message.formatted(args));
+    }
+}
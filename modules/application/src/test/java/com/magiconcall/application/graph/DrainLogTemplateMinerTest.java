@@ -0,0 +1,78 @@
+package com.magiconcall.application.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DrainLogTemplateMinerTest {
+
+    private final DrainLogTemplateMiner miner = new DrainLogTemplateMiner(4, 0.5, 100, 500);
+
+    @Test
+    @DisplayName("lines differing in numbers and one word share a generalized template")
+    void generalizesVariableTokens() {
+        int first = miner.add("2024-05-01T10:15:02Z ERROR checkout-api request req-17 failed: upstream timeout after 30000ms");
+        int second = miner.add("2024-05-01T10:15:09Z ERROR checkout-api request req-18 failed: upstream timeout after 30012ms");
+        int third = miner.add("2024-05-01T10:16:41Z ERROR checkout-api request req-21 failed: upstream reset after 12ms");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(third).isEqualTo(first);
+        var template = miner.template(first);
+        assertThat(template.template())
+            .isEqualTo("<*> ERROR checkout-api request <*> failed: upstream <*> after <*>");
+        assertThat(template.count()).isEqualTo(3);
+        assertThat(miner.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("different messages get different templates")
+    void separatesDifferentMessages() {
+        int timeout = miner.add("ERROR checkout-api upstream timeout after 30000ms");
+        int pool = miner.add("WARN payments-db connection pool exhausted, 50 of 50 in use");
+        int sameLengthOtherText = miner.add("ERROR checkout-api cache miss for k1");
+
+        assertThat(pool).isNotEqualTo(timeout);
+        assertThat(sameLengthOtherText).isNotEqualTo(timeout);
+        assertThat(miner.size()).isEqualTo(3);
+        assertThat(miner.add("   ")).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("restored templates keep counting where they left off")
+    void restoreResumesCounts() {
+        int restored = miner.restore("<*> ERROR checkout-api request <*> failed: upstream timeout", 41);
+        assertThat(miner.restore("<*> ERROR checkout-api request <*> failed: upstream timeout", 7)).isEqualTo(restored);
+
+        int matched = miner.add("10:15:02 ERROR checkout-api request r-9 failed: upstream timeout");
+
+        assertThat(matched).isEqualTo(restored);
+        assertThat(miner.template(restored).count()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("distinct leading tokens beyond max-children share the wildcard branch")
+    void boundsTreeWidth() {
+        var narrow = new DrainLogTemplateMiner(3, 0.5, 3, 500);
+        for (var host : new String[] {"alpha", "bravo", "charlie", "delta", "echo"}) {
+            narrow.add(host + " connection refused by peer");
+        }
+
+        // alpha and bravo get their own branch; the rest meet under the wildcard and merge
+        assertThat(narrow.size()).isEqualTo(3);
+        assertThat(narrow.template(2).template()).isEqualTo("<*> connection refused by peer");
+        assertThat(narrow.template(2).count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("once full, unmatched lines join the closest template of their branch or are dropped")
+    void capsTemplateCount() {
+        var capped = new DrainLogTemplateMiner(4, 0.5, 100, 2);
+        int timeout = capped.add("ERROR checkout-api upstream timeout after retries");
+        capped.add("WARN payments-db pool exhausted now");
+
+        assertThat(capped.add("ERROR checkout-api cache miss for key")).isEqualTo(timeout);
+        assertThat(capped.add("INFO a brand new line shape")).isEqualTo(-1);
+        assertThat(capped.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,104 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalRootCauseRankingTest {
+
+    private static final UUID INCIDENT_ID = UUID.randomUUID();
+    private static final Set<CorrelationEdgeType> TRAVERSABLE =
+        Set.of(CorrelationEdgeType.CAUSAL_HINT, CorrelationEdgeType.DEPENDS_ON);
+
+    @Test
+    @DisplayName("adding edges one by one yields the same ranking as a full rebuild")
+    void incrementalMatchesFullRebuild() {
+        var random = new Random(7);
+        var types = CorrelationNodeType.values();
+        List<CorrelationNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            var node = new CorrelationNode(INCIDENT_ID, types[random.nextInt(types.length)],
+                "n" + i, null, null, null, "{}");
+            node.setId(UUID.randomUUID());
+            nodes.add(node);
+        }
+        List<CorrelationEdge> edges = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            int a = random.nextInt(nodes.size());
+            int b = random.nextInt(nodes.size());
+            if (a == b) continue;
+            var edgeType = random.nextInt(5) == 0 ? CorrelationEdgeType.TIME_CORRELATION
+                : random.nextBoolean() ? CorrelationEdgeType.CAUSAL_HINT : CorrelationEdgeType.DEPENDS_ON;
+            edges.add(new CorrelationEdge(INCIDENT_ID, nodes.get(a).getId(), nodes.get(b).getId(),
+                edgeType, 0.1 + random.nextDouble() * 0.9, null, "{}"));
+        }
+
+        var full = IncrementalRootCauseRanking.build(INCIDENT_ID, nodes, view(nodes, edges));
+
+        var incremental = IncrementalRootCauseRanking.build(INCIDENT_ID, nodes, view(nodes, List.of()));
+        for (var edge : edges) {
+            incremental.addEdge(edge);
+        }
+
+        assertThat(signature(incremental.top(Integer.MAX_VALUE)))
+            .isNotEmpty()
+            .isEqualTo(signature(full.top(Integer.MAX_VALUE)));
+    }
+
+    @Test
+    @DisplayName("addEdge returns only the paths that run through the new edge")
+    void addEdgeReturnsNewPaths() {
+        var deploy = node(CorrelationNodeType.DEPLOY, "Deploy v2");
+        var service = node(CorrelationNodeType.SERVICE, "api-gateway");
+        var alert = node(CorrelationNodeType.ALERT, "5xx");
+        var nodes = List.of(deploy, service, alert);
+        var ranking = IncrementalRootCauseRanking.build(INCIDENT_ID, nodes, view(nodes, List.of(
+            new CorrelationEdge(INCIDENT_ID, service.getId(), alert.getId(), CorrelationEdgeType.DEPENDS_ON, 0.8, null, "{}"))));
+        assertThat(ranking.top(10)).hasSize(1);
+
+        var added = ranking.addEdge(new CorrelationEdge(INCIDENT_ID, deploy.getId(), service.getId(),
+            CorrelationEdgeType.CAUSAL_HINT, 0.9, null, "{}"));
+
+        assertThat(added).hasSize(1);
+        assertThat(added.getFirst().nodeLabels()).containsExactly("Deploy v2", "api-gateway", "5xx");
+        assertThat(ranking.top(10)).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("an edge the rebuild already read is not applied again after its commit")
+    void reappliedEdgeIsIgnored() {
+        var deploy = node(CorrelationNodeType.DEPLOY, "Deploy v2");
+        var alert = node(CorrelationNodeType.ALERT, "5xx");
+        var nodes = List.of(deploy, alert);
+        var edge = new CorrelationEdge(INCIDENT_ID, deploy.getId(), alert.getId(),
+            CorrelationEdgeType.CAUSAL_HINT, 0.9, null, "{}");
+        edge.setId(UUID.randomUUID());
+        var ranking = IncrementalRootCauseRanking.build(INCIDENT_ID, nodes, view(nodes, List.of(edge)));
+
+        assertThat(ranking.addEdge(edge)).isEmpty();
+        assertThat(ranking.top(10)).hasSize(1);
+    }
+
+    private static IncidentGraphView view(List<CorrelationNode> nodes, List<CorrelationEdge> edges) {
+        Map<UUID, CorrelationNode> nodeMap = new HashMap<>();
+        for (var n : nodes) nodeMap.put(n.getId(), n);
+        return new IncidentGraphView(nodeMap, edges, TopologyGraph.empty("tenant-test"), TRAVERSABLE);
+    }
+
+    private static CorrelationNode node(CorrelationNodeType type, String label) {
+        var node = new CorrelationNode(INCIDENT_ID, type, label, null, null, null, "{}");
+        node.setId(UUID.randomUUID());
+        return node;
+    }
+
+    private static List<String> signature(List<RootCausePath> paths) {
+        return paths.stream()
+            .map(p -> p.nodeIds() + "@" + Math.round(p.score() * 1e9))
+            .sorted()
+            .toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.domain.graph.CorrelationNode;
+import com.magiconcall.domain.graph.CorrelationNodeRepository;
+import com.magiconcall.domain.graph.CorrelationNodeType;
+import com.magiconcall.domain.graph.LogTemplateLines;
+import com.magiconcall.domain.incident.Evidence;
+import com.magiconcall.domain.incident.EvidenceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LogTemplateServiceTest {
+
+    private static final String TENANT = "tenant-test";
+
+    @Mock private CorrelationNodeRepository nodeRepository;
+    @Mock private CorrelationGraphService graphService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LogTemplateService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LogTemplateService(nodeRepository, graphService, TransactionOperations.withoutTransaction(),
+            objectMapper, true, 4, 0.5, 100, 500, 100, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("each output adds its own line counts in one upsert, not the miner's totals")
+    void savesCountDeltasInOneUpsert() {
+        var incident = UUID.randomUUID();
+        when(nodeRepository.findByIncidentIdAndNodeType(incident, CorrelationNodeType.LOG_CLUSTER))
+            .thenReturn(List.of());
+        when(nodeRepository.addLogTemplateLines(any(), any(), any(), any(), anyCollection())).thenReturn(1, 0);
+        var output = """
+            [logs] Results for checkout-api
+            10:15:02 ERROR checkout-api request r-1 failed: upstream timeout
+            10:15:09 ERROR checkout-api request r-2 failed: upstream timeout
+            10:15:11 WARN payments-db pool exhausted
+            """;
+
+        service.onToolOutput("logs", evidence(incident), output);
+        service.onToolOutput("logs", evidence(incident), output);
+
+        var expected = List.of(
+            new LogTemplateLines("<*> ERROR checkout-api request <*> failed: upstream timeout",
+                "<*> ERROR checkout-api request <*> failed: upstream timeout", 2),
+            new LogTemplateLines("<*> WARN payments-db pool exhausted", "<*> WARN payments-db pool exhausted", 1));
+        verify(nodeRepository, times(2)).addLogTemplateLines(eq(TENANT), eq(incident), any(),
+            eq(LogTemplateService.SOURCE), argThat((Collection<LogTemplateLines> lines) ->
+                List.copyOf(lines).equals(expected)));
+        verify(nodeRepository, never()).save(any());
+        verify(nodeRepository, never()).renameLogTemplate(any(), any(), any(), any(), any());
+        // Only the first output created nodes
+        verify(graphService, times(1)).invalidateRanking(incident, TENANT);
+    }
+
+    @Test
+    @DisplayName("a template restored from stored nodes adds only the new lines")
+    void restoredTemplateAddsNewLines() {
+        var incident = UUID.randomUUID();
+        var stored = new CorrelationNode(incident, CorrelationNodeType.LOG_CLUSTER, "<*> ERROR checkout-api timeout",
+            null, null, LogTemplateService.SOURCE, "{\"template\":\"<*> ERROR checkout-api timeout\",\"count\":40}");
+        when(nodeRepository.findByIncidentIdAndNodeType(incident, CorrelationNodeType.LOG_CLUSTER))
+            .thenReturn(List.of(stored));
+
+        service.onToolOutput("logs", evidence(incident), "10:15:02 ERROR checkout-api timeout");
+
+        verify(nodeRepository).addLogTemplateLines(eq(TENANT), eq(incident), any(), eq(LogTemplateService.SOURCE),
+            eq(List.of(new LogTemplateLines("<*> ERROR checkout-api timeout", "<*> ERROR checkout-api timeout", 1))));
+        verify(nodeRepository, never()).renameLogTemplate(any(), any(), any(), any(), any());
+        verifyNoInteractions(graphService);
+    }
+
+    @Test
+    @DisplayName("a template generalized by new lines moves its node to the new template")
+    void generalizedTemplateRenamesNode() {
+        var incident = UUID.randomUUID();
+        when(nodeRepository.findByIncidentIdAndNodeType(incident, CorrelationNodeType.LOG_CLUSTER))
+            .thenReturn(List.of());
+
+        service.onToolOutput("logs", evidence(incident), "user login alice ok");
+        service.onToolOutput("logs", evidence(incident), "user login bob ok");
+
+        verify(nodeRepository).renameLogTemplate(incident, LogTemplateService.SOURCE,
+            "user login alice ok", "user login <*> ok", "user login <*> ok");
+        verify(nodeRepository, times(2)).addLogTemplateLines(any(), any(), any(), any(), anyCollection());
+        verify(graphService).invalidateRanking(incident, TENANT);
+    }
+
+    @Test
+    @DisplayName("output is mined only after the tool's transaction commits, off the committing thread")
+    void minesAfterCommit() {
+        var incident = UUID.randomUUID();
+        when(nodeRepository.findByIncidentIdAndNodeType(incident, CorrelationNodeType.LOG_CLUSTER))
+            .thenReturn(List.of());
+        var committing = Thread.currentThread();
+        var writers = new CopyOnWriteArrayList<Thread>();
+        when(nodeRepository.addLogTemplateLines(any(), any(), any(), any(), anyCollection())).thenAnswer(inv -> {
+            writers.add(Thread.currentThread());
+            return 0;
+        });
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.onToolOutput("logs", evidence(incident), "user login alice ok");
+            verifyNoInteractions(nodeRepository);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(nodeRepository, timeout(5000)).addLogTemplateLines(any(), any(), any(), any(), anyCollection());
+        assertThat(writers).doesNotContain(committing);
+    }
+
+    @Test
+    @DisplayName("a failed write drops the miner so the next output starts from the stored nodes")
+    void failedWriteRestoresMiner() {
+        var incident = UUID.randomUUID();
+        when(nodeRepository.findByIncidentIdAndNodeType(incident, CorrelationNodeType.LOG_CLUSTER))
+            .thenReturn(List.of());
+        when(nodeRepository.addLogTemplateLines(any(), any(), any(), any(), anyCollection()))
+            .thenThrow(new IllegalStateException("connection refused"))
+            .thenReturn(0);
+
+        service.onToolOutput("logs", evidence(incident), "user login alice ok");
+        service.onToolOutput("logs", evidence(incident), "user login alice ok");
+
+        verify(nodeRepository, times(2)).findByIncidentIdAndNodeType(incident, CorrelationNodeType.LOG_CLUSTER);
+    }
+
+    private static Evidence evidence(UUID incidentId) {
+        var evidence = new Evidence(incidentId, null, EvidenceType.TOOL_OUTPUT, "Tool output", "output", null, "{}");
+        evidence.setId(UUID.randomUUID());
+        evidence.setTenantId(TENANT);
+        return evidence;
+    }
+}
@@ -0,0 +1,52 @@
+package com.magiconcall.application.graph;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency benchmark for the PageRank scorer on a 100k-edge graph.
+ * Excluded from the default test task; run with {@code ./gradlew benchmark} or {@code make bench}.
+ */
+@Tag("benchmark")
+class PersonalizedPageRankBenchmarkTest {
+
+    private static final int NODES = 20_000;
+    private static final int EDGES = 100_000;
+
+    @Test
+    @DisplayName("ranks a 100k-edge graph in milliseconds")
+    void ranksHundredThousandEdges() {
+        var random = new SplittableRandom(42);
+        int[] from = new int[EDGES];
+        int[] to = new int[EDGES];
+        double[] weights = new double[EDGES];
+        for (int i = 0; i < EDGES; i++) {
+            // Edges point "downstream" towards higher indexes, like causes → symptoms
+            int a = random.nextInt(NODES - 1);
+            from[i] = a;
+            to[i] = a + 1 + random.nextInt(Math.min(200, NODES - a - 1));
+            weights[i] = 0.1 + 0.9 * random.nextDouble();
+        }
+        double[] personalization = new double[NODES];
+        for (int i = NODES - 500; i < NODES; i++) personalization[i] = 1.0;
+
+        var pageRank = PersonalizedPageRank.fromEdges(NODES, from, to, weights);
+        for (int i = 0; i < 20; i++) pageRank.compute(personalization);
+
+        int runs = 50;
+        long start = System.nanoTime();
+        PersonalizedPageRank.Result result = null;
+        for (int i = 0; i < runs; i++) result = pageRank.compute(personalization);
+        double millisPerRun = (System.nanoTime() - start) / 1e6 / runs;
+
+        System.out.printf("PageRank: %d nodes, %d edges, %d iterations, %.2f ms/run%n",
+            NODES, EDGES, result.iterations(), millisPerRun);
+        assertThat(result.converged()).isTrue();
+        assertThat(millisPerRun).isLessThan(50.0);
+    }
+}
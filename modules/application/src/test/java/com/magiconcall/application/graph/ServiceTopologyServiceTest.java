@@ -0,0 +1,136 @@
+package com.magiconcall.application.graph;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.domain.graph.CorrelationEdgeRepository;
+import com.magiconcall.domain.graph.ServiceTopologySnapshot;
+import com.magiconcall.domain.graph.ServiceTopologySnapshotRepository;
+import com.magiconcall.domain.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceTopologyServiceTest {
+
+    @Mock private ServiceTopologySnapshotRepository snapshotRepository;
+    @Mock private CorrelationEdgeRepository edgeRepository;
+
+    private ServiceTopologyService service;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String TENANT = "tenant-test";
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT);
+        service = new ServiceTopologyService(snapshotRepository, edgeRepository, objectMapper, Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("publish stores the next snapshot version and serves it from memory")
+    void publish_storesNextVersionAndCaches() {
+        when(snapshotRepository.findLatestVersionByTenantId(TENANT)).thenReturn(Optional.of(3L));
+        when(snapshotRepository.save(any(ServiceTopologySnapshot.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var result = service.publish(new PublishTopologyCommand(
+            List.of(new PublishTopologyCommand.Service("payments-db", "DEPENDENCY", null),
+                new PublishTopologyCommand.Service("payments-api", null, "Payments API")),
+            List.of(new PublishTopologyCommand.Dependency("payments-db", "payments-api", 0.9))));
+
+        assertThat(result.version()).isEqualTo(4L);
+        assertThat(result.nodes()).extracting("label").containsExactly("payments-db", "payments-api");
+        assertThat(result.edges()).hasSize(1);
+
+        var graph = service.current(TENANT);
+        assertThat(graph.version()).isEqualTo(4L);
+        assertThat(graph.contains(ServiceTopologyService.topologyNodeId(TENANT, "payments-api"))).isTrue();
+        verify(snapshotRepository, never()).findLatestByTenantId(any());
+    }
+
+    @Test
+    @DisplayName("publish deletes incident edges whose endpoints are in neither the incident nor the new topology")
+    void publish_deletesDanglingEdges() {
+        when(snapshotRepository.findLatestVersionByTenantId(TENANT)).thenReturn(Optional.of(1L));
+        when(snapshotRepository.save(any(ServiceTopologySnapshot.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // payments-db was in the previous version; edges to it are now dangling
+        service.publish(new PublishTopologyCommand(
+            List.of(new PublishTopologyCommand.Service("payments-api", null, null)), List.of()));
+
+        verify(edgeRepository).deleteDangling(eq(TENANT), argThat(ids -> ids.size() == 1
+            && ids.contains(ServiceTopologyService.topologyNodeId(TENANT, "payments-api"))));
+    }
+
+    @Test
+    @DisplayName("publish caches the topology only once its transaction commits")
+    void publish_cachesOnlyAfterCommit() {
+        when(snapshotRepository.findLatestVersionByTenantId(TENANT)).thenReturn(Optional.of(3L));
+        when(snapshotRepository.save(any(ServiceTopologySnapshot.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(snapshotRepository.findLatestByTenantId(TENANT)).thenReturn(Optional.empty());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.publish(new PublishTopologyCommand(
+                List.of(new PublishTopologyCommand.Service("payments-api", null, null)), List.of()));
+        } finally {
+            // Rolled back: the registered afterCommit callbacks never run
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(service.current(TENANT).version()).isNotEqualTo(4L);
+        verify(snapshotRepository).findLatestByTenantId(TENANT);
+    }
+
+    @Test
+    @DisplayName("publish rejects dependencies on unknown services")
+    void publish_rejectsUnknownService() {
+        var command = new PublishTopologyCommand(
+            List.of(new PublishTopologyCommand.Service("payments-api", null, null)),
+            List.of(new PublishTopologyCommand.Dependency("ledger", "payments-api", 0.5)));
+
+        assertThatThrownBy(() -> service.publish(command))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("ledger");
+        verify(snapshotRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("current returns an empty topology when none has been published")
+    void current_emptyWhenNothingPublished() {
+        when(snapshotRepository.findLatestVersionByTenantId(TENANT)).thenReturn(Optional.empty());
+
+        var graph = service.current(TENANT);
+
+        assertThat(graph.isEmpty()).isTrue();
+        assertThat(graph.version()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("topology node ids are stable across snapshots and tenant-scoped")
+    void topologyNodeId_stable() {
+        assertThat(ServiceTopologyService.topologyNodeId(TENANT, "payments-api"))
+            .isEqualTo(ServiceTopologyService.topologyNodeId(TENANT, "payments-api"))
+            .isNotEqualTo(ServiceTopologyService.topologyNodeId("other-tenant", "payments-api"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.*;
+import com.magiconcall.domain.incident.Evidence;
+import com.magiconcall.domain.incident.EvidenceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TemporalCorrelationServiceTest {
+
+    private static final String TENANT = "tenant-test";
+
+    @Mock private CorrelationNodeRepository nodeRepository;
+    @Mock private CorrelationEdgeRepository edgeRepository;
+
+    private TemporalCorrelationService service;
+
+    @BeforeEach
+    void setUp() {
+        // Support 1 and lift 0 so every in-window pair is emitted
+        service = new TemporalCorrelationService(nodeRepository, edgeRepository, true,
+            Duration.ofMinutes(5), 1024, 16384, 1, 0.0, Duration.ofHours(24));
+    }
+
+    @Test
+    @DisplayName("repeated correlations of a pair upsert one edge instead of inserting new ones")
+    void repeatedCorrelationUpsertsEdge() {
+        when(nodeRepository.findByIncidentIdAndReferenceId(any(), any())).thenReturn(List.of());
+        when(nodeRepository.save(any(CorrelationNode.class))).thenAnswer(inv -> {
+            CorrelationNode node = inv.getArgument(0);
+            node.setId(UUID.randomUUID());
+            return node;
+        });
+        UUID incident = UUID.randomUUID();
+
+        for (int i = 0; i < 3; i++) {
+            service.onToolEvidence("deploy", Map.of("service", "checkout-api", "environment", "production"),
+                evidence(incident));
+            service.onToolEvidence("metrics", Map.of("service", "checkout-api", "metric", "latency_p99"),
+                evidence(incident));
+        }
+
+        var edges = ArgumentCaptor.forClass(CorrelationEdge.class);
+        verify(edgeRepository, atLeastOnce()).upsertTimeCorrelation(edges.capture());
+        verify(edgeRepository, never()).save(any());
+        assertThat(edges.getAllValues()).allSatisfy(edge -> {
+            assertThat(edge.getEdgeType()).isEqualTo(CorrelationEdgeType.TIME_CORRELATION);
+            assertThat(edge.getTenantId()).isEqualTo(TENANT);
+        });
+    }
+
+    @Test
+    @DisplayName("tool evidence is keyed by what it observed, not by the tool that ran")
+    void toolEvidenceKeyedBySubject() {
+        assertThat(TemporalCorrelationService.subject("metrics", Map.of("service", "checkout-api", "metric", "latency_p99")))
+            .isEqualTo("metrics:checkout-api:latency_p99");
+        assertThat(TemporalCorrelationService.subject("logs", Map.of("service", "payments-db", "resultCount", "3")))
+            .isEqualTo("logs:payments-db");
+        assertThat(TemporalCorrelationService.subject("logs", Map.of("service", "unknown"))).isNull();
+        assertThat(TemporalCorrelationService.subject("topology", Map.of("service", "checkout-api"))).isNull();
+
+        service.onToolEvidence("topology", Map.of("service", "checkout-api"), evidence(UUID.randomUUID()));
+        verifyNoInteractions(nodeRepository, edgeRepository);
+    }
+
+    private static Evidence evidence(UUID incidentId) {
+        var evidence = new Evidence(incidentId, null, EvidenceType.TOOL_OUTPUT, "Tool output", "output", null, "{}");
+        evidence.setId(UUID.randomUUID());
+        evidence.setTenantId(TENANT);
+        return evidence;
+    }
+}
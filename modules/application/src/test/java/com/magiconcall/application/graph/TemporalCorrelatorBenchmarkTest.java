@@ -0,0 +1,94 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.CorrelationNodeType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark for the streaming correlator at a sustained 10k alerts/s of event time,
+ * so the 60s window spans 600k signals over all {@value #SIGNAL_KEYS} keys.
+ * Excluded from the default test task; run with {@code ./gradlew benchmark} or {@code make bench}.
+ */
+@Tag("benchmark")
+class TemporalCorrelatorBenchmarkTest {
+
+    private static final int ALERTS_PER_SECOND = 10_000;
+    private static final int SIGNAL_KEYS = 500;
+    private static final int INCIDENTS = 50;
+    private static final int MAX_TRACKED_KEYS = 16_384;
+
+    @Test
+    @DisplayName("sustains 10k alerts/s with a full window")
+    void sustainsTenThousandAlertsPerSecond() {
+        var correlator = new TemporalCorrelator(60_000L, 1024, MAX_TRACKED_KEYS, 3, 2.0, 3_600_000L);
+        var random = new SplittableRandom(42);
+        var incidents = new UUID[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) incidents[i] = UUID.randomUUID();
+        var keys = new String[SIGNAL_KEYS];
+        for (int i = 0; i < SIGNAL_KEYS; i++) keys[i] = "alert:svc-" + i;
+
+        int warmup = 50_000;
+        int measured = 300_000;
+        long emitted = 0;
+        long start = 0;
+        for (int i = 0; i < warmup + measured; i++) {
+            if (i == warmup) start = System.nanoTime();
+            long eventTime = i * 1000L / ALERTS_PER_SECOND;
+            var signal = new TemporalCorrelator.Signal(keys[random.nextInt(SIGNAL_KEYS)], "bench",
+                incidents[random.nextInt(INCIDENTS)], UUID.randomUUID(), CorrelationNodeType.ALERT,
+                "alert", eventTime);
+            emitted += correlator.observe(signal).size();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = measured / seconds;
+
+        System.out.printf("TemporalCorrelator: %,d alerts in %.2fs = %,.0f alerts/s (%d correlations)%n",
+            measured, seconds, throughput, emitted);
+        assertThat(throughput).isGreaterThan((double) ALERTS_PER_SECOND);
+    }
+
+    /**
+     * Keys that never repeat keep the window full, so every signal walks {@code maxWindowKeys}
+     * pairs; this runs with 256 of them, as a tenant with such keys should be configured.
+     */
+    @Test
+    @DisplayName("sustains 10k alerts/s when most keys never repeat, with bounded key state")
+    void sustainsHighCardinalityKeys() {
+        var correlator = new TemporalCorrelator(60_000L, 256, MAX_TRACKED_KEYS, 3, 2.0, 3_600_000L);
+        var random = new SplittableRandom(42);
+        var incidents = new UUID[INCIDENTS];
+        for (int i = 0; i < INCIDENTS; i++) incidents[i] = UUID.randomUUID();
+        var keys = new String[SIGNAL_KEYS];
+        for (int i = 0; i < SIGNAL_KEYS; i++) keys[i] = "alert:svc-" + i;
+
+        int warmup = 50_000;
+        int measured = 300_000;
+        int maxTracked = 0;
+        long emitted = 0;
+        long start = 0;
+        for (int i = 0; i < warmup + measured; i++) {
+            if (i == warmup) start = System.nanoTime();
+            long eventTime = i * 1000L / ALERTS_PER_SECOND;
+            // Four in five signals carry a key that is never seen again, e.g. a host or request id
+            String key = random.nextInt(5) == 0 ? keys[random.nextInt(SIGNAL_KEYS)] : "alert:host-" + i;
+            var signal = new TemporalCorrelator.Signal(key, "bench",
+                incidents[random.nextInt(INCIDENTS)], UUID.randomUUID(), CorrelationNodeType.ALERT,
+                "alert", eventTime);
+            emitted += correlator.observe(signal).size();
+            if (i % 1_000 == 0) maxTracked = Math.max(maxTracked, correlator.trackedKeys("bench"));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double throughput = measured / seconds;
+
+        System.out.printf("TemporalCorrelator, unique keys: %,d alerts in %.2fs = %,.0f alerts/s "
+            + "(%d correlations, at most %,d keys tracked)%n", measured, seconds, throughput, emitted, maxTracked);
+        assertThat(throughput).isGreaterThan((double) ALERTS_PER_SECOND);
+        assertThat(maxTracked).isLessThanOrEqualTo(MAX_TRACKED_KEYS);
+    }
+}
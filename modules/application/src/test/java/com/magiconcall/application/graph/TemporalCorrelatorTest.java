@@ -0,0 +1,175 @@
+package com.magiconcall.application.graph;
+
+import com.magiconcall.domain.graph.CorrelationNodeType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TemporalCorrelatorTest {
+
+    private static final String TENANT = "tenant-test";
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final TemporalCorrelator correlator = new TemporalCorrelator(MINUTE, 256, 4096, 3, 2.0, 24 * HOUR);
+
+    @Test
+    @DisplayName("emits a correlation once a pair co-occurs minSupport times above chance")
+    void emitsAfterMinSupport() {
+        List<List<TemporalCorrelator.Correlation>> emittedPerRound = new ArrayList<>();
+        for (int k = 0; k < 4; k++) {
+            UUID incident = UUID.randomUUID();
+            long t = k * HOUR;
+            correlator.observe(signal("alert:db-latency", incident, t));
+            emittedPerRound.add(correlator.observe(signal("alert:api-5xx", incident, t + 5_000)));
+            correlator.observe(signal("alert:noise", UUID.randomUUID(), t + 30 * MINUTE));
+        }
+
+        assertThat(emittedPerRound.get(0)).isEmpty();
+        assertThat(emittedPerRound.get(1)).isEmpty();
+        assertThat(emittedPerRound.get(2)).hasSize(1);
+
+        var correlation = emittedPerRound.get(2).getFirst();
+        assertThat(correlation.earlier().key()).isEqualTo("alert:db-latency");
+        assertThat(correlation.later().key()).isEqualTo("alert:api-5xx");
+        assertThat(correlation.coOccurrences()).isEqualTo(3.0);
+        assertThat(correlation.lift()).isGreaterThan(2.0);
+        assertThat(correlation.weight()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("does not link signals that belong to different incidents")
+    void doesNotLinkAcrossIncidents() {
+        List<TemporalCorrelator.Correlation> emitted = new ArrayList<>();
+        for (int k = 0; k < 5; k++) {
+            long t = k * HOUR;
+            correlator.observe(signal("alert:db-latency", UUID.randomUUID(), t));
+            emitted.addAll(correlator.observe(signal("alert:api-5xx", UUID.randomUUID(), t + 5_000)));
+        }
+
+        assertThat(emitted).isEmpty();
+    }
+
+    @Test
+    @DisplayName("signals further apart than the window never co-occur")
+    void respectsWindow() {
+        List<TemporalCorrelator.Correlation> emitted = new ArrayList<>();
+        for (int k = 0; k < 5; k++) {
+            UUID incident = UUID.randomUUID();
+            long t = k * HOUR;
+            correlator.observe(signal("alert:db-latency", incident, t));
+            emitted.addAll(correlator.observe(signal("alert:api-5xx", incident, t + 2 * MINUTE)));
+        }
+
+        assertThat(emitted).isEmpty();
+    }
+
+    @Test
+    @DisplayName("links only to the most recent in-window occurrence of each other signal")
+    void linksMostRecentOccurrence() {
+        UUID incident = UUID.randomUUID();
+        for (int k = 0; k < 3; k++) {
+            long t = k * HOUR;
+            correlator.observe(signal("alert:db-latency", incident, t));
+            correlator.observe(signal("alert:db-latency", incident, t + 1_000));
+            var emitted = correlator.observe(signal("alert:api-5xx", incident, t + 2_000));
+            if (k == 2) {
+                assertThat(emitted).hasSize(1);
+                assertThat(emitted.getFirst().earlier().timestampMillis()).isEqualTo(t + 1_000);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a burst of other signals does not push an earlier key out of the window")
+    void windowNotTruncatedByEventRate() {
+        var eager = new TemporalCorrelator(MINUTE, 16, 4096, 1, 0.0, 24 * HOUR);
+        UUID incident = UUID.randomUUID();
+        eager.observe(signal("alert:db-latency", incident, 0));
+        for (int i = 0; i < 10_000; i++) {
+            eager.observe(signal("alert:api-5xx", incident, 1 + i * 5L));
+        }
+
+        var emitted = eager.observe(signal("alert:checkout-errors", incident, 55_000));
+
+        assertThat(emitted).extracting(c -> c.earlier().key())
+            .containsExactlyInAnyOrder("alert:db-latency", "alert:api-5xx");
+    }
+
+    @Test
+    @DisplayName("beyond maxWindowKeys the key seen least recently leaves the window first")
+    void boundsDistinctKeys() {
+        var eager = new TemporalCorrelator(MINUTE, 2, 4096, 1, 0.0, 24 * HOUR);
+        UUID incident = UUID.randomUUID();
+        eager.observe(signal("alert:a", incident, 0));
+        eager.observe(signal("alert:b", incident, 1_000));
+        eager.observe(signal("alert:a", incident, 2_000));
+        eager.observe(signal("alert:c", incident, 3_000));
+
+        var emitted = eager.observe(signal("alert:d", incident, 4_000));
+
+        // a's repeat left b as the least recently seen key, so c's arrival pushed b out
+        assertThat(emitted).extracting(c -> c.earlier().key()).containsExactlyInAnyOrder("alert:a", "alert:c");
+    }
+
+    @Test
+    @DisplayName("keys out of the window whose counts decayed away are forgotten and their ids reused")
+    void forgetsDecayedKeys() {
+        var eager = new TemporalCorrelator(MINUTE, 256, 4096, 1, 0.0, HOUR);
+        UUID incident = UUID.randomUUID();
+        for (int k = 0; k < 5; k++) {
+            eager.observe(signal("alert:a", incident, k * MINUTE * 2));
+            eager.observe(signal("alert:b", incident, k * MINUTE * 2 + 1_000));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            eager.observe(signal("host:" + i, UUID.randomUUID(), 20 * MINUTE + i));
+        }
+        assertThat(eager.trackedKeys(TENANT)).isEqualTo(1_002);
+
+        // One-off hosts are forgotten after two decays, a and b once their five occurrences decay too
+        eager.observe(signal("alert:tick", null, 2 * HOUR));
+        eager.observe(signal("alert:tick", null, 3 * HOUR));
+        assertThat(eager.trackedKeys(TENANT)).isEqualTo(3);
+        eager.observe(signal("alert:tick", null, 4 * HOUR));
+        eager.observe(signal("alert:tick", null, 5 * HOUR));
+        assertThat(eager.trackedKeys(TENANT)).isEqualTo(1);
+
+        // The new keys reuse a's and b's ids without inheriting their pair count
+        eager.observe(signal("alert:c", incident, 5 * HOUR + 1_000));
+        var emitted = eager.observe(signal("alert:d", incident, 5 * HOUR + 2_000));
+        assertThat(emitted).hasSize(1);
+        assertThat(emitted.getFirst().earlier().key()).isEqualTo("alert:c");
+        assertThat(emitted.getFirst().coOccurrences()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("beyond maxTrackedKeys the rarest keys outside the window are forgotten, frequent ones keep their counts")
+    void boundsTrackedKeys() {
+        var eager = new TemporalCorrelator(MINUTE, 16, 64, 1, 0.0, 24 * HOUR);
+        UUID incident = UUID.randomUUID();
+        for (int k = 0; k < 5; k++) {
+            eager.observe(signal("alert:a", incident, k * HOUR));
+            eager.observe(signal("alert:b", incident, k * HOUR + 1_000));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            eager.observe(signal("host:" + i, UUID.randomUUID(), 6 * HOUR + i * 1_000L));
+            assertThat(eager.trackedKeys(TENANT)).isLessThanOrEqualTo(64);
+        }
+
+        eager.observe(signal("alert:a", incident, 8 * HOUR));
+        var emitted = eager.observe(signal("alert:b", incident, 8 * HOUR + 1_000));
+
+        assertThat(emitted).hasSize(1);
+        assertThat(emitted.getFirst().coOccurrences()).isEqualTo(6.0);
+    }
+
+    private static TemporalCorrelator.Signal signal(String key, UUID incidentId, long timestamp) {
+        return new TemporalCorrelator.Signal(key, TENANT, incidentId, UUID.randomUUID(),
+            CorrelationNodeType.ALERT, key, timestamp);
+    }
+}
@@ -0,0 +1,192 @@
+package com.magiconcall.application.similarity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 64;
+    private static final long TENANT = 1L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("search finds nearly all of the exact nearest neighbours")
+    void recallAgainstBruteForce() throws Exception {
+        var random = new Random(42);
+        var vectors = new LinkedHashMap<UUID, float[]>();
+        try (var index = HnswIndex.open(dir.resolve("recall.hnsw"), DIMENSIONS, 16, 100)) {
+            // More than the initial file capacity, so the file is grown and remapped on the way
+            for (int i = 0; i < 3000; i++) {
+                var id = UUID.randomUUID();
+                var vector = randomUnitVector(random);
+                vectors.put(id, vector);
+                index.add(id, TENANT, vector);
+            }
+
+            int found = 0;
+            int queries = 100;
+            for (int q = 0; q < queries; q++) {
+                var query = randomUnitVector(random);
+                var exact = vectors.entrySet().stream()
+                    .sorted(Comparator.comparingDouble((Map.Entry<UUID, float[]> e) -> dot(e.getValue(), query)).reversed())
+                    .limit(10)
+                    .map(Map.Entry::getKey)
+                    .toList();
+                var approximate = index.search(query, TENANT, 10, 64).stream().map(HnswIndex.Match::id).toList();
+                found += (int) approximate.stream().filter(exact::contains).count();
+            }
+
+            assertThat(found / (double) (queries * 10)).isGreaterThan(0.9);
+        }
+    }
+
+    @Test
+    @DisplayName("the index is read back from its file after reopening")
+    void persistsAcrossReopen() throws Exception {
+        var path = dir.resolve("persist.hnsw");
+        var random = new Random(7);
+        var vectors = new ArrayList<float[]>();
+        var ids = new ArrayList<UUID>();
+        try (var index = HnswIndex.open(path, DIMENSIONS, 16, 100)) {
+            for (int i = 0; i < 200; i++) {
+                ids.add(UUID.randomUUID());
+                vectors.add(randomUnitVector(random));
+                index.add(ids.get(i), TENANT, vectors.get(i));
+            }
+            index.remove(ids.get(1));
+        }
+
+        try (var reopened = HnswIndex.open(path, DIMENSIONS, 16, 100)) {
+            assertThat(reopened.size()).isEqualTo(199);
+            assertThat(reopened.contains(ids.get(1))).isFalse();
+            var match = reopened.search(vectors.get(0), TENANT, 1, 64).getFirst();
+            assertThat(match.id()).isEqualTo(ids.get(0));
+            assertThat(match.similarity()).isGreaterThan(0.999f);
+            assertThat(reopened.search(vectors.get(1), TENANT, 5, 64))
+                .extracting(HnswIndex.Match::id)
+                .doesNotContain(ids.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("results are limited to the tenant and re-adding an id replaces its vector")
+    void tenantFilterAndReplace() throws Exception {
+        var random = new Random(3);
+        var shared = randomUnitVector(random);
+        var ours = UUID.randomUUID();
+        var theirs = UUID.randomUUID();
+        try (var index = HnswIndex.open(dir.resolve("tenants.hnsw"), DIMENSIONS, 16, 100)) {
+            index.add(ours, TENANT, randomUnitVector(random));
+            index.add(theirs, 2L, shared);
+            assertThat(index.search(shared, TENANT, 1, 64).getFirst().id()).isEqualTo(ours);
+
+            index.add(ours, TENANT, shared);
+
+            assertThat(index.size()).isEqualTo(2);
+            var matches = index.search(shared, TENANT, 5, 64);
+            assertThat(matches).hasSize(1);
+            assertThat(matches.getFirst().similarity()).isGreaterThan(0.999f);
+        }
+    }
+
+    @Test
+    @DisplayName("a small tenant's matches are found behind many closer nodes of another tenant")
+    void smallTenantBehindLargeOne() throws Exception {
+        var random = new Random(11);
+        var query = randomUnitVector(random);
+        var ours = new ArrayList<UUID>();
+        try (var index = HnswIndex.open(dir.resolve("small-tenant.hnsw"), DIMENSIONS, 16, 100)) {
+            // The other tenant crowds the query's neighbourhood, well past ef
+            for (int i = 0; i < 500; i++) {
+                index.add(UUID.randomUUID(), 2L, nudged(query, 0.1, random));
+            }
+            for (int i = 0; i < 5; i++) {
+                var id = UUID.randomUUID();
+                ours.add(id);
+                index.add(id, TENANT, randomUnitVector(random));
+            }
+
+            assertThat(index.search(query, TENANT, 5, 16))
+                .extracting(HnswIndex.Match::id)
+                .containsExactlyInAnyOrderElementsOf(ours);
+        }
+    }
+
+    @Test
+    @DisplayName("compaction drops deleted nodes and keeps every live vector searchable")
+    void compactionDropsDeletedNodes() throws Exception {
+        var path = dir.resolve("compact.hnsw");
+        var random = new Random(5);
+        var ids = new ArrayList<UUID>();
+        var vectors = new ArrayList<float[]>();
+        try (var index = HnswIndex.open(path, DIMENSIONS, 16, 100)) {
+            for (int i = 0; i < 300; i++) {
+                ids.add(UUID.randomUUID());
+                vectors.add(randomUnitVector(random));
+                index.add(ids.get(i), TENANT, vectors.get(i));
+            }
+            for (int i = 0; i < 150; i++) {
+                vectors.set(i, randomUnitVector(random));
+                index.add(ids.get(i), TENANT, vectors.get(i));
+            }
+            assertThat(index.deletedFraction()).isEqualTo(1 / 3.0);
+
+            assertThat(index.compact()).isTrue();
+
+            assertThat(index.deletedFraction()).isZero();
+            assertThat(index.size()).isEqualTo(300);
+            assertThat(index.search(vectors.get(0), TENANT, 1, 64).getFirst().id()).isEqualTo(ids.get(0));
+            assertThat(Files.exists(dir.resolve("compact.hnsw.compact"))).isFalse();
+        }
+
+        try (var reopened = HnswIndex.open(path, DIMENSIONS, 16, 100)) {
+            assertThat(reopened.deletedFraction()).isZero();
+            assertThat(reopened.size()).isEqualTo(300);
+            assertThat(reopened.search(vectors.get(299), TENANT, 1, 64).getFirst().id()).isEqualTo(ids.get(299));
+        }
+    }
+
+    @Test
+    @DisplayName("a file built with other parameters is rejected")
+    void incompatibleFileRejected() throws Exception {
+        var path = dir.resolve("other.hnsw");
+        HnswIndex.open(path, DIMENSIONS, 16, 100).close();
+        Files.writeString(dir.resolve("garbage.hnsw"), "not an index ".repeat(10));
+
+        assertThatThrownBy(() -> HnswIndex.open(path, DIMENSIONS * 2, 16, 100))
+            .isInstanceOf(HnswIndex.IncompatibleIndexException.class);
+        assertThatThrownBy(() -> HnswIndex.open(dir.resolve("garbage.hnsw"), DIMENSIONS, 16, 100))
+            .isInstanceOf(HnswIndex.IncompatibleIndexException.class);
+    }
+
+    private static float[] randomUnitVector(Random random) {
+        var vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) vector[i] = (float) random.nextGaussian();
+        IncidentEmbedder.normalize(vector);
+        return vector;
+    }
+
+    /** {@code base} plus gaussian noise of the given scale, renormalized. */
+    private static float[] nudged(float[] base, double scale, Random random) {
+        var vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) vector[i] = base[i] + (float) (random.nextGaussian() * scale);
+        IncidentEmbedder.normalize(vector);
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
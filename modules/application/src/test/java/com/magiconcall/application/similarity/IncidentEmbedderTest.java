@@ -0,0 +1,54 @@
+package com.magiconcall.application.similarity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class IncidentEmbedderTest {
+
+    private final IncidentEmbedder embedder = new IncidentEmbedder(IncidentEmbedder.DEFAULT_DIMENSIONS);
+
+    @Test
+    @DisplayName("embeddings are unit length and identical for identical text")
+    void deterministicUnitVectors() {
+        var first = embedder.embed("Checkout latency spike", null, List.of("p99 latency 4s on checkout-api"), List.of());
+        var second = new IncidentEmbedder(IncidentEmbedder.DEFAULT_DIMENSIONS)
+            .embed("Checkout latency spike", null, List.of("p99 latency 4s on checkout-api"), List.of());
+
+        assertThat(second).containsExactly(first);
+        assertThat(dot(first, first)).isCloseTo(1.0, within(1e-5));
+    }
+
+    @Test
+    @DisplayName("incidents differing only in numbers and ids embed alike")
+    void volatileTokensNormalized() {
+        var a = embedder.embed("Connection pool exhausted on orders-db", null,
+            List.of("2024-05-01T10:15:02Z pool=orders active=50/50 request 3f2a9c1e-7b6d-4e1f-9a2b-5c8d7e6f1a2b timed out"),
+            List.of());
+        var b = embedder.embed("Connection pool exhausted on orders-db", null,
+            List.of("2024-06-12T22:41:57Z pool=orders active=80/80 request 0b1c2d3e-4f50-4617-8899-aabbccddeeff timed out"),
+            List.of());
+        var unrelated = embedder.embed("TLS certificate expired for api gateway", null,
+            List.of("x509: certificate has expired or is not yet valid"), List.of());
+
+        assertThat(dot(a, b)).isGreaterThan(0.99);
+        assertThat(dot(a, unrelated)).isLessThan(0.2);
+    }
+
+    @Test
+    @DisplayName("text with no words embeds to the zero vector")
+    void emptyText() {
+        assertThat(dot(embedder.embed(null, " ", List.of(), null), embedder.embed("", null, null, null)))
+            .isZero();
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) sum += a[i] * b[i];
+        return sum;
+    }
+}
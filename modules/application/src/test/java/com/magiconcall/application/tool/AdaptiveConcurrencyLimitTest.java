@@ -0,0 +1,62 @@
+package com.magiconcall.application.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AdaptiveConcurrencyLimit limit =
+        new AdaptiveConcurrencyLimit(new AdaptiveConcurrencyLimit.Settings(8, 1, 16, 2.0, 0.5));
+
+    @Test
+    @DisplayName("sheds callers over the limit without waiting")
+    void shedsOverLimit() {
+        for (int i = 0; i < 8; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release();
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("grows while healthy and in use, and backs off multiplicatively on failures and latency spikes")
+    void additiveIncreaseMultiplicativeDecrease() {
+        runBatch(8, 20 * MS, false);
+        int grown = limit.limit();
+        assertThat(grown).isGreaterThan(8);
+
+        // Latency jumps far above the long-term average: the backend is queueing
+        runBatch(1, 200 * MS, false);
+        assertThat(limit.limit()).isEqualTo(grown / 2);
+
+        runBatch(1, 20 * MS, true);
+        runBatch(1, 20 * MS, true);
+        runBatch(1, 20 * MS, true);
+        runBatch(1, 20 * MS, true);
+        assertThat(limit.limit()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("does not grow while the limit is mostly unused")
+    void noGrowthWhenIdle() {
+        for (int i = 0; i < 50; i++) {
+            runBatch(1, 20 * MS, false);
+        }
+        assertThat(limit.limit()).isEqualTo(8);
+    }
+
+    private void runBatch(int calls, long latencyNanos, boolean failed) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        for (int i = 0; i < calls; i++) {
+            limit.onSample(latencyNanos, failed);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.magiconcall.application.tool;
+
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerToolMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private MicrometerToolMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MicrometerToolMetrics(registry, false,
+            List.of(Duration.ofMillis(100), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("meters are registered once per tool and status and reused on later calls")
+    void metersAreCached() {
+        metrics.recordExecution("logs", "SUCCESS", 40, 0);
+        int metersAfterFirstCall = registry.getMeters().size();
+
+        metrics.recordExecution("logs", "SUCCESS", 60, 1);
+        metrics.recordRateLimited("logs");
+
+        assertThat(registry.getMeters()).hasSize(metersAfterFirstCall);
+        var timer = registry.get("moc_tool_execution").tag("tool", "logs").tag("status", "SUCCESS").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(100.0);
+        assertThat(registry.get("moc_tool_executions_total").tag("status", "SUCCESS").counter().count())
+            .isEqualTo(2.0);
+        assertThat(registry.get("moc_tool_retries").tag("tool", "logs").summary().totalAmount()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("execution time and queue wait are separate timers with the configured SLO buckets")
+    void executionAndQueueWaitSeparated() {
+        metrics.recordQueueWait("metrics", TimeUnit.MILLISECONDS.toNanos(500));
+        metrics.recordExecution("metrics", "SUCCESS", 50, 0);
+        metrics.recordExecution("metrics", "SUCCESS", 200, 0);
+
+        var execution = registry.get("moc_tool_execution").tag("tool", "metrics").timer();
+        var queueWait = registry.get("moc_tool_queue_wait").tag("tool", "metrics").timer();
+        assertThat(queueWait.count()).isEqualTo(1);
+        assertThat(queueWait.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(500.0);
+        assertThat(execution.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+
+        assertThat(Arrays.stream(execution.takeSnapshot().histogramCounts()).map(CountAtBucket::count).toList())
+            .containsExactly(1.0, 2.0);
+    }
+
+    @Test
+    @DisplayName("in-flight gauge follows started and finished calls")
+    void inFlightGauge() {
+        metrics.recordCallStarted("deploy");
+        metrics.recordCallStarted("deploy");
+        metrics.recordCallFinished("deploy");
+
+        assertThat(registry.get("moc_tool_in_flight").tag("tool", "deploy").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("SLO spec is parsed into sorted durations")
+    void parsesSlos() {
+        assertThat(MicrometerToolMetrics.parseSlos("1s, 100ms,30s"))
+            .containsExactly(Duration.ofMillis(100), Duration.ofSeconds(1), Duration.ofSeconds(30));
+        assertThat(MicrometerToolMetrics.parseSlos("")).isEmpty();
+    }
+}
@@ -0,0 +1,163 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tool.DistributedRateLimiter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketToolRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("admits a burst of capacity calls, then refills at the configured rate")
+    void burstThenRefill() {
+        var limiter = localLimiter(new ToolRateLimits(new ToolRateLimits.Limit(3, 2), Map.of()));
+
+        assertThat(acquire(limiter, "logs", "t1", 5)).isEqualTo(3);
+
+        clock.addAndGet(SECOND / 2);
+        assertThat(acquire(limiter, "logs", "t1", 5)).isEqualTo(1);
+
+        // Idle long enough to refill completely, but never beyond capacity
+        clock.addAndGet(60 * SECOND);
+        assertThat(acquire(limiter, "logs", "t1", 10)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("keeps one bucket per (tool, tenant) and applies per-tool overrides")
+    void bucketsPerToolAndTenant() {
+        var limiter = localLimiter(ToolRateLimits.parse(new ToolRateLimits.Limit(2, 1), "metrics=5/1"));
+
+        assertThat(acquire(limiter, "logs", "t1", 10)).isEqualTo(2);
+        assertThat(acquire(limiter, "logs", "t2", 10)).isEqualTo(2);
+        assertThat(acquire(limiter, "metrics", "t1", 10)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("the global tier caps calls across replicas and refunds the local token when empty")
+    void globalTierAcrossReplicas() {
+        var shared = new FakeSharedStore(4);
+        var limits = new ToolRateLimits(new ToolRateLimits.Limit(3, 1), Map.of());
+        var replicaA = new TokenBucketToolRateLimiter(limits, Optional.of(shared), clock::get);
+        var replicaB = new TokenBucketToolRateLimiter(limits, Optional.of(shared), clock::get);
+
+        assertThat(acquire(replicaA, "logs", "t1", 3)).isEqualTo(3);
+        assertThat(acquire(replicaB, "logs", "t1", 3)).isEqualTo(1);
+        assertThat(shared.keys.keySet()).containsExactly("logs:t1");
+
+        // Replica B's rejected calls did not drain its local bucket
+        shared.remaining.get("logs:t1").set(10);
+        assertThat(acquire(replicaB, "logs", "t1", 5)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("falls back to the local limit when the global tier is unreachable")
+    void globalTierUnavailable() {
+        var shared = new FakeSharedStore(0);
+        shared.failing = true;
+        var limiter = new TokenBucketToolRateLimiter(
+            new ToolRateLimits(new ToolRateLimits.Limit(2, 1), Map.of()), Optional.of(shared), clock::get);
+
+        assertThat(acquire(limiter, "logs", "t1", 5)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("limits reload from the limits file, keep the current ones when it is invalid, and revert when it is removed")
+    void reloadsFromLimitsFile() throws Exception {
+        var file = dir.resolve("tool-rate-limits.properties");
+        var configured = new ToolRateLimits(new ToolRateLimits.Limit(2, 1), Map.of());
+        var limiter = new TokenBucketToolRateLimiter(configured, file, Optional.empty(), clock::get);
+        assertThat(limiter.limits()).isEqualTo(configured);
+        assertThat(acquire(limiter, "logs", "t1", 10)).isEqualTo(2);
+
+        Files.writeString(file, "default=5/1\noverrides=metrics=1/1\n");
+        limiter.reload();
+
+        assertThat(limiter.limits().limitFor("logs")).isEqualTo(new ToolRateLimits.Limit(5, 1));
+        assertThat(limiter.limits().limitFor("metrics")).isEqualTo(new ToolRateLimits.Limit(1, 1));
+        // The drained bucket keeps its state and is admitted up to the new capacity
+        assertThat(acquire(limiter, "logs", "t1", 10)).isEqualTo(3);
+
+        var reloaded = limiter.limits();
+        Files.writeString(file, "default=lots\n");
+        limiter.reload();
+        assertThat(limiter.limits()).isEqualTo(reloaded);
+
+        Files.delete(file);
+        limiter.reload();
+        assertThat(limiter.limits()).isEqualTo(configured);
+    }
+
+    @Test
+    @DisplayName("concurrent callers never get more than capacity tokens")
+    void concurrentCallersRespectCapacity() throws Exception {
+        var limiter = localLimiter(new ToolRateLimits(new ToolRateLimits.Limit(500, 1), Map.of()));
+        var start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return acquire(limiter, "logs", "t1", 200);
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (var r : results) admitted += r.get();
+            assertThat(admitted).isEqualTo(500);
+        }
+    }
+
+    private TokenBucketToolRateLimiter localLimiter(ToolRateLimits limits) {
+        return new TokenBucketToolRateLimiter(limits, Optional.empty(), clock::get);
+    }
+
+    private static int acquire(ToolRateLimiter limiter, String tool, String tenant, int attempts) {
+        int admitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(tool, tenant)) admitted++;
+        }
+        return admitted;
+    }
+
+    /** In-process stand-in for the Redis bucket: a fixed number of tokens per key, no refill. */
+    private static final class FakeSharedStore implements DistributedRateLimiter {
+
+        final Map<String, AtomicInteger> remaining = new ConcurrentHashMap<>();
+        final Map<String, Long> keys = new ConcurrentHashMap<>();
+        private final int tokens;
+        volatile boolean failing;
+
+        FakeSharedStore(int tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        public boolean tryAcquire(String key, long capacity, double refillPerSecond) {
+            if (failing) throw new IllegalStateException("Unable to connect to Redis");
+            keys.put(key, capacity);
+            return remaining.computeIfAbsent(key, k -> new AtomicInteger(tokens)).getAndDecrement() > 0;
+        }
+    }
+}
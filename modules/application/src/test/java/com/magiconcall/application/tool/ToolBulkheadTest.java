@@ -0,0 +1,83 @@
+package com.magiconcall.application.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ToolBulkheadTest {
+
+    @Mock private ToolMetrics toolMetrics;
+
+    @Test
+    @DisplayName("caps concurrent calls per tool and frees the permit on close")
+    void capsPerTool() throws Exception {
+        var bulkhead = new ToolBulkhead(2, 10, 0, Duration.ZERO, toolMetrics);
+
+        var first = bulkhead.tryEnter("logs", "t1");
+        var second = bulkhead.tryEnter("logs", "t2");
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(bulkhead.tryEnter("logs", "t3")).isNull();
+        // Other tools have their own lane
+        assertThat(bulkhead.tryEnter("metrics", "t3")).isNotNull();
+        assertThat(bulkhead.toolState("logs").activeCalls()).isEqualTo(2);
+
+        first.close();
+        first.close(); // idempotent
+        assertThat(bulkhead.toolState("logs").activeCalls()).isEqualTo(1);
+        assertThat(bulkhead.tryEnter("logs", "t3")).isNotNull();
+        verify(toolMetrics).registerBulkhead(eq("logs"), any());
+    }
+
+    @Test
+    @DisplayName("caps concurrent calls per tenant across tools")
+    void capsPerTenant() throws Exception {
+        var bulkhead = new ToolBulkhead(10, 1, 0, Duration.ZERO, toolMetrics);
+
+        var held = bulkhead.tryEnter("logs", "t1");
+        assertThat(bulkhead.tryEnter("metrics", "t1")).isNull();
+        assertThat(bulkhead.tryEnter("metrics", "t2")).isNotNull();
+
+        held.close();
+        assertThat(bulkhead.tryEnter("metrics", "t1")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("a queued caller gets the permit when one is released within max-wait")
+    void queuedCallerProceeds() throws Exception {
+        var bulkhead = new ToolBulkhead(1, 10, 1, Duration.ofSeconds(5), toolMetrics);
+        var held = bulkhead.tryEnter("logs", "t1");
+
+        var waiting = new CountDownLatch(1);
+        var queued = CompletableFuture.supplyAsync(() -> {
+            waiting.countDown();
+            try {
+                return bulkhead.tryEnter("logs", "t1");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiting.await();
+        while (bulkhead.toolState("logs").queuedCalls() == 0) {
+            Thread.onSpinWait();
+        }
+        // The queue holds one caller; the next is shed immediately
+        assertThat(bulkhead.tryEnter("logs", "t1")).isNull();
+
+        held.close();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+}
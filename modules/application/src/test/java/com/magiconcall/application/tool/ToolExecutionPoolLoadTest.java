@@ -0,0 +1,192 @@
+package com.magiconcall.application.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.content.ContentStore;
+import com.magiconcall.application.graph.LogTemplateService;
+import com.magiconcall.application.graph.TemporalCorrelationService;
+import com.magiconcall.application.triage.EvidenceSummarizer;
+import com.magiconcall.domain.content.ContentBlobRepository;
+import com.magiconcall.domain.content.ContentChunkRepository;
+import com.magiconcall.domain.event.EventPublisher;
+import com.magiconcall.domain.incident.EvidenceRepository;
+import com.magiconcall.domain.incident.IncidentEventRepository;
+import com.magiconcall.domain.tenant.TenantContext;
+import com.magiconcall.domain.tool.*;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test against a simulated connection pool (5 connections, 500ms acquisition timeout, like
+ * Hikari's connection-timeout). 30 concurrent calls to a 200ms tool would need six pool waves if
+ * each call held a connection for the whole tool call; with the three-phase split each call
+ * holds one only for the final persist.
+ */
+@ExtendWith(MockitoExtension.class)
+class ToolExecutionPoolLoadTest {
+
+    private static final int POOL_SIZE = 5;
+    private static final long CONNECTION_TIMEOUT_MS = 500;
+    private static final int CONCURRENT_CALLS = 30;
+    private static final long TOOL_LATENCY_MS = 200;
+
+    @Mock private ToolRateLimiter rateLimiter;
+    @Mock private ToolExecutionLogRepository executionLogRepository;
+    @Mock private EvidenceRepository evidenceRepository;
+    @Mock private IncidentEventRepository incidentEventRepository;
+    @Mock private EventPublisher eventPublisher;
+    @Mock private ToolMetrics toolMetrics;
+    @Mock private TemporalCorrelationService temporalCorrelationService;
+    @Mock private ContentBlobRepository contentBlobRepository;
+    @Mock private ContentChunkRepository contentChunkRepository;
+    @Mock private EvidenceSummarizer evidenceSummarizer;
+    @Mock private LogTemplateService logTemplateService;
+
+    private SimulatedPool pool;
+    private ToolExecutionService service;
+
+    @BeforeEach
+    void setUp() {
+        when(rateLimiter.tryAcquire(any(), any())).thenReturn(true);
+        when(executionLogRepository.save(any(ToolExecutionLog.class))).thenAnswer(invocation -> {
+            ToolExecutionLog log = invocation.getArgument(0);
+            log.setId(UUID.randomUUID());
+            return log;
+        });
+
+        Tool slowTool = new Tool() {
+            @Override public String name() { return "logs"; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                try {
+                    Thread.sleep(TOOL_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ToolResponse.success("ok", Map.of());
+            }
+        };
+
+        pool = new SimulatedPool();
+        service = new ToolExecutionService(
+            new ToolRegistry(List.of(slowTool)), rateLimiter, executionLogRepository, evidenceRepository,
+            incidentEventRepository, eventPublisher, toolMetrics, new ObjectMapper(),
+            temporalCorrelationService, new ToolBulkhead(64, 64, 64, Duration.ofSeconds(5), toolMetrics),
+            pool, new ToolResponseCache("", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics),
+            new ToolResilienceRegistry(circuitBreaker -> RetryConfig.custom().maxAttempts(1).build(),
+                TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build(),
+                CircuitBreakerConfig.ofDefaults(),
+                new AdaptiveConcurrencyLimit.Settings(64, 1, 64, 2.0, 0.9), toolMetrics),
+            new ContentStore(contentBlobRepository, contentChunkRepository, pool, 2000, 65536, 1_048_576),
+            evidenceSummarizer, logTemplateService);
+    }
+
+    @Test
+    @DisplayName("concurrent slow tool calls never exhaust the connection pool")
+    void slowToolsDoNotSaturatePool() throws Exception {
+        var statuses = runConcurrently(() -> service.executeTool(command()).status());
+
+        assertThat(statuses).hasSize(CONCURRENT_CALLS).allMatch("SUCCESS"::equals);
+        assertThat(pool.timeouts.get()).isZero();
+        assertThat(pool.peakInUse.get()).isLessThanOrEqualTo(POOL_SIZE);
+    }
+
+    @Test
+    @DisplayName("holding a connection across the tool call (the old @Transactional shape) times out")
+    void connectionHeldAcrossCallSaturatesPool() throws Exception {
+        var statuses = runConcurrently(() -> {
+            try {
+                return pool.execute(tx -> service.executeTool(command()).status());
+            } catch (IllegalStateException e) {
+                return "POOL_TIMEOUT";
+            }
+        });
+
+        assertThat(statuses).contains("POOL_TIMEOUT");
+        assertThat(pool.timeouts.get()).isPositive();
+    }
+
+    private List<String> runConcurrently(Callable<String> call) throws Exception {
+        var start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_CALLS; i++) {
+                futures.add(executor.submit(() -> {
+                    TenantContext.setTenantId("tenant-load");
+                    try {
+                        start.await();
+                        return call.call();
+                    } finally {
+                        TenantContext.clear();
+                    }
+                }));
+            }
+            start.countDown();
+            List<String> statuses = new ArrayList<>();
+            for (var f : futures) statuses.add(f.get(30, TimeUnit.SECONDS));
+            return statuses;
+        }
+    }
+
+    private static ExecuteToolCommand command() {
+        return new ExecuteToolCommand("logs", null, Map.of(), "load-test");
+    }
+
+    /**
+     * Fixed-size pool with an acquisition timeout. Nested calls on the same thread join the
+     * outer "transaction" (REQUIRED propagation) instead of taking a second connection.
+     */
+    private static final class SimulatedPool implements TransactionOperations {
+
+        private final Semaphore connections = new Semaphore(POOL_SIZE, true);
+        private final ThreadLocal<Boolean> inTransaction = ThreadLocal.withInitial(() -> false);
+        private final AtomicInteger inUse = new AtomicInteger();
+        final AtomicInteger peakInUse = new AtomicInteger();
+        final AtomicInteger timeouts = new AtomicInteger();
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            if (inTransaction.get()) {
+                return action.doInTransaction(null);
+            }
+            try {
+                if (!connections.tryAcquire(CONNECTION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    timeouts.incrementAndGet();
+                    throw new IllegalStateException("Connection is not available, request timed out");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            peakInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+            inTransaction.set(true);
+            try {
+                return action.doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+                inUse.decrementAndGet();
+                connections.release();
+            }
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.magiconcall.application.tool;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.content.ContentStore;
+import com.magiconcall.application.graph.LogTemplateService;
+import com.magiconcall.application.graph.TemporalCorrelationService;
+import com.magiconcall.application.triage.EvidenceSummarizer;
+import com.magiconcall.domain.content.ContentBlob;
+import com.magiconcall.domain.content.ContentBlobRepository;
+import com.magiconcall.domain.content.ContentChunkRepository;
 import com.magiconcall.domain.event.EventPublisher;
 import com.magiconcall.domain.incident.*;
 import com.magiconcall.domain.tenant.TenantContext;
 import com.magiconcall.domain.tool.*;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.retry.RetryConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import org.junit.jupiter.api.AfterEach;
@@ -12,12 +20,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -34,6 +46,11 @@ class ToolExecutionServiceTest {
     @Mock private IncidentEventRepository incidentEventRepository;
     @Mock private EventPublisher eventPublisher;
     @Mock private ToolMetrics toolMetrics;
+    @Mock private TemporalCorrelationService temporalCorrelationService;
+    @Mock private ContentBlobRepository contentBlobRepository;
+    @Mock private ContentChunkRepository contentChunkRepository;
+    @Mock private EvidenceSummarizer evidenceSummarizer;
+    @Mock private LogTemplateService logTemplateService;
 
     private ToolExecutionService service;
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -58,14 +75,45 @@ class ToolExecutionServiceTest {
 
     private ToolExecutionService buildService(Tool tool, RetryConfig retryConfig,
                                                TimeLimiterConfig timeLimiterConfig) {
+        return buildService(tool, retryConfig, timeLimiterConfig,
+            new ToolBulkhead(16, 32, 64, Duration.ofSeconds(2), toolMetrics));
+    }
+
+    private ToolExecutionService buildService(Tool tool, RetryConfig retryConfig,
+                                               TimeLimiterConfig timeLimiterConfig, ToolBulkhead bulkhead) {
+        return buildService(tool, retryConfig, timeLimiterConfig, bulkhead,
+            new ToolResponseCache("", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics));
+    }
+
+    private ToolExecutionService buildService(Tool tool, RetryConfig retryConfig,
+                                               TimeLimiterConfig timeLimiterConfig, ToolBulkhead bulkhead,
+                                               ToolResponseCache responseCache) {
+        return buildService(tool, bulkhead, responseCache,
+            resilience(retryConfig, timeLimiterConfig, CircuitBreakerConfig.ofDefaults()));
+    }
+
+    private ToolExecutionService buildService(Tool tool, ToolBulkhead bulkhead, ToolResponseCache responseCache,
+                                               ToolResilienceRegistry resilience) {
         var registry = new ToolRegistry(List.of(tool));
         return new ToolExecutionService(
             registry, rateLimiter, executionLogRepository, evidenceRepository,
             incidentEventRepository, eventPublisher, toolMetrics, objectMapper,
-            retryConfig, timeLimiterConfig
+            temporalCorrelationService, bulkhead, TransactionOperations.withoutTransaction(),
+            responseCache, resilience, contentStore(), evidenceSummarizer, logTemplateService
         );
     }
 
+    private ContentStore contentStore() {
+        return new ContentStore(contentBlobRepository, contentChunkRepository,
+            TransactionOperations.withoutTransaction(), 2000, 65536, 1_048_576);
+    }
+
+    private ToolResilienceRegistry resilience(RetryConfig retryConfig, TimeLimiterConfig timeLimiterConfig,
+                                              CircuitBreakerConfig circuitBreakerConfig) {
+        return new ToolResilienceRegistry(circuitBreaker -> retryConfig, timeLimiterConfig, circuitBreakerConfig,
+            new AdaptiveConcurrencyLimit.Settings(16, 1, 16, 2.0, 0.9), toolMetrics);
+    }
+
     @Test
     @DisplayName("retries on transient failure then succeeds")
     void retryOnTransientFailure() {
@@ -127,7 +175,7 @@ class ToolExecutionServiceTest {
 
         assertThat(result.status()).isEqualTo("FAILURE");
         assertThat(result.errorMessage()).contains("Permanent error");
-        verify(toolMetrics).recordExecution(eq("broken"), eq("FAILURE"), anyLong());
+        verify(toolMetrics).recordExecution(eq("broken"), eq("FAILURE"), anyLong(), eq(2));
     }
 
     @Test
@@ -159,7 +207,46 @@ class ToolExecutionServiceTest {
 
         assertThat(result.status()).isEqualTo("TIMEOUT");
         assertThat(result.errorMessage()).contains("timed out");
-        verify(toolMetrics).recordExecution(eq("slow"), eq("TIMEOUT"), anyLong());
+        verify(toolMetrics).recordExecution(eq("slow"), eq("TIMEOUT"), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("circuit opens after repeated failures and sheds calls without reaching the tool")
+    void openCircuitShedsCalls() {
+        var calls = new AtomicInteger();
+        Tool failing = new Tool() {
+            @Override public String name() { return "logs"; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                calls.incrementAndGet();
+                throw new RuntimeException("Backend unavailable");
+            }
+        };
+        var circuitBreakerConfig = CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .build();
+        var registry = new ToolRegistry(List.of(failing));
+        service = new ToolExecutionService(
+            registry, rateLimiter, executionLogRepository, evidenceRepository,
+            incidentEventRepository, eventPublisher, toolMetrics, objectMapper,
+            temporalCorrelationService, new ToolBulkhead(16, 32, 64, Duration.ofSeconds(2), toolMetrics),
+            TransactionOperations.withoutTransaction(), new ToolResponseCache("", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics),
+            resilience(RetryConfig.custom().maxAttempts(1).build(),
+                TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build(), circuitBreakerConfig),
+            contentStore(), evidenceSummarizer, logTemplateService);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(service.executeTool(new ExecuteToolCommand("logs", null, Map.of(), "tester")).status())
+                .isEqualTo("FAILURE");
+        }
+        var shed = service.executeTool(new ExecuteToolCommand("logs", null, Map.of(), "tester"));
+
+        assertThat(shed.status()).isEqualTo("REJECTED");
+        assertThat(shed.errorMessage()).contains("Circuit open");
+        assertThat(calls).hasValue(4);
+        verify(toolMetrics).recordShed("logs", "circuit_open");
     }
 
     @Test
@@ -183,6 +270,74 @@ class ToolExecutionServiceTest {
         verify(toolMetrics).recordRateLimited("limited");
     }
 
+    @Test
+    @DisplayName("saturated bulkhead returns REJECTED without calling tool")
+    void saturatedBulkheadRejects() throws Exception {
+        Tool neverCalled = mock(Tool.class);
+        when(neverCalled.name()).thenReturn("logs");
+
+        // One permit, no wait queue: holding the only permit saturates the tool
+        var bulkhead = new ToolBulkhead(1, 32, 0, Duration.ZERO, toolMetrics);
+        service = buildService(neverCalled, RetryConfig.ofDefaults(), TimeLimiterConfig.ofDefaults(), bulkhead);
+
+        try (var held = bulkhead.tryEnter("logs", "tenant-test")) {
+            var result = service.executeTool(new ExecuteToolCommand(
+                "logs", null, Map.of(), "tester"));
+
+            assertThat(result.status()).isEqualTo("REJECTED");
+        }
+        verify(neverCalled, never()).execute(any());
+        verify(toolMetrics).recordBulkheadRejected("logs");
+    }
+
+    @Test
+    @DisplayName("calls queued in the bulkhead still run instead of being shed by the concurrency limit")
+    void queuedCallsRunOnceAdmitted() throws Exception {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        Tool slowTool = new Tool() {
+            @Override public String name() { return "metrics"; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return ToolResponse.success("ok", Map.of());
+            }
+        };
+        // One call at a time: the rest wait in the bulkhead queue, and the limit allows one slot
+        var bulkhead = new ToolBulkhead(1, 32, 8, Duration.ofSeconds(5), toolMetrics);
+        var resilience = new ToolResilienceRegistry(circuitBreaker -> RetryConfig.custom().maxAttempts(1).build(),
+            TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build(),
+            CircuitBreakerConfig.ofDefaults(), new AdaptiveConcurrencyLimit.Settings(1, 1, 1, 2.0, 0.9), toolMetrics);
+        service = buildService(slowTool, bulkhead, new ToolResponseCache("", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics), resilience);
+
+        var executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor();
+        var futures = new java.util.ArrayList<java.util.concurrent.Future<ToolExecutionResult>>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> {
+                TenantContext.setTenantId("tenant-test");
+                try {
+                    return service.executeTool(new ExecuteToolCommand("metrics", null, Map.of(), "tester"));
+                } finally {
+                    TenantContext.clear();
+                }
+            }));
+        }
+        for (var future : futures) {
+            assertThat(future.get(10, java.util.concurrent.TimeUnit.SECONDS).status()).isEqualTo("SUCCESS");
+        }
+        executor.close();
+
+        assertThat(maxRunning).hasValue(1);
+        verify(toolMetrics, never()).recordShed(any(), any());
+        verify(toolMetrics, never()).recordBulkheadRejected(any());
+    }
+
     @Test
     @DisplayName("successful execution with incidentId stores Evidence")
     void successStoresEvidence() {
@@ -213,6 +368,48 @@ class ToolExecutionServiceTest {
         assertThat(result.evidenceId()).isNotNull();
         verify(evidenceRepository).save(any(Evidence.class));
         verify(incidentEventRepository).save(any(IncidentEvent.class));
+        verify(toolMetrics).recordQueueWait(eq("logs"), anyLong());
+        verify(toolMetrics).recordCallStarted("logs");
+        verify(toolMetrics).recordCallFinished("logs");
+        verify(toolMetrics).recordExecution(eq("logs"), eq("SUCCESS"), anyLong(), eq(0));
+    }
+
+    @Test
+    @DisplayName("a large output goes to the content store and evidence keeps a preview and reference")
+    void largeOutputStoredByReference() {
+        String output = "ERROR upstream timeout\n".repeat(500);
+        Tool verboseTool = new Tool() {
+            @Override public String name() { return "logs"; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                return ToolResponse.success(output, Map.of());
+            }
+        };
+        when(contentBlobRepository.markReferenced(any(), any(), any())).thenReturn(false);
+        when(contentBlobRepository.save(any(ContentBlob.class))).thenAnswer(invocation -> {
+            ContentBlob blob = invocation.getArgument(0);
+            blob.setId(UUID.randomUUID());
+            return blob;
+        });
+        when(evidenceRepository.save(any(Evidence.class))).thenAnswer(invocation -> {
+            Evidence e = invocation.getArgument(0);
+            if (e.getId() == null) e.setId(UUID.randomUUID());
+            return e;
+        });
+
+        service = buildService(verboseTool, RetryConfig.custom().maxAttempts(1).build(),
+            TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build());
+        var result = service.executeTool(new ExecuteToolCommand("logs", UUID.randomUUID(), Map.of(), "tester"));
+
+        assertThat(result.content()).isEqualTo(output);
+        var evidence = ArgumentCaptor.forClass(Evidence.class);
+        verify(evidenceRepository).save(evidence.capture());
+        assertThat(evidence.getValue().getContent()).hasSize(2000);
+        assertThat(evidence.getValue().getContentRef()).hasSize(64);
+        assertThat(evidence.getValue().getContentLength()).isEqualTo(output.length());
+        var execLog = ArgumentCaptor.forClass(ToolExecutionLog.class);
+        verify(executionLogRepository).save(execLog.capture());
+        assertThat(execLog.getValue().getResponseRef()).isEqualTo(evidence.getValue().getContentRef());
+        verify(contentChunkRepository).saveAll(any());
     }
 
     @Test
@@ -238,4 +435,173 @@ class ToolExecutionServiceTest {
         assertThat(result.evidenceId()).isNull();
         verify(evidenceRepository, never()).save(any());
     }
+
+    @Test
+    @DisplayName("identical concurrent calls to a cached tool share one execution")
+    void cachedToolSharesInFlightExecution() throws Exception {
+        var calls = new AtomicInteger();
+        var release = new java.util.concurrent.CountDownLatch(1);
+        Tool slowLogs = new Tool() {
+            @Override public String name() { return "logs"; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                calls.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ToolResponse.success("log output", Map.of());
+            }
+        };
+        var responseCache = new ToolResponseCache("logs=30s", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics);
+        service = buildService(slowLogs, RetryConfig.custom().maxAttempts(1).build(),
+            TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build(),
+            new ToolBulkhead(16, 32, 64, Duration.ofSeconds(2), toolMetrics), responseCache);
+
+        var executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor();
+        var futures = new java.util.ArrayList<java.util.concurrent.Future<ToolExecutionResult>>();
+        for (int i = 0; i < 5; i++) {
+            // Same parameters in a different order and with stray whitespace
+            var parameters = i % 2 == 0
+                ? Map.of("service", "api", "window", "15m")
+                : Map.of("window", " 15m", "service", "api ");
+            futures.add(executor.submit(() -> {
+                TenantContext.setTenantId("tenant-test");
+                try {
+                    return service.executeTool(new ExecuteToolCommand("logs", null, parameters, "tester"));
+                } finally {
+                    TenantContext.clear();
+                }
+            }));
+        }
+        while (calls.get() == 0) Thread.sleep(5);
+        Thread.sleep(50);
+        release.countDown();
+
+        var executionIds = new java.util.HashSet<UUID>();
+        for (var future : futures) {
+            var result = future.get(5, java.util.concurrent.TimeUnit.SECONDS);
+            assertThat(result.status()).isEqualTo("SUCCESS");
+            executionIds.add(result.executionId());
+        }
+        executor.close();
+
+        assertThat(calls).hasValue(1);
+        assertThat(executionIds).hasSize(1);
+        verify(executionLogRepository, times(1)).save(any(ToolExecutionLog.class));
+        verify(toolMetrics, times(1)).recordCacheMiss("logs");
+        verify(toolMetrics, times(4)).recordCacheHit("logs");
+    }
+
+    @Test
+    @DisplayName("a cached response is stored as evidence for another incident without calling the tool")
+    void cachedResponseReusedForOtherIncident() {
+        var calls = new AtomicInteger();
+        Tool logs = new Tool() {
+            @Override public String name() { return "logs"; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                calls.incrementAndGet();
+                return ToolResponse.success("log output", Map.of());
+            }
+        };
+        when(evidenceRepository.save(any(Evidence.class))).thenAnswer(invocation -> {
+            Evidence e = invocation.getArgument(0);
+            if (e.getId() == null) e.setId(UUID.randomUUID());
+            return e;
+        });
+        service = buildService(logs, RetryConfig.custom().maxAttempts(1).build(),
+            TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(5)).build(),
+            new ToolBulkhead(16, 32, 64, Duration.ofSeconds(2), toolMetrics),
+            new ToolResponseCache("logs=30s", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics));
+
+        UUID firstIncident = UUID.randomUUID();
+        var first = service.executeTool(new ExecuteToolCommand("logs", firstIncident, Map.of("service", "api"), "a"));
+        var again = service.executeTool(new ExecuteToolCommand("logs", firstIncident, Map.of("service", "api"), "b"));
+        var other = service.executeTool(new ExecuteToolCommand("logs", UUID.randomUUID(), Map.of("service", "api"), "c"));
+
+        assertThat(calls).hasValue(1);
+        assertThat(again.executionId()).isEqualTo(first.executionId());
+        assertThat(other.executionId()).isNotEqualTo(first.executionId());
+        assertThat(other.evidenceId()).isNotNull().isNotEqualTo(first.evidenceId());
+        assertThat(other.status()).isEqualTo("CACHED");
+        verify(evidenceRepository, times(2)).save(any(Evidence.class));
+        verify(rateLimiter, times(1)).tryAcquire("logs", "tenant-test");
+        // Only the real call feeds the execution timer
+        verify(toolMetrics, times(1)).recordExecution(eq("logs"), anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("fan-out runs the tools concurrently and persists every result in one transaction")
+    void fanOutRunsConcurrently() {
+        var transactions = new AtomicInteger();
+        TransactionOperations countingTx = new TransactionOperations() {
+            @Override
+            public <T> T execute(org.springframework.transaction.support.TransactionCallback<T> action) {
+                transactions.incrementAndGet();
+                return action.doInTransaction(null);
+            }
+        };
+        service = buildFanOutService(countingTx,
+            sleepingTool("logs", 300), sleepingTool("metrics", 300), sleepingTool("topology", 300));
+
+        var result = service.executeTools(new ExecuteToolsCommand(UUID.randomUUID(), List.of(
+            new ExecuteToolsCommand.ToolCall("logs", Map.of()),
+            new ExecuteToolsCommand.ToolCall("metrics", Map.of()),
+            new ExecuteToolsCommand.ToolCall("topology", Map.of())
+        ), Duration.ofSeconds(5), "tester"));
+
+        assertThat(result.partial()).isFalse();
+        assertThat(result.results()).extracting(ToolExecutionResult::toolName)
+            .containsExactly("logs", "metrics", "topology");
+        assertThat(result.results()).allMatch(r -> r.status().equals("SUCCESS"));
+        // Sequential would take at least 900ms
+        assertThat(result.durationMs()).isLessThan(800);
+        assertThat(transactions).hasValue(1);
+        verify(executionLogRepository, times(3)).save(any(ToolExecutionLog.class));
+    }
+
+    @Test
+    @DisplayName("fan-out returns partial results when a tool misses the overall deadline")
+    void fanOutDeadlineReturnsPartialResults() {
+        service = buildFanOutService(TransactionOperations.withoutTransaction(),
+            sleepingTool("logs", 10), sleepingTool("metrics", 10_000));
+
+        var result = service.executeTools(new ExecuteToolsCommand(null, List.of(
+            new ExecuteToolsCommand.ToolCall("logs", Map.of()),
+            new ExecuteToolsCommand.ToolCall("metrics", Map.of())
+        ), Duration.ofMillis(300), "tester"));
+
+        assertThat(result.partial()).isTrue();
+        assertThat(result.results()).extracting(ToolExecutionResult::status)
+            .containsExactly("SUCCESS", "TIMEOUT");
+        assertThat(result.durationMs()).isLessThan(2_000);
+    }
+
+    private ToolExecutionService buildFanOutService(TransactionOperations transactionOperations, Tool... tools) {
+        return new ToolExecutionService(
+            new ToolRegistry(List.of(tools)), rateLimiter, executionLogRepository, evidenceRepository,
+            incidentEventRepository, eventPublisher, toolMetrics, objectMapper,
+            temporalCorrelationService, new ToolBulkhead(16, 32, 64, Duration.ofSeconds(2), toolMetrics),
+            transactionOperations, new ToolResponseCache("", DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), toolMetrics),
+            resilience(RetryConfig.custom().maxAttempts(1).build(),
+                TimeLimiterConfig.custom().timeoutDuration(Duration.ofSeconds(30)).build(),
+                CircuitBreakerConfig.ofDefaults()),
+            contentStore(), evidenceSummarizer, logTemplateService
+        );
+    }
+
+    private static Tool sleepingTool(String name, long sleepMs) {
+        return new Tool() {
+            @Override public String name() { return name; }
+            @Override public ToolResponse execute(ToolRequest request) {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return ToolResponse.failure("interrupted");
+                }
+                return ToolResponse.success(name + " output", Map.of());
+            }
+        };
+    }
 }
@@ -0,0 +1,116 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tenant.TenantContext;
+import com.magiconcall.domain.tool.ToolExecutionRollup;
+import com.magiconcall.domain.tool.ToolExecutionRollup.Granularity;
+import com.magiconcall.domain.tool.ToolExecutionRollupRepository;
+import com.magiconcall.domain.tool.ToolExecutionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ToolReliabilityServiceTest {
+
+    private static final String TENANT = "tenant-test";
+    private static final Instant START = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Mock private ToolExecutionRollupRepository rollupRepository;
+
+    private ToolReliabilityService service;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setTenantId(TENANT);
+        service = new ToolReliabilityService(rollupRepository, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    @DisplayName("report aligns the range to buckets and merges them into a total")
+    void reportMergesBuckets() {
+        var first = minute(START, ToolExecutionStatus.SUCCESS, 100);
+        first.record(ToolExecutionStatus.FAILURE, 300, 2);
+        var second = minute(START.plusSeconds(60), ToolExecutionStatus.SUCCESS, 200);
+        when(rollupRepository.find(TENANT, "logs", Granularity.MINUTE, START, START.plusSeconds(300)))
+            .thenReturn(List.of(first, second));
+
+        var report = service.report("logs", Granularity.MINUTE, START.plusSeconds(20), START.plusSeconds(330));
+
+        assertThat(report.from()).isEqualTo(START);
+        assertThat(report.to()).isEqualTo(START.plusSeconds(300));
+        assertThat(report.points()).hasSize(2);
+        assertThat(report.points().getFirst().successRate()).isEqualTo(0.5);
+        assertThat(report.points().getFirst().avgRetries()).isEqualTo(1.0);
+
+        var total = report.total();
+        assertThat(total.executions()).isEqualTo(3);
+        assertThat(total.failed()).isEqualTo(1);
+        assertThat(total.p50Ms()).isCloseTo(200.0, within(2.0));
+        assertThat(total.maxMs()).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("percentiles are null when nothing reached the backend")
+    void percentilesNullWithoutLatency() {
+        var shed = minute(START, ToolExecutionStatus.REJECTED, 0);
+        when(rollupRepository.find(TENANT, "deploy", Granularity.MINUTE, START, START.plusSeconds(60)))
+            .thenReturn(List.of(shed));
+
+        var report = service.report("deploy", Granularity.MINUTE, START, START.plusSeconds(60));
+
+        assertThat(report.total().rejected()).isEqualTo(1);
+        assertThat(report.total().p99Ms()).isNull();
+    }
+
+    @Test
+    @DisplayName("reused responses are left out of counts and percentiles")
+    void cachedReusesNotCounted() {
+        var bucket = minute(START, ToolExecutionStatus.SUCCESS, 400);
+        bucket.record(ToolExecutionStatus.CACHED, 0, 0);
+        bucket.record(ToolExecutionStatus.CACHED, 0, 0);
+        when(rollupRepository.find(TENANT, "logs", Granularity.MINUTE, START, START.plusSeconds(60)))
+            .thenReturn(List.of(bucket));
+
+        var total = service.report("logs", Granularity.MINUTE, START, START.plusSeconds(60)).total();
+
+        assertThat(total.executions()).isEqualTo(1);
+        assertThat(total.successRate()).isEqualTo(1.0);
+        assertThat(total.p50Ms()).isCloseTo(400.0, within(8.0));
+    }
+
+    @Test
+    @DisplayName("empty and oversized ranges are rejected")
+    void rejectsInvalidRanges() {
+        assertThatThrownBy(() -> service.report("logs", Granularity.HOUR, START, START.plusSeconds(60)))
+            .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> service.report("logs", Granularity.MINUTE, START, START.plus(Duration.ofHours(2))))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("coarser granularity");
+        verify(rollupRepository, never()).find(any(), any(), any(), any(), any());
+    }
+
+    private static ToolExecutionRollup minute(Instant bucket, ToolExecutionStatus status, long durationMs) {
+        var rollup = new ToolExecutionRollup(TENANT, "logs", Granularity.MINUTE, bucket);
+        rollup.record(status, durationMs, 0);
+        return rollup;
+    }
+}
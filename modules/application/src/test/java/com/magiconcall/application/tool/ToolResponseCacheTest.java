@@ -0,0 +1,118 @@
+package com.magiconcall.application.tool;
+
+import com.magiconcall.domain.tool.ToolResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class ToolResponseCacheTest {
+
+    @Mock private ToolMetrics toolMetrics;
+
+    private final AtomicLong ticker = new AtomicLong();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-03-01T10:00:10Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("keys ignore parameter order, whitespace and blank values; uncached tools get no key")
+    void canonicalKeys() {
+        var cache = cache(clock);
+
+        var a = cache.keyFor("logs", "t1", Map.of("service", "api", "window", "15m", "filter", " "));
+        var b = cache.keyFor("logs", "t1", Map.of("window", "15m ", " service", "api"));
+
+        assertThat(a).isEqualTo(b);
+        assertThat(cache.keyFor("logs", "t2", Map.of("service", "api", "window", "15m"))).isNotEqualTo(a);
+        assertThat(cache.keyFor("deploy", "t1", Map.of("service", "api"))).isNull();
+    }
+
+    @Test
+    @DisplayName("entries are served until the TTL elapses or the time bucket rolls over")
+    void ttlAndTimeBucket() {
+        var cache = cache(clock);
+        var executions = new AtomicInteger();
+        var key = cache.keyFor("logs", "t1", Map.of("service", "api"));
+
+        assertThat(cache.get(key, () -> success(executions)).shared()).isFalse();
+        assertThat(cache.get(key, () -> success(executions)).shared()).isTrue();
+
+        ticker.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(cache.get(key, () -> success(executions)).shared()).isFalse();
+        assertThat(executions).hasValue(2);
+
+        var nextBucket = cache(Clock.offset(clock, Duration.ofSeconds(20)))
+            .keyFor("logs", "t1", Map.of("service", "api"));
+        assertThat(nextBucket.timeBucket()).isEqualTo(key.timeBucket() + 1);
+    }
+
+    @Test
+    @DisplayName("failed executions are not retained")
+    void failuresNotCached() {
+        var cache = cache(clock);
+        var key = cache.keyFor("logs", "t1", Map.of("service", "api"));
+        var failure = new ToolResponseCache.Entry(new ToolExecutionResult(UUID.randomUUID(), "logs", "TIMEOUT",
+            null, "Tool execution timed out", 30_000, 0, null, Instant.now()), null, ToolResponse.failure("timed out"));
+
+        assertThat(cache.get(key, () -> failure).shared()).isFalse();
+        assertThat(cache.get(key, () -> failure).shared()).isFalse();
+    }
+
+    @Test
+    @DisplayName("responses above the per-entry cap are shared in flight but not retained")
+    void oversizedResponsesNotCached() {
+        var cache = cache(clock, 1 << 20, 4096);
+        var executions = new AtomicInteger();
+        var key = cache.keyFor("logs", "t1", Map.of("service", "api"));
+
+        assertThat(cache.get(key, () -> success(executions, "x".repeat(4096))).shared()).isFalse();
+        assertThat(cache.get(key, () -> success(executions, "x".repeat(4096))).shared()).isFalse();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("entries are weighed by content, so large responses evict within the byte budget")
+    void weighedByContent() {
+        var entry = success(new AtomicInteger(), "x".repeat(1000));
+        assertThat(entry.weight()).isGreaterThan(2000).isLessThan(4000);
+
+        var cache = cache(clock, 3 * entry.weight(), 1 << 20);
+        for (int i = 0; i < 10; i++) {
+            var key = cache.keyFor("logs", "t1", Map.of("service", "api-" + i));
+            cache.get(key, () -> success(new AtomicInteger(), "x".repeat(1000)));
+        }
+
+        assertThat(cache.weightedSize()).isLessThanOrEqualTo(3L * entry.weight());
+    }
+
+    private ToolResponseCache cache(Clock clock) {
+        return cache(clock, 1 << 20, 1 << 16);
+    }
+
+    private ToolResponseCache cache(Clock clock, long maxBytes, long maxEntryBytes) {
+        return new ToolResponseCache(Map.of("logs", Duration.ofSeconds(30)), maxBytes, maxEntryBytes,
+            toolMetrics, clock, ticker::get);
+    }
+
+    private static ToolResponseCache.Entry success(AtomicInteger executions) {
+        return success(executions, "log output");
+    }
+
+    private static ToolResponseCache.Entry success(AtomicInteger executions, String content) {
+        executions.incrementAndGet();
+        return new ToolResponseCache.Entry(new ToolExecutionResult(UUID.randomUUID(), "logs", "SUCCESS",
+            content, null, 12, 0, null, Instant.now()), null, ToolResponse.success(content, Map.of()));
+    }
+}
@@ -0,0 +1,71 @@
+package com.magiconcall.application.triage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BpeTokenizerTest {
+
+    private final BpeTokenizer bundled = new BpeTokenizer(new ClassPathResource("tokenizer/moc-4k.tiktoken"));
+
+    @Test
+    @DisplayName("merges lowest-rank pairs first")
+    void mergesByRank() {
+        // "bc" outranks "ab", so "abc" becomes [a, bc] even though "ab" comes first
+        var tokenizer = new BpeTokenizer(vocabulary("bc", "ab"));
+
+        assertThat(tokenizer.encode("abc")).containsExactly('a', 256);
+        assertThat(tokenizer.encode("abab")).containsExactly(257, 257);
+        // Pieces are merged separately: "abc" -> [a, bc], " abab" -> [" ", ab, ab]
+        assertThat(tokenizer.count("abc abab")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("encoding round-trips any text, including multi-byte characters")
+    void roundTrip() {
+        var text = "Connection timeout after 30s to payments-db:5432 — pool exhausted (50/50) 🚨\nretrying…";
+
+        var ids = bundled.encode(text);
+
+        assertThat(bundled.decode(ids)).isEqualTo(text);
+        assertThat(bundled.count(text)).isEqualTo(ids.length);
+        assertThat(ids.length).isLessThan(text.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    @DisplayName("empty and null text count as zero tokens")
+    void emptyText() {
+        assertThat(bundled.count("")).isZero();
+        assertThat(bundled.count(null)).isZero();
+    }
+
+    @Test
+    @DisplayName("vocabulary without every single byte is rejected")
+    void rejectsIncompleteVocabulary() {
+        var resource = new ByteArrayResource("YQ== 0\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertThatThrownBy(() -> new BpeTokenizer(resource))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("no token for byte");
+    }
+
+    /** All 256 bytes at their own rank, then {@code merges} in rank order from 256. */
+    private static ByteArrayResource vocabulary(String... merges) {
+        var lines = new StringBuilder();
+        for (int b = 0; b < 256; b++) {
+            lines.append(Base64.getEncoder().encodeToString(new byte[] {(byte) b})).append(' ').append(b).append('\n');
+        }
+        for (int i = 0; i < merges.length; i++) {
+            lines.append(Base64.getEncoder().encodeToString(merges[i].getBytes(StandardCharsets.UTF_8)))
+                .append(' ').append(256 + i).append('\n');
+        }
+        return new ByteArrayResource(lines.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
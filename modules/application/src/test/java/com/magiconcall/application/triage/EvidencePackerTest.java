@@ -0,0 +1,83 @@
+package com.magiconcall.application.triage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EvidencePackerTest {
+
+    private final BpeTokenizer tokenizer = new BpeTokenizer(new ClassPathResource("tokenizer/moc-4k.tiktoken"));
+    private final EvidencePacker packer = new EvidencePacker(tokenizer);
+
+    @Test
+    @DisplayName("evidence that fits is passed through unchanged")
+    void fitsUnchanged() {
+        var items = List.of(item("LOG", "Error log", "NullPointerException in service"));
+        var summary = summary(items);
+
+        var packed = packer.pack(summary, 1000);
+
+        assertThat(packed.formattedSummary()).isEqualTo(summary.formattedSummary());
+        assertThat(packed.items()).isEqualTo(items);
+        assertThat(packed.omitted()).isZero();
+    }
+
+    @Test
+    @DisplayName("packed evidence stays within the budget and keeps the newest items")
+    void keepsNewestWithinBudget() {
+        var items = new ArrayList<EvidenceSummary.EvidenceItem>();
+        for (int i = 0; i < 30; i++) {
+            items.add(item("LOG", "Log " + i, "worker %d stalled on queue %d after %d retries".formatted(i, i * 7, i % 5)));
+        }
+
+        var packed = packer.pack(summary(items), 200);
+
+        assertThat(packed.tokens()).isLessThanOrEqualTo(200);
+        assertThat(tokenizer.count(packed.formattedSummary())).isEqualTo(packed.tokens());
+        assertThat(packed.omitted()).isPositive();
+        assertThat(packed.items()).startsWith(items.getFirst());
+        assertThat(packed.items()).doesNotContain(items.getLast());
+        assertThat(packed.formattedSummary()).contains("%d lower-priority evidence items omitted".formatted(packed.omitted()));
+    }
+
+    @Test
+    @DisplayName("repeated evidence gives way to novel evidence")
+    void prefersNovelEvidence() {
+        var repeated = "connection refused by payments-db on port 5432";
+        var items = new ArrayList<EvidenceSummary.EvidenceItem>();
+        for (int i = 0; i < 6; i++) {
+            items.add(item("LOG", "Payments error", repeated));
+        }
+        var metric = item("METRIC", "Disk usage", "payments-db volume at 100% since 09:12");
+        items.add(metric);
+
+        var packed = packer.pack(summary(items), 90);
+
+        assertThat(packed.items()).containsOnlyOnce(items.getFirst());
+        assertThat(packed.items()).contains(metric);
+    }
+
+    @Test
+    @DisplayName("alerts win over runbooks of the same age")
+    void weighsByType() {
+        var runbook = item("RUNBOOK", "Restart procedure", "drain the node, restart the service, verify health checks pass");
+        var alert = item("ALERT", "Error budget burn", "checkout error rate 12% over the last 5 minutes, paging on-call");
+
+        var packed = packer.pack(summary(List.of(runbook, alert)), 55);
+
+        assertThat(packed.items()).containsExactly(alert);
+    }
+
+    private EvidenceSummary summary(List<EvidenceSummary.EvidenceItem> items) {
+        return new EvidenceSummary(items, EvidenceSummarizer.formatForLlm(items), "hash");
+    }
+
+    private static EvidenceSummary.EvidenceItem item(String type, String title, String content) {
+        return new EvidenceSummary.EvidenceItem(type, title, content);
+    }
+}
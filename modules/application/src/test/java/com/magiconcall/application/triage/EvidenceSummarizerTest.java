@@ -1,20 +1,25 @@
 package com.magiconcall.application.triage;
 
+import com.magiconcall.application.similarity.SimilarIncident;
+import com.magiconcall.application.similarity.SimilarIncidentIndex;
 import com.magiconcall.domain.incident.Evidence;
 import com.magiconcall.domain.incident.EvidenceRepository;
 import com.magiconcall.domain.incident.EvidenceType;
+import com.magiconcall.domain.incident.Incident;
+import com.magiconcall.domain.incident.IncidentRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class EvidenceSummarizerTest {
@@ -22,18 +27,28 @@ class EvidenceSummarizerTest {
     @Mock
     private EvidenceRepository evidenceRepository;
 
-    @InjectMocks
+    @Mock
+    private IncidentRepository incidentRepository;
+
+    @Mock
+    private SimilarIncidentIndex similarIncidentIndex;
+
     private EvidenceSummarizer summarizer;
 
     private static final UUID INCIDENT_ID = UUID.randomUUID();
 
+    @BeforeEach
+    void setUp() {
+        summarizer = newSummarizer();
+    }
+
     @Test
     @DisplayName("empty evidence produces empty summary")
     void emptyEvidence() {
         when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
             .thenReturn(List.of());
 
-        var summary = summarizer.summarize(INCIDENT_ID);
+        var summary = summarizer.summarize(incident(0));
 
         assertThat(summary.isEmpty()).isTrue();
         assertThat(summary.formattedSummary()).isEqualTo("No evidence collected yet.");
@@ -50,7 +65,7 @@ class EvidenceSummarizerTest {
         when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
             .thenReturn(List.of(log1, metric1, log2));
 
-        var summary = summarizer.summarize(INCIDENT_ID);
+        var summary = summarizer.summarize(incident(0));
 
         assertThat(summary.items()).hasSize(3);
         assertThat(summary.formattedSummary()).contains("## LOG");
@@ -67,11 +82,11 @@ class EvidenceSummarizerTest {
         when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
             .thenReturn(List.of(evidence));
 
-        var summary1 = summarizer.summarize(INCIDENT_ID);
-        var summary2 = summarizer.summarize(INCIDENT_ID);
+        var summary1 = summarizer.summarize(incident(0));
+        var summary2 = newSummarizer().summarize(incident(0));
 
         assertThat(summary1.evidenceHash()).isEqualTo(summary2.evidenceHash());
-        assertThat(summary1.evidenceHash()).hasSize(64); // SHA-256 hex
+        assertThat(summary1.evidenceHash()).hasSize(64); // 256-bit digest in hex
     }
 
     @Test
@@ -83,12 +98,123 @@ class EvidenceSummarizerTest {
         when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
             .thenReturn(List.of(evidence));
 
-        var summary = summarizer.summarize(INCIDENT_ID);
+        var summary = summarizer.summarize(incident(0));
 
         assertThat(summary.items().getFirst().content()).contains("... [truncated]");
         assertThat(summary.items().getFirst().content().length()).isLessThan(longContent.length());
     }
 
+    @Test
+    @DisplayName("hash does not depend on the order evidence is read in")
+    void hashIsOrderIndependent() {
+        var log = createEvidence(EvidenceType.LOG, "Error log", "NullPointerException in service");
+        var metric = createEvidence(EvidenceType.METRIC, "CPU spike", "CPU at 95% for 10 min");
+
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
+            .thenReturn(List.of(log, metric), List.of(metric, log));
+
+        var forward = summarizer.summarize(incident(0));
+        var reversed = newSummarizer().summarize(incident(0));
+
+        assertThat(forward.evidenceHash()).isEqualTo(reversed.evidenceHash());
+    }
+
+    @Test
+    @DisplayName("added evidence is folded in without rereading and matches a full rebuild")
+    void incrementalAddMatchesRebuild() {
+        var first = createEvidence(EvidenceType.LOG, "Error log", "NullPointerException in service");
+        var second = createEvidence(EvidenceType.METRIC, "CPU spike", "CPU at 95% for 10 min");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
+            .thenReturn(List.of(first), List.of(second, first));
+        when(incidentRepository.incrementEvidenceVersion(INCIDENT_ID)).thenReturn(1L);
+
+        var before = summarizer.summarize(incident(0));
+        summarizer.onEvidenceAdded(second);
+        var incremental = summarizer.summarize(incident(1));
+        var rebuilt = newSummarizer().summarize(incident(1));
+
+        assertThat(incremental.evidenceHash()).isNotEqualTo(before.evidenceHash());
+        assertThat(incremental.evidenceHash()).isEqualTo(rebuilt.evidenceHash());
+        assertThat(incremental.items()).isEqualTo(rebuilt.items());
+        assertThat(incremental.formattedSummary()).isEqualTo(rebuilt.formattedSummary());
+        // One read for the initial summary, one for the independent rebuild
+        verify(evidenceRepository, times(2)).findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID);
+    }
+
+    @Test
+    @DisplayName("rendered summary is reused until the evidence version changes")
+    void renderedSummaryReusedUntilVersionChanges() {
+        var evidence = createEvidence(EvidenceType.LOG, "Error", "Some content");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
+            .thenReturn(List.of(evidence));
+
+        var first = summarizer.summarize(incident(0));
+        var second = summarizer.summarize(incident(0));
+        // Evidence added through another instance: only the version tells this one
+        var afterRemoteAdd = summarizer.summarize(incident(1));
+
+        assertThat(second).isSameAs(first);
+        assertThat(afterRemoteAdd).isNotSameAs(first);
+        verify(evidenceRepository, times(2)).findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID);
+    }
+
+    @Test
+    @DisplayName("near-duplicate items of one type collapse into the newest with a count")
+    void nearDuplicatesCollapsed() {
+        var newest = createEvidence(EvidenceType.TOOL_OUTPUT, "Tool output: logs",
+            "2024-05-01T10:17:45Z ERROR checkout-api request 0b1c2d3e-4f50-4617-8899-aabbccddeeff failed: upstream timeout");
+        var older = createEvidence(EvidenceType.TOOL_OUTPUT, "Tool output: logs",
+            "2024-05-01T10:15:02Z ERROR checkout-api request 3f2a9c1e-7b6d-4e1f-9a2b-5c8d7e6f1a2b failed: upstream timeout");
+        var sameTextOtherType = createEvidence(EvidenceType.LOG, "Tool output: logs",
+            "2024-05-01T10:16:00Z ERROR checkout-api request 9a8b7c6d-5e4f-4a3b-8c2d-1e0f9a8b7c6d failed: upstream timeout");
+        var unrelated = createEvidence(EvidenceType.TOOL_OUTPUT, "Tool output: logs",
+            "2024-05-01T10:16:30Z WARN payments-db connection pool exhausted, 50 of 50 connections in use");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
+            .thenReturn(List.of(newest, unrelated, sameTextOtherType, older), List.of(newest, unrelated, sameTextOtherType));
+
+        var summary = summarizer.summarize(incident(0));
+        var withoutRepeat = newSummarizer().summarize(incident(0));
+
+        assertThat(summary.items()).extracting(EvidenceSummary.EvidenceItem::occurrences).containsExactly(2, 1, 1);
+        assertThat(summary.items().getFirst().content()).isEqualTo(newest.getContent());
+        assertThat(summary.formattedSummary()).contains("**Tool output: logs** (seen 2 times): 2024-05-01T10:17:45Z");
+        // Every copy still counts towards the hash
+        assertThat(summary.evidenceHash()).isNotEqualTo(withoutRepeat.evidenceHash());
+    }
+
+    @Test
+    @DisplayName("similar past incidents are appended to the summary but not to its hash")
+    void similarIncidentsAppended() {
+        var evidence = createEvidence(EvidenceType.LOG, "Error", "Connection pool exhausted");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID))
+            .thenReturn(List.of(evidence));
+        var past = new SimilarIncident(UUID.randomUUID(), "DB pool exhaustion on checkout", "SEV2", "RESOLVED",
+            0.82, List.of("Connection leak in payment client"));
+        when(similarIncidentIndex.findSimilar(any(), any())).thenReturn(List.of(), List.of(past));
+
+        var without = summarizer.summarize(incident(0));
+        var with = summarizer.summarize(incident(0));
+
+        assertThat(with.similarIncidents()).containsExactly(past);
+        assertThat(with.formattedSummary())
+            .startsWith(without.formattedSummary())
+            .contains("## SIMILAR PAST INCIDENTS")
+            .contains("**DB pool exhaustion on checkout** (SEV2, RESOLVED, similarity 0.82)")
+            .contains("confirmed root cause: Connection leak in payment client");
+        assertThat(with.evidenceHash()).isEqualTo(without.evidenceHash());
+    }
+
+    private EvidenceSummarizer newSummarizer() {
+        return new EvidenceSummarizer(evidenceRepository, incidentRepository, similarIncidentIndex, 100, Duration.ofHours(1));
+    }
+
+    private Incident incident(long evidenceVersion) {
+        var incident = mock(Incident.class);
+        when(incident.getId()).thenReturn(INCIDENT_ID);
+        when(incident.getEvidenceVersion()).thenReturn(evidenceVersion);
+        return incident;
+    }
+
     private Evidence createEvidence(EvidenceType type, String title, String content) {
         return new Evidence(INCIDENT_ID, null, type, title, content, null, "{}");
     }
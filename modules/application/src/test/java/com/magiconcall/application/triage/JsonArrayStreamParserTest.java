@@ -0,0 +1,68 @@
+package com.magiconcall.application.triage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonArrayStreamParserTest {
+
+    private final List<String> objects = new ArrayList<>();
+    private final JsonArrayStreamParser parser = new JsonArrayStreamParser(objects::add);
+
+    @Test
+    @DisplayName("each object is emitted as soon as it closes")
+    void emitsObjectsAsTheyClose() {
+        parser.feed("[{\"title\":\"A\",\"conf");
+        assertThat(objects).isEmpty();
+
+        parser.feed("idence\":0.5}");
+        assertThat(objects).containsExactly("{\"title\":\"A\",\"confidence\":0.5}");
+
+        parser.feed(", {\"title\":\"B\"}]");
+        assertThat(objects).containsExactly("{\"title\":\"A\",\"confidence\":0.5}", "{\"title\":\"B\"}");
+    }
+
+    @Test
+    @DisplayName("braces, brackets and escaped quotes inside strings do not end an object")
+    void respectsStrings() {
+        var json = "[{\"title\":\"map {a} and [b]\",\"description\":\"said \\\"}\\\" then left\",\"nested\":{\"x\":[1,{}]}}]";
+
+        // One character at a time: fragment boundaries fall everywhere, including inside escapes
+        for (char c : json.toCharArray()) {
+            parser.feed(String.valueOf(c));
+        }
+
+        assertThat(objects).containsExactly(json.substring(1, json.length() - 1));
+    }
+
+    @Test
+    @DisplayName("text around the array and non-object elements are ignored")
+    void ignoresSurroundingText() {
+        parser.feed("Here are the hypotheses:\n```json\n[{\"title\":\"A\"}, \"note ] not the end\", 42, {\"title\":\"B\"}]\n```\n{\"title\":\"after\"}");
+
+        assertThat(objects).containsExactly("{\"title\":\"A\"}", "{\"title\":\"B\"}");
+    }
+
+    @Test
+    @DisplayName("brackets in the prose before the array do not start it")
+    void skipsBracketsInProse() {
+        parser.feed("Going by the deploy log [1] and the alerts [db, api], see [");
+        parser.feed("below]: [");
+        parser.feed(" \n  ");
+        parser.feed("{\"title\":\"A\"}]");
+
+        assertThat(objects).containsExactly("{\"title\":\"A\"}");
+    }
+
+    @Test
+    @DisplayName("only the bracket closing the array ends it, not one closing a nested array")
+    void nestedArraysDoNotEndTheArray() {
+        parser.feed("[{\"title\":\"A\",\"tags\":[\"db\"]}, [1, [2], {\"title\":\"nested\"}], {\"title\":\"B\"}] {\"title\":\"after\"}");
+
+        assertThat(objects).containsExactly("{\"title\":\"A\",\"tags\":[\"db\"]}", "{\"title\":\"B\"}");
+    }
+}
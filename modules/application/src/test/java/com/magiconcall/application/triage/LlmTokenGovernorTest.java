@@ -0,0 +1,100 @@
+package com.magiconcall.application.triage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LlmTokenGovernorTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+    private final TriageMetrics triageMetrics = mock(TriageMetrics.class);
+
+    @Test
+    @DisplayName("admits a minute's worth of tokens at once, then tells callers how long until the refill covers them")
+    void pendingUntilRefill() {
+        // 600 tokens per minute: 10 per second
+        var governor = governor(600, Map.of(), 0, Duration.ofMinutes(1));
+
+        assertThat(pendingNanos(governor, "t1", 600)).isZero();
+        assertThat(pendingNanos(governor, "t1", 60)).isEqualTo(6 * SECOND);
+        // Nothing was charged for the pending call, so a smaller one is not queued behind it
+        assertThat(pendingNanos(governor, "t1", 10)).isEqualTo(SECOND);
+        verify(triageMetrics).recordLlmTokenWait(Duration.ofSeconds(6));
+
+        clock.addAndGet(6 * SECOND);
+        assertThat(pendingNanos(governor, "t1", 60)).isZero();
+    }
+
+    @Test
+    @DisplayName("turns away callers whose capacity is further off than max-wait, without charging them")
+    void rejectsBeyondMaxWait() {
+        var governor = governor(600, Map.of(), 0, Duration.ofSeconds(10));
+        governor.tryAcquire("t1", 600);
+
+        assertThatThrownBy(() -> governor.tryAcquire("t1", 600))
+            .isInstanceOf(LlmRateLimitExceededException.class)
+            .hasMessageContaining("tenant t1");
+        verify(triageMetrics).recordLlmTokenRateRejected("tenant");
+
+        clock.addAndGet(6 * SECOND);
+        assertThat(pendingNanos(governor, "t1", 60)).isZero();
+    }
+
+    @Test
+    @DisplayName("tenants have their own buckets and overrides, but share the global one")
+    void tenantAndGlobalBuckets() {
+        var governor = governor(600, Map.of("big", 6000L), 1200, Duration.ofMinutes(5));
+
+        assertThat(pendingNanos(governor, "t1", 600)).isZero();
+        assertThat(pendingNanos(governor, "t2", 600)).isZero();
+        // t3's own bucket is full, but the global one is empty: 20 tokens per second
+        assertThat(pendingNanos(governor, "t3", 200)).isEqualTo(10 * SECOND);
+        // The override raises the tenant limit, not the global one
+        assertThat(pendingNanos(governor, "big", 2000)).isEqualTo(100 * SECOND);
+    }
+
+    @Test
+    @DisplayName("settling charges the difference from the estimate; closing unsettled refunds it")
+    void settleAndRefund() {
+        var governor = governor(600, Map.of(), 0, Duration.ofMinutes(5));
+
+        try (var grant = governor.tryAcquire("t1", 300)) {
+            grant.settle(500);
+        }
+        verify(triageMetrics).recordLlmTokenReconciliation(200);
+        assertThat(pendingNanos(governor, "t1", 200)).isEqualTo(10 * SECOND);
+
+        // Back to a full bucket, then a charge for a call that is never made
+        clock.addAndGet(70 * SECOND);
+        try (var unused = governor.tryAcquire("t1", 600)) {
+            // Call never made
+        }
+        assertThat(pendingNanos(governor, "t1", 600)).isZero();
+    }
+
+    /** Zero if the charge was taken (the grant is left open), otherwise how long until it could be. */
+    private static long pendingNanos(LlmTokenGovernor governor, String tenantId, int tokens) {
+        try {
+            governor.tryAcquire(tenantId, tokens);
+            return 0;
+        } catch (LlmCapacityPendingException e) {
+            return e.getRetryAfter().toNanos();
+        }
+    }
+
+    private LlmTokenGovernor governor(long tenantTokensPerMinute, Map<String, Long> overrides,
+                                      long globalTokensPerMinute, Duration maxWait) {
+        return new LlmTokenGovernor(tenantTokensPerMinute, overrides, globalTokensPerMinute, maxWait,
+            triageMetrics, clock::get);
+    }
+}
@@ -6,6 +6,8 @@ import com.magiconcall.domain.llm.LlmRequest;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -49,4 +51,18 @@ class MockLlmClientTest {
         assertThat(response.completionTokens()).isGreaterThan(0);
         assertThat(response.totalTokens()).isEqualTo(response.promptTokens() + response.completionTokens());
     }
+
+    @Test
+    @DisplayName("streaming delivers the completion in fragments")
+    void streamsFragments() {
+        var streaming = new MockLlmClient(Duration.ofMillis(1));
+        var request = new LlmRequest("system", "user input", 1000, null);
+        var fragments = new ArrayList<String>();
+
+        var response = streaming.stream(request, fragments::add);
+
+        assertThat(fragments).hasSizeGreaterThan(1);
+        assertThat(String.join("", fragments)).isEqualTo(response.content());
+        assertThat(response.content()).isEqualTo(client.complete(request).content());
+    }
 }
@@ -0,0 +1,120 @@
+package com.magiconcall.application.triage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.incident.HypothesisResult;
+import com.magiconcall.domain.llm.DistributedTriageCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TriageCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock private TriageMetrics triageMetrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    @DisplayName("entries are scoped to the tenant that produced them")
+    void scopedByTenant() {
+        var cache = localOnly(100);
+        cache.put("tenant-a", result("hash-1"));
+
+        assertThat(cache.get("tenant-a", "hash-1")).isPresent();
+        assertThat(cache.get("tenant-b", "hash-1")).isEmpty();
+
+        verify(triageMetrics).recordCacheHit(TriageCache.LOCAL);
+        verify(triageMetrics).recordCacheMiss();
+    }
+
+    @Test
+    @DisplayName("entries expire after the TTL and the local tier stays within its size bound")
+    void boundedByTtlAndSize() {
+        var cache = localOnly(2);
+        cache.put("tenant-a", result("hash-1"));
+
+        nanos.addAndGet(TTL.plusSeconds(1).toNanos());
+        assertThat(cache.get("tenant-a", "hash-1")).isEmpty();
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("tenant-a", result("hash-" + i));
+        }
+        assertThat(cache.localSize()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("a result cached by one replica is served to another from the shared tier")
+    void sharedAcrossReplicas() {
+        var redis = new InMemoryDistributedCache();
+        var first = new TriageCache(100, TTL, Optional.of(redis), triageMetrics, objectMapper, nanos::get);
+        var second = new TriageCache(100, TTL, Optional.of(redis), triageMetrics, objectMapper, nanos::get);
+        var original = result("hash-1");
+
+        first.put("tenant-a", original);
+        var fromShared = second.get("tenant-a", "hash-1");
+        var fromLocal = second.get("tenant-a", "hash-1");
+
+        assertThat(fromShared).contains(original);
+        assertThat(fromLocal).contains(original);
+        assertThat(redis.entries).containsKey("tenant-a:hash-1");
+        verify(triageMetrics).recordCacheHit(TriageCache.SHARED);
+        verify(triageMetrics).recordCacheHit(TriageCache.LOCAL);
+    }
+
+    @Test
+    @DisplayName("a failing shared tier degrades to a miss")
+    void sharedFailureIsAMiss() {
+        var redis = mock(DistributedTriageCache.class);
+        when(redis.get(any(), any())).thenThrow(new IllegalStateException("connection refused"));
+        var cache = new TriageCache(100, TTL, Optional.of(redis), triageMetrics, objectMapper, nanos::get);
+
+        assertThat(cache.get("tenant-a", "hash-1")).isEmpty();
+        verify(triageMetrics).recordCacheMiss();
+    }
+
+    private TriageCache localOnly(long maxEntries) {
+        return new TriageCache(maxEntries, TTL, Optional.empty(), triageMetrics, objectMapper, nanos::get);
+    }
+
+    private static TriageResult result(String evidenceHash) {
+        var incidentId = UUID.randomUUID();
+        var hypothesis = new HypothesisResult(UUID.randomUUID(), incidentId, "DB issue", "Pool exhausted",
+            "PROPOSED", 0.8, "AI", "Timeouts", "No deploys", "Check pool", "Pool stable",
+            Instant.parse("2025-01-01T10:00:00Z"));
+        return new TriageResult(incidentId, List.of(hypothesis), evidenceHash, 150, false,
+            Instant.parse("2025-01-01T10:00:01Z"));
+    }
+
+    private static final class InMemoryDistributedCache implements DistributedTriageCache {
+
+        final Map<String, String> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public Optional<String> get(String tenantId, String evidenceHash) {
+            return Optional.ofNullable(entries.get(tenantId + ":" + evidenceHash));
+        }
+
+        @Override
+        public void put(String tenantId, String evidenceHash, String payload, Duration ttl) {
+            entries.put(tenantId + ":" + evidenceHash, payload);
+        }
+    }
+}
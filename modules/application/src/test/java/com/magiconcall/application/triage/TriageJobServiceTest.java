@@ -0,0 +1,270 @@
+package com.magiconcall.application.triage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.incident.HypothesisResult;
+import com.magiconcall.domain.incident.Incident;
+import com.magiconcall.domain.incident.IncidentRepository;
+import com.magiconcall.domain.incident.IncidentSeverity;
+import com.magiconcall.domain.incident.TriageJob;
+import com.magiconcall.domain.incident.TriageJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TriageJobServiceTest {
+
+    @Mock private IncidentRepository incidentRepository;
+    @Mock private TriageJobRepository jobRepository;
+    @Mock private TriageService triageService;
+    @Mock private TriageMetrics triageMetrics;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private TriageJobService jobService;
+
+    private static final String TENANT = "tenant-test";
+
+    @BeforeEach
+    void setUp() {
+        // No worker threads: the tests run queued jobs themselves, in the order the queue hands them out
+        jobService = newJobService(10);
+        jobService.start();
+        lenient().when(jobRepository.save(any())).thenAnswer(inv -> {
+            TriageJob job = inv.getArgument(0);
+            job.setId(UUID.randomUUID());
+            return job;
+        });
+        lenient().when(jobRepository.claim(any(), any())).thenReturn(true);
+        lenient().when(jobRepository.succeed(any(), any(), any())).thenReturn(true);
+        lenient().when(jobRepository.fail(any(), any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.stop();
+    }
+
+    @Test
+    @DisplayName("queued jobs run most severe first, in submission order within a severity")
+    void severityOrder() throws Exception {
+        var sev3 = incident(IncidentSeverity.SEV3);
+        var firstSev1 = incident(IncidentSeverity.SEV1);
+        var sev2 = incident(IncidentSeverity.SEV2);
+        var secondSev1 = incident(IncidentSeverity.SEV1);
+        var ran = new ArrayList<UUID>();
+        when(triageService.triage(any())).thenAnswer(inv -> {
+            UUID incidentId = inv.getArgument(0);
+            ran.add(incidentId);
+            return result(incidentId);
+        });
+
+        for (var incidentId : List.of(sev3, firstSev1, sev2, secondSev1)) {
+            assertThat(jobService.submit(incidentId).status()).isEqualTo("QUEUED");
+        }
+        while (jobService.runNext(0)) { }
+
+        assertThat(ran).containsExactly(firstSev1, secondSev1, sev2, sev3);
+        verify(triageMetrics, times(2)).recordJobWait(eq("SEV1"), any(Duration.class));
+        verify(jobRepository, times(4)).succeed(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("a failed triage run is recorded on the job")
+    void failureRecorded() throws Exception {
+        var incidentId = incident(IncidentSeverity.SEV2);
+        when(triageService.triage(incidentId)).thenThrow(new TokenBudgetExceededException(9000, 4096));
+
+        var job = jobService.submit(incidentId);
+        jobService.runNext(0);
+
+        verify(jobRepository).fail(eq(job.jobId()), argThatContains("9000"), any(Instant.class));
+        verify(jobRepository, never()).succeed(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("a job abandoned before a worker reached it is not run")
+    void abandonedJobSkipped() throws Exception {
+        var incidentId = incident(IncidentSeverity.SEV1);
+        when(jobRepository.claim(any(), any())).thenReturn(false);
+
+        jobService.submit(incidentId);
+        jobService.runNext(0);
+
+        verify(triageService, never()).triage(any());
+        verify(jobRepository, never()).succeed(any(), any(), any());
+        verify(jobRepository, never()).fail(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("a streaming job runs from the queue and publishes its hypotheses to watchers")
+    void streamingJobPublishesHypotheses() throws Exception {
+        var incidentId = incident(IncidentSeverity.SEV1);
+        var hypothesis = new StreamedHypothesis(new HypothesisResult(null, incidentId, "Pool exhausted",
+            "Connections leak", "PROPOSED", 0.8, "AI", null, null, null, null, null), true);
+        var watched = new ArrayList<StreamedHypothesis>();
+        var job = jobService.submit(incidentId, true);
+        var row = new TriageJob(incidentId, IncidentSeverity.SEV1);
+        row.setId(job.jobId());
+        row.setTenantId(TENANT);
+        when(jobRepository.findById(job.jobId())).thenReturn(Optional.of(row));
+        when(triageService.triageStreaming(eq(incidentId), any())).thenAnswer(inv -> {
+            Consumer<StreamedHypothesis> onHypothesis = inv.getArgument(1);
+            onHypothesis.accept(hypothesis);
+            // A watcher attached while the job runs gets what has been published so far
+            jobService.watch(job.jobId(), state -> false, watched::add, Duration.ZERO);
+            return result(incidentId);
+        });
+
+        jobService.runNext(0);
+
+        assertThat(watched).containsExactly(hypothesis);
+        verify(triageService, never()).triage(any());
+        verify(jobRepository).succeed(eq(job.jobId()), anyString(), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("watching leaves nothing registered once it returns, and nothing at all for unknown jobs")
+    void watchCleansUp() {
+        var incidentId = incident(IncidentSeverity.SEV2);
+        var job = jobService.submit(incidentId);
+        var row = new TriageJob(incidentId, IncidentSeverity.SEV2);
+        row.setId(job.jobId());
+        row.setTenantId(TENANT);
+        when(jobRepository.findById(job.jobId())).thenReturn(Optional.of(row));
+
+        var last = jobService.watch(job.jobId(), state -> true, Duration.ofMillis(50));
+        assertThatThrownBy(() -> jobService.watch(UUID.randomUUID(), state -> true, Duration.ofMillis(50)))
+            .isInstanceOf(TriageJobService.JobNotFoundException.class);
+
+        assertThat(last.status()).isEqualTo("QUEUED");
+        assertThat(jobService.watchedJobs()).isZero();
+    }
+
+    @Test
+    @DisplayName("a worker keeps running jobs after one could not be claimed")
+    void workerSurvivesFailedClaim() {
+        jobService.stop();
+        jobService = newJobService(10, 1);
+        jobService.start();
+        var incidentId = incident(IncidentSeverity.SEV1);
+        when(jobRepository.claim(any(), any()))
+            .thenThrow(new IllegalStateException("connection refused"))
+            .thenReturn(true);
+        when(triageService.triage(incidentId)).thenReturn(result(incidentId));
+
+        var failed = jobService.submit(incidentId);
+        var next = jobService.submit(incidentId);
+
+        verify(jobRepository, timeout(5000)).succeed(eq(next.jobId()), anyString(), any(Instant.class));
+        verify(jobRepository, never()).succeed(eq(failed.jobId()), any(), any());
+        verify(triageService, times(1)).triage(incidentId);
+    }
+
+    @Test
+    @DisplayName("the heartbeat covers jobs waiting in the queue and jobs running")
+    void heartbeatCoversHeldJobs() throws Exception {
+        var waiting = jobService.submit(incident(IncidentSeverity.SEV4));
+        var runningIncident = incident(IncidentSeverity.SEV1);
+        var running = jobService.submit(runningIncident);
+        when(triageService.triage(runningIncident)).thenAnswer(inv -> {
+            jobService.heartbeat();
+            return result(runningIncident);
+        });
+
+        jobService.runNext(0);
+        jobService.runNext(0);
+        jobService.heartbeat();
+
+        verify(jobRepository).heartbeat(argThat(ids -> ids.size() == 2
+            && ids.containsAll(List.of(waiting.jobId(), running.jobId()))), any(Instant.class));
+        // Once both have finished there is nothing left to report
+        verify(jobRepository, times(1)).heartbeat(any(), any());
+    }
+
+    @Test
+    @DisplayName("a job short of LLM token capacity is put aside, and the worker runs other jobs until it is due")
+    void shortOfTokensPutAside() throws Exception {
+        var pending = incident(IncidentSeverity.SEV1);
+        var other = incident(IncidentSeverity.SEV3);
+        when(jobRepository.release(any(), any())).thenReturn(true);
+        when(triageService.triage(pending))
+            .thenThrow(new LlmCapacityPendingException(TENANT, Duration.ofMillis(200)))
+            .thenReturn(result(pending));
+        when(triageService.triage(other)).thenReturn(result(other));
+
+        var job = jobService.submit(pending);
+        var otherJob = jobService.submit(other);
+        jobService.runNext(0);
+        jobService.runNext(0);
+
+        verify(jobRepository).release(eq(job.jobId()), any(Instant.class));
+        verify(jobRepository).succeed(eq(otherJob.jobId()), anyString(), any(Instant.class));
+        assertThat(jobService.runNext(0)).isFalse();
+
+        Thread.sleep(250);
+        assertThat(jobService.runNext(0)).isTrue();
+        verify(jobRepository).succeed(eq(job.jobId()), anyString(), any(Instant.class));
+        verify(jobRepository, never()).fail(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("submissions beyond the queue capacity are rejected")
+    void fullQueueRejects() {
+        jobService.stop();
+        jobService = newJobService(1);
+        jobService.start();
+        var incidentId = incident(IncidentSeverity.SEV1);
+
+        jobService.submit(incidentId);
+
+        assertThatThrownBy(() -> jobService.submit(incidentId))
+            .isInstanceOf(TriageJobService.QueueFullException.class);
+        verify(jobRepository, times(1)).save(any());
+    }
+
+    private TriageJobService newJobService(int queueCapacity) {
+        return newJobService(queueCapacity, 0);
+    }
+
+    private TriageJobService newJobService(int queueCapacity, int workers) {
+        return new TriageJobService(incidentRepository, jobRepository, triageService, triageMetrics,
+            objectMapper, workers, queueCapacity, Duration.ofMillis(10));
+    }
+
+    private UUID incident(IncidentSeverity severity) {
+        var incidentId = UUID.randomUUID();
+        var incident = mock(Incident.class);
+        when(incident.getSeverity()).thenReturn(severity);
+        when(incident.getTenantId()).thenReturn(TENANT);
+        when(incidentRepository.findById(incidentId)).thenReturn(Optional.of(incident));
+        return incidentId;
+    }
+
+    private static TriageResult result(UUID incidentId) {
+        return new TriageResult(incidentId, List.of(), "hash", 100, false, Instant.now());
+    }
+
+    private static String argThatContains(String text) {
+        return argThat(message -> message != null && message.contains(text));
+    }
+}
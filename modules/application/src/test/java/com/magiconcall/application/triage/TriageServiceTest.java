@@ -1,7 +1,9 @@
 package com.magiconcall.application.triage;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magiconcall.application.incident.HypothesisResult;
 import com.magiconcall.application.incident.IncidentService;
+import com.magiconcall.application.similarity.SimilarIncidentIndex;
 import com.magiconcall.domain.incident.*;
 import com.magiconcall.domain.event.EventPublisher;
 import com.magiconcall.domain.llm.LlmClient;
@@ -14,16 +16,31 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import com.magiconcall.domain.tenant.TenantContext;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,9 +54,14 @@ class TriageServiceTest {
     @Mock private EventPublisher eventPublisher;
     @Mock private LlmClient llmClient;
     @Mock private TriageMetrics triageMetrics;
+    @Mock private TriageLock triageLock;
+    @Mock private SimilarIncidentIndex similarIncidentIndex;
 
     private IncidentService incidentService;
     private EvidenceSummarizer evidenceSummarizer;
+    private final BpeTokenizer tokenizer = new BpeTokenizer(new ClassPathResource("tokenizer/moc-4k.tiktoken"));
+    private final EvidencePacker evidencePacker = new EvidencePacker(tokenizer);
+    private TriageCache triageCache;
     private TriageService triageService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -50,14 +72,18 @@ class TriageServiceTest {
     void setUp() {
         TenantContext.setTenantId(TENANT);
 
+        evidenceSummarizer = new EvidenceSummarizer(evidenceRepository, incidentRepository, similarIncidentIndex, 100, Duration.ofHours(1));
         incidentService = new IncidentService(
             incidentRepository, incidentEventRepository, hypothesisRepository,
-            evidenceRepository, auditLogRepository, eventPublisher, objectMapper
+            evidenceRepository, auditLogRepository, eventPublisher, objectMapper, evidenceSummarizer,
+            similarIncidentIndex
         );
-        evidenceSummarizer = new EvidenceSummarizer(evidenceRepository);
+        triageCache = new TriageCache(100, Duration.ofHours(1), Optional.empty(), triageMetrics, objectMapper);
         triageService = new TriageService(
             incidentRepository, incidentEventRepository, incidentService,
-            evidenceSummarizer, llmClient, triageMetrics, objectMapper, 4096
+            evidenceSummarizer, evidencePacker, tokenizer, llmClient, tokenGovernor(), triageMetrics, triageCache,
+            hypothesisRepository, triageLock,
+            TransactionOperations.withoutTransaction(), objectMapper, 4096
         );
     }
 
@@ -108,12 +134,61 @@ class TriageServiceTest {
         assertThat(result.tokensUsed()).isEqualTo(150);
 
         verify(hypothesisRepository).save(any(Hypothesis.class));
+        verify(hypothesisRepository).save(argThat(h -> result.evidenceHash().equals(h.getEvidenceHash())));
+        verify(triageLock).acquire(INCIDENT_ID, result.evidenceHash());
         // 2 timeline events: 1 from addHypothesis + 1 from triageCompleted
         verify(incidentEventRepository, times(2)).save(any(IncidentEvent.class));
         verify(triageMetrics).recordTriageRun(false);
         verify(triageMetrics).recordTokensUsed(150);
     }
 
+    @Test
+    @DisplayName("the model is called outside any transaction; its hypotheses are persisted in one afterwards")
+    void modelCalledOutsideTransaction() {
+        var inTransaction = new AtomicBoolean();
+        triageService = new TriageService(
+            incidentRepository, incidentEventRepository, incidentService,
+            evidenceSummarizer, evidencePacker, tokenizer, llmClient, tokenGovernor(), triageMetrics, triageCache,
+            hypothesisRepository, triageLock,
+            new TransactionOperations() {
+                @Override
+                public <T> T execute(TransactionCallback<T> action) {
+                    inTransaction.set(true);
+                    try {
+                        return action.doInTransaction(null);
+                    } finally {
+                        inTransaction.set(false);
+                    }
+                }
+            }, objectMapper, 4096
+        );
+        var incident = createIncident();
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+        var evidence = new Evidence(INCIDENT_ID, null, EvidenceType.LOG, "Error", "NPE stacktrace", null, "{}");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID)).thenReturn(List.of(evidence));
+        var calledInTransaction = new AtomicBoolean(true);
+        when(llmClient.complete(any(LlmRequest.class))).thenAnswer(inv -> {
+            calledInTransaction.set(inTransaction.get());
+            return new LlmResponse("""
+                [{"title":"DB issue","description":"Pool exhausted","confidence":0.8}]
+                """, 100, 50, "mock", "stop");
+        });
+        var savedInTransaction = new AtomicBoolean();
+        when(hypothesisRepository.save(any(Hypothesis.class))).thenAnswer(inv -> {
+            savedInTransaction.set(inTransaction.get());
+            Hypothesis h = inv.getArgument(0);
+            if (h.getId() == null) h.setId(UUID.randomUUID());
+            return h;
+        });
+        when(incidentEventRepository.save(any(IncidentEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(auditLogRepository.save(any(AuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        triageService.triage(INCIDENT_ID);
+
+        assertThat(calledInTransaction.get()).isFalse();
+        assertThat(savedInTransaction.get()).isTrue();
+    }
+
     @Test
     @DisplayName("cache hit returns cached result without LLM call")
     void cacheHit() {
@@ -160,7 +235,9 @@ class TriageServiceTest {
         // Create service with tiny budget
         triageService = new TriageService(
             incidentRepository, incidentEventRepository, incidentService,
-            evidenceSummarizer, llmClient, triageMetrics, objectMapper, 10
+            evidenceSummarizer, evidencePacker, tokenizer, llmClient, tokenGovernor(), triageMetrics, triageCache,
+            hypothesisRepository, triageLock,
+            TransactionOperations.withoutTransaction(), objectMapper, 10
         );
 
         var incident = createIncident();
@@ -179,6 +256,171 @@ class TriageServiceTest {
         verify(triageMetrics).recordBudgetExceeded();
     }
 
+    @Test
+    @DisplayName("evidence over the budget is packed into it instead of failing triage")
+    void oversizedEvidenceIsPacked() {
+        int budget = 800;
+        triageService = new TriageService(
+            incidentRepository, incidentEventRepository, incidentService,
+            evidenceSummarizer, evidencePacker, tokenizer, llmClient, tokenGovernor(), triageMetrics, triageCache,
+            hypothesisRepository, triageLock,
+            TransactionOperations.withoutTransaction(), objectMapper, budget
+        );
+
+        var incident = createIncident();
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+        var evidence = new ArrayList<Evidence>();
+        var random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            // Distinct words per item, so none are collapsed as near-duplicates of another
+            evidence.add(new Evidence(INCIDENT_ID, null, EvidenceType.LOG, "Log " + i,
+                ("request %d failed with upstream timeout on shard %d; ".formatted(i, i)).repeat(2)
+                    + randomWords(random, 20), null, "{}"));
+        }
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID)).thenReturn(evidence);
+        when(llmClient.complete(any(LlmRequest.class))).thenReturn(new LlmResponse("[]", 700, 5, "mock", "stop"));
+        when(incidentEventRepository.save(any(IncidentEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var result = triageService.triage(INCIDENT_ID);
+
+        assertThat(result.cached()).isFalse();
+        verify(llmClient).complete(argThat(request ->
+            tokenizer.count(request.systemPrompt()) + tokenizer.count(request.userPrompt()) <= budget
+                && request.userPrompt().contains("Log 0")
+                && request.userPrompt().contains("omitted to fit the token budget")));
+        verify(triageMetrics).recordEvidenceOmitted(anyInt());
+        verify(triageMetrics, never()).recordBudgetExceeded();
+    }
+
+    @Test
+    @DisplayName("streaming triage delivers each hypothesis before the completion ends")
+    void streamingDeliversHypothesesIncrementally() {
+        var incident = createIncident();
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+        var evidence = new Evidence(INCIDENT_ID, null, EvidenceType.LOG, "Error", "NPE stacktrace", null, "{}");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID)).thenReturn(List.of(evidence));
+        when(hypothesisRepository.save(any(Hypothesis.class))).thenAnswer(inv -> {
+            Hypothesis h = inv.getArgument(0);
+            if (h.getId() == null) h.setId(UUID.randomUUID());
+            return h;
+        });
+        when(incidentEventRepository.save(any(IncidentEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(auditLogRepository.save(any(AuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var delivered = new ArrayList<String>();
+        var provisional = new ArrayList<Boolean>();
+        var deliveredBeforeEnd = new ArrayList<Integer>();
+        when(llmClient.stream(any(LlmRequest.class), any())).thenAnswer(inv -> {
+            Consumer<String> onContent = inv.getArgument(1);
+            onContent.accept("[{\"title\":\"DB issue\",\"confidence\":0.8},");
+            onContent.accept(" {\"title\":\"Upstream");
+            deliveredBeforeEnd.add(delivered.size());
+            onContent.accept(" slow\",\"confidence\":0.5}]");
+            return new LlmResponse("(streamed)", 100, 50, "mock", "stop");
+        });
+
+        var result = triageService.triageStreaming(INCIDENT_ID, h -> {
+            delivered.add(h.hypothesis().title());
+            provisional.add(h.provisional());
+        });
+
+        assertThat(deliveredBeforeEnd).containsExactly(1);
+        assertThat(delivered).containsExactly("DB issue", "Upstream slow");
+        // Delivered before the run committed
+        assertThat(provisional).containsExactly(true, true);
+        assertThat(result.hypotheses()).extracting(HypothesisResult::title).containsExactly("DB issue", "Upstream slow");
+        verify(llmClient, never()).complete(any());
+    }
+
+    @Test
+    @DisplayName("concurrent triage of the same evidence shares one LLM call")
+    void concurrentTriageIsSingleFlight() throws Exception {
+        var incident = createIncident();
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+        var evidence = new Evidence(INCIDENT_ID, null, EvidenceType.LOG, "Error", "NPE", null, "{}");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID)).thenReturn(List.of(evidence));
+        when(hypothesisRepository.save(any(Hypothesis.class))).thenAnswer(inv -> {
+            Hypothesis h = inv.getArgument(0);
+            if (h.getId() == null) h.setId(UUID.randomUUID());
+            return h;
+        });
+        when(incidentEventRepository.save(any(IncidentEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(auditLogRepository.save(any(AuditLog.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var follower = new CompletableFuture<TriageResult>();
+        var followerThread = new Thread(() -> {
+            TenantContext.setTenantId(TENANT);
+            try {
+                follower.complete(triageService.triage(INCIDENT_ID));
+            } catch (RuntimeException e) {
+                follower.completeExceptionally(e);
+            }
+        });
+        when(llmClient.complete(any(LlmRequest.class))).thenAnswer(inv -> {
+            // Hold the leader's LLM call until the second request is parked on the in-flight run
+            followerThread.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (followerThread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return new LlmResponse("""
+                [{"title":"Shared","description":"d","confidence":0.6,
+                  "evidenceFor":"ef","evidenceAgainst":"ea","nextBestTest":"nbt","stopCondition":"sc"}]
+                """, 40, 20, "mock", "stop");
+        });
+
+        var leader = triageService.triage(INCIDENT_ID);
+        var joined = follower.get(5, TimeUnit.SECONDS);
+
+        assertThat(leader.cached()).isFalse();
+        assertThat(joined.cached()).isTrue();
+        assertThat(joined.tokensUsed()).isZero();
+        assertThat(joined.hypotheses()).isEqualTo(leader.hypotheses());
+        verify(llmClient, times(1)).complete(any());
+        verify(hypothesisRepository, times(1)).save(any(Hypothesis.class));
+    }
+
+    @Test
+    @DisplayName("evidence already triaged on another replica reuses the persisted hypotheses")
+    void reusesHypothesesPersistedElsewhere() {
+        var incident = createIncident();
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+        var evidence = new Evidence(INCIDENT_ID, null, EvidenceType.LOG, "Error", "NPE", null, "{}");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID)).thenReturn(List.of(evidence));
+        var existing = new Hypothesis(INCIDENT_ID, "DB issue", "Pool exhausted", 0.8, "AI");
+        existing.setId(UUID.randomUUID());
+        when(hypothesisRepository.findByIncidentIdAndEvidenceHash(eq(INCIDENT_ID), anyString()))
+            .thenReturn(List.of(existing));
+
+        var result = triageService.triage(INCIDENT_ID);
+
+        assertThat(result.cached()).isTrue();
+        assertThat(result.hypotheses()).extracting("title").containsExactly("DB issue");
+        verify(triageLock).acquire(INCIDENT_ID, result.evidenceHash());
+        verify(llmClient, never()).complete(any());
+        verify(hypothesisRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("streaming a result that is already committed delivers it as final, not provisional")
+    void streamingReusedResultIsNotProvisional() {
+        var incident = createIncident();
+        when(incidentRepository.findById(INCIDENT_ID)).thenReturn(Optional.of(incident));
+        var evidence = new Evidence(INCIDENT_ID, null, EvidenceType.LOG, "Error", "NPE", null, "{}");
+        when(evidenceRepository.findByIncidentIdOrderByCreatedAtDesc(INCIDENT_ID)).thenReturn(List.of(evidence));
+        var existing = new Hypothesis(INCIDENT_ID, "DB issue", "Pool exhausted", 0.8, "AI");
+        existing.setId(UUID.randomUUID());
+        when(hypothesisRepository.findByIncidentIdAndEvidenceHash(eq(INCIDENT_ID), anyString()))
+            .thenReturn(List.of(existing));
+
+        var delivered = new ArrayList<StreamedHypothesis>();
+        triageService.triageStreaming(INCIDENT_ID, delivered::add);
+
+        assertThat(delivered).hasSize(1);
+        assertThat(delivered.getFirst().provisional()).isFalse();
+        verify(llmClient, never()).stream(any(), any());
+    }
+
     @Test
     @DisplayName("incident not found throws IncidentNotFoundException")
     void incidentNotFound() {
@@ -191,7 +433,21 @@ class TriageServiceTest {
     private Incident createIncident() {
         var incident = new Incident("ext-1", "Test Incident", "summary",
             IncidentSeverity.SEV2, null, "{}");
+        incident.setId(INCIDENT_ID);
         incident.setTenantId(TENANT);
         return incident;
     }
+
+    private LlmTokenGovernor tokenGovernor() {
+        return new LlmTokenGovernor(0, Map.of(), 0, Duration.ofSeconds(1), triageMetrics, System::nanoTime);
+    }
+
+    private static String randomWords(Random random, int count) {
+        var words = new StringBuilder();
+        for (int w = 0; w < count; w++) {
+            for (int c = 0; c < 6; c++) words.append((char) ('a' + random.nextInt(26)));
+            words.append(' ');
+        }
+        return words.toString().trim();
+    }
 }
@@ -0,0 +1,60 @@
+package com.magiconcall.domain.content;
+
+import com.magiconcall.domain.common.BaseEntity;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A large piece of content (typically a tool output) stored once per tenant, keyed by the
+ * SHA-256 of its UTF-8 bytes and split into independently compressed {@link ContentChunk}s.
+ * Blobs are immutable: identical content resolves to the existing blob instead of a new one,
+ * which moves its {@code lastReferencedAt} forward. A blob not referenced within the raw
+ * tool-history retention, and no longer referenced by any row, is garbage-collected.
+ */
+@Entity
+@Table(name = "content_blobs")
+public class ContentBlob extends BaseEntity {
+
+    @Column(nullable = false, updatable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, updatable = false)
+    private String codec;
+
+    @Column(nullable = false, updatable = false)
+    private long totalChars;
+
+    @Column(nullable = false, updatable = false)
+    private long totalBytes;
+
+    @Column(nullable = false, updatable = false)
+    private long storedBytes;
+
+    @Column(nullable = false, updatable = false)
+    private int chunkCount;
+
+    @Column(nullable = false)
+    private Instant lastReferencedAt;
+
+    protected ContentBlob() {}
+
+    public ContentBlob(String contentHash, String codec, long totalChars, long totalBytes,
+                       long storedBytes, int chunkCount) {
+        this.contentHash = contentHash;
+        this.codec = codec;
+        this.totalChars = totalChars;
+        this.totalBytes = totalBytes;
+        this.storedBytes = storedBytes;
+        this.chunkCount = chunkCount;
+        this.lastReferencedAt = Instant.now();
+    }
+
+    public String getContentHash() { return contentHash; }
+    public String getCodec() { return codec; }
+    public long getTotalChars() { return totalChars; }
+    public long getTotalBytes() { return totalBytes; }
+    public long getStoredBytes() { return storedBytes; }
+    public int getChunkCount() { return chunkCount; }
+    public Instant getLastReferencedAt() { return lastReferencedAt; }
+}
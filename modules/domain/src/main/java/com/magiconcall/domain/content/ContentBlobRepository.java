@@ -0,0 +1,20 @@
+package com.magiconcall.domain.content;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ContentBlobRepository {
+
+    ContentBlob save(ContentBlob blob);
+
+    Optional<ContentBlob> findByContentHash(String tenantId, String contentHash);
+
+    /** Records a new reference to an existing blob; false if the tenant has no such blob. */
+    boolean markReferenced(String tenantId, String contentHash, Instant referencedAt);
+
+    /**
+     * Deletes blobs (and their chunks) last referenced before {@code cutoff} that no evidence or
+     * tool execution log row still points to; returns how many were deleted.
+     */
+    int deleteUnreferencedBefore(Instant cutoff);
+}
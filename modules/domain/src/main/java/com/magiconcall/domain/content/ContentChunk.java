@@ -0,0 +1,53 @@
+package com.magiconcall.domain.content;
+
+import com.magiconcall.domain.common.BaseEntity;
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * One compressed slice of a {@link ContentBlob}. {@code charOffset}/{@code charLength} locate
+ * the slice in the original text, so a ranged read only loads and decompresses the chunks that
+ * overlap the requested range.
+ */
+@Entity
+@Table(name = "content_chunks")
+public class ContentChunk extends BaseEntity {
+
+    @Column(nullable = false, updatable = false)
+    private UUID blobId;
+
+    @Column(nullable = false, updatable = false)
+    private int chunkIndex;
+
+    @Column(nullable = false, updatable = false)
+    private long charOffset;
+
+    @Column(nullable = false, updatable = false)
+    private int charLength;
+
+    @Column(nullable = false, updatable = false)
+    private int rawLength;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    protected ContentChunk() {}
+
+    public ContentChunk(UUID blobId, int chunkIndex, long charOffset, int charLength,
+                        int rawLength, byte[] data) {
+        this.blobId = blobId;
+        this.chunkIndex = chunkIndex;
+        this.charOffset = charOffset;
+        this.charLength = charLength;
+        this.rawLength = rawLength;
+        this.data = data;
+    }
+
+    public UUID getBlobId() { return blobId; }
+    public int getChunkIndex() { return chunkIndex; }
+    public long getCharOffset() { return charOffset; }
+    public int getCharLength() { return charLength; }
+    public int getRawLength() { return rawLength; }
+    public byte[] getData() { return data; }
+}
@@ -0,0 +1,12 @@
+package com.magiconcall.domain.content;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ContentChunkRepository {
+
+    List<ContentChunk> saveAll(List<ContentChunk> chunks);
+
+    /** Chunks of the blob overlapping the character range [fromChar, toChar), in order. */
+    List<ContentChunk> findOverlapping(UUID blobId, long fromChar, long toChar);
+}
@@ -1,13 +1,21 @@
 package com.magiconcall.domain.graph;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CorrelationEdgeRepository {
 
     CorrelationEdge save(CorrelationEdge edge);
 
+    /**
+     * Inserts a TIME_CORRELATION edge or, if the incident already has one from the same source to
+     * the same target, replaces its weight, reason and metadata. Returns the stored edge's id.
+     */
+    UUID upsertTimeCorrelation(CorrelationEdge edge);
+
     Optional<CorrelationEdge> findById(UUID id);
 
     List<CorrelationEdge> findByIncidentId(UUID incidentId);
@@ -16,5 +24,22 @@ public interface CorrelationEdgeRepository {
 
     List<CorrelationEdge> findByTargetNodeId(UUID targetNodeId);
 
+    /**
+     * Cursor over the incident's edges ordered by id, detached as they are read. Must be consumed
+     * inside a transaction and closed.
+     */
+    Stream<CorrelationEdge> streamByIncidentId(UUID incidentId);
+
+    /** Keyset page: up to {@code limit} edges of the given types with id greater than {@code afterId}, ordered by id. */
+    List<CorrelationEdge> findPage(UUID incidentId, Collection<CorrelationEdgeType> edgeTypes, UUID afterId, int limit);
+
     void deleteById(UUID id);
+
+    /**
+     * Deletes the tenant's edges with an endpoint that is neither one of its incident nodes nor in
+     * {@code topologyNodeIds}, e.g. edges to a service the latest topology no longer has. Edges
+     * have no foreign keys to their nodes since they may point into the topology. Returns how
+     * many were deleted.
+     */
+    int deleteDangling(String tenantId, Collection<UUID> topologyNodeIds);
 }
@@ -1,8 +1,10 @@
 package com.magiconcall.domain.graph;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface CorrelationNodeRepository {
 
@@ -16,5 +18,33 @@ public interface CorrelationNodeRepository {
 
     List<CorrelationNode> findByIncidentIdAndReferenceId(UUID incidentId, UUID referenceId);
 
+    /**
+     * Cursor over the incident's nodes ordered by id, detached as they are read. Must be consumed
+     * inside a transaction and closed.
+     */
+    Stream<CorrelationNode> streamByIncidentId(UUID incidentId);
+
+    /**
+     * Adds each template's lines to the count of the incident's LOG_CLUSTER node with that source
+     * and template (its metadata's {@code template}), creating the nodes there are none of yet,
+     * in one statement. An increment rather than a write of the total, so replicas mining the same
+     * incident add up instead of overwriting each other. Templates must be distinct.
+     *
+     * @return the number of nodes created
+     */
+    int addLogTemplateLines(String tenantId, UUID incidentId, UUID referenceId, String source,
+                            Collection<LogTemplateLines> templates);
+
+    /**
+     * Moves the incident's LOG_CLUSTER node for template {@code from} to the generalized template
+     * {@code to}, keeping its id; if a node for {@code to} exists already, adds the count to it,
+     * repoints the old node's edges to it and deletes the old node instead.
+     */
+    void renameLogTemplate(UUID incidentId, String source, String from, String to, String label);
+
+    /** Keyset page: up to {@code limit} nodes of the given types with id greater than {@code afterId}, ordered by id. */
+    List<CorrelationNode> findPage(UUID incidentId, Collection<CorrelationNodeType> nodeTypes, UUID afterId, int limit);
+
+    /** Deletes the node together with the edges from and to it. */
     void deleteById(UUID id);
 }
@@ -0,0 +1,4 @@
+package com.magiconcall.domain.graph;
+
+/** Lines matched by a mined log template in one output, and the label its node carries. */
+public record LogTemplateLines(String template, String label, long lines) {}
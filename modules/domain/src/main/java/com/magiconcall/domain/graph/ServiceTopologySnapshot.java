@@ -0,0 +1,50 @@
+package com.magiconcall.domain.graph;
+
+import com.magiconcall.domain.common.BaseEntity;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Immutable, versioned snapshot of a tenant's service topology (SERVICE / DEPENDENCY
+ * nodes and the DEPENDS_ON edges between them). Publishing a new topology appends a
+ * new snapshot with the next version; existing snapshots are never updated.
+ */
+@Entity
+@Table(name = "service_topology_snapshots")
+public class ServiceTopologySnapshot extends BaseEntity {
+
+    @Column(nullable = false, updatable = false)
+    private long snapshotVersion;
+
+    @Column(nullable = false, updatable = false)
+    private int nodeCount;
+
+    @Column(nullable = false, updatable = false)
+    private int edgeCount;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false, updatable = false)
+    private String nodes;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false, updatable = false)
+    private String edges;
+
+    protected ServiceTopologySnapshot() {}
+
+    public ServiceTopologySnapshot(long snapshotVersion, int nodeCount, int edgeCount,
+                                   String nodes, String edges) {
+        this.snapshotVersion = snapshotVersion;
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+
+    public long getSnapshotVersion() { return snapshotVersion; }
+    public int getNodeCount() { return nodeCount; }
+    public int getEdgeCount() { return edgeCount; }
+    public String getNodes() { return nodes; }
+    public String getEdges() { return edges; }
+}
@@ -0,0 +1,12 @@
+package com.magiconcall.domain.graph;
+
+import java.util.Optional;
+
+public interface ServiceTopologySnapshotRepository {
+
+    ServiceTopologySnapshot save(ServiceTopologySnapshot snapshot);
+
+    Optional<ServiceTopologySnapshot> findLatestByTenantId(String tenantId);
+
+    Optional<Long> findLatestVersionByTenantId(String tenantId);
+}
@@ -28,6 +28,15 @@ public class Evidence extends BaseEntity {
 
     private String sourceUrl;
 
+    // Set when content holds only a preview; the full text is in the content store
+    @Column(length = 64)
+    private String contentRef;
+
+    private Long contentLength;
+
+    // SimHash of title and content, taken at insert; null on rows written before it was kept
+    private Long contentSimhash;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(columnDefinition = "jsonb")
     private String metadata;
@@ -43,6 +52,13 @@ public class Evidence extends BaseEntity {
         this.content = content;
         this.sourceUrl = sourceUrl;
         this.metadata = metadata;
+        this.contentSimhash = fingerprint(title, content);
+    }
+
+    /** Keeps {@code content} as a preview of a larger body stored under {@code contentRef}. */
+    public void referenceContent(String contentRef, long contentLength) {
+        this.contentRef = contentRef;
+        this.contentLength = contentLength;
     }
 
     public UUID getIncidentId() { return incidentId; }
@@ -52,4 +68,15 @@ public class Evidence extends BaseEntity {
     public String getContent() { return content; }
     public String getSourceUrl() { return sourceUrl; }
     public String getMetadata() { return metadata; }
+    public String getContentRef() { return contentRef; }
+    public Long getContentLength() { return contentLength; }
+
+    /** The fingerprint taken at insert or, for rows written before fingerprints were kept, now. */
+    public long getContentSimhash() {
+        return contentSimhash != null ? contentSimhash : fingerprint(title, content);
+    }
+
+    private static long fingerprint(String title, String content) {
+        return SimHash.of(title + "\n" + (content != null ? content : ""));
+    }
 }
@@ -8,4 +8,7 @@ public interface HypothesisRepository {
     Hypothesis save(Hypothesis hypothesis);
 
     List<Hypothesis> findByIncidentIdOrderByCreatedAtDesc(UUID incidentId);
+
+    /** Hypotheses a triage run produced from the evidence with this hash. */
+    List<Hypothesis> findByIncidentIdAndEvidenceHash(UUID incidentId, String evidenceHash);
 }
@@ -34,6 +34,10 @@ public class Incident extends BaseEntity {
     @Column(columnDefinition = "jsonb")
     private String tags;
 
+    // Bumped by IncidentRepository.incrementEvidenceVersion; never written through the entity
+    @Column(insertable = false, updatable = false)
+    private long evidenceVersion;
+
     protected Incident() {}
 
     public Incident(String externalId, String title, String summary,
@@ -70,4 +74,5 @@ public class Incident extends BaseEntity {
     public String getSlackChannelId() { return slackChannelId; }
     public void setSlackChannelId(String slackChannelId) { this.slackChannelId = slackChannelId; }
     public String getTags() { return tags; }
+    public long getEvidenceVersion() { return evidenceVersion; }
 }
@@ -15,4 +15,10 @@ public interface IncidentRepository {
     boolean existsByExternalId(String externalId);
 
     List<Incident> findByStatusOrderByCreatedAtDesc(IncidentStatus status);
+
+    /**
+     * Atomically bumps the incident's evidence version and returns the new value. Call in the
+     * transaction that inserts the evidence.
+     */
+    long incrementEvidenceVersion(UUID incidentId);
 }
@@ -0,0 +1,85 @@
+package com.magiconcall.domain.incident;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 64-bit SimHash fingerprints of evidence text, for spotting near-duplicates without comparing
+ * the text itself.
+ * <p>
+ * The text is lower-cased and numbers, hex ids and UUIDs are replaced by placeholders, so the
+ * same error logged at another time, for another request, reads the same. Its features are the
+ * remaining words and word pairs, each counted as often as it occurs. Every feature's 64-bit hash
+ * votes on each fingerprint bit, +count where the hash has a one and -count where it has a zero;
+ * a bit is set where the votes are positive. Similar texts share most features, so their
+ * fingerprints differ in few bits: the Hamming {@link #distance} approximates how different the
+ * texts are, with identical texts (after normalization) at distance zero.
+ */
+public final class SimHash {
+
+    /** Fingerprints at most this far apart are treated as the same evidence. */
+    public static final int NEAR_DUPLICATE_DISTANCE = 3;
+
+    private static final Pattern UUID_PATTERN =
+        Pattern.compile("\\b\\p{XDigit}{8}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{4}-\\p{XDigit}{12}\\b");
+    private static final Pattern HEX_PATTERN = Pattern.compile("\\b(?:0x)?(?=[a-f]*\\d)(?=\\d*[a-f])\\p{XDigit}{8,}\\b");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+(?:[.,:]\\d+)*");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}_<>]+");
+
+    private SimHash() {}
+
+    /** The fingerprint of {@code text}; zero for null or text without words. */
+    public static long of(String text) {
+        if (text == null || text.isBlank()) return 0;
+        var normalized = text.toLowerCase(Locale.ROOT);
+        normalized = UUID_PATTERN.matcher(normalized).replaceAll(" <uuid> ");
+        normalized = HEX_PATTERN.matcher(normalized).replaceAll(" <hex> ");
+        normalized = NUMBER_PATTERN.matcher(normalized).replaceAll(" <num> ");
+
+        var counts = new HashMap<String, Integer>();
+        String previous = null;
+        for (var word : NON_WORD.split(normalized)) {
+            if (word.isEmpty()) continue;
+            counts.merge(word, 1, Integer::sum);
+            if (previous != null) counts.merge(previous + ' ' + word, 1, Integer::sum);
+            previous = word;
+        }
+
+        var votes = new long[64];
+        for (var entry : counts.entrySet()) {
+            long hash = hash(entry.getKey());
+            int count = entry.getValue();
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((hash >>> bit) & 1) != 0 ? count : -count;
+            }
+        }
+        long fingerprint = 0;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) fingerprint |= 1L << bit;
+        }
+        return fingerprint;
+    }
+
+    /** Number of bits in which the fingerprints differ, from 0 (same text) to 64. */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    public static boolean nearDuplicates(long a, long b) {
+        return distance(a, b) <= NEAR_DUPLICATE_DISTANCE;
+    }
+
+    /** 64-bit FNV-1a with a final mix, so every bit depends on every character. */
+    private static long hash(String feature) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,77 @@
+package com.magiconcall.domain.incident;
+
+import com.magiconcall.domain.common.BaseEntity;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A request to triage an incident, run in the background. Created {@code QUEUED}; the status
+ * transitions happen through {@link TriageJobRepository}'s conditional updates, so a job is
+ * claimed by one worker only and an abandoned job cannot be finished twice.
+ */
+@Entity
+@Table(name = "triage_jobs")
+public class TriageJob extends BaseEntity {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED;
+
+        public boolean isTerminal() {
+            return this == SUCCEEDED || this == FAILED;
+        }
+    }
+
+    @Column(nullable = false)
+    private UUID incidentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private IncidentSeverity severity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    /** The triage result as JSON, once the job has succeeded. */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String result;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    @Column(nullable = false)
+    private Instant enqueuedAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    /** Last time the replica holding the job reported it alive, queued or running. */
+    @Column(nullable = false)
+    private Instant heartbeatAt;
+
+    protected TriageJob() {}
+
+    public TriageJob(UUID incidentId, IncidentSeverity severity) {
+        this.incidentId = incidentId;
+        this.severity = severity;
+        this.status = Status.QUEUED;
+        this.enqueuedAt = Instant.now();
+        this.heartbeatAt = enqueuedAt;
+    }
+
+    public UUID getIncidentId() { return incidentId; }
+    public IncidentSeverity getSeverity() { return severity; }
+    public Status getStatus() { return status; }
+    public String getResult() { return result; }
+    public String getError() { return error; }
+    public Instant getEnqueuedAt() { return enqueuedAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public Instant getHeartbeatAt() { return heartbeatAt; }
+}
@@ -0,0 +1,34 @@
+package com.magiconcall.domain.incident;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface TriageJobRepository {
+
+    TriageJob save(TriageJob job);
+
+    Optional<TriageJob> findById(UUID id);
+
+    /** Moves a queued job to running; false if it is no longer queued (e.g. already abandoned). */
+    boolean claim(UUID id, Instant startedAt);
+
+    /** Moves a running job back to queued, e.g. to wait for capacity; false if it is no longer running. */
+    boolean release(UUID id, Instant at);
+
+    /** Records the result of a running job; false if it is no longer running. */
+    boolean succeed(UUID id, String result, Instant finishedAt);
+
+    /** Records the error of a running job; false if it is no longer running. */
+    boolean fail(UUID id, String error, Instant finishedAt);
+
+    /** Fails the given jobs that have not finished yet, returning how many were failed. */
+    int failUnfinished(Collection<UUID> ids, String error, Instant finishedAt);
+
+    /** Records that the given jobs, if still unfinished, are held by a live replica. */
+    int heartbeat(Collection<UUID> ids, Instant at);
+
+    /** Fails every job still queued or running whose last heartbeat was before {@code cutoff}. */
+    int failStaleBefore(Instant cutoff, String error, Instant finishedAt);
+}
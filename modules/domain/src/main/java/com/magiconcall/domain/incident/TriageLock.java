@@ -0,0 +1,23 @@
+package com.magiconcall.domain.incident;
+
+import java.util.UUID;
+
+/**
+ * Port for serializing triage runs of the same incident and evidence across replicas.
+ * Infrastructure layer provides the adapter (a lease row in Postgres).
+ */
+public interface TriageLock {
+
+    /** Held for the duration of one run; closing releases it. */
+    interface Lease extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Blocks until no other run holds the lease for this incident and evidence hash, then takes
+     * it. Needs no transaction and holds no database connection while held, so it can span the
+     * model call; a lease whose holder died expires on its own.
+     */
+    Lease acquire(UUID incidentId, String evidenceHash);
+}
@@ -0,0 +1,15 @@
+package com.magiconcall.domain.llm;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Port for a triage result cache shared by every replica, holding serialized results.
+ * Infrastructure layer provides the adapter (Redis).
+ */
+public interface DistributedTriageCache {
+
+    Optional<String> get(String tenantId, String evidenceHash);
+
+    void put(String tenantId, String evidenceHash, String payload, Duration ttl);
+}
@@ -1,5 +1,7 @@
 package com.magiconcall.domain.llm;
 
+import java.util.function.Consumer;
+
 /**
  * Port interface for LLM completions.
  * Adapters: MockLlmClient (default), future real provider implementations.
@@ -7,4 +9,15 @@ package com.magiconcall.domain.llm;
 public interface LlmClient {
 
     LlmResponse complete(LlmRequest request);
+
+    /**
+     * Streams the completion: {@code onContent} receives each content fragment as the provider
+     * produces it, on the calling thread, and the complete response is returned at the end.
+     * Adapters without streaming support deliver the whole content as one fragment.
+     */
+    default LlmResponse stream(LlmRequest request, Consumer<String> onContent) {
+        var response = complete(request);
+        onContent.accept(response.content());
+        return response;
+    }
 }
@@ -0,0 +1,14 @@
+package com.magiconcall.domain.tool;
+
+/**
+ * Port for a token bucket shared by every replica.
+ * Infrastructure layer provides the adapter (Redis).
+ */
+public interface DistributedRateLimiter {
+
+    /**
+     * Takes one token from the bucket {@code key}, which holds at most {@code capacity} tokens
+     * and refills at {@code refillPerSecond}. Returns false if the bucket is empty.
+     */
+    boolean tryAcquire(String key, long capacity, double refillPerSecond);
+}
@@ -0,0 +1,155 @@
+package com.magiconcall.domain.tool;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable latency sketch with bounded relative error (DDSketch-style log buckets).
+ * <p>
+ * A value {@code v >= 1} lands in bucket {@code ceil(log(v) / log(gamma))} with
+ * {@code gamma = (1 + a) / (1 - a)}; every value in a bucket is within relative error {@code a}
+ * of the bucket's representative value, so any quantile is off by at most 1% of the true value.
+ * Values below 1 (sub-millisecond latencies) share a zero bucket. Merging two sketches adds
+ * their bucket counts, which is exact: the merge of per-minute sketches answers hourly
+ * percentiles with the same accuracy as a sketch built from the raw values.
+ * <p>
+ * Buckets are a dense array over the populated index range — about 750 buckets span 1ms to 1h —
+ * and serialize to a few hundred bytes. Not thread-safe.
+ */
+public final class LatencySketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final byte FORMAT_VERSION = 1;
+
+    private long zeroCount;
+    private int offset;            // bucket index of counts[0]
+    private long[] counts = new long[0];
+    private long count;
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long times) {
+        if (times <= 0) return;
+        if (value < 1) {
+            zeroCount += times;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+            grow(index, index);
+            counts[index - offset] += times;
+        }
+        count += times;
+    }
+
+    public void merge(LatencySketch other) {
+        if (other.count == 0) return;
+        zeroCount += other.zeroCount;
+        if (other.counts.length > 0) {
+            grow(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        count += other.count;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /** Value at quantile {@code q} in [0, 1]; NaN if the sketch is empty. */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("quantile must be in [0, 1]: " + q);
+        if (count == 0) return Double.NaN;
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < zeroCount) return 0;
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) return 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+        }
+        return 2 * Math.pow(GAMMA, offset + counts.length - 1) / (GAMMA + 1);
+    }
+
+    public LatencySketch copy() {
+        var copy = new LatencySketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    /** Compact encoding: version, zero count, offset, bucket count, then varint bucket counts. */
+    public byte[] toBytes() {
+        var out = new ByteArrayOutputStream(16 + counts.length * 2);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, zigZag(offset));
+        writeVarLong(out, counts.length);
+        for (long c : counts) writeVarLong(out, c);
+        return out.toByteArray();
+    }
+
+    public static LatencySketch fromBytes(byte[] bytes) {
+        var in = ByteBuffer.wrap(bytes);
+        byte version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported latency sketch format: " + version);
+        }
+        var sketch = new LatencySketch();
+        sketch.zeroCount = readVarLong(in);
+        sketch.offset = unZigZag(readVarLong(in));
+        sketch.counts = new long[(int) readVarLong(in)];
+        long total = sketch.zeroCount;
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = readVarLong(in);
+            total += sketch.counts[i];
+        }
+        sketch.count = total;
+        return sketch;
+    }
+
+    /** Widens the bucket array to cover indexes [from, to]. */
+    private void grow(int from, int to) {
+        if (counts.length == 0) {
+            offset = from;
+            counts = new long[to - from + 1];
+            return;
+        }
+        int newOffset = Math.min(offset, from);
+        int newEnd = Math.max(offset + counts.length - 1, to);
+        if (newOffset == offset && newEnd == offset + counts.length - 1) return;
+        long[] widened = new long[newEnd - newOffset + 1];
+        System.arraycopy(counts, 0, widened, offset - newOffset, counts.length);
+        counts = widened;
+        offset = newOffset;
+    }
+
+    private static long zigZag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unZigZag(long v) {
+        return (int) ((v >>> 1) ^ -(v & 1));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("Malformed varint in latency sketch");
+    }
+}
@@ -28,6 +28,12 @@ public class ToolExecutionLog extends BaseEntity {
     @Column(columnDefinition = "text")
     private String responseContent;
 
+    // Set when responseContent holds only a preview; the full text is in the content store
+    @Column(length = 64)
+    private String responseRef;
+
+    private Long responseLength;
+
     @Column(columnDefinition = "text")
     private String errorMessage;
 
@@ -60,11 +66,19 @@ public class ToolExecutionLog extends BaseEntity {
         this.executedAt = executedAt;
     }
 
+    /** Keeps {@code responseContent} as a preview of a larger body stored under {@code responseRef}. */
+    public void referenceResponse(String responseRef, long responseLength) {
+        this.responseRef = responseRef;
+        this.responseLength = responseLength;
+    }
+
     public String getToolName() { return toolName; }
     public UUID getIncidentId() { return incidentId; }
     public ToolExecutionStatus getStatus() { return status; }
     public String getRequestPayload() { return requestPayload; }
     public String getResponseContent() { return responseContent; }
+    public String getResponseRef() { return responseRef; }
+    public Long getResponseLength() { return responseLength; }
     public String getErrorMessage() { return errorMessage; }
     public long getDurationMs() { return durationMs; }
     public int getRetryCount() { return retryCount; }
@@ -0,0 +1,27 @@
+package com.magiconcall.domain.tool;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Port for the daily range partitions of the tool execution log (by {@code executed_at}, UTC).
+ * Infrastructure layer provides the adapter (Postgres declarative partitioning).
+ */
+public interface ToolExecutionPartitions {
+
+    /**
+     * Takes a transaction-scoped lock so only one replica maintains partitions at a time. Must be
+     * called in a transaction; returns false if another replica holds the lock.
+     */
+    boolean tryLockForMaintenance();
+
+    /**
+     * Creates the daily partitions for {@code from} through {@code to} that do not exist yet,
+     * first moving any rows for those days out of the default partition. Must be called in a
+     * transaction.
+     */
+    void ensureDailyPartitions(LocalDate from, LocalDate to);
+
+    /** Drops every daily partition that ends on or before {@code cutoff}; returns their names. */
+    List<String> dropPartitionsBefore(LocalDate cutoff);
+}
@@ -0,0 +1,111 @@
+package com.magiconcall.domain.tool;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Pre-aggregated tool executions of one tenant and tool over one time bucket: counts per
+ * status, retries, total and maximum duration, and a {@link LatencySketch} for percentiles.
+ * <p>
+ * Rollups of the same tenant and tool merge exactly, so hourly rollups are built from
+ * per-minute ones and dashboards can merge any range of buckets without touching raw rows.
+ */
+public final class ToolExecutionRollup {
+
+    public enum Granularity {
+        MINUTE(Duration.ofMinutes(1), ChronoUnit.MINUTES),
+        HOUR(Duration.ofHours(1), ChronoUnit.HOURS);
+
+        private final Duration width;
+        private final ChronoUnit unit;
+
+        Granularity(Duration width, ChronoUnit unit) {
+            this.width = width;
+            this.unit = unit;
+        }
+
+        public Duration width() { return width; }
+
+        public Instant bucketStart(Instant instant) {
+            return instant.truncatedTo(unit);
+        }
+    }
+
+    private final String tenantId;
+    private final String toolName;
+    private final Granularity granularity;
+    private final Instant bucketStart;
+    private final long[] statusCounts = new long[ToolExecutionStatus.values().length];
+    private long retries;
+    private long durationSumMs;
+    private long durationMaxMs;
+    private final LatencySketch latency;
+
+    public ToolExecutionRollup(String tenantId, String toolName, Granularity granularity, Instant bucketStart) {
+        this(tenantId, toolName, granularity, bucketStart, new LatencySketch());
+    }
+
+    private ToolExecutionRollup(String tenantId, String toolName, Granularity granularity,
+                                Instant bucketStart, LatencySketch latency) {
+        this.tenantId = tenantId;
+        this.toolName = toolName;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.latency = latency;
+    }
+
+    /** Rebuilds a stored rollup; {@code statusCounts} is indexed by {@link ToolExecutionStatus#ordinal()}. */
+    public static ToolExecutionRollup restore(String tenantId, String toolName, Granularity granularity,
+                                              Instant bucketStart, long[] statusCounts, long retries,
+                                              long durationSumMs, long durationMaxMs, LatencySketch latency) {
+        var rollup = new ToolExecutionRollup(tenantId, toolName, granularity, bucketStart, latency);
+        System.arraycopy(statusCounts, 0, rollup.statusCounts, 0, rollup.statusCounts.length);
+        rollup.retries = retries;
+        rollup.durationSumMs = durationSumMs;
+        rollup.durationMaxMs = durationMaxMs;
+        return rollup;
+    }
+
+    /**
+     * Adds one execution; its latency only enters the sketch if it reached the backend. Reused
+     * (CACHED) responses are not executions of the tool and are not counted at all.
+     */
+    public void record(ToolExecutionStatus status, long durationMs, int retryCount) {
+        if (status == ToolExecutionStatus.CACHED) return;
+        statusCounts[status.ordinal()]++;
+        retries += retryCount;
+        // Rate-limited and rejected calls never ran; their 0ms would drag the percentiles down
+        if (status != ToolExecutionStatus.RATE_LIMITED && status != ToolExecutionStatus.REJECTED) {
+            durationSumMs += durationMs;
+            durationMaxMs = Math.max(durationMaxMs, durationMs);
+            latency.add(durationMs);
+        }
+    }
+
+    public void merge(ToolExecutionRollup other) {
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += other.statusCounts[i];
+        }
+        retries += other.retries;
+        durationSumMs += other.durationSumMs;
+        durationMaxMs = Math.max(durationMaxMs, other.durationMaxMs);
+        latency.merge(other.latency);
+    }
+
+    public String getTenantId() { return tenantId; }
+    public String getToolName() { return toolName; }
+    public Granularity getGranularity() { return granularity; }
+    public Instant getBucketStart() { return bucketStart; }
+    public long getCount(ToolExecutionStatus status) { return statusCounts[status.ordinal()]; }
+    public long getRetries() { return retries; }
+    public long getDurationSumMs() { return durationSumMs; }
+    public long getDurationMaxMs() { return durationMaxMs; }
+    public LatencySketch getLatency() { return latency; }
+
+    public long getTotal() {
+        long total = 0;
+        for (long c : statusCounts) total += c;
+        return total;
+    }
+}
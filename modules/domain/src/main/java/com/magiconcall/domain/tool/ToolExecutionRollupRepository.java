@@ -0,0 +1,36 @@
+package com.magiconcall.domain.tool;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface ToolExecutionRollupRepository {
+
+    /** Streams every execution with {@code from <= executedAt < to}, across tenants. */
+    void scanExecutions(Instant from, Instant to, Consumer<ToolExecutionSample> consumer);
+
+    /** Inserts the rollups, replacing any stored rollup for the same tenant, tool and bucket. */
+    void upsert(Collection<ToolExecutionRollup> rollups);
+
+    /** Rollups of every tenant and tool with {@code from <= bucketStart < to}. */
+    List<ToolExecutionRollup> findAll(ToolExecutionRollup.Granularity granularity, Instant from, Instant to);
+
+    /** The tenant's rollups of one tool with {@code from <= bucketStart < to}, oldest first. */
+    List<ToolExecutionRollup> find(String tenantId, String toolName,
+                                   ToolExecutionRollup.Granularity granularity, Instant from, Instant to);
+
+    int deleteBefore(ToolExecutionRollup.Granularity granularity, Instant cutoff);
+
+    /** End of the range already rolled up, if any. */
+    Optional<Instant> findWatermark();
+
+    void saveWatermark(Instant watermark);
+
+    /**
+     * Takes a transaction-scoped lock so only one replica rolls up at a time. Must be called in
+     * a transaction; returns false if another replica holds the lock.
+     */
+    boolean tryLockForRollup();
+}
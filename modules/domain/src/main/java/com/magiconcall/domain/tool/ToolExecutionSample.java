@@ -0,0 +1,13 @@
+package com.magiconcall.domain.tool;
+
+import java.time.Instant;
+
+/** The fields of one tool_execution_log row that rollups aggregate. */
+public record ToolExecutionSample(
+    String tenantId,
+    String toolName,
+    ToolExecutionStatus status,
+    long durationMs,
+    int retryCount,
+    Instant executedAt
+) {}
@@ -4,5 +4,8 @@ public enum ToolExecutionStatus {
     SUCCESS,
     FAILURE,
     TIMEOUT,
-    RATE_LIMITED
+    RATE_LIMITED,
+    REJECTED,
+    /** An earlier execution's response reused for another incident; the tool was not called. */
+    CACHED
 }
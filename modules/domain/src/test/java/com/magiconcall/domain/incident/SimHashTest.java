@@ -0,0 +1,41 @@
+package com.magiconcall.domain.incident;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimHashTest {
+
+    private static final String TIMEOUT_A =
+        "2024-05-01T10:15:02Z ERROR checkout-api request 3f2a9c1e-7b6d-4e1f-9a2b-5c8d7e6f1a2b failed: upstream timeout after 30000ms";
+    private static final String TIMEOUT_B =
+        "2024-05-01T10:17:45Z ERROR checkout-api request 0b1c2d3e-4f50-4617-8899-aabbccddeeff failed: upstream timeout after 30012ms";
+
+    @Test
+    @DisplayName("lines differing only in timestamps, ids and numbers have the same fingerprint")
+    void volatileTokensIgnored() {
+        assertThat(SimHash.distance(SimHash.of(TIMEOUT_A), SimHash.of(TIMEOUT_B))).isZero();
+        assertThat(SimHash.nearDuplicates(SimHash.of(TIMEOUT_A), SimHash.of(TIMEOUT_B.toUpperCase()))).isTrue();
+    }
+
+    @Test
+    @DisplayName("different errors are far apart")
+    void differentTextFarApart() {
+        long pool = SimHash.of("2024-05-01T10:17:45Z WARN payments-db connection pool exhausted, 50 of 50 connections in use");
+
+        assertThat(SimHash.distance(SimHash.of(TIMEOUT_A), pool)).isGreaterThan(SimHash.NEAR_DUPLICATE_DISTANCE * 3);
+        assertThat(SimHash.nearDuplicates(SimHash.of(TIMEOUT_A), pool)).isFalse();
+    }
+
+    @Test
+    @DisplayName("evidence is fingerprinted from its title and content when created")
+    void evidenceFingerprintedOnCreation() {
+        var first = new Evidence(null, null, EvidenceType.TOOL_OUTPUT, "Tool output: logs", TIMEOUT_A, null, "{}");
+        var second = new Evidence(null, null, EvidenceType.TOOL_OUTPUT, "Tool output: logs", TIMEOUT_B, null, "{}");
+
+        assertThat(first.getContentSimhash()).isEqualTo(SimHash.of("Tool output: logs\n" + TIMEOUT_A));
+        assertThat(first.getContentSimhash()).isEqualTo(second.getContentSimhash());
+        assertThat(SimHash.of(null)).isZero();
+    }
+}
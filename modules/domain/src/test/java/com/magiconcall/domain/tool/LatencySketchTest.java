@@ -0,0 +1,95 @@
+package com.magiconcall.domain.tool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencySketchTest {
+
+    @Test
+    @DisplayName("quantiles stay within the relative accuracy of the exact values")
+    void quantilesWithinRelativeAccuracy() {
+        var random = new Random(42);
+        double[] values = new double[10_000];
+        var sketch = new LatencySketch();
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal latencies around 50ms with a long tail
+            values[i] = Math.exp(Math.log(50) + random.nextGaussian());
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertThat(sketch.quantile(q)).isCloseTo(exact, within(exact * LatencySketch.RELATIVE_ACCURACY));
+        }
+        assertThat(sketch.count()).isEqualTo(values.length);
+    }
+
+    @Test
+    @DisplayName("merging sketches equals one sketch over all values")
+    void mergeIsExact() {
+        var combined = new LatencySketch();
+        var fast = new LatencySketch();
+        var slow = new LatencySketch();
+        for (int i = 0; i < 1_000; i++) {
+            fast.add(i % 20);
+            slow.add(5_000 + i);
+            combined.add(i % 20);
+            combined.add(5_000 + i);
+        }
+
+        fast.merge(slow);
+
+        assertThat(fast.count()).isEqualTo(combined.count());
+        assertThat(fast.toBytes()).isEqualTo(combined.toBytes());
+        assertThat(fast.quantile(0.75)).isEqualTo(combined.quantile(0.75));
+    }
+
+    @Test
+    @DisplayName("serialized sketch round-trips, including sub-millisecond values")
+    void roundTrip() {
+        var sketch = new LatencySketch();
+        sketch.add(0);
+        sketch.add(0.4);
+        sketch.add(12);
+        sketch.add(3_600_000);
+
+        var restored = LatencySketch.fromBytes(sketch.toBytes());
+
+        assertThat(restored.count()).isEqualTo(4);
+        assertThat(restored.quantile(0)).isZero();
+        assertThat(restored.quantile(1)).isCloseTo(3_600_000, within(36_000.0));
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+        assertThat(new LatencySketch().quantile(0.5)).isNaN();
+    }
+
+    @Test
+    @DisplayName("rollups merge counts and keep calls that never ran out of the latency sketch")
+    void rollupMerge() {
+        var start = Instant.parse("2025-01-01T10:00:00Z");
+        var first = new ToolExecutionRollup("t1", "logs", ToolExecutionRollup.Granularity.MINUTE, start);
+        first.record(ToolExecutionStatus.SUCCESS, 40, 0);
+        first.record(ToolExecutionStatus.RATE_LIMITED, 0, 0);
+        var second = new ToolExecutionRollup("t1", "logs", ToolExecutionRollup.Granularity.MINUTE,
+            start.plusSeconds(60));
+        second.record(ToolExecutionStatus.TIMEOUT, 30_000, 2);
+
+        var hour = new ToolExecutionRollup("t1", "logs", ToolExecutionRollup.Granularity.HOUR, start);
+        hour.merge(first);
+        hour.merge(second);
+
+        assertThat(hour.getTotal()).isEqualTo(3);
+        assertThat(hour.getCount(ToolExecutionStatus.RATE_LIMITED)).isEqualTo(1);
+        assertThat(hour.getRetries()).isEqualTo(2);
+        assertThat(hour.getDurationMaxMs()).isEqualTo(30_000);
+        assertThat(hour.getLatency().count()).isEqualTo(2);
+        assertThat(ToolExecutionRollup.Granularity.HOUR.bucketStart(start.plusSeconds(3599))).isEqualTo(start);
+    }
+}
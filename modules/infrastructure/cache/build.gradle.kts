@@ -0,0 +1,19 @@
+plugins {
+    id("io.spring.dependency-management")
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:${property("springBootVersion")}")
+    }
+}
+
+dependencies {
+    implementation(project(":modules:domain"))
+
+    implementation("org.springframework.boot:spring-boot-starter-data-redis")
+    implementation("org.slf4j:slf4j-api")
+
+    testImplementation("org.mockito:mockito-core")
+    testImplementation("org.mockito:mockito-junit-jupiter")
+}
@@ -0,0 +1,54 @@
+package com.magiconcall.infrastructure.cache;
+
+import com.magiconcall.domain.tool.DistributedRateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Cluster-wide token bucket in Redis.
+ * <p>
+ * The bucket is kept as a single value, its theoretical arrival time (GCRA): the instant at which
+ * it would be full again, in microseconds of Redis server time. Taking a token pushes that instant
+ * one emission interval further; the request is refused if that would put it more than
+ * {@code capacity} intervals ahead of now. Check and update run in one Lua script, so concurrent
+ * replicas cannot both take the last token, and using the server clock keeps replicas with skewed
+ * clocks consistent. Keys expire once the bucket would be full anyway.
+ */
+@Component
+@ConditionalOnProperty(name = "magiconcall.tool.rate-limit.global.enabled", havingValue = "true")
+public class RedisDistributedRateLimiter implements DistributedRateLimiter {
+
+    static final String KEY_PREFIX = "moc:ratelimit:";
+
+    static final RedisScript<Long> TOKEN_BUCKET = new DefaultRedisScript<>("""
+        local interval = tonumber(ARGV[1])
+        local burst = tonumber(ARGV[2])
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+        local tat = tonumber(redis.call('GET', KEYS[1])) or now
+        if tat < now then tat = now end
+        local next_tat = tat + interval
+        if next_tat - now > burst then return 0 end
+        redis.call('SET', KEYS[1], string.format('%d', next_tat), 'PX', math.ceil((next_tat - now) / 1000) + 1)
+        return 1
+        """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisDistributedRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long capacity, double refillPerSecond) {
+        long intervalMicros = Math.max(1, Math.round(1_000_000 / refillPerSecond));
+        Long admitted = redisTemplate.execute(TOKEN_BUCKET, List.of(KEY_PREFIX + key),
+            Long.toString(intervalMicros), Long.toString(intervalMicros * capacity));
+        return admitted != null && admitted == 1L;
+    }
+}
@@ -0,0 +1,40 @@
+package com.magiconcall.infrastructure.cache;
+
+import com.magiconcall.domain.llm.DistributedTriageCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Triage results in Redis, one string key per tenant and evidence hash, expiring with the
+ * local cache's TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "magiconcall.triage.cache.redis.enabled", havingValue = "true")
+public class RedisTriageCache implements DistributedTriageCache {
+
+    static final String KEY_PREFIX = "moc:triage:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisTriageCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Optional<String> get(String tenantId, String evidenceHash) {
+        return Optional.ofNullable(redisTemplate.opsForValue().get(key(tenantId, evidenceHash)));
+    }
+
+    @Override
+    public void put(String tenantId, String evidenceHash, String payload, Duration ttl) {
+        redisTemplate.opsForValue().set(key(tenantId, evidenceHash), payload, ttl);
+    }
+
+    static String key(String tenantId, String evidenceHash) {
+        return KEY_PREFIX + tenantId + ":" + evidenceHash;
+    }
+}
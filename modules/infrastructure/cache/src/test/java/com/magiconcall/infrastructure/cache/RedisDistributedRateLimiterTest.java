@@ -0,0 +1,47 @@
+package com.magiconcall.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisDistributedRateLimiterTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+
+    @Test
+    @DisplayName("runs the token-bucket script with the emission interval and burst in microseconds")
+    void passesIntervalAndBurst() {
+        when(redisTemplate.execute(eq(RedisDistributedRateLimiter.TOKEN_BUCKET), anyList(), any(Object[].class)))
+            .thenReturn(1L);
+        var limiter = new RedisDistributedRateLimiter(redisTemplate);
+
+        assertThat(limiter.tryAcquire("logs:t1", 20, 5)).isTrue();
+
+        verify(redisTemplate).execute(RedisDistributedRateLimiter.TOKEN_BUCKET,
+            List.of("moc:ratelimit:logs:t1"), "200000", "4000000");
+    }
+
+    @Test
+    @DisplayName("an empty bucket or a missing reply means no token")
+    void rejectsWhenScriptRefuses() {
+        when(redisTemplate.execute(eq(RedisDistributedRateLimiter.TOKEN_BUCKET), anyList(), any(Object[].class)))
+            .thenReturn(0L, (Long) null);
+        var limiter = new RedisDistributedRateLimiter(redisTemplate);
+
+        assertThat(limiter.tryAcquire("logs:t1", 20, 5)).isFalse();
+        assertThat(limiter.tryAcquire("logs:t1", 20, 5)).isFalse();
+    }
+}
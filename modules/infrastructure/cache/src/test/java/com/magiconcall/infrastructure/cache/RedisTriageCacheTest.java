@@ -0,0 +1,43 @@
+package com.magiconcall.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisTriageCacheTest {
+
+    @Mock private StringRedisTemplate redisTemplate;
+    @Mock private ValueOperations<String, String> valueOperations;
+
+    @Test
+    @DisplayName("results are stored per tenant and evidence hash with the given TTL")
+    void storesPerTenantWithTtl() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        var cache = new RedisTriageCache(redisTemplate);
+
+        cache.put("t1", "abc", "{}", Duration.ofHours(6));
+
+        verify(valueOperations).set("moc:triage:t1:abc", "{}", Duration.ofHours(6));
+    }
+
+    @Test
+    @DisplayName("a missing key is an empty result")
+    void missingKeyIsEmpty() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("moc:triage:t2:abc")).thenReturn(null);
+        var cache = new RedisTriageCache(redisTemplate);
+
+        assertThat(cache.get("t2", "abc")).isEmpty();
+    }
+}
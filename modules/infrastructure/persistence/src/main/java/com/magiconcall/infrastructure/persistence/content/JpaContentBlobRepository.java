@@ -0,0 +1,47 @@
+package com.magiconcall.infrastructure.persistence.content;
+
+import com.magiconcall.domain.content.ContentBlob;
+import com.magiconcall.domain.content.ContentBlobRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public class JpaContentBlobRepository implements ContentBlobRepository {
+
+    // Keeps each sweep statement, and the rows it locks, small
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final SpringDataContentBlobRepository delegate;
+
+    public JpaContentBlobRepository(SpringDataContentBlobRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ContentBlob save(ContentBlob blob) {
+        return delegate.save(blob);
+    }
+
+    @Override
+    public Optional<ContentBlob> findByContentHash(String tenantId, String contentHash) {
+        return delegate.findByTenantIdAndContentHash(tenantId, contentHash);
+    }
+
+    @Override
+    public boolean markReferenced(String tenantId, String contentHash, Instant referencedAt) {
+        return delegate.markReferenced(tenantId, contentHash, referencedAt) > 0;
+    }
+
+    @Override
+    public int deleteUnreferencedBefore(Instant cutoff) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = delegate.deleteUnreferencedBefore(cutoff, DELETE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == DELETE_BATCH_SIZE);
+        return total;
+    }
+}
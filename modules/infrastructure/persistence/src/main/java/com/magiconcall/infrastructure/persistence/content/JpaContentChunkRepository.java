@@ -0,0 +1,28 @@
+package com.magiconcall.infrastructure.persistence.content;
+
+import com.magiconcall.domain.content.ContentChunk;
+import com.magiconcall.domain.content.ContentChunkRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public class JpaContentChunkRepository implements ContentChunkRepository {
+
+    private final SpringDataContentChunkRepository delegate;
+
+    public JpaContentChunkRepository(SpringDataContentChunkRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<ContentChunk> saveAll(List<ContentChunk> chunks) {
+        return delegate.saveAll(chunks);
+    }
+
+    @Override
+    public List<ContentChunk> findOverlapping(UUID blobId, long fromChar, long toChar) {
+        return delegate.findOverlapping(blobId, fromChar, toChar);
+    }
+}
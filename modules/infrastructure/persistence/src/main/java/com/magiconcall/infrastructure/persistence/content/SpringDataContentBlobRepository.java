@@ -0,0 +1,42 @@
+package com.magiconcall.infrastructure.persistence.content;
+
+import com.magiconcall.domain.content.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+interface SpringDataContentBlobRepository extends JpaRepository<ContentBlob, UUID> {
+
+    Optional<ContentBlob> findByTenantIdAndContentHash(String tenantId, String contentHash);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE content_blobs SET last_referenced_at = :referencedAt
+        WHERE tenant_id = :tenantId AND content_hash = :contentHash
+        """, nativeQuery = true)
+    int markReferenced(@Param("tenantId") String tenantId,
+                       @Param("contentHash") String contentHash,
+                       @Param("referencedAt") Instant referencedAt);
+
+    /** One batch of the sweep; chunks go with their blob via ON DELETE CASCADE. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM content_blobs WHERE id IN (
+            SELECT b.id FROM content_blobs b
+            WHERE b.last_referenced_at < :cutoff
+              AND NOT EXISTS (SELECT 1 FROM evidence e
+                              WHERE e.content_ref = b.content_hash AND e.tenant_id = b.tenant_id)
+              AND NOT EXISTS (SELECT 1 FROM tool_execution_log l
+                              WHERE l.response_ref = b.content_hash AND l.tenant_id = b.tenant_id)
+            LIMIT :batchSize)
+        """, nativeQuery = true)
+    int deleteUnreferencedBefore(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
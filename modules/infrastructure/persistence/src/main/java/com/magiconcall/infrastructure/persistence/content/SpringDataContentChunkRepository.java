@@ -0,0 +1,23 @@
+package com.magiconcall.infrastructure.persistence.content;
+
+import com.magiconcall.domain.content.ContentChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+interface SpringDataContentChunkRepository extends JpaRepository<ContentChunk, UUID> {
+
+    @Query("""
+        select c from ContentChunk c
+        where c.blobId = :blobId
+          and c.charOffset < :toChar
+          and c.charOffset + c.charLength > :fromChar
+        order by c.chunkIndex
+        """)
+    List<ContentChunk> findOverlapping(@Param("blobId") UUID blobId,
+                                       @Param("fromChar") long fromChar,
+                                       @Param("toChar") long toChar);
+}
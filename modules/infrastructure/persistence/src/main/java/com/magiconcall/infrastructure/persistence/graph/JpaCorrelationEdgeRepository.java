@@ -2,19 +2,54 @@ package com.magiconcall.infrastructure.persistence.graph;
 
 import com.magiconcall.domain.graph.CorrelationEdge;
 import com.magiconcall.domain.graph.CorrelationEdgeRepository;
+import com.magiconcall.domain.graph.CorrelationEdgeType;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public class JpaCorrelationEdgeRepository implements CorrelationEdgeRepository {
 
+    // Arbitrates on the partial unique index from V017, so concurrent emitters update one row
+    private static final String UPSERT_TIME_CORRELATION = """
+        INSERT INTO correlation_edges (id, tenant_id, incident_id, source_node_id, target_node_id,
+            edge_type, weight, reason, metadata, created_at, updated_at, created_by, version)
+        VALUES (gen_random_uuid(), ?1, ?2, ?3, ?4, 'TIME_CORRELATION', ?5, ?6, CAST(?7 AS jsonb),
+            NOW(), NOW(), 'system', 0)
+        ON CONFLICT (incident_id, source_node_id, target_node_id) WHERE edge_type = 'TIME_CORRELATION'
+        DO UPDATE SET
+            weight = EXCLUDED.weight,
+            reason = EXCLUDED.reason,
+            metadata = EXCLUDED.metadata,
+            updated_at = NOW(),
+            version = correlation_edges.version + 1
+        RETURNING id
+        """;
+
+    private static final String DELETE_DANGLING = """
+        DELETE FROM correlation_edges e
+        WHERE e.tenant_id = ?1
+          AND (e.source_node_id NOT IN (?2)
+                AND NOT EXISTS (SELECT 1 FROM correlation_nodes n WHERE n.id = e.source_node_id)
+            OR e.target_node_id NOT IN (?2)
+                AND NOT EXISTS (SELECT 1 FROM correlation_nodes n WHERE n.id = e.target_node_id))
+        """;
+
+    // No node has the nil id; it stands in for an empty topology, as NOT IN () is not valid SQL
+    private static final UUID NO_NODE = new UUID(0, 0);
+
     private final SpringDataCorrelationEdgeRepository delegate;
+    private final EntityManager entityManager;
 
-    public JpaCorrelationEdgeRepository(SpringDataCorrelationEdgeRepository delegate) {
+    public JpaCorrelationEdgeRepository(SpringDataCorrelationEdgeRepository delegate, EntityManager entityManager) {
         this.delegate = delegate;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -22,6 +57,21 @@ public class JpaCorrelationEdgeRepository implements CorrelationEdgeRepository {
         return delegate.save(edge);
     }
 
+    @Override
+    public UUID upsertTimeCorrelation(CorrelationEdge edge) {
+        // The endpoint nodes may still be pending in the persistence context
+        entityManager.flush();
+        return (UUID) entityManager.createNativeQuery(UPSERT_TIME_CORRELATION)
+            .setParameter(1, edge.getTenantId())
+            .setParameter(2, edge.getIncidentId())
+            .setParameter(3, edge.getSourceNodeId())
+            .setParameter(4, edge.getTargetNodeId())
+            .setParameter(5, edge.getWeight())
+            .setParameter(6, edge.getReason())
+            .setParameter(7, edge.getMetadata())
+            .getSingleResult();
+    }
+
     @Override
     public Optional<CorrelationEdge> findById(UUID id) {
         return delegate.findById(id);
@@ -42,8 +92,29 @@ public class JpaCorrelationEdgeRepository implements CorrelationEdgeRepository {
         return delegate.findByTargetNodeId(targetNodeId);
     }
 
+    @Override
+    public Stream<CorrelationEdge> streamByIncidentId(UUID incidentId) {
+        // Detach each row once handed out so the persistence context stays flat while exporting
+        return delegate.streamByIncidentIdOrderById(incidentId).peek(entityManager::detach);
+    }
+
+    @Override
+    public List<CorrelationEdge> findPage(UUID incidentId, Collection<CorrelationEdgeType> edgeTypes, UUID afterId, int limit) {
+        return delegate.findByIncidentIdAndEdgeTypeInAndIdGreaterThanOrderByIdAsc(incidentId, edgeTypes, afterId, Limit.of(limit));
+    }
+
     @Override
     public void deleteById(UUID id) {
         delegate.deleteById(id);
     }
+
+    @Override
+    public int deleteDangling(String tenantId, Collection<UUID> topologyNodeIds) {
+        // Nodes and edges saved earlier in the transaction must be visible to the statement
+        entityManager.flush();
+        return entityManager.createNativeQuery(DELETE_DANGLING)
+            .setParameter(1, tenantId)
+            .setParameter(2, topologyNodeIds.isEmpty() ? List.of(NO_NODE) : topologyNodeIds)
+            .executeUpdate();
+    }
 }
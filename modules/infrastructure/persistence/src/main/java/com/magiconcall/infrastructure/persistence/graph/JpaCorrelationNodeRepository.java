@@ -1,21 +1,113 @@
 package com.magiconcall.infrastructure.persistence.graph;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.magiconcall.domain.graph.CorrelationNode;
 import com.magiconcall.domain.graph.CorrelationNodeRepository;
 import com.magiconcall.domain.graph.CorrelationNodeType;
+import com.magiconcall.domain.graph.LogTemplateLines;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public class JpaCorrelationNodeRepository implements CorrelationNodeRepository {
 
+    // Arbitrates on the partial unique index from V022; counts are only ever incremented.
+    // xmax is 0 on a row this statement inserted, rather than updated
+    private static final String ADD_LOG_TEMPLATE_LINES = """
+        WITH upserted AS (
+            INSERT INTO correlation_nodes (id, tenant_id, incident_id, node_type, label, description,
+                reference_id, source, metadata, created_at, updated_at, created_by, version)
+            SELECT gen_random_uuid(), ?1, ?2, 'LOG_CLUSTER', t.label,
+                format('%s log lines match this template (%s in the latest output)', t.lines, t.lines),
+                ?3, ?4, jsonb_build_object('template', t.template, 'count', t.lines),
+                NOW(), NOW(), 'system', 0
+            FROM jsonb_to_recordset(CAST(?5 AS jsonb)) AS t(template text, label text, lines bigint)
+            ON CONFLICT (incident_id, source, md5(metadata->>'template')) WHERE node_type = 'LOG_CLUSTER'
+            DO UPDATE SET
+                description = format('%s log lines match this template (%s in the latest output)',
+                    CAST(correlation_nodes.metadata->>'count' AS bigint) + CAST(EXCLUDED.metadata->>'count' AS bigint),
+                    CAST(EXCLUDED.metadata->>'count' AS bigint)),
+                metadata = jsonb_set(correlation_nodes.metadata, '{count}', to_jsonb(
+                    CAST(correlation_nodes.metadata->>'count' AS bigint) + CAST(EXCLUDED.metadata->>'count' AS bigint))),
+                updated_at = NOW(),
+                version = correlation_nodes.version + 1
+            RETURNING xmax = 0 AS inserted
+        )
+        SELECT COUNT(*) FROM upserted WHERE inserted
+        """;
+
+    private static final String RENAME_LOG_TEMPLATE = """
+        UPDATE correlation_nodes SET label = ?5,
+            metadata = jsonb_set(metadata, '{template}', to_jsonb(CAST(?4 AS text))),
+            updated_at = NOW(), version = version + 1
+        WHERE node_type = 'LOG_CLUSTER' AND incident_id = ?1 AND source = ?2
+          AND md5(metadata->>'template') = md5(CAST(?3 AS text))
+          AND NOT EXISTS (
+              SELECT 1 FROM correlation_nodes n
+              WHERE n.node_type = 'LOG_CLUSTER' AND n.incident_id = ?1 AND n.source = ?2
+                AND md5(n.metadata->>'template') = md5(CAST(?4 AS text)))
+        """;
+
+    // Returns the deleted node's id and the id of the node it was merged into
+    private static final String MERGE_LOG_TEMPLATE = """
+        WITH merged AS (
+            DELETE FROM correlation_nodes
+            WHERE node_type = 'LOG_CLUSTER' AND incident_id = ?1 AND source = ?2
+              AND md5(metadata->>'template') = md5(CAST(?3 AS text))
+              AND EXISTS (
+                  SELECT 1 FROM correlation_nodes n
+                  WHERE n.node_type = 'LOG_CLUSTER' AND n.incident_id = ?1 AND n.source = ?2
+                    AND md5(n.metadata->>'template') = md5(CAST(?4 AS text)))
+            RETURNING id, CAST(metadata->>'count' AS bigint) AS count
+        ), kept AS (
+            UPDATE correlation_nodes SET
+                metadata = jsonb_set(metadata, '{count}',
+                    to_jsonb(CAST(metadata->>'count' AS bigint) + (SELECT COALESCE(SUM(count), 0) FROM merged))),
+                updated_at = NOW(), version = version + 1
+            WHERE node_type = 'LOG_CLUSTER' AND incident_id = ?1 AND source = ?2
+              AND md5(metadata->>'template') = md5(CAST(?4 AS text))
+            RETURNING id
+        )
+        SELECT merged.id, kept.id FROM merged, kept
+        """;
+
+    // Moves the merged node's edges to the kept node, except those that would become self-loops
+    // or a second TIME_CORRELATION edge for a pair (unique since V017); DELETE_EDGES drops those
+    private static final String REPOINT_EDGES = """
+        UPDATE correlation_edges e SET
+            source_node_id = CASE WHEN e.source_node_id = ?1 THEN ?2 ELSE e.source_node_id END,
+            target_node_id = CASE WHEN e.target_node_id = ?1 THEN ?2 ELSE e.target_node_id END,
+            updated_at = NOW(), version = e.version + 1
+        WHERE (e.source_node_id = ?1 OR e.target_node_id = ?1)
+          AND e.source_node_id <> ?2 AND e.target_node_id <> ?2
+          AND NOT (e.edge_type = 'TIME_CORRELATION' AND EXISTS (
+              SELECT 1 FROM correlation_edges d
+              WHERE d.edge_type = 'TIME_CORRELATION' AND d.incident_id = e.incident_id
+                AND d.source_node_id = CASE WHEN e.source_node_id = ?1 THEN ?2 ELSE e.source_node_id END
+                AND d.target_node_id = CASE WHEN e.target_node_id = ?1 THEN ?2 ELSE e.target_node_id END))
+        """;
+
+    private static final String DELETE_EDGES = """
+        DELETE FROM correlation_edges WHERE source_node_id = ?1 OR target_node_id = ?1
+        """;
+
     private final SpringDataCorrelationNodeRepository delegate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
 
-    public JpaCorrelationNodeRepository(SpringDataCorrelationNodeRepository delegate) {
+    public JpaCorrelationNodeRepository(SpringDataCorrelationNodeRepository delegate, EntityManager entityManager,
+                                        ObjectMapper objectMapper) {
         this.delegate = delegate;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
     }
 
     @Override
@@ -43,8 +135,72 @@ public class JpaCorrelationNodeRepository implements CorrelationNodeRepository {
         return delegate.findByIncidentIdAndReferenceId(incidentId, referenceId);
     }
 
+    @Override
+    public int addLogTemplateLines(String tenantId, UUID incidentId, UUID referenceId, String source,
+                                   Collection<LogTemplateLines> templates) {
+        if (templates.isEmpty()) return 0;
+        String rows;
+        try {
+            rows = objectMapper.writeValueAsString(templates);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable log templates", e);
+        }
+        var created = (Number) entityManager.createNativeQuery(ADD_LOG_TEMPLATE_LINES)
+            .setParameter(1, tenantId)
+            .setParameter(2, incidentId)
+            .setParameter(3, referenceId)
+            .setParameter(4, source)
+            .setParameter(5, rows)
+            .getSingleResult();
+        return created.intValue();
+    }
+
+    @Override
+    public void renameLogTemplate(UUID incidentId, String source, String from, String to, String label) {
+        int renamed = entityManager.createNativeQuery(RENAME_LOG_TEMPLATE)
+            .setParameter(1, incidentId)
+            .setParameter(2, source)
+            .setParameter(3, from)
+            .setParameter(4, to)
+            .setParameter(5, label)
+            .executeUpdate();
+        if (renamed > 0) return;
+        // Another replica got to the generalized template first
+        @SuppressWarnings("unchecked")
+        List<Object[]> merged = entityManager.createNativeQuery(MERGE_LOG_TEMPLATE)
+            .setParameter(1, incidentId)
+            .setParameter(2, source)
+            .setParameter(3, from)
+            .setParameter(4, to)
+            .getResultList();
+        for (var ids : merged) {
+            entityManager.createNativeQuery(REPOINT_EDGES)
+                .setParameter(1, ids[0])
+                .setParameter(2, ids[1])
+                .executeUpdate();
+            entityManager.createNativeQuery(DELETE_EDGES)
+                .setParameter(1, ids[0])
+                .executeUpdate();
+        }
+    }
+
+    @Override
+    public Stream<CorrelationNode> streamByIncidentId(UUID incidentId) {
+        // Detach each row once handed out so the persistence context stays flat while exporting
+        return delegate.streamByIncidentIdOrderById(incidentId).peek(entityManager::detach);
+    }
+
+    @Override
+    public List<CorrelationNode> findPage(UUID incidentId, Collection<CorrelationNodeType> nodeTypes, UUID afterId, int limit) {
+        return delegate.findByIncidentIdAndNodeTypeInAndIdGreaterThanOrderByIdAsc(incidentId, nodeTypes, afterId, Limit.of(limit));
+    }
+
     @Override
     public void deleteById(UUID id) {
+        // Edges have no foreign key to their nodes (V009), so they go with the node explicitly
+        entityManager.createNativeQuery(DELETE_EDGES)
+            .setParameter(1, id)
+            .executeUpdate();
         delegate.deleteById(id);
     }
 }
@@ -0,0 +1,32 @@
+package com.magiconcall.infrastructure.persistence.graph;
+
+import com.magiconcall.domain.graph.ServiceTopologySnapshot;
+import com.magiconcall.domain.graph.ServiceTopologySnapshotRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public class JpaServiceTopologySnapshotRepository implements ServiceTopologySnapshotRepository {
+
+    private final SpringDataServiceTopologySnapshotRepository delegate;
+
+    public JpaServiceTopologySnapshotRepository(SpringDataServiceTopologySnapshotRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ServiceTopologySnapshot save(ServiceTopologySnapshot snapshot) {
+        return delegate.save(snapshot);
+    }
+
+    @Override
+    public Optional<ServiceTopologySnapshot> findLatestByTenantId(String tenantId) {
+        return delegate.findFirstByTenantIdOrderBySnapshotVersionDesc(tenantId);
+    }
+
+    @Override
+    public Optional<Long> findLatestVersionByTenantId(String tenantId) {
+        return delegate.findMaxSnapshotVersion(tenantId);
+    }
+}
@@ -1,10 +1,17 @@
 package com.magiconcall.infrastructure.persistence.graph;
 
 import com.magiconcall.domain.graph.CorrelationEdge;
+import com.magiconcall.domain.graph.CorrelationEdgeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 interface SpringDataCorrelationEdgeRepository extends JpaRepository<CorrelationEdge, UUID> {
 
@@ -13,4 +20,13 @@ interface SpringDataCorrelationEdgeRepository extends JpaRepository<CorrelationE
     List<CorrelationEdge> findBySourceNodeId(UUID sourceNodeId);
 
     List<CorrelationEdge> findByTargetNodeId(UUID targetNodeId);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CorrelationEdge> streamByIncidentIdOrderById(UUID incidentId);
+
+    List<CorrelationEdge> findByIncidentIdAndEdgeTypeInAndIdGreaterThanOrderByIdAsc(
+        UUID incidentId, Collection<CorrelationEdgeType> edgeTypes, UUID afterId, Limit limit);
 }
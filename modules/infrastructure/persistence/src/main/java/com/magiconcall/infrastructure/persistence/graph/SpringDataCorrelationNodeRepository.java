@@ -2,10 +2,16 @@ package com.magiconcall.infrastructure.persistence.graph;
 
 import com.magiconcall.domain.graph.CorrelationNode;
 import com.magiconcall.domain.graph.CorrelationNodeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 interface SpringDataCorrelationNodeRepository extends JpaRepository<CorrelationNode, UUID> {
 
@@ -14,4 +20,13 @@ interface SpringDataCorrelationNodeRepository extends JpaRepository<CorrelationN
     List<CorrelationNode> findByIncidentIdAndNodeType(UUID incidentId, CorrelationNodeType nodeType);
 
     List<CorrelationNode> findByIncidentIdAndReferenceId(UUID incidentId, UUID referenceId);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CorrelationNode> streamByIncidentIdOrderById(UUID incidentId);
+
+    List<CorrelationNode> findByIncidentIdAndNodeTypeInAndIdGreaterThanOrderByIdAsc(
+        UUID incidentId, Collection<CorrelationNodeType> nodeTypes, UUID afterId, Limit limit);
 }
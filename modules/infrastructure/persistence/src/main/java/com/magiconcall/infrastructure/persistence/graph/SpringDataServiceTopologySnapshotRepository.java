@@ -0,0 +1,17 @@
+package com.magiconcall.infrastructure.persistence.graph;
+
+import com.magiconcall.domain.graph.ServiceTopologySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+interface SpringDataServiceTopologySnapshotRepository extends JpaRepository<ServiceTopologySnapshot, UUID> {
+
+    Optional<ServiceTopologySnapshot> findFirstByTenantIdOrderBySnapshotVersionDesc(String tenantId);
+
+    @Query("select max(s.snapshotVersion) from ServiceTopologySnapshot s where s.tenantId = :tenantId")
+    Optional<Long> findMaxSnapshotVersion(@Param("tenantId") String tenantId);
+}
@@ -23,4 +23,9 @@ public class JpaHypothesisRepository implements HypothesisRepository {
     public List<Hypothesis> findByIncidentIdOrderByCreatedAtDesc(UUID incidentId) {
         return delegate.findByIncidentIdOrderByCreatedAtDesc(incidentId);
     }
+
+    @Override
+    public List<Hypothesis> findByIncidentIdAndEvidenceHash(UUID incidentId, String evidenceHash) {
+        return delegate.findByIncidentIdAndEvidenceHashOrderByCreatedAtAsc(incidentId, evidenceHash);
+    }
 }
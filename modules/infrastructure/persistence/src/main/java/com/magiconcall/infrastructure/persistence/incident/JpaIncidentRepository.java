@@ -38,4 +38,9 @@ public class JpaIncidentRepository implements IncidentRepository {
     public List<Incident> findByStatusOrderByCreatedAtDesc(IncidentStatus status) {
         return delegate.findByStatusOrderByCreatedAtDesc(status);
     }
+
+    @Override
+    public long incrementEvidenceVersion(UUID incidentId) {
+        return delegate.incrementEvidenceVersion(incidentId);
+    }
 }
@@ -0,0 +1,61 @@
+package com.magiconcall.infrastructure.persistence.incident;
+
+import com.magiconcall.domain.incident.TriageJob;
+import com.magiconcall.domain.incident.TriageJobRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public class JpaTriageJobRepository implements TriageJobRepository {
+
+    private final SpringDataTriageJobRepository delegate;
+
+    public JpaTriageJobRepository(SpringDataTriageJobRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public TriageJob save(TriageJob job) { return delegate.save(job); }
+
+    @Override
+    public Optional<TriageJob> findById(UUID id) { return delegate.findById(id); }
+
+    @Override
+    public boolean claim(UUID id, Instant startedAt) {
+        return delegate.claim(id, startedAt) == 1;
+    }
+
+    @Override
+    public boolean release(UUID id, Instant at) {
+        return delegate.release(id, at) == 1;
+    }
+
+    @Override
+    public boolean succeed(UUID id, String result, Instant finishedAt) {
+        return delegate.succeed(id, result, finishedAt) == 1;
+    }
+
+    @Override
+    public boolean fail(UUID id, String error, Instant finishedAt) {
+        return delegate.fail(id, error, finishedAt) == 1;
+    }
+
+    @Override
+    public int failUnfinished(Collection<UUID> ids, String error, Instant finishedAt) {
+        return ids.isEmpty() ? 0 : delegate.failUnfinished(ids, error, finishedAt);
+    }
+
+    @Override
+    public int heartbeat(Collection<UUID> ids, Instant at) {
+        return ids.isEmpty() ? 0 : delegate.heartbeat(ids, at);
+    }
+
+    @Override
+    public int failStaleBefore(Instant cutoff, String error, Instant finishedAt) {
+        return delegate.failStaleBefore(cutoff, error, finishedAt);
+    }
+}
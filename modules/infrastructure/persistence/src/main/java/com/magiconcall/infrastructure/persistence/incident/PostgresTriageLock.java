@@ -0,0 +1,74 @@
+package com.magiconcall.infrastructure.persistence.incident;
+
+import com.magiconcall.domain.incident.TriageLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Lease rows in {@code triage_leases}, taken with a single conditional upsert and released by
+ * deleting the row. Unlike an advisory lock, a lease needs no open transaction or connection
+ * while it is held, so a run can keep it for the whole model call. A replica that dies mid-run
+ * leaves its lease behind until {@code lease-ttl} has passed, which must therefore exceed the
+ * longest run. The 64-bit key is derived from the incident and evidence hash; a collision
+ * between two different keys only serializes two unrelated runs.
+ */
+@Repository
+public class PostgresTriageLock implements TriageLock {
+
+    private static final String TRY_ACQUIRE = """
+        INSERT INTO triage_leases (lock_key, holder, expires_at)
+        VALUES (?, ?, NOW() + make_interval(secs => ?))
+        ON CONFLICT (lock_key) DO UPDATE SET holder = EXCLUDED.holder, expires_at = EXCLUDED.expires_at
+        WHERE triage_leases.expires_at < NOW()
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration leaseTtl;
+    private final Duration pollInterval;
+
+    public PostgresTriageLock(JdbcTemplate jdbcTemplate,
+                              @Value("${magiconcall.triage.lease-ttl:10m}") Duration leaseTtl,
+                              @Value("${magiconcall.triage.lease-poll-interval:250ms}") Duration pollInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseTtl = leaseTtl;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public Lease acquire(UUID incidentId, String evidenceHash) {
+        long key = lockKey(incidentId, evidenceHash);
+        var holder = UUID.randomUUID();
+        double ttlSeconds = leaseTtl.toMillis() / 1000.0;
+        while (jdbcTemplate.update(TRY_ACQUIRE, key, holder, ttlSeconds) == 0) {
+            try {
+                Thread.sleep(pollInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the triage lease", e);
+            }
+        }
+        return () -> jdbcTemplate.update("DELETE FROM triage_leases WHERE lock_key = ? AND holder = ?", key, holder);
+    }
+
+    static long lockKey(UUID incidentId, String evidenceHash) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(16)
+                .putLong(incidentId.getMostSignificantBits())
+                .putLong(incidentId.getLeastSignificantBits())
+                .array());
+            digest.update(evidenceHash.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
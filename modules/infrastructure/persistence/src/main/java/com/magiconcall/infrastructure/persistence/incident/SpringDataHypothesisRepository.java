@@ -9,4 +9,6 @@ import java.util.UUID;
 interface SpringDataHypothesisRepository extends JpaRepository<Hypothesis, UUID> {
 
     List<Hypothesis> findByIncidentIdOrderByCreatedAtDesc(UUID incidentId);
+
+    List<Hypothesis> findByIncidentIdAndEvidenceHashOrderByCreatedAtAsc(UUID incidentId, String evidenceHash);
 }
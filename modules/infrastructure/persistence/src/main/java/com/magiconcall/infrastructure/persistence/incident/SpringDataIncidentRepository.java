@@ -3,6 +3,8 @@ package com.magiconcall.infrastructure.persistence.incident;
 import com.magiconcall.domain.incident.Incident;
 import com.magiconcall.domain.incident.IncidentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +17,12 @@ interface SpringDataIncidentRepository extends JpaRepository<Incident, UUID> {
     boolean existsByExternalId(String externalId);
 
     List<Incident> findByStatusOrderByCreatedAtDesc(IncidentStatus status);
+
+    // A row-level increment, so concurrent evidence inserts neither lose updates nor hit @Version
+    @Query(value = """
+        UPDATE incidents SET evidence_version = evidence_version + 1
+        WHERE id = :id
+        RETURNING evidence_version
+        """, nativeQuery = true)
+    long incrementEvidenceVersion(@Param("id") UUID id);
 }
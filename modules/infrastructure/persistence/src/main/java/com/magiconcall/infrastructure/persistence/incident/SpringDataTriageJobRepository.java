@@ -0,0 +1,82 @@
+package com.magiconcall.infrastructure.persistence.incident;
+
+import com.magiconcall.domain.incident.TriageJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+interface SpringDataTriageJobRepository extends JpaRepository<TriageJob, UUID> {
+
+    // Status changes are conditional row updates rather than entity saves, so a worker finishing
+    // a job and the sweeper failing it cannot both win
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET status = 'RUNNING', started_at = :startedAt,
+            updated_at = :startedAt, version = version + 1
+        WHERE id = :id AND status = 'QUEUED'
+        """, nativeQuery = true)
+    int claim(@Param("id") UUID id, @Param("startedAt") Instant startedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET status = 'QUEUED', started_at = NULL,
+            updated_at = :at, version = version + 1
+        WHERE id = :id AND status = 'RUNNING'
+        """, nativeQuery = true)
+    int release(@Param("id") UUID id, @Param("at") Instant at);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET status = 'SUCCEEDED', result = CAST(:result AS jsonb),
+            finished_at = :finishedAt, updated_at = :finishedAt, version = version + 1
+        WHERE id = :id AND status = 'RUNNING'
+        """, nativeQuery = true)
+    int succeed(@Param("id") UUID id, @Param("result") String result, @Param("finishedAt") Instant finishedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET status = 'FAILED', error = :error,
+            finished_at = :finishedAt, updated_at = :finishedAt, version = version + 1
+        WHERE id = :id AND status = 'RUNNING'
+        """, nativeQuery = true)
+    int fail(@Param("id") UUID id, @Param("error") String error, @Param("finishedAt") Instant finishedAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET status = 'FAILED', error = :error,
+            finished_at = :finishedAt, updated_at = :finishedAt, version = version + 1
+        WHERE id IN (:ids) AND status IN ('QUEUED', 'RUNNING')
+        """, nativeQuery = true)
+    int failUnfinished(@Param("ids") Collection<UUID> ids, @Param("error") String error,
+                       @Param("finishedAt") Instant finishedAt);
+
+    // Not a status change, so it leaves version alone and cannot conflict with one
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET heartbeat_at = :at
+        WHERE id IN (:ids) AND status IN ('QUEUED', 'RUNNING')
+        """, nativeQuery = true)
+    int heartbeat(@Param("ids") Collection<UUID> ids, @Param("at") Instant at);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE triage_jobs SET status = 'FAILED', error = :error,
+            finished_at = :finishedAt, updated_at = :finishedAt, version = version + 1
+        WHERE heartbeat_at < :cutoff AND status IN ('QUEUED', 'RUNNING')
+        """, nativeQuery = true)
+    int failStaleBefore(@Param("cutoff") Instant cutoff, @Param("error") String error,
+                        @Param("finishedAt") Instant finishedAt);
+}
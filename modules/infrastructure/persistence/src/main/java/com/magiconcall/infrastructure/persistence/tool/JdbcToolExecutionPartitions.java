@@ -0,0 +1,123 @@
+package com.magiconcall.infrastructure.persistence.tool;
+
+import com.magiconcall.domain.tool.ToolExecutionPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manages the daily {@code tool_execution_log_pYYYYMMDD} partitions created by V013. Dropping a
+ * partition discards a whole day of history in one catalog operation, instead of a bulk
+ * {@code DELETE} that bloats the table and its indexes.
+ * <p>
+ * Postgres refuses to create a partition while the default partition holds rows in its range.
+ * Rows that landed there for a day without a partition (clock skew, maintenance not running for
+ * longer than the days created ahead) are moved into a new standalone table, which is then
+ * attached as that day's partition.
+ */
+@Repository
+public class JdbcToolExecutionPartitions implements ToolExecutionPartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcToolExecutionPartitions.class);
+
+    static final String PARENT = "tool_execution_log";
+    static final String PARTITION_PREFIX = PARENT + "_p";
+    static final String DEFAULT_PARTITION = PARENT + "_default";
+    // Arbitrary application-wide key for pg_try_advisory_xact_lock
+    private static final long MAINTENANCE_LOCK_KEY = 0x746f6f6c70617274L;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcToolExecutionPartitions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean tryLockForMaintenance() {
+        return Boolean.TRUE.equals(
+            jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, MAINTENANCE_LOCK_KEY));
+    }
+
+    @Override
+    public void ensureDailyPartitions(LocalDate from, LocalDate to) {
+        var existing = partitionNames();
+        for (var day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            var name = partitionName(day);
+            if (existing.contains(name)) continue;
+            // Names and bounds are generated here, never taken from input
+            var bounds = " FOR VALUES FROM ('" + startOf(day) + "') TO ('" + startOf(day.plusDays(1)) + "')";
+            var start = Timestamp.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+            var end = Timestamp.from(day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+            boolean stray = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE executed_at >= ? AND executed_at < ?)",
+                Boolean.class, start, end));
+            if (!stray) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + PARENT + bounds);
+                log.info("Created tool execution log partition {}", name);
+                continue;
+            }
+            jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                + " WHERE executed_at >= ? AND executed_at < ? RETURNING *) INSERT INTO " + name
+                + " SELECT * FROM moved", start, end);
+            jdbcTemplate.execute("ALTER TABLE " + PARENT + " ATTACH PARTITION " + name + bounds);
+            log.info("Created tool execution log partition {} with {} rows moved from the default partition",
+                name, moved);
+        }
+    }
+
+    @Override
+    public List<String> dropPartitionsBefore(LocalDate cutoff) {
+        List<String> dropped = new ArrayList<>();
+        for (var name : partitionNames()) {
+            var day = partitionDay(name);
+            // The partition of day d holds [d, d + 1), so it has fully expired once d < cutoff
+            if (day == null || !day.isBefore(cutoff)) continue;
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+            dropped.add(name);
+            log.info("Dropped expired tool execution log partition {}", name);
+        }
+        // Rows that fell outside the daily ranges age out of the default partition row by row
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE executed_at < ?",
+            Timestamp.from(cutoff.atStartOfDay(ZoneOffset.UTC).toInstant()));
+        return dropped;
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList("""
+            SELECT child.relname
+            FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = ?
+            """, String.class, PARENT);
+    }
+
+    static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + SUFFIX.format(day);
+    }
+
+    /** Day of a daily partition, or null for the default partition and anything else. */
+    static LocalDate partitionDay(String name) {
+        if (!name.startsWith(PARTITION_PREFIX)) return null;
+        try {
+            return LocalDate.parse(name.substring(PARTITION_PREFIX.length()), SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toString();
+    }
+}
@@ -0,0 +1,173 @@
+package com.magiconcall.infrastructure.persistence.tool;
+
+import com.magiconcall.domain.tool.LatencySketch;
+import com.magiconcall.domain.tool.ToolExecutionRollup;
+import com.magiconcall.domain.tool.ToolExecutionRollupRepository;
+import com.magiconcall.domain.tool.ToolExecutionSample;
+import com.magiconcall.domain.tool.ToolExecutionStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * JDBC adapter for tool execution rollups. Rollups are plain aggregate rows rather than entities,
+ * and the raw scan streams rows straight into the consumer instead of materializing them.
+ */
+@Repository
+public class JdbcToolExecutionRollupRepository implements ToolExecutionRollupRepository {
+
+    static final String WATERMARK_NAME = "tool_execution_rollups";
+    // Arbitrary application-wide key for pg_try_advisory_xact_lock
+    private static final long ROLLUP_LOCK_KEY = 0x746f6f6c726f6c6cL;
+    private static final int SCAN_FETCH_SIZE = 1_000;
+
+    private static final String UPSERT = """
+        INSERT INTO tool_execution_rollups (tenant_id, tool_name, granularity, bucket_start,
+            success_count, failure_count, timeout_count, rate_limited_count, rejected_count,
+            retry_sum, duration_sum_ms, duration_max_ms, latency_sketch, updated_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW())
+        ON CONFLICT (tenant_id, tool_name, granularity, bucket_start) DO UPDATE SET
+            success_count = EXCLUDED.success_count,
+            failure_count = EXCLUDED.failure_count,
+            timeout_count = EXCLUDED.timeout_count,
+            rate_limited_count = EXCLUDED.rate_limited_count,
+            rejected_count = EXCLUDED.rejected_count,
+            retry_sum = EXCLUDED.retry_sum,
+            duration_sum_ms = EXCLUDED.duration_sum_ms,
+            duration_max_ms = EXCLUDED.duration_max_ms,
+            latency_sketch = EXCLUDED.latency_sketch,
+            updated_at = NOW()
+        """;
+
+    private static final String SELECT_ROLLUPS = """
+        SELECT tenant_id, tool_name, granularity, bucket_start, success_count, failure_count,
+            timeout_count, rate_limited_count, rejected_count, retry_sum, duration_sum_ms,
+            duration_max_ms, latency_sketch
+        FROM tool_execution_rollups
+        """;
+
+    private static final RowMapper<ToolExecutionRollup> ROLLUP_MAPPER = (rs, rowNum) -> {
+        long[] counts = new long[ToolExecutionStatus.values().length];
+        counts[ToolExecutionStatus.SUCCESS.ordinal()] = rs.getLong("success_count");
+        counts[ToolExecutionStatus.FAILURE.ordinal()] = rs.getLong("failure_count");
+        counts[ToolExecutionStatus.TIMEOUT.ordinal()] = rs.getLong("timeout_count");
+        counts[ToolExecutionStatus.RATE_LIMITED.ordinal()] = rs.getLong("rate_limited_count");
+        counts[ToolExecutionStatus.REJECTED.ordinal()] = rs.getLong("rejected_count");
+        return ToolExecutionRollup.restore(
+            rs.getString("tenant_id"),
+            rs.getString("tool_name"),
+            ToolExecutionRollup.Granularity.valueOf(rs.getString("granularity")),
+            rs.getTimestamp("bucket_start").toInstant(),
+            counts,
+            rs.getLong("retry_sum"),
+            rs.getLong("duration_sum_ms"),
+            rs.getLong("duration_max_ms"),
+            LatencySketch.fromBytes(rs.getBytes("latency_sketch")));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcToolExecutionRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void scanExecutions(Instant from, Instant to, Consumer<ToolExecutionSample> consumer) {
+        // executed_at bounds let Postgres prune to the partitions covering the range
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement("""
+                SELECT tenant_id, tool_name, status, duration_ms, retry_count, executed_at
+                FROM tool_execution_log
+                WHERE executed_at >= ? AND executed_at < ?
+                """);
+            ps.setFetchSize(SCAN_FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.from(from));
+            ps.setTimestamp(2, Timestamp.from(to));
+            return ps;
+        }, rs -> {
+            consumer.accept(new ToolExecutionSample(
+                rs.getString("tenant_id"),
+                rs.getString("tool_name"),
+                ToolExecutionStatus.valueOf(rs.getString("status")),
+                rs.getLong("duration_ms"),
+                rs.getInt("retry_count"),
+                rs.getTimestamp("executed_at").toInstant()));
+        });
+    }
+
+    @Override
+    public void upsert(Collection<ToolExecutionRollup> rollups) {
+        if (rollups.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(rollups.size());
+        for (var r : rollups) {
+            args.add(new Object[] {
+                r.getTenantId(),
+                r.getToolName(),
+                r.getGranularity().name(),
+                Timestamp.from(r.getBucketStart()),
+                r.getCount(ToolExecutionStatus.SUCCESS),
+                r.getCount(ToolExecutionStatus.FAILURE),
+                r.getCount(ToolExecutionStatus.TIMEOUT),
+                r.getCount(ToolExecutionStatus.RATE_LIMITED),
+                r.getCount(ToolExecutionStatus.REJECTED),
+                r.getRetries(),
+                r.getDurationSumMs(),
+                r.getDurationMaxMs(),
+                r.getLatency().toBytes()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT, args);
+    }
+
+    @Override
+    public List<ToolExecutionRollup> findAll(ToolExecutionRollup.Granularity granularity, Instant from, Instant to) {
+        return jdbcTemplate.query(SELECT_ROLLUPS + "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?",
+            ROLLUP_MAPPER, granularity.name(), Timestamp.from(from), Timestamp.from(to));
+    }
+
+    @Override
+    public List<ToolExecutionRollup> find(String tenantId, String toolName,
+                                          ToolExecutionRollup.Granularity granularity, Instant from, Instant to) {
+        return jdbcTemplate.query(SELECT_ROLLUPS + """
+                WHERE tenant_id = ? AND tool_name = ? AND granularity = ?
+                  AND bucket_start >= ? AND bucket_start < ?
+                ORDER BY bucket_start
+                """,
+            ROLLUP_MAPPER, tenantId, toolName, granularity.name(), Timestamp.from(from), Timestamp.from(to));
+    }
+
+    @Override
+    public int deleteBefore(ToolExecutionRollup.Granularity granularity, Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM tool_execution_rollups WHERE granularity = ? AND bucket_start < ?",
+            granularity.name(), Timestamp.from(cutoff));
+    }
+
+    @Override
+    public Optional<Instant> findWatermark() {
+        return jdbcTemplate.query("SELECT watermark FROM rollup_watermarks WHERE name = ?",
+                (rs, rowNum) -> rs.getTimestamp("watermark").toInstant(), WATERMARK_NAME)
+            .stream().findFirst();
+    }
+
+    @Override
+    public void saveWatermark(Instant watermark) {
+        jdbcTemplate.update("""
+            INSERT INTO rollup_watermarks (name, watermark, updated_at) VALUES (?, ?, NOW())
+            ON CONFLICT (name) DO UPDATE SET watermark = EXCLUDED.watermark, updated_at = NOW()
+            """, WATERMARK_NAME, Timestamp.from(watermark));
+    }
+
+    @Override
+    public boolean tryLockForRollup() {
+        return Boolean.TRUE.equals(
+            jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ROLLUP_LOCK_KEY));
+    }
+}
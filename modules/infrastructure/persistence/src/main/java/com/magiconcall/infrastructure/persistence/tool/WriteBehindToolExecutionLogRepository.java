@@ -0,0 +1,286 @@
+package com.magiconcall.infrastructure.persistence.tool;
+
+import com.magiconcall.domain.tool.ToolExecutionLog;
+import com.magiconcall.domain.tool.ToolExecutionLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind {@link ToolExecutionLogRepository}: log rows from concurrent executions are queued
+ * and written by one background thread as multi-row {@code INSERT}s, every {@code flush-interval}
+ * or as soon as {@code max-batch-size} rows are waiting.
+ * <p>
+ * {@link #save} assigns the id immediately, so callers can reference the row (results, outbox
+ * events) before it is written. Inside a transaction the row is queued only after commit, so a
+ * rolled-back execution never produces a log row. Durability is bounded rather than best-effort:
+ * when the queue is full the caller writes its own row synchronously instead of dropping it,
+ * reads first write the queued rows and wait for any batch the background thread is writing,
+ * and stopping the application context drains the queue.
+ * Rows still queued when the process dies without a clean shutdown are lost.
+ * <p>
+ * Rows are inserted with JDBC, so {@code createdAt} is not populated on the in-memory entity.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "magiconcall.tool.log-writer.write-behind", havingValue = "true")
+public class WriteBehindToolExecutionLogRepository implements ToolExecutionLogRepository, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindToolExecutionLogRepository.class);
+
+    private static final String INSERT_PREFIX = """
+        INSERT INTO tool_execution_log (id, tenant_id, tool_name, incident_id, status, request_payload,
+            response_content, response_ref, response_length, error_message, duration_ms, retry_count,
+            requested_by, executed_at, created_by, created_at, updated_at, version)
+        VALUES\s""";
+    private static final String ROW_VALUES = "(?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final int COLUMNS = 17;
+    // Postgres allows at most 65535 bind parameters per statement
+    private static final int MAX_ROWS_PER_STATEMENT = 65_535 / COLUMNS;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JpaToolExecutionLogRepository reads;
+    private final BlockingQueue<Pending> queue;
+    private final long flushIntervalNanos;
+    private final int maxBatchSize;
+    // Sequence numbers of rows handed over but not yet written, queued or in a batch being written
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentSkipListSet<Long> unwritten = new ConcurrentSkipListSet<>();
+    private volatile boolean running;
+    private Thread flusher;
+
+    /** A row waiting to be written, with the time and order it was handed over in. */
+    private record Pending(ToolExecutionLog row, Instant createdAt, long sequence) {}
+
+    public WriteBehindToolExecutionLogRepository(
+            JdbcTemplate jdbcTemplate,
+            JpaToolExecutionLogRepository reads,
+            @Value("${magiconcall.tool.log-writer.flush-interval:50ms}") Duration flushInterval,
+            @Value("${magiconcall.tool.log-writer.max-batch-size:500}") int maxBatchSize,
+            @Value("${magiconcall.tool.log-writer.queue-capacity:10000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reads = reads;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxBatchSize = Math.min(maxBatchSize, MAX_ROWS_PER_STATEMENT);
+    }
+
+    @Override
+    public ToolExecutionLog save(ToolExecutionLog row) {
+        if (row.getId() == null) row.setId(UUID.randomUUID());
+        var pending = new Pending(row, Instant.now(), sequence.incrementAndGet());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(pending);
+                }
+            });
+        } else {
+            enqueue(pending);
+        }
+        return row;
+    }
+
+    private void enqueue(Pending pending) {
+        if (running) {
+            unwritten.add(pending.sequence());
+            if (queue.offer(pending)) return;
+            unwritten.remove(pending.sequence());
+        }
+        // Stopped or full: the caller pays for its own insert rather than losing the row. It runs
+        // on its own thread because afterCommit still has the finished transaction's connection
+        // bound to this one, and an insert there would never be committed.
+        log.debug("Tool log queue unavailable, writing synchronously: id={}", pending.row().getId());
+        var writer = Thread.ofVirtual().start(() -> write(List.of(pending)));
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public List<ToolExecutionLog> findByIncidentIdOrderByCreatedAtDesc(UUID incidentId) {
+        flushWritten();
+        return reads.findByIncidentIdOrderByCreatedAtDesc(incidentId);
+    }
+
+    @Override
+    public List<ToolExecutionLog> findByToolNameOrderByCreatedAtDesc(String toolName) {
+        flushWritten();
+        return reads.findByToolNameOrderByCreatedAtDesc(toolName);
+    }
+
+    /** Writes every queued row on the calling thread. */
+    public void flush() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            writeAndRelease(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Read-your-writes: returns once every row handed over before the call has been written,
+     * whether it was still queued (written here) or in a batch the background thread is writing.
+     */
+    void flushWritten() {
+        long handedOver = sequence.get();
+        flush();
+        synchronized (unwritten) {
+            while (unwritten.floor(handedOver) != null) {
+                try {
+                    unwritten.wait(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // Give concurrent executions one interval to join the batch unless it is already full
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) break;
+                    var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                writeAndRelease(batch);
+            } catch (InterruptedException e) {
+                // stop() interrupts only to cut the wait short; write what was collected and
+                // leave the rest of the queue to stop()
+                if (!batch.isEmpty()) writeAndRelease(batch);
+                if (!running) break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Writes a batch taken off the queue, then wakes readers waiting for its rows. */
+    private void writeAndRelease(List<Pending> batch) {
+        try {
+            write(batch);
+        } finally {
+            for (var pending : batch) unwritten.remove(pending.sequence());
+            synchronized (unwritten) {
+                unwritten.notifyAll();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        try {
+            insert(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.error("Failed to write tool execution log: id={}", batch.getFirst().row().getId(), e);
+                return;
+            }
+            // One bad row must not take the rest of the batch with it
+            log.warn("Batched tool log insert failed ({} rows), retrying row by row: {}", batch.size(), e.getMessage());
+            for (var pending : batch) {
+                write(List.of(pending));
+            }
+        }
+    }
+
+    private void insert(List<Pending> batch) {
+        var sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_VALUES.length() + 2))
+            .append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * COLUMNS];
+        int i = 0;
+        for (var pending : batch) {
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_VALUES);
+            var row = pending.row();
+            var createdAt = Timestamp.from(pending.createdAt());
+            args[i++] = row.getId();
+            args[i++] = row.getTenantId();
+            args[i++] = row.getToolName();
+            args[i++] = row.getIncidentId();
+            args[i++] = row.getStatus().name();
+            args[i++] = row.getRequestPayload();
+            args[i++] = row.getResponseContent();
+            args[i++] = row.getResponseRef();
+            args[i++] = row.getResponseLength();
+            args[i++] = row.getErrorMessage();
+            args[i++] = row.getDurationMs();
+            args[i++] = row.getRetryCount();
+            args[i++] = row.getRequestedBy();
+            args[i++] = Timestamp.from(row.getExecutedAt());
+            args[i++] = row.getCreatedBy() != null ? row.getCreatedBy() : "system";
+            args[i++] = createdAt;
+            args[i++] = createdAt;
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = Thread.ofPlatform().name("tool-log-writer").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Rows handed over after the flusher exited, or if it could not finish in time
+        flush();
+        log.info("Tool log writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stop after the web server has drained in-flight requests, so their rows are included
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
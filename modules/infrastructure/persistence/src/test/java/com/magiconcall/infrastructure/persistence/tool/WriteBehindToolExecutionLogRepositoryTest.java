@@ -0,0 +1,241 @@
+package com.magiconcall.infrastructure.persistence.tool;
+
+import com.magiconcall.domain.tool.ToolExecutionLog;
+import com.magiconcall.domain.tool.ToolExecutionStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindToolExecutionLogRepositoryTest {
+
+    @Mock private JpaToolExecutionLogRepository reads;
+
+    private final RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+    private WriteBehindToolExecutionLogRepository writer;
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        jdbcTemplate.release();
+        if (writer != null && writer.isRunning()) writer.stop();
+    }
+
+    @Test
+    @DisplayName("rows from concurrent saves are written together as one multi-row insert")
+    void batchesRows() throws Exception {
+        writer = start(Duration.ofSeconds(10), 3, 100);
+
+        var rows = List.of(save("logs"), save("metrics"), save("deploy"));
+        jdbcTemplate.awaitStatements(1);
+
+        assertThat(jdbcTemplate.statements).containsExactly(3);
+        assertThat(jdbcTemplate.written).containsExactlyInAnyOrderElementsOf(ids(rows));
+    }
+
+    @Test
+    @DisplayName("a full queue makes the caller write its own row instead of dropping it")
+    void queueFullWritesSynchronously() throws Exception {
+        writer = start(Duration.ofMillis(1), 1, 1);
+        var stuck = row("logs");
+        jdbcTemplate.blockOn(stuck.getId());
+        writer.save(stuck);
+        // The background thread is stuck writing this row
+        assertThat(jdbcTemplate.entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var queued = save("logs");
+        var overflow = save("logs");
+
+        assertThat(jdbcTemplate.written).containsExactly(overflow.getId());
+        jdbcTemplate.release();
+        writer.findByToolNameOrderByCreatedAtDesc("logs");
+        assertThat(jdbcTemplate.written).containsExactlyInAnyOrder(stuck.getId(), queued.getId(), overflow.getId());
+    }
+
+    @Test
+    @DisplayName("inside a transaction the row is queued only after commit, and a rollback writes nothing")
+    void afterCommitOnly() {
+        writer = start(Duration.ofMillis(5), 10, 100);
+
+        TransactionSynchronizationManager.initSynchronization();
+        var committed = save("logs");
+        assertThat(committed.getId()).isNotNull();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        TransactionSynchronizationManager.initSynchronization();
+        var rolledBack = save("logs");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        writer.findByToolNameOrderByCreatedAtDesc("logs");
+        assertThat(jdbcTemplate.written).containsExactly(committed.getId());
+        assertThat(jdbcTemplate.written).doesNotContain(rolledBack.getId());
+    }
+
+    @Test
+    @DisplayName("a failed batch is retried row by row so one bad row does not lose the rest")
+    void retriesFailedBatchRowByRow() throws Exception {
+        writer = start(Duration.ofSeconds(10), 3, 100);
+        var bad = row("metrics");
+        jdbcTemplate.failOn(bad.getId());
+        var good = save("logs");
+        writer.save(bad);
+        var alsoGood = save("deploy");
+
+        jdbcTemplate.awaitStatements(4);
+
+        // The 3-row insert failed, then each row was tried on its own
+        assertThat(jdbcTemplate.statements).containsExactly(3, 1, 1, 1);
+        assertThat(jdbcTemplate.written).containsExactlyInAnyOrder(good.getId(), alsoGood.getId());
+    }
+
+    @Test
+    @DisplayName("stopping the writer drains every queued row")
+    void stopDrainsQueue() {
+        writer = start(Duration.ofSeconds(10), 500, 100);
+        var rows = new ArrayList<ToolExecutionLog>();
+        for (int i = 0; i < 5; i++) rows.add(save("logs"));
+
+        writer.stop();
+
+        assertThat(jdbcTemplate.written).containsExactlyInAnyOrderElementsOf(ids(rows));
+        // Stopped: later rows are written synchronously rather than queued and lost
+        var late = save("logs");
+        assertThat(jdbcTemplate.written).contains(late.getId());
+    }
+
+    @Test
+    @DisplayName("a read waits for the batch the background thread is still writing")
+    void readWaitsForInFlightBatch() throws Exception {
+        writer = start(Duration.ofMillis(1), 10, 100);
+        var incidentId = UUID.randomUUID();
+        Set<UUID> visibleToRead = ConcurrentHashMap.newKeySet();
+        when(reads.findByIncidentIdOrderByCreatedAtDesc(incidentId)).thenAnswer(invocation -> {
+            visibleToRead.addAll(jdbcTemplate.written);
+            return List.of();
+        });
+        var row = new ToolExecutionLog("logs", incidentId, ToolExecutionStatus.SUCCESS, "{}", "ok", null,
+            10, 0, "tester", Instant.now());
+        row.setTenantId("tenant-test");
+        jdbcTemplate.blockOn(null);
+
+        writer.save(row);
+        assertThat(jdbcTemplate.entered.await(5, TimeUnit.SECONDS)).isTrue();
+        var read = CompletableFuture.runAsync(() -> writer.findByIncidentIdOrderByCreatedAtDesc(incidentId));
+        Thread.sleep(100);
+        assertThat(read.isDone()).isFalse();
+
+        jdbcTemplate.release();
+        read.get(5, TimeUnit.SECONDS);
+        assertThat(visibleToRead).containsExactly(row.getId());
+    }
+
+    private WriteBehindToolExecutionLogRepository start(Duration flushInterval, int maxBatchSize, int queueCapacity) {
+        var repository = new WriteBehindToolExecutionLogRepository(jdbcTemplate, reads, flushInterval,
+            maxBatchSize, queueCapacity);
+        repository.start();
+        return repository;
+    }
+
+    private ToolExecutionLog save(String toolName) {
+        return writer.save(row(toolName));
+    }
+
+    /** A row with its id already assigned, so a test can target it before it is saved. */
+    private static ToolExecutionLog row(String toolName) {
+        var row = new ToolExecutionLog(toolName, null, ToolExecutionStatus.SUCCESS, "{}", "ok", null,
+            10, 0, "tester", Instant.now());
+        row.setId(UUID.randomUUID());
+        row.setTenantId("tenant-test");
+        return row;
+    }
+
+    private static void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private static List<UUID> ids(List<ToolExecutionLog> rows) {
+        return rows.stream().map(ToolExecutionLog::getId).toList();
+    }
+
+    /** Records each insert's row count and ids; can fail or block on a given row. */
+    private static final class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private static final int COLUMNS = 17;
+
+        final List<Integer> statements = new CopyOnWriteArrayList<>();
+        final List<UUID> written = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile UUID failing;
+        private volatile UUID blocking;
+        private volatile boolean blockAny;
+
+        void failOn(UUID id) {
+            failing = id;
+        }
+
+        /** Blocks inserts containing {@code id}, or every insert if it is null, until released. */
+        void blockOn(UUID id) {
+            if (id == null) {
+                blockAny = true;
+            } else {
+                blocking = id;
+            }
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        void awaitStatements(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (statements.size() < count && System.nanoTime() < deadline) Thread.sleep(1);
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            var ids = new ArrayList<UUID>();
+            for (int i = 0; i < args.length; i += COLUMNS) ids.add((UUID) args[i]);
+            statements.add(ids.size());
+            if (blockAny || ids.contains(blocking)) {
+                entered.countDown();
+                try {
+                    released.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (ids.contains(failing)) {
+                throw new IllegalStateException("insert failed");
+            }
+            written.addAll(ids);
+            return ids.size();
+        }
+    }
+}
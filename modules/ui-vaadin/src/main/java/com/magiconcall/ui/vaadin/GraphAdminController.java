@@ -1,76 +1,158 @@
 package com.magiconcall.ui.vaadin;
 
-import com.magiconcall.application.graph.CorrelationGraphService;
+import com.magiconcall.application.graph.CorrelationGraphExporter;
+import com.magiconcall.application.graph.GraphEdgeResult;
+import com.magiconcall.application.graph.GraphNodeResult;
+import com.magiconcall.application.graph.GraphVisitor;
 import com.magiconcall.domain.tenant.TenantContext;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/admin/graph")
 public class GraphAdminController {
 
-    private final CorrelationGraphService graphService;
+    private final CorrelationGraphExporter graphExporter;
 
-    public GraphAdminController(CorrelationGraphService graphService) {
-        this.graphService = graphService;
+    public GraphAdminController(CorrelationGraphExporter graphExporter) {
+        this.graphExporter = graphExporter;
     }
 
+    /** Renders the page row by row from the export cursors instead of materializing the graph. */
     @GetMapping(value = "/{incidentId}", produces = MediaType.TEXT_HTML_VALUE)
-    public String graphView(@PathVariable UUID incidentId,
-                            @RequestParam(defaultValue = "admin") String tenantId) {
+    public ResponseEntity<StreamingResponseBody> graphView(@PathVariable UUID incidentId,
+                                                           @RequestParam(defaultValue = "admin") String tenantId) {
         TenantContext.setTenantId(tenantId);
         try {
-            var graph = graphService.getGraph(incidentId);
-            var sb = new StringBuilder();
-            sb.append("<!DOCTYPE html><html><head><meta charset='utf-8'>");
-            sb.append("<title>Graph Admin — ").append(incidentId).append("</title>");
-            sb.append("<style>");
-            sb.append("body{font-family:system-ui,sans-serif;margin:24px;color:#1f2937}");
-            sb.append("table{border-collapse:collapse;width:100%;margin-bottom:24px}");
-            sb.append("th,td{border:1px solid #d1d5db;padding:8px 12px;text-align:left;font-size:13px}");
-            sb.append("th{background:#f3f4f6;font-weight:600}");
-            sb.append("h1{font-size:20px}h2{font-size:16px;margin-top:24px}");
-            sb.append(".badge{display:inline-block;padding:2px 8px;border-radius:4px;font-size:11px;font-weight:600}");
-            sb.append("</style></head><body>");
-            sb.append("<h1>Correlation Graph — ").append(incidentId).append("</h1>");
-
-            // Nodes table
-            sb.append("<h2>Nodes (").append(graph.nodes().size()).append(")</h2>");
-            sb.append("<table><tr><th>ID</th><th>Type</th><th>Label</th><th>Description</th><th>Source</th><th>Created</th></tr>");
-            for (var node : graph.nodes()) {
-                sb.append("<tr>");
-                sb.append("<td>").append(node.id().toString(), 0, 8).append("...</td>");
-                sb.append("<td><span class='badge'>").append(node.nodeType()).append("</span></td>");
-                sb.append("<td>").append(escapeHtml(node.label())).append("</td>");
-                sb.append("<td>").append(node.description() != null ? escapeHtml(node.description()) : "—").append("</td>");
-                sb.append("<td>").append(node.source() != null ? escapeHtml(node.source()) : "—").append("</td>");
-                sb.append("<td>").append(node.createdAt()).append("</td>");
-                sb.append("</tr>");
+            graphExporter.requireIncident(incidentId);
+        } finally {
+            TenantContext.clear();
+        }
+
+        StreamingResponseBody body = out -> {
+            TenantContext.setTenantId(tenantId);
+            try {
+                var writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                graphExporter.walk(incidentId, new HtmlGraphWriter(writer));
+                writer.flush();
+            } finally {
+                TenantContext.clear();
             }
-            sb.append("</table>");
-
-            // Edges table
-            sb.append("<h2>Edges (").append(graph.edges().size()).append(")</h2>");
-            sb.append("<table><tr><th>ID</th><th>Type</th><th>Source Node</th><th>Target Node</th><th>Weight</th><th>Reason</th></tr>");
-            for (var edge : graph.edges()) {
-                sb.append("<tr>");
-                sb.append("<td>").append(edge.id().toString(), 0, 8).append("...</td>");
-                sb.append("<td><span class='badge'>").append(edge.edgeType()).append("</span></td>");
-                sb.append("<td>").append(edge.sourceNodeId().toString(), 0, 8).append("...</td>");
-                sb.append("<td>").append(edge.targetNodeId().toString(), 0, 8).append("...</td>");
-                sb.append("<td>").append(String.format("%.2f", edge.weight())).append("</td>");
-                sb.append("<td>").append(edge.reason() != null ? escapeHtml(edge.reason()) : "—").append("</td>");
-                sb.append("</tr>");
+        };
+        return ResponseEntity.ok().contentType(MediaType.TEXT_HTML).body(body);
+    }
+
+    private static final class HtmlGraphWriter implements GraphVisitor {
+
+        private static final String NODE_HEADER =
+            "<table><tr><th>ID</th><th>Type</th><th>Label</th><th>Description</th><th>Source</th><th>Created</th></tr>";
+
+        private final Writer out;
+        private int nodeCount;
+        private int edgeCount;
+        // Topology nodes arrive between edges; they are few and get their own table at the end
+        private final List<GraphNodeResult> topologyNodes = new ArrayList<>();
+        private boolean inEdges;
+
+        HtmlGraphWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void start(UUID incidentId) {
+            write("<!DOCTYPE html><html><head><meta charset='utf-8'>");
+            write("<title>Graph Admin — " + incidentId + "</title>");
+            write("<style>");
+            write("body{font-family:system-ui,sans-serif;margin:24px;color:#1f2937}");
+            write("table{border-collapse:collapse;width:100%;margin-bottom:24px}");
+            write("th,td{border:1px solid #d1d5db;padding:8px 12px;text-align:left;font-size:13px}");
+            write("th{background:#f3f4f6;font-weight:600}");
+            write("h1{font-size:20px}h2{font-size:16px;margin-top:24px}");
+            write(".badge{display:inline-block;padding:2px 8px;border-radius:4px;font-size:11px;font-weight:600}");
+            write("</style></head><body>");
+            write("<h1>Correlation Graph — " + incidentId + "</h1>");
+
+            write("<h2>Nodes</h2>");
+            write(NODE_HEADER);
+        }
+
+        @Override
+        public void node(GraphNodeResult node) {
+            if (inEdges) {
+                topologyNodes.add(node);
+                return;
             }
-            sb.append("</table>");
+            nodeCount++;
+            writeNodeRow(node);
+        }
 
-            sb.append("</body></html>");
-            return sb.toString();
-        } finally {
-            TenantContext.clear();
+        @Override
+        public void startEdges() {
+            write("</table><p>" + nodeCount + " nodes</p>");
+            write("<h2>Edges</h2>");
+            write("<table><tr><th>ID</th><th>Type</th><th>Source Node</th><th>Target Node</th><th>Weight</th><th>Reason</th></tr>");
+            inEdges = true;
+        }
+
+        @Override
+        public void edge(GraphEdgeResult edge) {
+            edgeCount++;
+            write("<tr>");
+            write("<td>" + shortId(edge.id()) + "</td>");
+            write("<td><span class='badge'>" + edge.edgeType() + "</span></td>");
+            write("<td>" + shortId(edge.sourceNodeId()) + "</td>");
+            write("<td>" + shortId(edge.targetNodeId()) + "</td>");
+            write("<td>" + String.format("%.2f", edge.weight()) + "</td>");
+            write("<td>" + (edge.reason() != null ? escapeHtml(edge.reason()) : "—") + "</td>");
+            write("</tr>");
+        }
+
+        @Override
+        public void end() {
+            write("</table><p>" + edgeCount + " edges</p>");
+            if (!topologyNodes.isEmpty()) {
+                write("<h2>Topology Nodes (" + topologyNodes.size() + ")</h2>");
+                write(NODE_HEADER);
+                topologyNodes.forEach(this::writeNodeRow);
+                write("</table>");
+            }
+            write("</body></html>");
         }
+
+        private void writeNodeRow(GraphNodeResult node) {
+            write("<tr>");
+            write("<td>" + shortId(node.id()) + "</td>");
+            write("<td><span class='badge'>" + node.nodeType() + "</span></td>");
+            write("<td>" + escapeHtml(node.label()) + "</td>");
+            write("<td>" + (node.description() != null ? escapeHtml(node.description()) : "—") + "</td>");
+            write("<td>" + (node.source() != null ? escapeHtml(node.source()) : "—") + "</td>");
+            write("<td>" + node.createdAt() + "</td>");
+            write("</tr>");
+        }
+
+        private void write(String s) {
+            try {
+                out.write(s);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String shortId(UUID id) {
+        return id.toString().substring(0, 8) + "...";
     }
 
     private static String escapeHtml(String s) {
@@ -0,0 +1,140 @@
+package com.magiconcall.workers.tool;
+
+import com.magiconcall.domain.content.ContentBlobRepository;
+import com.magiconcall.domain.tool.ToolExecutionPartitions;
+import com.magiconcall.domain.tool.ToolExecutionRollup;
+import com.magiconcall.domain.tool.ToolExecutionRollup.Granularity;
+import com.magiconcall.domain.tool.ToolExecutionRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rolls raw tool executions up into per-minute and per-hour aggregates, and maintains the daily
+ * partitions of the execution log.
+ * <p>
+ * Each run aggregates the whole minutes between the stored watermark and {@code now - lateness}
+ * from the raw rows, then rebuilds the hours those minutes fall in by merging their minute
+ * rollups. Rollups are overwritten rather than incremented, so a run that fails and is retried
+ * produces the same rows. Executions whose {@code executed_at} lands behind the watermark (more
+ * than {@code lateness} late) are kept in the raw log but miss the rollups.
+ * <p>
+ * Replicas serialize on transaction-scoped advisory locks, one for rollups and one for partition
+ * maintenance; the one that loses skips the run.
+ * <p>
+ * Raw retention also covers stored tool outputs: content blobs not referenced within it, and no
+ * longer pointed to by evidence or a surviving execution log row, are deleted with the history.
+ */
+@Component
+public class ToolRollupWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolRollupWorker.class);
+    // Where a fresh install starts, and how much one run may catch up
+    private static final Duration INITIAL_LOOKBACK = Duration.ofHours(1);
+    private static final Duration MAX_RANGE_PER_RUN = Duration.ofHours(6);
+
+    private final ToolExecutionRollupRepository rollupRepository;
+    private final ToolExecutionPartitions partitions;
+    private final ContentBlobRepository contentBlobRepository;
+    private final Duration lateness;
+    private final int partitionsAheadDays;
+    private final Duration rawRetention;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+
+    public ToolRollupWorker(ToolExecutionRollupRepository rollupRepository,
+                            ToolExecutionPartitions partitions,
+                            ContentBlobRepository contentBlobRepository,
+                            @Value("${magiconcall.tool.rollup.lateness:2m}") Duration lateness,
+                            @Value("${magiconcall.tool.rollup.partitions-ahead-days:7}") int partitionsAheadDays,
+                            @Value("${magiconcall.tool.rollup.retention.raw:30d}") Duration rawRetention,
+                            @Value("${magiconcall.tool.rollup.retention.minute:7d}") Duration minuteRetention,
+                            @Value("${magiconcall.tool.rollup.retention.hour:400d}") Duration hourRetention) {
+        this.rollupRepository = rollupRepository;
+        this.partitions = partitions;
+        this.contentBlobRepository = contentBlobRepository;
+        this.lateness = lateness;
+        this.partitionsAheadDays = partitionsAheadDays;
+        this.rawRetention = rawRetention;
+        this.minuteRetention = minuteRetention;
+        this.hourRetention = hourRetention;
+    }
+
+    @Scheduled(fixedDelayString = "${magiconcall.tool.rollup.interval-ms:30000}")
+    @Transactional
+    public void rollUp() {
+        if (!rollupRepository.tryLockForRollup()) {
+            log.debug("Tool rollup already running on another instance, skipping");
+            return;
+        }
+        Instant to = Granularity.MINUTE.bucketStart(Instant.now().minus(lateness));
+        Instant from = rollupRepository.findWatermark().orElse(to.minus(INITIAL_LOOKBACK));
+        if (!from.isBefore(to)) return;
+        if (Duration.between(from, to).compareTo(MAX_RANGE_PER_RUN) > 0) {
+            to = from.plus(MAX_RANGE_PER_RUN);
+        }
+
+        Map<BucketKey, ToolExecutionRollup> minutes = new HashMap<>();
+        rollupRepository.scanExecutions(from, to, sample -> {
+            var bucket = Granularity.MINUTE.bucketStart(sample.executedAt());
+            minutes.computeIfAbsent(new BucketKey(sample.tenantId(), sample.toolName(), bucket),
+                    k -> new ToolExecutionRollup(k.tenantId(), k.toolName(), Granularity.MINUTE, bucket))
+                .record(sample.status(), sample.durationMs(), sample.retryCount());
+        });
+        rollupRepository.upsert(minutes.values());
+
+        // Rebuild every hour the range touches from its minutes, including those of earlier runs
+        Instant hourFrom = Granularity.HOUR.bucketStart(from);
+        Instant hourTo = Granularity.HOUR.bucketStart(to).equals(to)
+            ? to : Granularity.HOUR.bucketStart(to).plus(Granularity.HOUR.width());
+        Map<BucketKey, ToolExecutionRollup> hours = new HashMap<>();
+        for (var minute : rollupRepository.findAll(Granularity.MINUTE, hourFrom, hourTo)) {
+            var bucket = Granularity.HOUR.bucketStart(minute.getBucketStart());
+            hours.computeIfAbsent(new BucketKey(minute.getTenantId(), minute.getToolName(), bucket),
+                    k -> new ToolExecutionRollup(k.tenantId(), k.toolName(), Granularity.HOUR, bucket))
+                .merge(minute);
+        }
+        rollupRepository.upsert(hours.values());
+
+        rollupRepository.saveWatermark(to);
+        log.debug("Rolled up tool executions [{}, {}): {} minute and {} hour buckets",
+            from, to, minutes.size(), hours.size());
+    }
+
+    /**
+     * Creates upcoming daily partitions, drops expired history and the stored outputs only it
+     * referenced; also runs once at startup.
+     */
+    @Scheduled(fixedDelayString = "${magiconcall.tool.rollup.maintenance-interval-ms:3600000}")
+    @Transactional
+    public void maintainPartitions() {
+        if (!partitions.tryLockForMaintenance()) {
+            log.debug("Tool history maintenance already running on another instance, skipping");
+            return;
+        }
+        var now = Instant.now();
+        var today = LocalDate.ofInstant(now, ZoneOffset.UTC);
+        partitions.ensureDailyPartitions(today, today.plusDays(partitionsAheadDays));
+
+        var dropped = partitions.dropPartitionsBefore(LocalDate.ofInstant(now.minus(rawRetention), ZoneOffset.UTC));
+        int blobs = contentBlobRepository.deleteUnreferencedBefore(now.minus(rawRetention));
+        int minutes = rollupRepository.deleteBefore(Granularity.MINUTE, now.minus(minuteRetention));
+        int hours = rollupRepository.deleteBefore(Granularity.HOUR, now.minus(hourRetention));
+        if (!dropped.isEmpty() || blobs > 0 || minutes > 0 || hours > 0) {
+            log.info("Tool history retention: dropped partitions {}, deleted {} content blobs, {} minute and {} hour rollups",
+                dropped, blobs, minutes, hours);
+        }
+    }
+
+    private record BucketKey(String tenantId, String toolName, Instant bucketStart) {}
+}
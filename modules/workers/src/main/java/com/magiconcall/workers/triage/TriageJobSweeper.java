@@ -0,0 +1,45 @@
+package com.magiconcall.workers.triage;
+
+import com.magiconcall.domain.incident.TriageJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Fails queued or running triage jobs whose replica has not reported them alive for
+ * {@code abandon-after}. Queued jobs live in the memory of the replica that accepted them, so a
+ * replica that dies takes its queue with it; without the sweep those jobs would be polled as
+ * pending forever. Live replicas refresh the heartbeat of every job they hold, so a job that is
+ * merely waiting behind a long queue is never swept, however long it waits. The update
+ * is conditional on the job being unfinished, so a worker that completes a job late cannot
+ * overwrite the failure, and every replica can run the sweep.
+ */
+@Component
+public class TriageJobSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(TriageJobSweeper.class);
+
+    private final TriageJobRepository jobRepository;
+    private final Duration abandonAfter;
+
+    public TriageJobSweeper(TriageJobRepository jobRepository,
+                            @Value("${magiconcall.triage.jobs.abandon-after:30m}") Duration abandonAfter) {
+        this.jobRepository = jobRepository;
+        this.abandonAfter = abandonAfter;
+    }
+
+    @Scheduled(fixedDelayString = "${magiconcall.triage.jobs.sweep-interval-ms:60000}")
+    public void failAbandoned() {
+        var now = Instant.now();
+        int failed = jobRepository.failStaleBefore(now.minus(abandonAfter),
+            "Abandoned: no heartbeat from its replica within " + abandonAfter, now);
+        if (failed > 0) {
+            log.warn("Failed {} abandoned triage jobs", failed);
+        }
+    }
+}
@@ -7,6 +7,7 @@ include(
     "modules:infrastructure:persistence",
     "modules:infrastructure:messaging",
     "modules:infrastructure:connectors",
+    "modules:infrastructure:cache",
     "modules:infrastructure:observability",
     "modules:workers",
     "modules:eval",